@@ -9,5 +9,15 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface RateLimit {
     int value() default 10; // Default 10 requests
-    String timeUnit() default "MINUTES"; // Default time unit
-} 
\ No newline at end of file
+    String timeUnit() default "MINUTES"; // Window length: one java.util.concurrent.TimeUnit (e.g. SECONDS, MINUTES, HOURS)
+    KeyStrategy key() default KeyStrategy.IP; // Which budget a request is counted against
+
+    enum KeyStrategy {
+        /** One budget per client address, shared by every IP-keyed endpoint. */
+        IP,
+        /** One budget per authenticated user, shared by every USER-keyed endpoint; anonymous callers fall back to IP. */
+        USER,
+        /** Separate budget per authenticated user for this endpoint only; anonymous callers fall back to IP + endpoint. */
+        USER_ENDPOINT
+    }
+}
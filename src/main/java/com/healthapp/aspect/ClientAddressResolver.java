@@ -0,0 +1,107 @@
+package com.healthapp.aspect;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the real client address for rate limiting.
+ * <p>
+ * {@code X-Forwarded-For} / {@code X-Real-IP} are honoured only when the direct peer is one of
+ * {@code app.rate-limit.trusted-proxies} (CIDR list). The XFF chain is then walked right to left, skipping trusted
+ * hops, so a client cannot pick its own bucket by prepending a spoofed address. Forwarded values that are not IPv4 or
+ * IPv6 literals are never trusted and never used as the key: the walk stops at the nearest trusted address instead,
+ * and no header value ever reaches DNS.
+ */
+@Component
+public class ClientAddressResolver {
+
+    private static final Pattern IPV4 =
+            Pattern.compile("(25[0-5]|2[0-4]\\d|1?\\d?\\d)(\\.(25[0-5]|2[0-4]\\d|1?\\d?\\d)){3}");
+    /** Candidate IPv6 literal; leading hex digit or ':' keeps {@link InetAddress#getByName} on its literal parser. */
+    private static final Pattern IPV6_CANDIDATE = Pattern.compile("[0-9a-fA-F:][0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientAddressResolver(@Value("${app.rate-limit.trusted-proxies:}") String[] trustedProxyCidrs) {
+        List<IpAddressMatcher> matchers = new ArrayList<>();
+        for (String cidr : trustedProxyCidrs) {
+            if (cidr != null && !cidr.isBlank()) {
+                matchers.add(new IpAddressMatcher(cidr.trim()));
+            }
+        }
+        this.trustedProxies = List.copyOf(matchers);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr;
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String leftmost = null;
+            int end = forwardedFor.length();
+            while (end > 0) {
+                int comma = forwardedFor.lastIndexOf(',', end - 1);
+                String hop = forwardedFor.substring(comma + 1, end).trim();
+                end = comma < 0 ? 0 : comma;
+                if (hop.isEmpty()) {
+                    continue;
+                }
+                if (!isIpLiteral(hop)) {
+                    // Hostname or garbage written by the client: nothing left of it can be verified
+                    return leftmost != null ? leftmost : remoteAddr;
+                }
+                if (!isTrustedProxy(hop)) {
+                    return hop;
+                }
+                leftmost = hop;
+            }
+            if (leftmost != null) {
+                return leftmost;
+            }
+        }
+        String realIp = request.getHeader("X-Real-IP");
+        if (realIp != null && isIpLiteral(realIp.trim())) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
+
+    boolean isTrustedProxy(String address) {
+        if (address == null || trustedProxies.isEmpty() || !isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            if (matcher.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True for IPv4/IPv6 literals; decided without name resolution. */
+    static boolean isIpLiteral(String address) {
+        if (IPV4.matcher(address).matches()) {
+            return true;
+        }
+        if (address.indexOf(':') < 0 || !IPV6_CANDIDATE.matcher(address).matches()) {
+            return false;
+        }
+        try {
+            // Contains ':' and starts with a hex digit or ':', so this only parses the literal
+            InetAddress.getByName(address);
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
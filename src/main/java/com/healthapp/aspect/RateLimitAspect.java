@@ -5,70 +5,132 @@ import com.healthapp.service.RateLimitService;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-import jakarta.servlet.http.HttpServletRequest;
-
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Aspect
 @Component
-public class RateLimitAspect {
-    
+public class RateLimitAspect implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitAspect.class);
+
     @Autowired
     private RateLimitService rateLimitService;
 
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
     /** Disabled in test profile so integration suites do not share one IP bucket across hundreds of requests. */
     @Value("${app.rate-limit.enabled:true}")
     private boolean rateLimitEnabled;
-    
-    @Around("@annotation(rateLimit)")
-    public Object rateLimit(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+
+    /** Resolved @RateLimit settings per handler method, built at startup so calls do no annotation reflection. */
+    private final Map<Method, Policy> policies = new ConcurrentHashMap<>();
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        for (RequestMappingHandlerMapping mapping
+                : event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                Method method = handlerMethod.getMethod();
+                if (AnnotatedElementUtils.hasAnnotation(method, RateLimit.class)) {
+                    policies.computeIfAbsent(method, RateLimitAspect::buildPolicy);
+                }
+            }
+        }
+        logger.info("Rate limit policies precomputed for {} endpoints", policies.size());
+    }
+
+    @Around("@annotation(com.healthapp.annotation.RateLimit)")
+    public Object rateLimit(ProceedingJoinPoint joinPoint) throws Throwable {
         if (!rateLimitEnabled) {
             return joinPoint.proceed();
         }
 
-        // Get client IP for rate limiting
-        String clientKey = getClientKey();
-        
-        // Check rate limit
-        if (!rateLimitService.isAllowed(clientKey, rateLimit.value(), 1)) { // 1 minute window
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(Map.of(
-                        "error", "Rate limit exceeded",
-                        "message", "Too many requests. Please try again later.",
-                        "limit", rateLimit.value(),
-                        "timeWindow", rateLimit.timeUnit()
-                    ));
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Policy policy = policies.computeIfAbsent(method, RateLimitAspect::buildPolicy);
+        Long userId = policy.strategy() == RateLimit.KeyStrategy.IP ? null : currentUserId();
+        String clientKey = policy.clientKey(userId, userId == null ? currentClientAddress() : null);
+
+        // Check rate limit: value() requests per one timeUnit()
+        if (!rateLimitService.isAllowed(clientKey, policy.maxRequests(), policy.window())) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(policy.rejectionBody());
         }
-        
+
         // Proceed with the method execution
         return joinPoint.proceed();
     }
-    
-    private String getClientKey() {
+
+    static Policy buildPolicy(Method method) {
+        RateLimit rateLimit = AnnotatedElementUtils.findMergedAnnotation(method, RateLimit.class);
+        if (rateLimit == null) {
+            throw new IllegalStateException("No @RateLimit on " + method);
+        }
+        TimeUnit unit;
         try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                String clientIp = request.getHeader("X-Forwarded-For");
-                if (clientIp == null) {
-                    clientIp = request.getHeader("X-Real-IP");
-                }
-                if (clientIp == null) {
-                    clientIp = request.getRemoteAddr();
-                }
-                return clientIp;
-            }
-        } catch (Exception e) {
-            // Fallback to a default key
+            unit = TimeUnit.valueOf(rateLimit.timeUnit().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid @RateLimit timeUnit '" + rateLimit.timeUnit() + "' on " + method, e);
+        }
+        String endpointId = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        Map<String, Object> rejectionBody = Map.of(
+                "error", "Rate limit exceeded",
+                "message", "Too many requests. Please try again later.",
+                "limit", rateLimit.value(),
+                "timeWindow", rateLimit.timeUnit()
+        );
+        return new Policy(rateLimit.value(), Duration.of(1, unit.toChronoUnit()), rateLimit.key(),
+                ":" + endpointId, rejectionBody);
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long userId) {
+            return userId;
+        }
+        return null;
+    }
+
+    private String currentClientAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return clientAddressResolver.resolve(servletAttributes.getRequest());
         }
         return "unknown";
     }
-} 
\ No newline at end of file
+
+    record Policy(int maxRequests, Duration window, RateLimit.KeyStrategy strategy, String endpointSuffix,
+                  Map<String, Object> rejectionBody) {
+
+        String clientKey(Long userId, String clientAddress) {
+            return switch (strategy) {
+                case IP -> "ip:" + clientAddress;
+                case USER -> userId != null ? "user:" + userId : "ip:" + clientAddress;
+                case USER_ENDPOINT -> (userId != null ? "user:" + userId : "ip:" + clientAddress) + endpointSuffix;
+            };
+        }
+    }
+}
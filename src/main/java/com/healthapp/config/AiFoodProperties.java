@@ -8,6 +8,11 @@ import org.springframework.stereotype.Component;
 public class AiFoodProperties {
 
     private boolean showConfidence = true;
+    /** Parsed items of one voice log whose nutrition is resolved at once; 1 resolves them one after another. */
+    private int nutritionParallelism = 4;
+    /** Shared deadline for resolving nutrition of all items in one voice log. */
+    private long nutritionTimeoutMs = 15000;
+    private Async async = new Async();
 
     public boolean isShowConfidence() {
         return showConfidence;
@@ -16,4 +21,84 @@ public class AiFoodProperties {
     public void setShowConfidence(boolean showConfidence) {
         this.showConfidence = showConfidence;
     }
+
+    public int getNutritionParallelism() {
+        return nutritionParallelism;
+    }
+
+    public void setNutritionParallelism(int nutritionParallelism) {
+        this.nutritionParallelism = nutritionParallelism;
+    }
+
+    public long getNutritionTimeoutMs() {
+        return nutritionTimeoutMs;
+    }
+
+    public void setNutritionTimeoutMs(long nutritionTimeoutMs) {
+        this.nutritionTimeoutMs = nutritionTimeoutMs;
+    }
+
+    public Async getAsync() {
+        return async;
+    }
+
+    public void setAsync(Async async) {
+        this.async = async;
+    }
+
+    /** Background processing of {@code POST /ai/food-log/from-voice/async} jobs. */
+    public static class Async {
+        private boolean enabled = true;
+        /** Pipelines running at once; bounds concurrent OpenAI/USDA calls from this path. */
+        private int workers = 8;
+        /** Accepted jobs waiting for a worker; beyond this new jobs are refused with 503. */
+        private int queueCapacity = 100;
+        /**
+         * Running jobs not updated for this long are failed (e.g. lost in a restart); queued jobs are given
+         * {@code ceil(queueCapacity / workers)} times as long to reach a worker.
+         */
+        private int staleAfterMinutes = 10;
+        /** Finished jobs are deleted after this many hours. */
+        private int retentionHours = 24;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getStaleAfterMinutes() {
+            return staleAfterMinutes;
+        }
+
+        public void setStaleAfterMinutes(int staleAfterMinutes) {
+            this.staleAfterMinutes = staleAfterMinutes;
+        }
+
+        public int getRetentionHours() {
+            return retentionHours;
+        }
+
+        public void setRetentionHours(int retentionHours) {
+            this.retentionHours = retentionHours;
+        }
+    }
 }
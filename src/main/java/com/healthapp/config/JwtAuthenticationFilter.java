@@ -2,6 +2,7 @@ package com.healthapp.config;
 
 import com.healthapp.entity.User;
 import com.healthapp.service.JwtAccessTokenService;
+import com.healthapp.service.UserPrincipalCache;
 import com.healthapp.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -17,6 +18,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -29,6 +31,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtAccessTokenService jwtAccessTokenService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -51,8 +56,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                 && existingAuth.getPrincipal().equals(userId)) {
                             return;
                         }
-                        User user = userService.getUserById(userId).orElse(null);
-                        if (user != null && user.getAccountStatus() == User.AccountStatus.ACTIVE) {
+                        User.AccountStatus status = resolveAccountStatus(userId);
+                        if (status == User.AccountStatus.ACTIVE) {
                             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                     userId,
                                     null,
@@ -61,7 +66,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             SecurityContextHolder.getContext().setAuthentication(authentication);
                         } else {
                             logger.warn("JWT Filter - User not found or not ACTIVE. User: {}, Status: {}",
-                                    user != null ? user.getId() : "null", user != null ? user.getAccountStatus() : "null");
+                                    userId, status != null ? status : "null");
                         }
                     });
                 } else {
@@ -80,8 +85,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                 && existingAuth.getPrincipal().equals(userId)) {
                             // Authentication already set, preserve it
                         } else {
-                            User user = userService.getUserById(userId).orElse(null);
-                            if (user != null && user.getAccountStatus() == User.AccountStatus.ACTIVE) {
+                            User.AccountStatus status = resolveAccountStatus(userId);
+                            if (status == User.AccountStatus.ACTIVE) {
                                 
                                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                                     userId,
@@ -92,7 +97,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                 SecurityContextHolder.getContext().setAuthentication(authentication);
                             } else {
                                 logger.warn("JWT Filter - User not found or not ACTIVE. User: {}, Status: {}", 
-                                        user != null ? user.getId() : "null", user != null ? user.getAccountStatus() : "null");
+                                        userId, status != null ? status : "null");
                             }
                         }
                     } else {
@@ -107,4 +112,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Account status from {@link UserPrincipalCache}, loading (and caching) from the DB on miss.
+     * Returns null when the user does not exist; absent users are not cached.
+     */
+    private User.AccountStatus resolveAccountStatus(Long userId) {
+        Optional<User.AccountStatus> cached = userPrincipalCache.getStatus(userId);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        User user = userService.getUserById(userId).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        userPrincipalCache.put(userId, user.getAccountStatus());
+        return user.getAccountStatus();
+    }
+}
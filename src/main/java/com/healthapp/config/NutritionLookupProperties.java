@@ -11,7 +11,15 @@ public class NutritionLookupProperties {
     private String provider = "usda";
     private double confidenceThreshold = 0.75;
     private int cacheTtlDays = 90;
+    /** Max ingredients resolved concurrently across all blends; 1 resolves sequentially on the caller thread. */
+    private int blendParallelism = 4;
+    /** Overall deadline for resolving one blend's ingredients; the blend is abandoned when it passes. */
+    private long blendTimeoutMs = 10000;
     private Usda usda = new Usda();
+    private MemoryCache memoryCache = new MemoryCache();
+    private LocalFdc localFdc = new LocalFdc();
+    private Refresh refresh = new Refresh();
+    private Knowledge knowledge = new Knowledge();
 
     public boolean isEnabled() {
         return enabled;
@@ -45,6 +53,22 @@ public class NutritionLookupProperties {
         this.cacheTtlDays = cacheTtlDays;
     }
 
+    public int getBlendParallelism() {
+        return blendParallelism;
+    }
+
+    public void setBlendParallelism(int blendParallelism) {
+        this.blendParallelism = blendParallelism;
+    }
+
+    public long getBlendTimeoutMs() {
+        return blendTimeoutMs;
+    }
+
+    public void setBlendTimeoutMs(long blendTimeoutMs) {
+        this.blendTimeoutMs = blendTimeoutMs;
+    }
+
     public Usda getUsda() {
         return usda;
     }
@@ -53,8 +77,37 @@ public class NutritionLookupProperties {
         this.usda = usda;
     }
 
+    public MemoryCache getMemoryCache() {
+        return memoryCache;
+    }
+
+    public void setMemoryCache(MemoryCache memoryCache) {
+        this.memoryCache = memoryCache;
+    }
+
+    public LocalFdc getLocalFdc() {
+        return localFdc;
+    }
+
+    public void setLocalFdc(LocalFdc localFdc) {
+        this.localFdc = localFdc;
+    }
+
+    public Refresh getRefresh() {
+        return refresh;
+    }
+
+    public void setRefresh(Refresh refresh) {
+        this.refresh = refresh;
+    }
+
     public static class Usda {
         private String apiKey = "";
+        private String baseUrl = "https://api.nal.usda.gov/fdc/v1";
+        private int connectTimeoutMs = 2000;
+        private int readTimeoutMs = 5000;
+        /** fdcIds per {@code POST /foods} request; FDC accepts at most 20. */
+        private int batchSize = 20;
 
         public String getApiKey() {
             return apiKey;
@@ -64,8 +117,191 @@ public class NutritionLookupProperties {
             this.apiKey = apiKey;
         }
 
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public int getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public int getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(int readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
         public boolean hasApiKey() {
             return apiKey != null && !apiKey.isBlank();
         }
     }
+
+    /** In-memory L1 in front of the food_nutrition_cache table. */
+    public static class MemoryCache {
+        private int maxEntries = 5000;
+        private long ttlMinutes = 360;
+        private long negativeTtlMinutes = 30;
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getTtlMinutes() {
+            return ttlMinutes;
+        }
+
+        public void setTtlMinutes(long ttlMinutes) {
+            this.ttlMinutes = ttlMinutes;
+        }
+
+        public long getNegativeTtlMinutes() {
+            return negativeTtlMinutes;
+        }
+
+        public void setNegativeTtlMinutes(long negativeTtlMinutes) {
+            this.negativeTtlMinutes = negativeTtlMinutes;
+        }
+    }
+
+    /** FoodData Central JSON export used when {@code provider=local-fdc}. */
+    public Knowledge getKnowledge() {
+        return knowledge;
+    }
+
+    public void setKnowledge(Knowledge knowledge) {
+        this.knowledge = knowledge;
+    }
+
+    public static class LocalFdc {
+        /** Spring resource location, e.g. {@code file:/data/fdc/FoodData_Central_foundation_food_json.json(.gz)}. */
+        private String path = "";
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+
+    /** Background maintenance of food_nutrition_cache (refresh-ahead, hit flushing, negative purge). */
+    public static class Refresh {
+        private boolean enabled = true;
+        private long intervalMinutes = 60;
+        /** Entries whose TTL ends within this many days are re-resolved ahead of expiry. */
+        private int aheadDays = 7;
+        /** Max entries re-resolved per run; bounds USDA calls per interval. */
+        private int maxPerRun = 50;
+        /** Minimum recorded hits for an entry to be worth refreshing. */
+        private int minHits = 3;
+        /** Only entries read within this many days are refreshed. */
+        private int accessedWithinDays = 30;
+        /** USDA_MISS rows older than this are bulk-deleted. */
+        private int negativeTtlDays = 30;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalMinutes() {
+            return intervalMinutes;
+        }
+
+        public void setIntervalMinutes(long intervalMinutes) {
+            this.intervalMinutes = intervalMinutes;
+        }
+
+        public int getAheadDays() {
+            return aheadDays;
+        }
+
+        public void setAheadDays(int aheadDays) {
+            this.aheadDays = aheadDays;
+        }
+
+        public int getMaxPerRun() {
+            return maxPerRun;
+        }
+
+        public void setMaxPerRun(int maxPerRun) {
+            this.maxPerRun = maxPerRun;
+        }
+
+        public int getMinHits() {
+            return minHits;
+        }
+
+        public void setMinHits(int minHits) {
+            this.minHits = minHits;
+        }
+
+        public int getAccessedWithinDays() {
+            return accessedWithinDays;
+        }
+
+        public void setAccessedWithinDays(int accessedWithinDays) {
+            this.accessedWithinDays = accessedWithinDays;
+        }
+
+        public int getNegativeTtlDays() {
+            return negativeTtlDays;
+        }
+
+        public void setNegativeTtlDays(int negativeTtlDays) {
+            this.negativeTtlDays = negativeTtlDays;
+        }
+    }
+
+    public static class Knowledge {
+        /**
+         * Spring resource location of an external knowledge base that replaces the bundled
+         * {@code classpath:nutrition/knowledge-base.json}, e.g. {@code file:/etc/healthapp/knowledge-base.json}.
+         */
+        private String path = "";
+        /** How often a {@code file:} path is checked for changes; 0 reloads only on demand. */
+        private int pollSeconds = 30;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getPollSeconds() {
+            return pollSeconds;
+        }
+
+        public void setPollSeconds(int pollSeconds) {
+            this.pollSeconds = pollSeconds;
+        }
+    }
 }
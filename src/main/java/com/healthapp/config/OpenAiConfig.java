@@ -3,8 +3,6 @@ package com.healthapp.config;
 import com.theokanning.openai.service.OpenAiService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 
@@ -18,13 +16,4 @@ public class OpenAiConfig {
         }
         return new OpenAiService(properties.getApiKey(), Duration.ofSeconds(properties.getTimeout()));
     }
-    
-    @Bean
-    public RestTemplate restTemplate(OpenAiModelProperties properties) {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        int timeoutMs = Math.max(5, properties.getTimeout()) * 1000;
-        factory.setConnectTimeout(timeoutMs);
-        factory.setReadTimeout(timeoutMs);
-        return new RestTemplate(factory);
-    }
 }
@@ -3,6 +3,9 @@ package com.healthapp.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "openai")
 public class OpenAiModelProperties {
@@ -10,6 +13,7 @@ public class OpenAiModelProperties {
     private final Api api = new Api();
     private int timeout = 60;
     private Model model = new Model();
+    private Http http = new Http();
 
     public Api getApi() {
         return api;
@@ -35,6 +39,14 @@ public class OpenAiModelProperties {
         this.model = model;
     }
 
+    public Http getHttp() {
+        return http;
+    }
+
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+
     public boolean hasValidApiKey() {
         String key = api.getKey();
         return key != null && !key.isBlank() && !"your-openai-api-key-here".equals(key.trim());
@@ -73,6 +85,10 @@ public class OpenAiModelProperties {
         return model.getVoice().getFoodRouting().isEnabled();
     }
 
+    public AdaptiveRouting getFoodAdaptiveRouting() {
+        return model.getVoice().getFoodRouting().getAdaptive();
+    }
+
     public int getVoiceMaxRetries() {
         return model.getVoice().getMaxRetries();
     }
@@ -81,6 +97,18 @@ public class OpenAiModelProperties {
         return model.getVoice().getTemperature();
     }
 
+    public boolean isVoiceStreamingEnabled() {
+        return model.getVoice().isStreaming();
+    }
+
+    public ParseCache getVoiceParseCache() {
+        return model.getVoice().getParseCache();
+    }
+
+    public LocalParse getVoiceLocalParse() {
+        return model.getVoice().getLocalParse();
+    }
+
     public static class Model {
         private Voice voice = new Voice();
         private String cycleSync = "gpt-4o-mini";
@@ -109,7 +137,10 @@ public class OpenAiModelProperties {
         private String cycle = "gpt-4.1-mini";
         private int maxRetries = 3;
         private double temperature = 0.1;
+        private boolean streaming = false;
         private FoodRouting foodRouting = new FoodRouting();
+        private ParseCache parseCache = new ParseCache();
+        private LocalParse localParse = new LocalParse();
 
         public String getDefault() {
             return defaultModel;
@@ -159,6 +190,30 @@ public class OpenAiModelProperties {
             this.temperature = temperature;
         }
 
+        public boolean isStreaming() {
+            return streaming;
+        }
+
+        public void setStreaming(boolean streaming) {
+            this.streaming = streaming;
+        }
+
+        public ParseCache getParseCache() {
+            return parseCache;
+        }
+
+        public void setParseCache(ParseCache parseCache) {
+            this.parseCache = parseCache;
+        }
+
+        public LocalParse getLocalParse() {
+            return localParse;
+        }
+
+        public void setLocalParse(LocalParse localParse) {
+            this.localParse = localParse;
+        }
+
         public FoodRouting getFoodRouting() {
             return foodRouting;
         }
@@ -168,10 +223,84 @@ public class OpenAiModelProperties {
         }
     }
 
+    /** Food voice parse cache: a bounded in-memory tier in front of {@code food_voice_parse_cache}. */
+    public static class ParseCache {
+        private boolean enabled = true;
+        private int memoryMaxEntries = 2000;
+        private long memoryTtlMinutes = 720;
+        /** Age after which a persisted entry is ignored and purged; 0 disables the persistent tier. */
+        private int ttlDays = 30;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMemoryMaxEntries() {
+            return memoryMaxEntries;
+        }
+
+        public void setMemoryMaxEntries(int memoryMaxEntries) {
+            this.memoryMaxEntries = memoryMaxEntries;
+        }
+
+        public long getMemoryTtlMinutes() {
+            return memoryTtlMinutes;
+        }
+
+        public void setMemoryTtlMinutes(long memoryTtlMinutes) {
+            this.memoryTtlMinutes = memoryTtlMinutes;
+        }
+
+        public int getTtlDays() {
+            return ttlDays;
+        }
+
+        public void setTtlDays(int ttlDays) {
+            this.ttlDays = ttlDays;
+        }
+    }
+
+    /** Rule-based parse of short quantity + food utterances that skips OpenAI when nutrition is already cached. */
+    public static class LocalParse {
+        private boolean enabled = true;
+        /** Lowest USDA match confidence a cached profile needs for its food to be logged without the model. */
+        private double minNutritionConfidence = 0.75;
+        private int maxItems = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getMinNutritionConfidence() {
+            return minNutritionConfidence;
+        }
+
+        public void setMinNutritionConfidence(double minNutritionConfidence) {
+            this.minNutritionConfidence = minNutritionConfidence;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+
     public static class FoodRouting {
         private String simple = "gpt-4.1-mini";
         private String complex = "gpt-4.1";
         private boolean enabled = false;
+        private AdaptiveRouting adaptive = new AdaptiveRouting();
 
         public String getSimple() {
             return simple;
@@ -196,6 +325,139 @@ public class OpenAiModelProperties {
         public void setEnabled(boolean enabled) {
             this.enabled = enabled;
         }
+
+        public AdaptiveRouting getAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(AdaptiveRouting adaptive) {
+            this.adaptive = adaptive;
+        }
+    }
+
+    /**
+     * Feedback-driven choice between the priced {@code models} for uncached food parses; only active together with
+     * {@code food-routing.enabled}.
+     */
+    public static class AdaptiveRouting {
+        private boolean enabled = false;
+        /** Most recent parses kept per model and meal complexity. */
+        private int windowSize = 100;
+        /** Parses a model needs in a window before it can be preferred over the static choice. */
+        private int minSamples = 20;
+        /** p90 latency of a whole parse (all attempts) allowed for simple meals. */
+        private long simpleLatencySloMs = 6000;
+        private long complexLatencySloMs = 12000;
+        /** Share of parses that needed a retry or failed outright. */
+        private double maxRetryRate = 0.1;
+        /** Share of parses where the validator rejected model nutrition or the sanity check raised a portion. */
+        private double maxValidationFailureRate = 0.2;
+        /** Share of uncached parses sent to another candidate so its window stays current; 0 disables. */
+        private double explorationRate = 0.05;
+        /** Candidate models by name with their token prices. */
+        private Map<String, ModelPrice> models = new LinkedHashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public long getSimpleLatencySloMs() {
+            return simpleLatencySloMs;
+        }
+
+        public void setSimpleLatencySloMs(long simpleLatencySloMs) {
+            this.simpleLatencySloMs = simpleLatencySloMs;
+        }
+
+        public long getComplexLatencySloMs() {
+            return complexLatencySloMs;
+        }
+
+        public void setComplexLatencySloMs(long complexLatencySloMs) {
+            this.complexLatencySloMs = complexLatencySloMs;
+        }
+
+        public double getMaxRetryRate() {
+            return maxRetryRate;
+        }
+
+        public void setMaxRetryRate(double maxRetryRate) {
+            this.maxRetryRate = maxRetryRate;
+        }
+
+        public double getMaxValidationFailureRate() {
+            return maxValidationFailureRate;
+        }
+
+        public void setMaxValidationFailureRate(double maxValidationFailureRate) {
+            this.maxValidationFailureRate = maxValidationFailureRate;
+        }
+
+        public double getExplorationRate() {
+            return explorationRate;
+        }
+
+        public void setExplorationRate(double explorationRate) {
+            this.explorationRate = explorationRate;
+        }
+
+        public Map<String, ModelPrice> getModels() {
+            return models;
+        }
+
+        public void setModels(Map<String, ModelPrice> models) {
+            this.models = models;
+        }
+    }
+
+    /** USD per million tokens. */
+    public static class ModelPrice {
+        private double inputCostPerMillion;
+        private double outputCostPerMillion;
+
+        public ModelPrice() {
+        }
+
+        public ModelPrice(double inputCostPerMillion, double outputCostPerMillion) {
+            this.inputCostPerMillion = inputCostPerMillion;
+            this.outputCostPerMillion = outputCostPerMillion;
+        }
+
+        public double getInputCostPerMillion() {
+            return inputCostPerMillion;
+        }
+
+        public void setInputCostPerMillion(double inputCostPerMillion) {
+            this.inputCostPerMillion = inputCostPerMillion;
+        }
+
+        public double getOutputCostPerMillion() {
+            return outputCostPerMillion;
+        }
+
+        public void setOutputCostPerMillion(double outputCostPerMillion) {
+            this.outputCostPerMillion = outputCostPerMillion;
+        }
     }
 
     public static class Api {
@@ -209,4 +471,88 @@ public class OpenAiModelProperties {
             this.key = key;
         }
     }
+
+    /** Pooled transport used by {@code OpenAiChatClient}; timeouts may be overridden per model. */
+    public static class Http {
+        private String baseUrl = "https://api.openai.com/v1";
+        private long connectTimeoutMs = 3000;
+        /** Time allowed until response headers arrive. */
+        private long readTimeoutMs = 30000;
+        /** Budget for one whole call, body included; each retry gets a fresh one. */
+        private long deadlineMs = 45000;
+        /** Keyed by model id, e.g. {@code openai.http.routes[gpt-4.1].deadline-ms=60000}. */
+        private Map<String, Route> routes = new LinkedHashMap<>();
+
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        public long getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(long connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public long getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        public void setDeadlineMs(long deadlineMs) {
+            this.deadlineMs = deadlineMs;
+        }
+
+        public Map<String, Route> getRoutes() {
+            return routes;
+        }
+
+        public void setRoutes(Map<String, Route> routes) {
+            this.routes = routes;
+        }
+
+        public long readTimeoutMsFor(String model) {
+            Route route = model != null ? routes.get(model) : null;
+            return route != null && route.getReadTimeoutMs() != null ? route.getReadTimeoutMs() : readTimeoutMs;
+        }
+
+        public long deadlineMsFor(String model) {
+            Route route = model != null ? routes.get(model) : null;
+            return route != null && route.getDeadlineMs() != null ? route.getDeadlineMs() : deadlineMs;
+        }
+    }
+
+    /** Per-model overrides; unset values fall back to {@link Http}. */
+    public static class Route {
+        private Long readTimeoutMs;
+        private Long deadlineMs;
+
+        public Long getReadTimeoutMs() {
+            return readTimeoutMs;
+        }
+
+        public void setReadTimeoutMs(Long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        public Long getDeadlineMs() {
+            return deadlineMs;
+        }
+
+        public void setDeadlineMs(Long deadlineMs) {
+            this.deadlineMs = deadlineMs;
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.healthapp.config;
+
+import com.healthapp.service.ratelimit.BatchingRateLimitStore;
+import com.healthapp.service.ratelimit.InMemoryRateLimitStore;
+import com.healthapp.service.ratelimit.JdbcRateLimitStore;
+import com.healthapp.service.ratelimit.RateLimitStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Selects the {@link RateLimitStore} via {@code app.rate-limit.store}. Use {@code jdbc} or {@code jdbc-batched}
+ * when running several instances so limits hold cluster-wide rather than per instance.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+    public RateLimitStore inMemoryRateLimitStore() {
+        return new InMemoryRateLimitStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+    public RateLimitStore jdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        return new JdbcRateLimitStore(jdbcTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc-batched")
+    public RateLimitStore batchingRateLimitStore(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.rate-limit.sync-interval-ms:500}") long syncIntervalMillis) {
+        return new BatchingRateLimitStore(new JdbcRateLimitStore(jdbcTemplate), syncIntervalMillis);
+    }
+}
@@ -0,0 +1,155 @@
+package com.healthapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead settings for outbound dependencies ({@code resilience.openai.*},
+ * {@code resilience.usda.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "resilience")
+public class ResilienceProperties {
+
+    private Dependency openai = new Dependency(32, 25000);
+    private Dependency usda = new Dependency(16, 4000);
+
+    public Dependency getOpenai() {
+        return openai;
+    }
+
+    public void setOpenai(Dependency openai) {
+        this.openai = openai;
+    }
+
+    public Dependency getUsda() {
+        return usda;
+    }
+
+    public void setUsda(Dependency usda) {
+        this.usda = usda;
+    }
+
+    public static class Dependency {
+        private boolean enabled = true;
+        /** Most recent call outcomes the failure rate is computed over. */
+        private int windowSize = 20;
+        /** Calls the window must hold before the breaker may open. */
+        private int minimumCalls = 10;
+        /** Failure (or slow call) percentage of the window that opens the breaker. */
+        private int failureRateThreshold = 50;
+        /** Calls slower than this count as failures even when they succeed; 0 disables. */
+        private long slowCallMs;
+        /**
+         * Per-route overrides of {@code slowCallMs}, e.g. {@code resilience.openai.route-slow-call-ms[gpt-4.1]}, for
+         * routes that are allowed to run longer than the rest of the dependency.
+         */
+        private Map<String, Long> routeSlowCallMs = new LinkedHashMap<>();
+        /** How long an open breaker rejects calls before letting probes through. */
+        private long openDurationMs = 30000;
+        /** Probe calls allowed while half-open; all must succeed to close the breaker. */
+        private int halfOpenProbes = 2;
+        /** Concurrent calls allowed in flight; further calls are rejected. */
+        private int maxConcurrent;
+        /** How long a call waits for a bulkhead slot before it is rejected; 0 rejects immediately. */
+        private long bulkheadWaitMs;
+
+        public Dependency() {
+            this(16, 0);
+        }
+
+        Dependency(int maxConcurrent, long slowCallMs) {
+            this.maxConcurrent = maxConcurrent;
+            this.slowCallMs = slowCallMs;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public long getSlowCallMs() {
+            return slowCallMs;
+        }
+
+        public void setSlowCallMs(long slowCallMs) {
+            this.slowCallMs = slowCallMs;
+        }
+
+        public Map<String, Long> getRouteSlowCallMs() {
+            return routeSlowCallMs;
+        }
+
+        public void setRouteSlowCallMs(Map<String, Long> routeSlowCallMs) {
+            this.routeSlowCallMs = routeSlowCallMs;
+        }
+
+        /** @return the slow-call threshold for {@code route}, or {@code slowCallMs} when it has no override */
+        public long slowCallMs(String route) {
+            Long override = route != null ? routeSlowCallMs.get(route) : null;
+            return override != null ? override : slowCallMs;
+        }
+
+        public long getOpenDurationMs() {
+            return openDurationMs;
+        }
+
+        public void setOpenDurationMs(long openDurationMs) {
+            this.openDurationMs = openDurationMs;
+        }
+
+        public int getHalfOpenProbes() {
+            return halfOpenProbes;
+        }
+
+        public void setHalfOpenProbes(int halfOpenProbes) {
+            this.halfOpenProbes = halfOpenProbes;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getBulkheadWaitMs() {
+            return bulkheadWaitMs;
+        }
+
+        public void setBulkheadWaitMs(long bulkheadWaitMs) {
+            this.bulkheadWaitMs = bulkheadWaitMs;
+        }
+    }
+}
@@ -43,7 +43,7 @@ public class CycleSyncAiController {
     private VoiceCycleLogService voiceCycleLogService;
 
     @GetMapping
-    @RateLimit(value = 15)
+    @RateLimit(value = 15, key = RateLimit.KeyStrategy.USER_ENDPOINT)
     @Operation(summary = "Get unified cycle-sync recommendations for all phases")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Unified recommendations retrieved successfully"),
@@ -65,7 +65,7 @@ public class CycleSyncAiController {
     }
     
     @GetMapping("/food")
-    @RateLimit(value = 15)
+    @RateLimit(value = 15, key = RateLimit.KeyStrategy.USER_ENDPOINT)
     @Operation(summary = "Get AI food recommendations based on current cycle phase")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Food recommendations retrieved successfully"),
@@ -81,7 +81,7 @@ public class CycleSyncAiController {
     }
     
     @GetMapping("/activity")
-    @RateLimit(value = 15)
+    @RateLimit(value = 15, key = RateLimit.KeyStrategy.USER_ENDPOINT)
     @Operation(summary = "Get AI activity recommendations based on current cycle phase")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Activity recommendations retrieved successfully"),
@@ -97,7 +97,7 @@ public class CycleSyncAiController {
     }
     
     @PostMapping("/cycle-log/from-voice")
-    @RateLimit(value = 10)
+    @RateLimit(value = 10, key = RateLimit.KeyStrategy.USER_ENDPOINT)
     @Operation(summary = "Log menstrual cycle via voice input using AI")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Cycle logged successfully from voice input"),
@@ -0,0 +1,70 @@
+package com.healthapp.controller;
+
+import com.healthapp.annotation.RateLimit;
+import com.healthapp.dto.NutritionKnowledgeBaseResponse;
+import com.healthapp.service.nutrition.NutritionKnowledgeBase;
+import com.healthapp.service.nutrition.NutritionKnowledgeBaseLoader;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/foods/admin/knowledge-base")
+@Tag(name = "Nutrition Knowledge Base", description = "Admin APIs for the fallback macros, portion and typo tables")
+public class NutritionKnowledgeBaseController {
+
+    private final NutritionKnowledgeBaseLoader loader;
+
+    public NutritionKnowledgeBaseController(NutritionKnowledgeBaseLoader loader) {
+        this.loader = loader;
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Describe the active nutrition knowledge base snapshot")
+    public ResponseEntity<NutritionKnowledgeBaseResponse> current() {
+        return ResponseEntity.ok(describe(NutritionKnowledgeBase.current(), null));
+    }
+
+    @PostMapping("/reload")
+    @PreAuthorize("hasRole('ADMIN')")
+    @RateLimit(value = 10, timeUnit = "MINUTES")
+    @Operation(
+            summary = "Reload the nutrition knowledge base",
+            description = """
+                    Admin only. Re-reads nutrition.lookup.knowledge.path (or the bundled copy when unset) and swaps it \
+                    in atomically, then evicts cached fallback nutrition so it is re-resolved from the new tables. \
+                    An invalid document is rejected and the running snapshot stays active. Only the instance that \
+                    serves the call is reloaded; other instances pick up a changed file: path on their next poll \
+                    (nutrition.lookup.knowledge.poll-seconds)."""
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Snapshot swapped"),
+            @ApiResponse(responseCode = "403", description = "Admin role required"),
+            @ApiResponse(responseCode = "422", description = "Document missing or invalid; nothing changed")
+    })
+    public ResponseEntity<NutritionKnowledgeBaseResponse> reload() {
+        try {
+            NutritionKnowledgeBase previous = loader.reload();
+            return ResponseEntity.ok(describe(NutritionKnowledgeBase.current(), previous.version()));
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, e.getMessage());
+        }
+    }
+
+    private static NutritionKnowledgeBaseResponse describe(NutritionKnowledgeBase knowledge, String previousVersion) {
+        return new NutritionKnowledgeBaseResponse(knowledge.version(), previousVersion, knowledge.exactFoodCount(),
+                knowledge.containsRuleCount(), knowledge.portionRuleCount(), knowledge.typoCount());
+    }
+}
@@ -32,7 +32,7 @@ public class VoiceActivityController {
     private VoiceActivityLogService voiceActivityLogService;
 
     @PostMapping("/from-voice")
-    @RateLimit(value = 20, timeUnit = "MINUTES")
+    @RateLimit(value = 20, timeUnit = "MINUTES", key = RateLimit.KeyStrategy.USER_ENDPOINT)
     @Operation(summary = "Log activity from voice/text input", 
                description = "Parse natural language input and automatically log an activity")
     @ApiResponses(value = {
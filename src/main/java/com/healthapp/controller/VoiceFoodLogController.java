@@ -1,9 +1,11 @@
 package com.healthapp.controller;
 
 import com.healthapp.annotation.RateLimit;
+import com.healthapp.dto.VoiceFoodLogJobResponse;
 import com.healthapp.dto.VoiceFoodLogRequest;
 import com.healthapp.dto.VoiceFoodLogResponse;
 import com.healthapp.exception.VoiceFoodLogException;
+import com.healthapp.service.VoiceFoodLogJobService;
 import com.healthapp.service.VoiceFoodLogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,6 +19,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import jakarta.validation.Valid;
 
@@ -29,13 +32,16 @@ public class VoiceFoodLogController {
     private static final Logger logger = LoggerFactory.getLogger(VoiceFoodLogController.class);
     
     private final VoiceFoodLogService voiceFoodLogService;
+    private final VoiceFoodLogJobService voiceFoodLogJobService;
     
-    public VoiceFoodLogController(VoiceFoodLogService voiceFoodLogService) {
+    public VoiceFoodLogController(VoiceFoodLogService voiceFoodLogService,
+                                  VoiceFoodLogJobService voiceFoodLogJobService) {
         this.voiceFoodLogService = voiceFoodLogService;
+        this.voiceFoodLogJobService = voiceFoodLogJobService;
     }
     
     @PostMapping("/from-voice")
-    @RateLimit(value = 10) // Lower rate limit for AI operations
+    @RateLimit(value = 10, key = RateLimit.KeyStrategy.USER_ENDPOINT) // Lower rate limit for AI operations
     @Operation(summary = "Create food logs from voice input using AI")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Food logs created successfully from voice input"),
@@ -43,7 +49,7 @@ public class VoiceFoodLogController {
         @ApiResponse(responseCode = "401", description = "Unauthorized"),
         @ApiResponse(responseCode = "422", description = "No foods parsed or could not create logs (errorCode NO_FOOD_PARSED or NO_LOGS_CREATED)"),
         @ApiResponse(responseCode = "502", description = "AI parse failed (errorCode AI_PARSE_FAILED)"),
-        @ApiResponse(responseCode = "503", description = "AI service not configured (errorCode AI_SERVICE_UNAVAILABLE)"),
+        @ApiResponse(responseCode = "503", description = "AI service not configured or its circuit breaker is open (errorCode AI_SERVICE_UNAVAILABLE)"),
         @ApiResponse(responseCode = "500", description = "Unexpected failure (errorCode INTERNAL_ERROR or FOOD_ITEM_SAVE_FAILED)")
     })
     public ResponseEntity<?> createFoodLogFromVoice(@Valid @RequestBody VoiceFoodLogRequest request) {
@@ -78,4 +84,60 @@ public class VoiceFoodLogController {
                             "INTERNAL_ERROR"));
         }
     }
+
+    @PostMapping("/from-voice/async")
+    @RateLimit(value = 10, key = RateLimit.KeyStrategy.USER_ENDPOINT)
+    @Operation(summary = "Queue food logging from voice input and poll for the result")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Job accepted; poll the Location header (GET /ai/food-log/jobs/{jobId})"),
+        @ApiResponse(responseCode = "400", description = "Invalid request (body includes message and errorCode INVALID_REQUEST)"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "503", description = "Queue full or background logging off (errorCode VOICE_QUEUE_FULL or AI_SERVICE_UNAVAILABLE)")
+    })
+    public ResponseEntity<?> submitFoodLogFromVoice(@Valid @RequestBody VoiceFoodLogRequest request) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Long authenticatedUserId = (Long) authentication.getPrincipal();
+
+            VoiceFoodLogJobResponse job = voiceFoodLogJobService.submit(request, authenticatedUserId);
+
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/ai/food-log/jobs/{jobId}").buildAndExpand(job.getJobId()).toUri())
+                    .body(job);
+
+        } catch (VoiceFoodLogException e) {
+            logger.warn("Voice food job not queued [{}]: {}", e.getErrorCode(), e.getUserMessage());
+            return ResponseEntity.status(e.getHttpStatus())
+                    .body(VoiceFoodLogResponse.error(e.getUserMessage(), e.getErrorCode()));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid voice food request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(VoiceFoodLogResponse.error(e.getMessage(), "INVALID_REQUEST"));
+        } catch (Exception e) {
+            logger.error("Error queueing voice food log: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
+                    VoiceFoodLogResponse.error(
+                            "Something went wrong while saving your food. Please try again or add manually.",
+                            "INTERNAL_ERROR"));
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get the status of a queued voice food log",
+            description = "status is QUEUED, RUNNING, SUCCEEDED or FAILED; once finished, httpStatus and result are what POST /ai/food-log/from-voice would have returned")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "404", description = "No such job for this user, or it has expired (errorCode JOB_NOT_FOUND)")
+    })
+    public ResponseEntity<?> getFoodLogJob(@PathVariable String jobId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long authenticatedUserId = (Long) authentication.getPrincipal();
+
+        return voiceFoodLogJobService.find(jobId, authenticatedUserId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(VoiceFoodLogResponse.error("This voice log was not found or has expired.", "JOB_NOT_FOUND")));
+    }
 }
@@ -0,0 +1,13 @@
+package com.healthapp.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Nutrition knowledge base snapshot currently used for fallback macros, portions and typo fixes")
+public record NutritionKnowledgeBaseResponse(
+        @Schema(description = "Version of the active snapshot") String version,
+        @Schema(description = "Version it replaced; null when nothing was reloaded") String previousVersion,
+        @Schema(description = "Food names with exact fallback macros") int exactFoods,
+        @Schema(description = "Ordered substring macro rules") int containsRules,
+        @Schema(description = "Ordered single-portion rules") int portionRules,
+        @Schema(description = "Voice typo fixes") int typoFixes
+) {}
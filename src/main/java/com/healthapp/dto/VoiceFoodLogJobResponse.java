@@ -0,0 +1,79 @@
+package com.healthapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * State of an asynchronous voice food log job. Once finished, {@code httpStatus} and {@code result} are exactly what
+ * {@code POST /ai/food-log/from-voice} would have returned for the same request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VoiceFoodLogJobResponse {
+
+    private String jobId;
+    /** QUEUED, RUNNING, SUCCEEDED or FAILED. */
+    private String status;
+    private Integer httpStatus;
+    private VoiceFoodLogResponse result;
+    private String createdAt;
+    private String completedAt;
+
+    public VoiceFoodLogJobResponse() {}
+
+    public VoiceFoodLogJobResponse(String jobId, String status, Integer httpStatus, VoiceFoodLogResponse result,
+                                   String createdAt, String completedAt) {
+        this.jobId = jobId;
+        this.status = status;
+        this.httpStatus = httpStatus;
+        this.result = result;
+        this.createdAt = createdAt;
+        this.completedAt = completedAt;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getHttpStatus() {
+        return httpStatus;
+    }
+
+    public void setHttpStatus(Integer httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+
+    public VoiceFoodLogResponse getResult() {
+        return result;
+    }
+
+    public void setResult(VoiceFoodLogResponse result) {
+        this.result = result;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(String completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -45,6 +45,13 @@ public class FoodNutritionCache {
     @Column(name = "confidence")
     private Double confidence;
 
+    /** Cache hits since the row was created; flushed periodically, so it lags live traffic. */
+    @Column(name = "hit_count", nullable = false)
+    private Integer hitCount = 0;
+
+    @Column(name = "last_accessed_at")
+    private LocalDateTime lastAccessedAt;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -133,6 +140,22 @@ public class FoodNutritionCache {
         this.confidence = confidence;
     }
 
+    public Integer getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(Integer hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public LocalDateTime getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    public void setLastAccessedAt(LocalDateTime lastAccessedAt) {
+        this.lastAccessedAt = lastAccessedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,9 @@ public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
     
     // Find by ID and status
     Optional<FoodItem> findByIdAndStatus(Long id, FoodItem.FoodStatus status);
+
+    // Find several by ID and status (bulk food log creation)
+    List<FoodItem> findByIdInAndStatus(Collection<Long> ids, FoodItem.FoodStatus status);
     
     // Find by created by and status
     List<FoodItem> findByCreatedByAndStatus(Long createdBy, FoodItem.FoodStatus status);
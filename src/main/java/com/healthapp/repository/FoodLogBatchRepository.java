@@ -0,0 +1,18 @@
+package com.healthapp.repository;
+
+import com.healthapp.entity.FoodLog;
+
+import java.util.List;
+
+/**
+ * Bulk writes for {@link FoodLogRepository}. Food log ids are {@code IDENTITY}, which makes Hibernate insert rows
+ * one statement at a time regardless of {@code hibernate.jdbc.batch_size}, so multi-item creates go through JDBC.
+ */
+public interface FoodLogBatchRepository {
+
+    /**
+     * Inserts new (unsaved) logs in a single JDBC batch and sets their generated ids, status and timestamps.
+     * The logs are not attached to the persistence context.
+     */
+    void insertAll(List<FoodLog> foodLogs);
+}
@@ -0,0 +1,92 @@
+package com.healthapp.repository;
+
+import com.healthapp.entity.FoodLog;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+class FoodLogBatchRepositoryImpl implements FoodLogBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO food_logs (user_id, food_item_id, logged_at, meal_type, quantity, unit, calories, protein, "
+                    + "carbs, fat, fiber, note, status, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    FoodLogBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<FoodLog> foodLogs) {
+        if (foodLogs.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (FoodLog foodLog : foodLogs) {
+            if (foodLog.getStatus() == null) {
+                foodLog.setStatus(FoodLog.FoodLogStatus.ACTIVE);
+            }
+            foodLog.setCreatedAt(now);
+            foodLog.setUpdatedAt(now);
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        bind(ps, foodLogs.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return foodLogs.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < foodLogs.size() && i < generated.size(); i++) {
+            Object id = generated.get(i).values().iterator().next();
+            foodLogs.get(i).setId(((Number) id).longValue());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, FoodLog foodLog) throws SQLException {
+        ps.setLong(1, foodLog.getUserId());
+        ps.setLong(2, foodLog.getFoodItemId());
+        ps.setTimestamp(3, Timestamp.valueOf(foodLog.getLoggedAt()));
+        ps.setString(4, foodLog.getMealType() != null ? foodLog.getMealType().name() : null);
+        ps.setDouble(5, foodLog.getQuantity());
+        ps.setString(6, foodLog.getUnit());
+        setNullableDouble(ps, 7, foodLog.getCalories());
+        setNullableDouble(ps, 8, foodLog.getProtein());
+        setNullableDouble(ps, 9, foodLog.getCarbs());
+        setNullableDouble(ps, 10, foodLog.getFat());
+        setNullableDouble(ps, 11, foodLog.getFiber());
+        ps.setString(12, foodLog.getNote());
+        ps.setString(13, foodLog.getStatus().name());
+        ps.setTimestamp(14, Timestamp.valueOf(foodLog.getCreatedAt()));
+        ps.setTimestamp(15, Timestamp.valueOf(foodLog.getUpdatedAt()));
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FoodLogRepository extends JpaRepository<FoodLog, Long> {
+public interface FoodLogRepository extends JpaRepository<FoodLog, Long>, FoodLogBatchRepository {
     
     // Find by ID and status
     Optional<FoodLog> findByIdAndStatus(Long id, FoodLog.FoodLogStatus status);
@@ -1,11 +1,50 @@
 package com.healthapp.repository;
 
 import com.healthapp.entity.FoodNutritionCache;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface FoodNutritionCacheRepository extends JpaRepository<FoodNutritionCache, Long> {
 
     Optional<FoodNutritionCache> findByNormalizedName(String normalizedName);
+
+    /**
+     * Adds buffered hits. {@code updatedAt} is assigned to itself so MySQL's ON UPDATE CURRENT_TIMESTAMP does not
+     * fire; access tracking must not extend an entry's freshness.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FoodNutritionCache c SET c.hitCount = c.hitCount + :hits, c.lastAccessedAt = :accessedAt, "
+            + "c.updatedAt = c.updatedAt WHERE c.normalizedName = :name")
+    int recordHits(@Param("name") String normalizedName, @Param("hits") int hits,
+                   @Param("accessedAt") LocalDateTime accessedAt);
+
+    /** Popular entries of {@code source} whose freshness ends within the refresh-ahead window, most hits first. */
+    @Query("SELECT c FROM FoodNutritionCache c WHERE c.source = :source AND c.updatedAt < :refreshBefore "
+            + "AND c.updatedAt >= :expiredBefore AND c.hitCount >= :minHits AND c.lastAccessedAt >= :accessedAfter "
+            + "ORDER BY c.hitCount DESC, c.lastAccessedAt DESC")
+    List<FoodNutritionCache> findRefreshCandidates(@Param("source") String source,
+                                                   @Param("refreshBefore") LocalDateTime refreshBefore,
+                                                   @Param("expiredBefore") LocalDateTime expiredBefore,
+                                                   @Param("minHits") int minHits,
+                                                   @Param("accessedAfter") LocalDateTime accessedAfter,
+                                                   Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FoodNutritionCache c WHERE c.source = :source AND c.updatedAt < :cutoff")
+    int deleteBySourceUpdatedBefore(@Param("source") String source, @Param("cutoff") LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FoodNutritionCache c WHERE c.source = :source")
+    int deleteBySource(@Param("source") String source);
 }
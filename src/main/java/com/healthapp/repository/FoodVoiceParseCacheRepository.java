@@ -0,0 +1,22 @@
+package com.healthapp.repository;
+
+import com.healthapp.entity.FoodVoiceParseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface FoodVoiceParseCacheRepository extends JpaRepository<FoodVoiceParseCacheEntry, Long> {
+
+    Optional<FoodVoiceParseCacheEntry> findByCacheKey(String cacheKey);
+
+    /** Counts a hit without touching {@code updatedAt}, which marks when the entry was stored. */
+    @Transactional
+    @Modifying
+    @Query("UPDATE FoodVoiceParseCacheEntry e SET e.hitCount = e.hitCount + 1, e.updatedAt = e.updatedAt "
+            + "WHERE e.cacheKey = :key")
+    int recordHit(@Param("key") String cacheKey);
+}
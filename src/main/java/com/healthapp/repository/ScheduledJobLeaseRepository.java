@@ -0,0 +1,32 @@
+package com.healthapp.repository;
+
+import com.healthapp.entity.ScheduledJobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface ScheduledJobLeaseRepository extends JpaRepository<ScheduledJobLease, String> {
+
+    /**
+     * Takes over {@code name} when its lease has expired (or is already {@code owner}'s). Atomic: of several
+     * instances claiming at once, one gets 1 row and the rest 0.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ScheduledJobLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil "
+            + "WHERE l.name = :name AND (l.leaseUntil < :now OR l.owner = :owner)")
+    int claim(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /** First claim of {@code name}; a concurrent first claim fails with a duplicate-key error. */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO scheduled_job_leases (name, owner, lease_until) VALUES (:name, :owner, :leaseUntil)",
+            nativeQuery = true)
+    int insert(@Param("name") String name, @Param("owner") String owner,
+               @Param("leaseUntil") LocalDateTime leaseUntil);
+}
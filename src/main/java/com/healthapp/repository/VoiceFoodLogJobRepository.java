@@ -0,0 +1,73 @@
+package com.healthapp.repository;
+
+import com.healthapp.entity.VoiceFoodLogJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface VoiceFoodLogJobRepository extends JpaRepository<VoiceFoodLogJob, String> {
+
+    Optional<VoiceFoodLogJob> findByIdAndUserId(String id, Long userId);
+
+    /**
+     * Moves the job from {@code from} to {@code to} only if no other writer (a worker or the stale sweep) changed its
+     * status first.
+     *
+     * @return 1 when the job moved, 0 when it was not in {@code from}
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VoiceFoodLogJob j SET j.status = :to, j.updatedAt = :now WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") String id,
+                   @Param("from") VoiceFoodLogJob.Status from,
+                   @Param("to") VoiceFoodLogJob.Status to,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Stores a worker's outcome if the job is still {@code running}, or if the stale sweep failed it with
+     * {@code lostErrorCode} while the worker was in fact still going: the worker's result is what really happened.
+     *
+     * @return 1 when the outcome was stored, 0 when the job was gone or finished some other way
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VoiceFoodLogJob j SET j.status = :status, j.httpStatus = :httpStatus, j.errorCode = :errorCode, "
+            + "j.resultJson = :resultJson, j.completedAt = :now, j.updatedAt = :now "
+            + "WHERE j.id = :id AND (j.status = :running OR (j.status = :lost AND j.errorCode = :lostErrorCode))")
+    int complete(@Param("id") String id,
+                 @Param("running") VoiceFoodLogJob.Status running,
+                 @Param("lost") VoiceFoodLogJob.Status lost,
+                 @Param("lostErrorCode") String lostErrorCode,
+                 @Param("status") VoiceFoodLogJob.Status status,
+                 @Param("httpStatus") int httpStatus,
+                 @Param("errorCode") String errorCode,
+                 @Param("resultJson") String resultJson,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Moves jobs in {@code unfinished} states that have not been updated since {@code staleBefore} to
+     * {@code failed}, e.g. after the instance running them was restarted, so pollers stop waiting.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE VoiceFoodLogJob j SET j.status = :failed, j.errorCode = :errorCode, j.httpStatus = :httpStatus, "
+            + "j.completedAt = :now, j.updatedAt = :now "
+            + "WHERE j.status IN :unfinished AND j.updatedAt < :staleBefore")
+    int failStale(@Param("unfinished") Collection<VoiceFoodLogJob.Status> unfinished,
+                  @Param("staleBefore") LocalDateTime staleBefore,
+                  @Param("failed") VoiceFoodLogJob.Status failed,
+                  @Param("errorCode") String errorCode,
+                  @Param("httpStatus") int httpStatus,
+                  @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM VoiceFoodLogJob j WHERE j.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
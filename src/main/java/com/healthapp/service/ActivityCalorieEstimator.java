@@ -1,64 +1,41 @@
 package com.healthapp.service;
 
+import com.healthapp.service.matching.KeywordRuleSet;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Locale;
 
 public final class ActivityCalorieEstimator {
 
+    /** Per-minute burn by activity keyword, checked in order before the category default. */
+    private static final KeywordRuleSet<BigDecimal> RATES_BY_NAME = KeywordRuleSet.<BigDecimal>builder()
+            .rule("spin | indoor cycling", bd(12.0))
+            .rule("hiit | interval | tabata | crossfit | circuit", bd(10.0))
+            .rule("run | jog | sprint", bd(10.0))
+            .rule("uphill | backpack | hike | hiking", bd(9.0))
+            .rule("tennis | basketball | football | soccer", bd(8.0))
+            .rule("brisk + walk", bd(5.0))
+            .rule("walk", bd(4.0))
+            .rule("swim", bd(8.0))
+            .rule("row | rowing", bd(8.0))
+            .rule("badminton", bd(8.0))
+            .rule("bike | cycle | cycling", bd(7.0))
+            .rule("yoga | stretch | pilates", bd(3.5))
+            .rule("weight | lift | gym", bd(6.0))
+            .rule("climb", bd(8.0))
+            .rule("clean | garden | housework", bd(3.0))
+            .build();
+
     private ActivityCalorieEstimator() {}
 
     public static BigDecimal estimateCaloriesPerMinute(String activityName, String category) {
         String name = activityName != null ? activityName.toLowerCase(Locale.ROOT) : "";
         String cat = category != null ? category.toLowerCase(Locale.ROOT) : "general";
 
-        if (name.contains("spin") || name.contains("indoor cycling")) {
-            return bd(12.0);
-        }
-        if (name.contains("hiit") || name.contains("interval") || name.contains("tabata")
-                || name.contains("crossfit") || name.contains("circuit")) {
-            return bd(10.0);
-        }
-        if (name.contains("run") || name.contains("jog") || name.contains("sprint")) {
-            return bd(10.0);
-        }
-        if (name.contains("uphill") || name.contains("backpack")
-                || name.contains("hike") || name.contains("hiking")) {
-            return bd(9.0);
-        }
-        if (name.contains("tennis") || name.contains("basketball") || name.contains("football")
-                || name.contains("soccer")) {
-            return bd(8.0);
-        }
-        if (name.contains("brisk") && name.contains("walk")) {
-            return bd(5.0);
-        }
-        if (name.contains("walk")) {
-            return bd(4.0);
-        }
-        if (name.contains("swim")) {
-            return bd(8.0);
-        }
-        if (name.contains("row") || name.contains("rowing")) {
-            return bd(8.0);
-        }
-        if (name.contains("badminton")) {
-            return bd(8.0);
-        }
-        if (name.contains("bike") || name.contains("cycle") || name.contains("cycling")) {
-            return bd(7.0);
-        }
-        if (name.contains("yoga") || name.contains("stretch") || name.contains("pilates")) {
-            return bd(3.5);
-        }
-        if (name.contains("weight") || name.contains("lift") || name.contains("gym")) {
-            return bd(6.0);
-        }
-        if (name.contains("climb")) {
-            return bd(8.0);
-        }
-        if (name.contains("clean") || name.contains("garden") || name.contains("housework")) {
-            return bd(3.0);
+        BigDecimal byName = RATES_BY_NAME.match(name);
+        if (byName != null) {
+            return byName;
         }
 
         return switch (cat) {
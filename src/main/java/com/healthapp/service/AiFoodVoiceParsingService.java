@@ -1,9 +1,13 @@
 package com.healthapp.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.service.nutrition.NutritionPrefetcher;
+import com.healthapp.service.nutrition.NutritionValidator;
 import com.healthapp.service.nutrition.RecommendedPortionCatalog;
+import com.healthapp.service.resilience.DependencyUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +15,15 @@ import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class AiFoodVoiceParsingService {
@@ -29,6 +39,9 @@ public class AiFoodVoiceParsingService {
     @Autowired
     private MealComplexityClassifier mealComplexityClassifier;
 
+    @Autowired
+    private FoodModelRouter foodModelRouter;
+
     @Autowired
     private PortionGramEstimator portionGramEstimator;
 
@@ -50,13 +63,29 @@ public class AiFoodVoiceParsingService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired(required = false)
+    private NutritionPrefetcher nutritionPrefetcher;
+
+    @Autowired(required = false)
+    private FoodVoiceParseCache parseCache;
+
+    @Autowired(required = false)
+    private LocalFoodVoiceParser localFoodVoiceParser;
+
+    private static final Set<String> STREAMED_ARRAYS = Set.of("compositeMeals", "foodItems");
     private static final int SIMPLE_PARSE_MAX_TOKENS = 3500;
     private static final int COMPLEX_PARSE_MAX_TOKENS = 5000;
 
+    /**
+     * Built once and identical on every request, so the provider can reuse its cached prefix (see
+     * {@code openai.tokens{type=cached}}); the request time goes in a short trailing message instead.
+     */
+    static final String SYSTEM_PROMPT = buildSystemPrompt();
+
     private JsonNode foodVoiceSchema;
+    private String foodVoiceSchemaVersion;
 
-    private String getSystemPrompt() {
-        String currentDateTime = LocalDateTime.now().toString();
+    private static String buildSystemPrompt() {
         String assumptionRules = AiPromptGuidelines.SHARED_INFERENCE_PRINCIPLES
                 + "\n        "
                 + AiPromptGuidelines.FOOD_PORTION_ASSUMPTION_RULES
@@ -65,8 +94,6 @@ public class AiFoodVoiceParsingService {
         return String.format("""
         You are an AI assistant that parses natural language descriptions of food consumption into structured data.
         
-        CURRENT DATE AND TIME: %s
-        
         Parse the input text and return JSON with compositeMeals and foodItems arrays.
         
         CRITICAL PORTION RULES:
@@ -100,44 +127,64 @@ public class AiFoodVoiceParsingService {
         %s
         
         Shared rules:
+        - CURRENT DATE AND TIME is given in the last message of the conversation.
         - Replace <CURRENT> in examples with ISO 8601 (YYYY-MM-DDTHH:mm:ss) from CURRENT DATE AND TIME.
         - If no time given, use CURRENT DATE AND TIME.
         - Meal type: breakfast / lunch / dinner / snack from context.
         - Notes: use Stated:/Assumed: labels per existing guidelines.
-        """, currentDateTime, assumptionRules, AiPromptGuidelines.FOOD_VOICE_FEW_SHOT_EXAMPLES);
+        """, assumptionRules, AiPromptGuidelines.FOOD_VOICE_FEW_SHOT_EXAMPLES);
+    }
+
+    static String currentTimeMessage(LocalDateTime requestTime) {
+        return "CURRENT DATE AND TIME: " + requestTime.truncatedTo(ChronoUnit.SECONDS);
     }
 
     public ParsedFoodDataList parseVoiceText(String voiceText) {
+        return parseVoiceText(voiceText, LocalDateTime.now());
+    }
+
+    /**
+     * Parses {@code voiceText} as spoken at {@code requestTime}: the model's current time, the day part of the cache
+     * key and local parse, and the default {@code loggedAt} of items all use it, so a queued request is logged for
+     * when it was made rather than when a worker got to it.
+     */
+    public ParsedFoodDataList parseVoiceText(String voiceText, LocalDateTime requestTime) {
         try {
             String normalizedVoice = FoodVoiceTypoNormalizer.normalize(voiceText);
             logger.debug("Parsing food voice text: {}", normalizedVoice);
 
-            if (openAiChatClient == null || !openAiChatClient.isAvailable()) {
-                throw new RuntimeException("OpenAI service is not available. Please configure OpenAI API key.");
-            }
-
             MealComplexity complexity = mealComplexityClassifier.classify(normalizedVoice);
-            String model = resolveModel(normalizedVoice, complexity);
-            int maxTokens = complexity == MealComplexity.COMPLEX ? COMPLEX_PARSE_MAX_TOKENS : SIMPLE_PARSE_MAX_TOKENS;
-            String response = openAiChatClient.createStructuredCompletion(
-                    model,
-                    getSystemPrompt(),
-                    normalizedVoice,
-                    loadFoodVoiceSchema(),
-                    "food_voice_parse",
-                    maxTokens
-            );
-
-            logger.debug("Raw AI response: '{}'", response);
-            String jsonPayload = extractJsonObject(response);
-            JsonNode jsonNode = objectMapper.readTree(jsonPayload);
+            String model = foodModelRouter.preferredModel(complexity);
+            if (localFoodVoiceParser != null) {
+                Optional<ParsedFoodDataList> local = localFoodVoiceParser.parse(normalizedVoice, complexity, requestTime);
+                if (local.isPresent()) {
+                    return local.get();
+                }
+            }
+            loadFoodVoiceSchema();
+            FoodVoiceParseCache.Key cacheKey = parseCache != null
+                    ? parseCache.key(normalizedVoice, model, foodVoiceSchemaVersion, requestTime)
+                    : null;
+            JsonNode jsonNode = cacheKey != null ? parseCache.get(cacheKey, requestTime).orElse(null) : null;
+            FoodModelRouter.Route route = null;
+            ModelAnswer answer = null;
+            if (jsonNode != null) {
+                logger.debug("Food voice parse cache hit (model={})", model);
+            } else {
+                route = foodModelRouter.route(complexity, model);
+                answer = requestStructuredParse(normalizedVoice, route, requestTime);
+                jsonNode = answer.json();
+                if (cacheKey != null && !route.exploring()) {
+                    parseCache.put(cacheKey, jsonNode, requestTime);
+                }
+            }
 
             ParsedFoodDataList dataList = new ParsedFoodDataList();
 
             JsonNode compositeNode = jsonNode.get("compositeMeals");
             if (compositeNode != null && compositeNode.isArray()) {
                 for (JsonNode compositeMealNode : compositeNode) {
-                    ParsedFoodData data = parseCompositeMealNode(compositeMealNode);
+                    ParsedFoodData data = parseCompositeMealNode(compositeMealNode, requestTime);
                     if (data != null) {
                         dataList.addCompositeMeal(data);
                     }
@@ -147,14 +194,17 @@ public class AiFoodVoiceParsingService {
             JsonNode foodItemsNode = jsonNode.get("foodItems");
             if (foodItemsNode != null && foodItemsNode.isArray()) {
                 for (JsonNode foodItemNode : foodItemsNode) {
-                    ParsedFoodData data = parseStandardFoodItemNode(foodItemNode);
+                    ParsedFoodData data = parseStandardFoodItemNode(foodItemNode, requestTime);
                     if (data != null) {
                         dataList.addFoodItem(data);
                     }
                 }
             }
 
-            normalizeAndMergeParsedResults(dataList, normalizedVoice);
+            int validationIssues = normalizeAndMergeParsedResults(dataList, normalizedVoice, requestTime);
+            if (answer != null) {
+                foodModelRouter.recordSuccess(route, answer.latencyNanos(), answer.stats(), validationIssues);
+            }
 
             logger.info("Successfully parsed {} composite meal(s), {} separate food item(s)",
                     dataList.getCompositeMeals().size(), dataList.getFoodItems().size());
@@ -166,11 +216,83 @@ public class AiFoodVoiceParsingService {
         }
     }
 
-    private String resolveModel(String voiceText, MealComplexity complexity) {
-        if (modelProperties.isComplexRoutingEnabled() && complexity == MealComplexity.COMPLEX) {
-            return modelProperties.getFoodComplexModel();
+    /** JSON object of a model answer, with what it took to get it (fed back to {@link FoodModelRouter}). */
+    private record ModelAnswer(JsonNode json, long latencyNanos, OpenAiChatClient.CompletionStats stats) {}
+
+    /**
+     * Calls the routed model (streaming when enabled) and returns the JSON object of its answer. Failures are
+     * recorded against the model unless the call was rejected before reaching OpenAI.
+     */
+    private ModelAnswer requestStructuredParse(String normalizedVoice, FoodModelRouter.Route route,
+                                               LocalDateTime requestTime) throws JsonProcessingException {
+        if (openAiChatClient == null || !openAiChatClient.isAvailable()) {
+            throw new RuntimeException("OpenAI service is not available. Please configure OpenAI API key.");
+        }
+        OpenAiChatClient.CompletionStats stats = new OpenAiChatClient.CompletionStats();
+        long start = System.nanoTime();
+        try {
+            String response = callModel(normalizedVoice, route, requestTime, stats);
+            JsonNode json = objectMapper.readTree(extractJsonObject(response));
+            return new ModelAnswer(json, System.nanoTime() - start, stats);
+        } catch (RuntimeException | JsonProcessingException e) {
+            if (DependencyUnavailableException.findIn(e).isEmpty()) {
+                foodModelRouter.recordFailure(route, System.nanoTime() - start, stats);
+            }
+            throw e;
+        }
+    }
+
+    private String callModel(String normalizedVoice, FoodModelRouter.Route route, LocalDateTime requestTime,
+                             OpenAiChatClient.CompletionStats stats) {
+        String model = route.model();
+        int maxTokens = route.complexity() == MealComplexity.COMPLEX
+                ? COMPLEX_PARSE_MAX_TOKENS
+                : SIMPLE_PARSE_MAX_TOKENS;
+        String response;
+        if (modelProperties.isVoiceStreamingEnabled() && nutritionPrefetcher != null) {
+            // Start nutrition lookups per item while the model is still writing the rest of the answer
+            response = openAiChatClient.streamStructuredCompletion(
+                    model,
+                    SYSTEM_PROMPT,
+                    normalizedVoice,
+                    currentTimeMessage(requestTime),
+                    loadFoodVoiceSchema(),
+                    "food_voice_parse",
+                    maxTokens,
+                    STREAMED_ARRAYS,
+                    this::prefetchNutrition,
+                    stats
+            );
+        } else {
+            response = openAiChatClient.createStructuredCompletion(
+                    model,
+                    SYSTEM_PROMPT,
+                    normalizedVoice,
+                    currentTimeMessage(requestTime),
+                    loadFoodVoiceSchema(),
+                    "food_voice_parse",
+                    maxTokens,
+                    stats
+            );
+        }
+
+        logger.debug("Raw AI response: '{}'", response);
+        return response;
+    }
+
+    /**
+     * Streamed element hook. The final result is still built from the complete response (items may be merged or
+     * renamed afterwards), so this only warms the lookups nutrition resolution will most likely make.
+     */
+    private void prefetchNutrition(String arrayName, JsonNode element) {
+        if ("foodItems".equals(arrayName)) {
+            nutritionPrefetcher.prefetchFood(element.path("foodName").asText(null));
+            return;
+        }
+        for (JsonNode ingredient : element.path("ingredients")) {
+            nutritionPrefetcher.prefetchIngredient(ingredient.path("name").asText(null),
+                    ingredient.path("fdcSearchTerm").asText(null));
         }
-        return modelProperties.getFoodSimpleModel();
     }
 
     private JsonNode loadFoodVoiceSchema() {
@@ -178,13 +300,21 @@ public class AiFoodVoiceParsingService {
             return foodVoiceSchema;
         }
         try (InputStream in = new ClassPathResource("ai/food-voice-schema.json").getInputStream()) {
-            foodVoiceSchema = objectMapper.readTree(in);
+            byte[] schemaBytes = in.readAllBytes();
+            foodVoiceSchemaVersion = schemaVersion(schemaBytes);
+            foodVoiceSchema = objectMapper.readTree(schemaBytes);
             return foodVoiceSchema;
         } catch (Exception e) {
             throw new RuntimeException("Failed to load food voice schema", e);
         }
     }
 
+    /** Short content hash of the response schema, so a schema edit starts a fresh parse cache. */
+    private static String schemaVersion(byte[] schemaBytes) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(schemaBytes);
+        return HexFormat.of().formatHex(digest, 0, 6);
+    }
+
     static String extractJsonObject(String raw) {
         if (raw == null) {
             return "";
@@ -214,9 +344,9 @@ public class AiFoodVoiceParsingService {
         return s;
     }
 
-    private LocalDateTime parseLoggedAtFromNode(JsonNode node) {
+    private LocalDateTime parseLoggedAtFromNode(JsonNode node, LocalDateTime requestTime) {
         if (!node.has("loggedAt") || node.get("loggedAt").isNull()) {
-            return LocalDateTime.now();
+            return requestTime;
         }
         String loggedAtText = node.get("loggedAt").asText();
         try {
@@ -225,8 +355,8 @@ public class AiFoodVoiceParsingService {
             }
             return LocalDateTime.parse(loggedAtText);
         } catch (Exception e) {
-            logger.warn("Failed to parse loggedAt '{}', using current time", loggedAtText);
-            return LocalDateTime.now();
+            logger.warn("Failed to parse loggedAt '{}', using the request time", loggedAtText);
+            return requestTime;
         }
     }
 
@@ -294,7 +424,7 @@ public class AiFoodVoiceParsingService {
         return ingredients;
     }
 
-    private ParsedFoodData parseStandardFoodItemNode(JsonNode foodItemNode) {
+    private ParsedFoodData parseStandardFoodItemNode(JsonNode foodItemNode, LocalDateTime requestTime) {
         if (!foodItemNode.hasNonNull("foodName")) {
             logger.warn("Skipping food item with missing foodName");
             return null;
@@ -308,7 +438,7 @@ public class AiFoodVoiceParsingService {
         data.setEstimatedGrams(readEstimatedGrams(foodItemNode));
         data.setMealType(foodItemNode.has("mealType") && !foodItemNode.get("mealType").isNull()
                 ? foodItemNode.get("mealType").asText() : "snack");
-        data.setLoggedAt(parseLoggedAtFromNode(foodItemNode));
+        data.setLoggedAt(parseLoggedAtFromNode(foodItemNode, requestTime));
         if (foodItemNode.has("note") && !foodItemNode.get("note").isNull()) {
             data.setNote(foodItemNode.get("note").asText());
         }
@@ -316,7 +446,7 @@ public class AiFoodVoiceParsingService {
         return data;
     }
 
-    private ParsedFoodData parseCompositeMealNode(JsonNode node) {
+    private ParsedFoodData parseCompositeMealNode(JsonNode node, LocalDateTime requestTime) {
         if (!node.hasNonNull("displayName")) {
             logger.warn("Skipping composite meal with missing displayName");
             return null;
@@ -335,7 +465,7 @@ public class AiFoodVoiceParsingService {
         data.setEstimatedGrams(grams);
         data.setMealType(node.has("mealType") && !node.get("mealType").isNull()
                 ? node.get("mealType").asText() : "snack");
-        data.setLoggedAt(parseLoggedAtFromNode(node));
+        data.setLoggedAt(parseLoggedAtFromNode(node, requestTime));
         if (node.has("note") && !node.get("note").isNull()) {
             data.setNote(node.get("note").asText());
         }
@@ -344,8 +474,13 @@ public class AiFoodVoiceParsingService {
         return data;
     }
 
-    private void normalizeAndMergeParsedResults(ParsedFoodDataList dataList, String voiceText) {
-        explicitQuantityApplier.apply(dataList, voiceText);
+    /**
+     * @return validation issues in the model's answer: portions the sanity check raised plus items whose nutrition
+     * estimate is missing or rejected by {@link NutritionValidator}
+     */
+    private int normalizeAndMergeParsedResults(ParsedFoodDataList dataList, String voiceText,
+                                               LocalDateTime requestTime) {
+        explicitQuantityApplier.apply(dataList, voiceText, requestTime);
         boolean explicitMulti = ExplicitPortionParser.hasExplicitMultiItemBreakdown(voiceText);
         for (ParsedFoodData composite : dataList.getCompositeMeals()) {
             normalizePortions(composite);
@@ -353,13 +488,27 @@ public class AiFoodVoiceParsingService {
         for (ParsedFoodData item : dataList.getFoodItems()) {
             normalizePortions(item);
         }
-        portionSanityCorrector.apply(dataList);
+        int validationIssues = portionSanityCorrector.apply(dataList) + countRejectedNutrition(dataList);
         if (!explicitMulti) {
             voiceMealComposer.applyVoiceMealRules(dataList, voiceText);
         } else {
             logger.info("Skipping composite merge rules — user stated explicit per-item quantities");
         }
         explicitMacroApplier.apply(dataList, voiceText);
+        return validationIssues;
+    }
+
+    private static int countRejectedNutrition(ParsedFoodDataList dataList) {
+        int rejected = 0;
+        List<ParsedFoodData> parsed = new ArrayList<>(dataList.getCompositeMeals());
+        parsed.addAll(dataList.getFoodItems());
+        for (ParsedFoodData data : parsed) {
+            if (data.getNutrition() == null || NutritionValidator.validateNutritionData(
+                    data.getFoodName(), data.getNutrition(), data.getEstimatedGrams()) == null) {
+                rejected++;
+            }
+        }
+        return rejected;
     }
 
     private void normalizePortions(ParsedFoodData data) {
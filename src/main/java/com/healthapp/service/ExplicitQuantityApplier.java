@@ -27,6 +27,15 @@ public class ExplicitQuantityApplier {
      * Single explicit portion enriches the lone item when present.
      */
     public void apply(AiFoodVoiceParsingService.ParsedFoodDataList dataList, String voiceText) {
+        apply(dataList, voiceText, LocalDateTime.now());
+    }
+
+    /**
+     * As {@link #apply(AiFoodVoiceParsingService.ParsedFoodDataList, String)}, logging rebuilt items the model gave
+     * no time for at {@code requestTime} (when the user spoke) rather than at the moment the parse finishes.
+     */
+    public void apply(AiFoodVoiceParsingService.ParsedFoodDataList dataList, String voiceText,
+                      LocalDateTime requestTime) {
         List<ExplicitPortionParser.ExplicitPortion> portions = ExplicitPortionParser.parse(voiceText);
         List<ExplicitPortionParser.ExplicitCountPortion> countPortions =
                 ExplicitPortionParser.parseCountPortions(voiceText);
@@ -34,7 +43,7 @@ public class ExplicitQuantityApplier {
         if (portions.isEmpty() && countPortions.isEmpty()) {
             if (shouldSplitCompositeIngredients(dataList, voiceText)) {
                 AiFoodVoiceParsingService.ParsedFoodData composite = dataList.getCompositeMeals().get(0);
-                rebuildFromCompositeIngredients(dataList, composite, voiceText);
+                rebuildFromCompositeIngredients(dataList, composite, voiceText, requestTime);
                 logger.info("Explicit quantities: split composite '{}' into {} separate food item(s) from AI ingredients",
                         composite.getFoodName(), dataList.getFoodItems().size());
             }
@@ -42,7 +51,7 @@ public class ExplicitQuantityApplier {
         }
 
         if (portions.size() + countPortions.size() >= 2) {
-            rebuildAsSeparateItems(dataList, portions, countPortions, voiceText);
+            rebuildAsSeparateItems(dataList, portions, countPortions, voiceText, requestTime);
             logger.info("Explicit quantities: rebuilt {} separate food item(s) from voice text",
                     portions.size() + countPortions.size());
             return;
@@ -50,7 +59,7 @@ public class ExplicitQuantityApplier {
 
         if (shouldSplitCompositeIngredients(dataList, voiceText)) {
             AiFoodVoiceParsingService.ParsedFoodData composite = dataList.getCompositeMeals().get(0);
-            rebuildFromCompositeIngredients(dataList, composite, voiceText);
+            rebuildFromCompositeIngredients(dataList, composite, voiceText, requestTime);
             applyExplicitPortionsToItems(dataList, portions);
             logger.info("Explicit quantities: split composite '{}' into {} separate food item(s) from AI ingredients",
                     composite.getFoodName(), dataList.getFoodItems().size());
@@ -89,7 +98,7 @@ public class ExplicitQuantityApplier {
         if (dataList.getCompositeMeals().size() == 1 && dataList.getFoodItems().isEmpty()) {
             AiFoodVoiceParsingService.ParsedFoodData composite = dataList.getCompositeMeals().get(0);
             if (composite.getIngredients() != null && composite.getIngredients().size() >= 2) {
-                rebuildFromCompositeIngredients(dataList, composite, voiceText);
+                rebuildFromCompositeIngredients(dataList, composite, voiceText, requestTime);
                 applyExplicitPortionsToItems(dataList, portions);
                 logger.info("Explicit quantities: split multi-ingredient composite '{}' into {} food item(s)",
                         composite.getFoodName(), dataList.getFoodItems().size());
@@ -102,7 +111,7 @@ public class ExplicitQuantityApplier {
         }
 
         if (dataList.getFoodItems().isEmpty() && dataList.getCompositeMeals().isEmpty()) {
-            dataList.addFoodItem(buildItem(single, voiceText));
+            dataList.addFoodItem(buildItem(single, voiceText, requestTime));
         }
     }
 
@@ -160,9 +169,10 @@ public class ExplicitQuantityApplier {
     private void rebuildFromCompositeIngredients(
             AiFoodVoiceParsingService.ParsedFoodDataList dataList,
             AiFoodVoiceParsingService.ParsedFoodData composite,
-            String voiceText) {
+            String voiceText,
+            LocalDateTime requestTime) {
         String mealType = inferMealType(dataList, voiceText);
-        LocalDateTime loggedAt = inferLoggedAt(dataList);
+        LocalDateTime loggedAt = inferLoggedAt(dataList, requestTime);
         dataList.getCompositeMeals().clear();
         dataList.getFoodItems().clear();
         for (AiFoodVoiceParsingService.IngredientData ingredient : composite.getIngredients()) {
@@ -183,19 +193,20 @@ public class ExplicitQuantityApplier {
             AiFoodVoiceParsingService.ParsedFoodDataList dataList,
             List<ExplicitPortionParser.ExplicitPortion> portions,
             List<ExplicitPortionParser.ExplicitCountPortion> countPortions,
-            String voiceText) {
+            String voiceText,
+            LocalDateTime requestTime) {
         String mealType = inferMealType(dataList, voiceText);
-        LocalDateTime loggedAt = inferLoggedAt(dataList);
+        LocalDateTime loggedAt = inferLoggedAt(dataList, requestTime);
         dataList.getCompositeMeals().clear();
         dataList.getFoodItems().clear();
         for (ExplicitPortionParser.ExplicitPortion portion : portions) {
-            AiFoodVoiceParsingService.ParsedFoodData item = buildItem(portion, voiceText);
+            AiFoodVoiceParsingService.ParsedFoodData item = buildItem(portion, voiceText, requestTime);
             item.setMealType(mealType);
             item.setLoggedAt(loggedAt);
             dataList.addFoodItem(item);
         }
         for (ExplicitPortionParser.ExplicitCountPortion portion : countPortions) {
-            AiFoodVoiceParsingService.ParsedFoodData item = buildCountItem(portion, voiceText);
+            AiFoodVoiceParsingService.ParsedFoodData item = buildCountItem(portion, voiceText, requestTime);
             item.setMealType(mealType);
             item.setLoggedAt(loggedAt);
             dataList.addFoodItem(item);
@@ -203,7 +214,7 @@ public class ExplicitQuantityApplier {
     }
 
     private AiFoodVoiceParsingService.ParsedFoodData buildItem(
-            ExplicitPortionParser.ExplicitPortion portion, String voiceText) {
+            ExplicitPortionParser.ExplicitPortion portion, String voiceText, LocalDateTime requestTime) {
         AiFoodVoiceParsingService.ParsedFoodData item = new AiFoodVoiceParsingService.ParsedFoodData();
         item.setFoodName(capitalize(portion.foodName()));
         item.setQuantity(portion.grams());
@@ -211,17 +222,17 @@ public class ExplicitQuantityApplier {
         item.setEstimatedGrams(portion.grams());
         item.setUserSpecifiedGrams(true);
         item.setMealType(inferMealTypeFromVoice(voiceText));
-        item.setLoggedAt(LocalDateTime.now());
+        item.setLoggedAt(requestTime);
         item.setNote("Stated: " + portion.grams() + "g " + portion.foodName() + " from voice.");
         return item;
     }
 
     private AiFoodVoiceParsingService.ParsedFoodData buildCountItem(
-            ExplicitPortionParser.ExplicitCountPortion portion, String voiceText) {
+            ExplicitPortionParser.ExplicitCountPortion portion, String voiceText, LocalDateTime requestTime) {
         AiFoodVoiceParsingService.ParsedFoodData item = new AiFoodVoiceParsingService.ParsedFoodData();
         applyCountToItem(item, portion);
         item.setMealType(inferMealTypeFromVoice(voiceText));
-        item.setLoggedAt(LocalDateTime.now());
+        item.setLoggedAt(requestTime);
         item.setNote("Stated: " + portion.quantity() + " " + portion.unit() + " " + portion.foodName() + " from voice.");
         return item;
     }
@@ -282,7 +293,8 @@ public class ExplicitQuantityApplier {
         return inferMealTypeFromVoice(voiceText);
     }
 
-    private LocalDateTime inferLoggedAt(AiFoodVoiceParsingService.ParsedFoodDataList dataList) {
+    private LocalDateTime inferLoggedAt(AiFoodVoiceParsingService.ParsedFoodDataList dataList,
+                                        LocalDateTime requestTime) {
         for (AiFoodVoiceParsingService.ParsedFoodData item : dataList.getFoodItems()) {
             if (item.getLoggedAt() != null) {
                 return item.getLoggedAt();
@@ -293,7 +305,7 @@ public class ExplicitQuantityApplier {
                 return item.getLoggedAt();
             }
         }
-        return LocalDateTime.now();
+        return requestTime;
     }
 
     private static String inferMealTypeFromVoice(String voiceText) {
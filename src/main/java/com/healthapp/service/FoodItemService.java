@@ -98,33 +98,7 @@ public class FoodItemService {
             userRepository.findById(authenticatedUserId)
                     .orElseThrow(() -> new IllegalArgumentException("User not found"));
             
-            // Check if food item name already exists for this user
-            if (foodItemRepository.existsByNameAndCreatedByAndStatusNot(
-                    request.getName(), authenticatedUserId, FoodItem.FoodStatus.DELETED)) {
-                throw new IllegalArgumentException("A food item with this name already exists");
-            }
-            
-            // Create food item
-            FoodItem foodItem = new FoodItem();
-            foodItem.setName(request.getName());
-            foodItem.setCategory(request.getCategory());
-            foodItem.setDefaultUnit(request.getDefaultUnit());
-            foodItem.setQuantityPerUnit(request.getQuantityPerUnit());
-            foodItem.setWeightPerUnit(request.getWeightPerUnit());
-            foodItem.setCaloriesPerUnit(request.getCaloriesPerUnit());
-            foodItem.setProteinPerUnit(request.getProteinPerUnit());
-            foodItem.setCarbsPerUnit(request.getCarbsPerUnit());
-            foodItem.setFatPerUnit(request.getFatPerUnit());
-            foodItem.setFiberPerUnit(request.getFiberPerUnit());
-            foodItem.setVisibility(FoodItem.FoodVisibility.valueOf(request.getVisibility().toUpperCase()));
-            foodItem.setCreatedBy(authenticatedUserId);
-            if (request.getFdcId() != null && request.getFdcId() > 0) {
-                foodItem.setFdcId(request.getFdcId());
-            }
-            
-            FoodItem savedFoodItem = foodItemRepository.save(foodItem);
-            
-            logger.info("Created food item: {} for user: {}", savedFoodItem.getName(), authenticatedUserId);
+            FoodItem savedFoodItem = saveNewFoodItem(request, authenticatedUserId);
             
             return new FoodItemCreateResponse(savedFoodItem.getId(), savedFoodItem.getCreatedAt());
             
@@ -134,6 +108,40 @@ public class FoodItemService {
         }
     }
     
+    /**
+     * Creates a food item for a user the caller has already verified and returns the saved entity, so callers
+     * that need more than the id (voice logging) skip re-reading it.
+     */
+    public FoodItem saveNewFoodItem(FoodItemCreateRequest request, Long authenticatedUserId) {
+        // Check if food item name already exists for this user
+        if (foodItemRepository.existsByNameAndCreatedByAndStatusNot(
+                request.getName(), authenticatedUserId, FoodItem.FoodStatus.DELETED)) {
+            throw new IllegalArgumentException("A food item with this name already exists");
+        }
+        
+        // Create food item
+        FoodItem foodItem = new FoodItem();
+        foodItem.setName(request.getName());
+        foodItem.setCategory(request.getCategory());
+        foodItem.setDefaultUnit(request.getDefaultUnit());
+        foodItem.setQuantityPerUnit(request.getQuantityPerUnit());
+        foodItem.setWeightPerUnit(request.getWeightPerUnit());
+        foodItem.setCaloriesPerUnit(request.getCaloriesPerUnit());
+        foodItem.setProteinPerUnit(request.getProteinPerUnit());
+        foodItem.setCarbsPerUnit(request.getCarbsPerUnit());
+        foodItem.setFatPerUnit(request.getFatPerUnit());
+        foodItem.setFiberPerUnit(request.getFiberPerUnit());
+        foodItem.setVisibility(FoodItem.FoodVisibility.valueOf(request.getVisibility().toUpperCase()));
+        foodItem.setCreatedBy(authenticatedUserId);
+        if (request.getFdcId() != null && request.getFdcId() > 0) {
+            foodItem.setFdcId(request.getFdcId());
+        }
+        FoodItem savedFoodItem = foodItemRepository.save(foodItem);
+        
+        logger.info("Created food item: {} for user: {}", savedFoodItem.getName(), authenticatedUserId);
+        return savedFoodItem;
+    }
+    
     public Map<String, Object> updateFoodItem(Long id, FoodItemUpdateRequest request, Long authenticatedUserId) {
         try {
             FoodItem foodItem = foodItemRepository.findByIdAndStatus(id, FoodItem.FoodStatus.ACTIVE)
@@ -23,9 +23,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -148,64 +152,11 @@ public class FoodLogService {
             FoodItem foodItem = foodItemRepository.findByIdAndStatus(request.getFoodItemId(), FoodItem.FoodStatus.ACTIVE)
                     .orElseThrow(() -> new IllegalArgumentException("Food item not found"));
             
-            // Check if user can access this food item
-            if (!foodItem.getCreatedBy().equals(authenticatedUserId) && 
-                foodItem.getVisibility() != FoodItem.FoodVisibility.PUBLIC) {
-                throw new IllegalArgumentException("Food item not accessible");
-            }
-            
-            // Validate loggedAt time (not more than 10 minutes in the future)
-            if (request.getLoggedAt().isAfter(LocalDateTime.now().plusMinutes(10))) {
-                throw new IllegalArgumentException("Logged time cannot be more than 10 minutes in the future");
-            }
-            
-            // Parse meal type if provided
-            FoodLog.MealType mealTypeEnum = null;
-            if (request.getMealType() != null) {
-                try {
-                    mealTypeEnum = FoodLog.MealType.valueOf(request.getMealType().toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    throw new IllegalArgumentException("Invalid meal type: " + request.getMealType());
-                }
-            }
-            
-            // Determine unit (use food item's default if not provided)
-            String unit = request.getUnit() != null ? request.getUnit() : foodItem.getDefaultUnit();
-            
-            // Calculate macros using weight-based approach
-            double totalWeightConsumed = calculateConsumedWeightInGrams(
-                    request.getQuantity(), unit, foodItem, request.getEstimatedGrams());
-            
-            // Step 2: Calculate scale factor (how many 100g portions)
-            double scale = totalWeightConsumed / 100.0;
-            
-            // Step 3: Calculate final nutrition values
-            Double calories = foodItem.getCaloriesPerUnit() != null ? scale * foodItem.getCaloriesPerUnit() : null;
-            Double protein = foodItem.getProteinPerUnit() != null ? scale * foodItem.getProteinPerUnit() : null;
-            Double carbs = foodItem.getCarbsPerUnit() != null ? scale * foodItem.getCarbsPerUnit() : null;
-            Double fat = foodItem.getFatPerUnit() != null ? scale * foodItem.getFatPerUnit() : null;
-            Double fiber = foodItem.getFiberPerUnit() != null ? scale * foodItem.getFiberPerUnit() : null;
-            
-            // Create food log
-            FoodLog foodLog = new FoodLog();
-            foodLog.setUserId(request.getUserId());
-            foodLog.setFoodItemId(request.getFoodItemId());
-            foodLog.setLoggedAt(request.getLoggedAt());
-            foodLog.setMealType(mealTypeEnum);
-            foodLog.setQuantity(request.getQuantity());
-            foodLog.setUnit(unit);
-            foodLog.setCalories(calories);
-            foodLog.setProtein(protein);
-            foodLog.setCarbs(carbs);
-            foodLog.setFat(fat);
-            foodLog.setFiber(fiber);
-            foodLog.setNote(request.getNote());
-            
-            FoodLog savedFoodLog = foodLogRepository.save(foodLog);
+            FoodLog savedFoodLog = foodLogRepository.save(buildFoodLog(request, foodItem, authenticatedUserId));
             
             logger.info("Created food log: {} for user: {}", foodItem.getName(), authenticatedUserId);
             
-            return new FoodLogCreateResponse(savedFoodLog.getId(), calories, protein, carbs, fat, fiber, savedFoodLog.getCreatedAt());
+            return toCreateResponse(savedFoodLog);
             
         } catch (Exception e) {
             logger.error("Error creating food log: {}", e.getMessage(), e);
@@ -213,6 +164,108 @@ public class FoodLogService {
         }
     }
     
+    /**
+     * Creates several food logs for one user, e.g. every item of a voice-logged meal. The user is checked once,
+     * all food items are loaded in one query and the logs are written in one JDBC batch
+     * ({@link FoodLogRepository#insertAll}). Validation matches {@link #createFoodLog}; if any request fails it,
+     * nothing is saved.
+     *
+     * @return one response per request, in request order
+     */
+    public List<FoodLogCreateResponse> createFoodLogs(List<FoodLogCreateRequest> requests, Long authenticatedUserId) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        for (FoodLogCreateRequest request : requests) {
+            if (!request.getUserId().equals(authenticatedUserId)) {
+                throw new IllegalArgumentException("Users can only create food logs for themselves");
+            }
+        }
+        if (!userRepository.existsById(authenticatedUserId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        Set<Long> foodItemIds = requests.stream().map(FoodLogCreateRequest::getFoodItemId).collect(Collectors.toSet());
+        Map<Long, FoodItem> foodItems = foodItemRepository.findByIdInAndStatus(foodItemIds, FoodItem.FoodStatus.ACTIVE)
+                .stream().collect(Collectors.toMap(FoodItem::getId, Function.identity()));
+
+        List<FoodLog> foodLogs = new ArrayList<>(requests.size());
+        for (FoodLogCreateRequest request : requests) {
+            FoodItem foodItem = foodItems.get(request.getFoodItemId());
+            if (foodItem == null) {
+                throw new IllegalArgumentException("Food item not found");
+            }
+            foodLogs.add(buildFoodLog(request, foodItem, authenticatedUserId));
+        }
+        foodLogRepository.insertAll(foodLogs);
+
+        logger.info("Created {} food logs in one batch for user: {}", foodLogs.size(), authenticatedUserId);
+
+        return foodLogs.stream().map(this::toCreateResponse).toList();
+    }
+
+    /** Validates a create request against its (already loaded, active) food item and computes the log's macros. */
+    private FoodLog buildFoodLog(FoodLogCreateRequest request, FoodItem foodItem, Long authenticatedUserId) {
+        // Check if user can access this food item
+        if (!foodItem.getCreatedBy().equals(authenticatedUserId) && 
+            foodItem.getVisibility() != FoodItem.FoodVisibility.PUBLIC) {
+            throw new IllegalArgumentException("Food item not accessible");
+        }
+        
+        // Validate loggedAt time (not more than 10 minutes in the future)
+        if (request.getLoggedAt().isAfter(LocalDateTime.now().plusMinutes(10))) {
+            throw new IllegalArgumentException("Logged time cannot be more than 10 minutes in the future");
+        }
+        
+        // Parse meal type if provided
+        FoodLog.MealType mealTypeEnum = null;
+        if (request.getMealType() != null) {
+            try {
+                mealTypeEnum = FoodLog.MealType.valueOf(request.getMealType().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid meal type: " + request.getMealType());
+            }
+        }
+        
+        // Determine unit (use food item's default if not provided)
+        String unit = request.getUnit() != null ? request.getUnit() : foodItem.getDefaultUnit();
+        
+        // Calculate macros using weight-based approach
+        double totalWeightConsumed = calculateConsumedWeightInGrams(
+                request.getQuantity(), unit, foodItem, request.getEstimatedGrams());
+        
+        // Step 2: Calculate scale factor (how many 100g portions)
+        double scale = totalWeightConsumed / 100.0;
+        
+        // Step 3: Calculate final nutrition values
+        Double calories = foodItem.getCaloriesPerUnit() != null ? scale * foodItem.getCaloriesPerUnit() : null;
+        Double protein = foodItem.getProteinPerUnit() != null ? scale * foodItem.getProteinPerUnit() : null;
+        Double carbs = foodItem.getCarbsPerUnit() != null ? scale * foodItem.getCarbsPerUnit() : null;
+        Double fat = foodItem.getFatPerUnit() != null ? scale * foodItem.getFatPerUnit() : null;
+        Double fiber = foodItem.getFiberPerUnit() != null ? scale * foodItem.getFiberPerUnit() : null;
+        
+        // Create food log
+        FoodLog foodLog = new FoodLog();
+        foodLog.setUserId(request.getUserId());
+        foodLog.setFoodItemId(request.getFoodItemId());
+        foodLog.setLoggedAt(request.getLoggedAt());
+        foodLog.setMealType(mealTypeEnum);
+        foodLog.setQuantity(request.getQuantity());
+        foodLog.setUnit(unit);
+        foodLog.setCalories(calories);
+        foodLog.setProtein(protein);
+        foodLog.setCarbs(carbs);
+        foodLog.setFat(fat);
+        foodLog.setFiber(fiber);
+        foodLog.setNote(request.getNote());
+        return foodLog;
+    }
+
+    private FoodLogCreateResponse toCreateResponse(FoodLog foodLog) {
+        return new FoodLogCreateResponse(foodLog.getId(), foodLog.getCalories(), foodLog.getProtein(),
+                foodLog.getCarbs(), foodLog.getFat(), foodLog.getFiber(), foodLog.getCreatedAt());
+    }
+    
     public Map<String, Object> updateFoodLog(Long id, FoodLogUpdateRequest request, Long authenticatedUserId) {
         try {
             FoodLog foodLog = foodLogRepository.findByIdAndStatus(id, FoodLog.FoodLogStatus.ACTIVE)
@@ -0,0 +1,350 @@
+package com.healthapp.service;
+
+import com.healthapp.config.OpenAiModelProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Chooses the model for food voice parses from observed results rather than from {@link MealComplexityClassifier}
+ * alone.
+ * <p>
+ * For every model and meal complexity it keeps the last {@code window-size} parses: latency of the whole call,
+ * attempts, prompt and completion tokens, and how many validation issues the answer produced. A model meets the SLO
+ * for a complexity once it has {@code min-samples} parses with p90 latency, retry share and validation-issue share
+ * within their limits. {@link #preferredModel} returns the cheapest priced model that meets it, cost being the
+ * model's observed tokens per parse at its configured prices; until one does, it returns the static
+ * simple/complex choice. A small share of uncached parses is routed to another candidate ({@link #route}) so models
+ * that are not preferred keep getting fresh samples. Stats are published as {@code voice.food.routing.*}.
+ */
+@Component
+public class FoodModelRouter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FoodModelRouter.class);
+
+    /** Model an uncached parse is sent to; {@code exploring} parses are not what the router currently prefers. */
+    public record Route(String model, MealComplexity complexity, boolean exploring) {}
+
+    private final OpenAiModelProperties properties;
+    private final DoubleSupplier random;
+
+    private final Map<WindowKey, ModelWindow> windows = new ConcurrentHashMap<>();
+    private final Map<MealComplexity, AtomicLong> explorations = new EnumMap<>(MealComplexity.class);
+    private final Map<MealComplexity, String> lastPreferred = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FoodModelRouter(OpenAiModelProperties properties) {
+        this(properties, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    FoodModelRouter(OpenAiModelProperties properties, DoubleSupplier random) {
+        this.properties = properties;
+        this.random = random;
+        for (MealComplexity complexity : MealComplexity.values()) {
+            explorations.put(complexity, new AtomicLong());
+        }
+    }
+
+    /**
+     * The model cached parses are looked up under and uncached parses normally go to: the cheapest candidate meeting
+     * the SLO, otherwise the static choice for the complexity. Called on the parse path; a change of preference is
+     * logged here, once, rather than whenever the choice is read.
+     */
+    public String preferredModel(MealComplexity complexity) {
+        if (!isAdaptive()) {
+            return staticModel(complexity);
+        }
+        String best = cheapestMeetingSlo(complexity);
+        String preferred = best != null ? best : staticModel(complexity);
+        String previous = lastPreferred.put(complexity, preferred);
+        if (previous != null && !previous.equals(preferred)) {
+            logger.info("Food routing for {} meals now prefers {} (was {}){}", complexity, preferred, previous,
+                    best != null ? "" : "; no candidate meets the SLO");
+        }
+        return preferred;
+    }
+
+    /** {@link #preferredModel} without recording or logging the choice, for metrics scrapes. */
+    String computePreferred(MealComplexity complexity) {
+        String best = isAdaptive() ? cheapestMeetingSlo(complexity) : null;
+        return best != null ? best : staticModel(complexity);
+    }
+
+    /** Model {@link #preferredModel} last returned for the complexity, or null before the first adaptive parse. */
+    String lastPreferredModel(MealComplexity complexity) {
+        return lastPreferred.get(complexity);
+    }
+
+    private String cheapestMeetingSlo(MealComplexity complexity) {
+        OpenAiModelProperties.AdaptiveRouting settings = properties.getFoodAdaptiveRouting();
+        Stats pooled = pooledStats(complexity);
+        String best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (String model : candidates()) {
+            Stats stats = window(model, complexity).stats();
+            if (meetsSlo(stats, complexity, settings)) {
+                double cost = costPerParse(model, stats, pooled);
+                if (cost < bestCost) {
+                    best = model;
+                    bestCost = cost;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Route for a parse that will call the model: usually {@code preferredModel}, occasionally (see
+     * {@code exploration-rate}) a cheaper candidate, or any other candidate while the preferred model misses the SLO.
+     */
+    public Route route(MealComplexity complexity, String preferredModel) {
+        if (isAdaptive()) {
+            OpenAiModelProperties.AdaptiveRouting settings = properties.getFoodAdaptiveRouting();
+            if (settings.getExplorationRate() > 0 && random.getAsDouble() < settings.getExplorationRate()) {
+                List<String> others = explorationCandidates(complexity, preferredModel, settings);
+                if (!others.isEmpty()) {
+                    int pick = Math.min(others.size() - 1, (int) (random.getAsDouble() * others.size()));
+                    explorations.get(complexity).incrementAndGet();
+                    return new Route(others.get(pick), complexity, true);
+                }
+            }
+        }
+        return new Route(preferredModel, complexity, false);
+    }
+
+    /**
+     * @param validationIssues model nutrition the validator rejected plus portions the sanity check had to raise
+     */
+    public void recordSuccess(Route route, long latencyNanos, OpenAiChatClient.CompletionStats stats,
+                              int validationIssues) {
+        window(route.model(), route.complexity()).add(TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                stats.getAttempts(), stats.getPromptTokens(), stats.getCompletionTokens(), false, validationIssues > 0);
+    }
+
+    /** A parse that failed after all retries, or whose answer could not be read. */
+    public void recordFailure(Route route, long latencyNanos, OpenAiChatClient.CompletionStats stats) {
+        window(route.model(), route.complexity()).add(TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                stats.getAttempts(), stats.getPromptTokens(), stats.getCompletionTokens(), true, false);
+    }
+
+    private List<String> explorationCandidates(MealComplexity complexity, String preferredModel,
+                                               OpenAiModelProperties.AdaptiveRouting settings) {
+        Stats pooled = pooledStats(complexity);
+        Stats preferredStats = window(preferredModel, complexity).stats();
+        boolean preferredMeetsSlo = meetsSlo(preferredStats, complexity, settings);
+        double preferredCost = costPerParse(preferredModel, preferredStats, pooled);
+        List<String> others = new ArrayList<>();
+        for (String model : candidates()) {
+            if (!model.equals(preferredModel) && (!preferredMeetsSlo || Double.isNaN(preferredCost)
+                    || costPerParse(model, window(model, complexity).stats(), pooled) < preferredCost)) {
+                others.add(model);
+            }
+        }
+        return others;
+    }
+
+    private boolean isAdaptive() {
+        return properties.isComplexRoutingEnabled() && properties.getFoodAdaptiveRouting().isEnabled()
+                && !properties.getFoodAdaptiveRouting().getModels().isEmpty();
+    }
+
+    private String staticModel(MealComplexity complexity) {
+        if (properties.isComplexRoutingEnabled() && complexity == MealComplexity.COMPLEX) {
+            return properties.getFoodComplexModel();
+        }
+        return properties.getFoodSimpleModel();
+    }
+
+    private Set<String> candidates() {
+        return properties.getFoodAdaptiveRouting().getModels().keySet();
+    }
+
+    private static boolean meetsSlo(Stats stats, MealComplexity complexity,
+                                    OpenAiModelProperties.AdaptiveRouting settings) {
+        long latencySlo = complexity == MealComplexity.COMPLEX
+                ? settings.getComplexLatencySloMs()
+                : settings.getSimpleLatencySloMs();
+        return stats.samples() >= Math.max(1, settings.getMinSamples())
+                && stats.p90LatencyMs() <= latencySlo
+                && stats.retryRate() <= settings.getMaxRetryRate()
+                && stats.validationFailureRate() <= settings.getMaxValidationFailureRate();
+    }
+
+    /**
+     * USD per parse at the model's prices, using its own average tokens (retries included) or, before it has any
+     * samples, the average over all models for the complexity.
+     */
+    private double costPerParse(String model, Stats stats, Stats pooled) {
+        OpenAiModelProperties.ModelPrice price = properties.getFoodAdaptiveRouting().getModels().get(model);
+        if (price == null) {
+            return Double.NaN;
+        }
+        Stats tokens = stats.samples() > 0 ? stats : pooled;
+        double prompt = tokens.samples() > 0 ? tokens.avgPromptTokens() : 1;
+        double completion = tokens.samples() > 0 ? tokens.avgCompletionTokens() : 1;
+        return (prompt * price.getInputCostPerMillion() + completion * price.getOutputCostPerMillion()) / 1_000_000;
+    }
+
+    private Stats pooledStats(MealComplexity complexity) {
+        long samples = 0;
+        double prompt = 0;
+        double completion = 0;
+        for (Map.Entry<WindowKey, ModelWindow> entry : windows.entrySet()) {
+            if (entry.getKey().complexity() == complexity) {
+                Stats stats = entry.getValue().stats();
+                samples += stats.samples();
+                prompt += stats.avgPromptTokens() * stats.samples();
+                completion += stats.avgCompletionTokens() * stats.samples();
+            }
+        }
+        return samples == 0
+                ? Stats.EMPTY
+                : new Stats((int) Math.min(Integer.MAX_VALUE, samples), 0, 0, 0,
+                        prompt / samples, completion / samples);
+    }
+
+    private ModelWindow window(String model, MealComplexity complexity) {
+        return windows.computeIfAbsent(new WindowKey(model, complexity),
+                key -> new ModelWindow(Math.max(1, properties.getFoodAdaptiveRouting().getWindowSize())));
+    }
+
+    Stats stats(String model, MealComplexity complexity) {
+        return window(model, complexity).stats();
+    }
+
+    long explorationCount(MealComplexity complexity) {
+        return explorations.get(complexity).get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Set<String> models = new LinkedHashSet<>(candidates());
+        models.add(properties.getFoodSimpleModel());
+        models.add(properties.getFoodComplexModel());
+        for (MealComplexity complexity : MealComplexity.values()) {
+            String level = complexity.name().toLowerCase(Locale.ROOT);
+            FunctionCounter.builder("voice.food.routing.explorations", explorations.get(complexity), AtomicLong::get)
+                    .tag("complexity", level)
+                    .description("Uncached food parses sent to a model the router does not prefer")
+                    .register(registry);
+            for (String model : models) {
+                ModelWindow window = window(model, complexity);
+                FunctionCounter.builder("voice.food.routing.parses", window, w -> w.recorded.get())
+                        .tag("model", model).tag("complexity", level)
+                        .description("Food parses recorded by the model router").register(registry);
+                registerStat(registry, "voice.food.routing.latency.p90", model, level, window, Stats::p90LatencyMs,
+                        "p90 latency of recent food parses in milliseconds");
+                registerStat(registry, "voice.food.routing.retry.rate", model, level, window, Stats::retryRate,
+                        "Share of recent food parses that needed a retry or failed");
+                registerStat(registry, "voice.food.routing.validation.failure.rate", model, level, window,
+                        Stats::validationFailureRate,
+                        "Share of recent food parses with rejected nutrition or corrected portions");
+                Gauge.builder("voice.food.routing.cost.per.parse", window,
+                                w -> costPerParse(model, w.stats(), pooledStats(complexity)))
+                        .tag("model", model).tag("complexity", level)
+                        .description("Estimated USD per food parse from recent token usage").register(registry);
+                Gauge.builder("voice.food.routing.preferred", this,
+                                router -> model.equals(router.computePreferred(complexity)) ? 1 : 0)
+                        .tag("model", model).tag("complexity", level)
+                        .description("1 for the model the router currently prefers").register(registry);
+            }
+        }
+    }
+
+    private static void registerStat(MeterRegistry registry, String name, String model, String complexity,
+                                     ModelWindow window, ToDoubleFunction<Stats> stat, String description) {
+        Gauge.builder(name, window, w -> stat.applyAsDouble(w.stats()))
+                .tag("model", model).tag("complexity", complexity).description(description).register(registry);
+    }
+
+    private record WindowKey(String model, MealComplexity complexity) {}
+
+    record Stats(int samples, double p90LatencyMs, double retryRate, double validationFailureRate,
+                 double avgPromptTokens, double avgCompletionTokens) {
+        static final Stats EMPTY = new Stats(0, 0, 0, 0, 0, 0);
+    }
+
+    /** Ring buffer of the most recent parses for one model and complexity. */
+    private static final class ModelWindow {
+        private final long[] latencyMs;
+        private final int[] attempts;
+        private final long[] promptTokens;
+        private final long[] completionTokens;
+        private final boolean[] failed;
+        private final boolean[] validationIssue;
+        private final AtomicLong recorded = new AtomicLong();
+        private int count;
+        private int next;
+
+        ModelWindow(int size) {
+            latencyMs = new long[size];
+            attempts = new int[size];
+            promptTokens = new long[size];
+            completionTokens = new long[size];
+            failed = new boolean[size];
+            validationIssue = new boolean[size];
+        }
+
+        synchronized void add(long latency, int attemptCount, long prompt, long completion, boolean failure,
+                              boolean issue) {
+            latencyMs[next] = latency;
+            attempts[next] = attemptCount;
+            promptTokens[next] = prompt;
+            completionTokens[next] = completion;
+            failed[next] = failure;
+            validationIssue[next] = issue;
+            next = (next + 1) % latencyMs.length;
+            count = Math.min(count + 1, latencyMs.length);
+            recorded.incrementAndGet();
+        }
+
+        synchronized Stats stats() {
+            if (count == 0) {
+                return Stats.EMPTY;
+            }
+            long[] latencies = Arrays.copyOf(latencyMs, count);
+            Arrays.sort(latencies);
+            int retried = 0;
+            int succeeded = 0;
+            int issues = 0;
+            double prompt = 0;
+            double completion = 0;
+            for (int i = 0; i < count; i++) {
+                if (failed[i] || attempts[i] > 1) {
+                    retried++;
+                }
+                if (!failed[i]) {
+                    succeeded++;
+                    if (validationIssue[i]) {
+                        issues++;
+                    }
+                }
+                prompt += promptTokens[i];
+                completion += completionTokens[i];
+            }
+            int p90Index = Math.max(0, (int) Math.ceil(count * 0.9) - 1);
+            return new Stats(count, latencies[p90Index], (double) retried / count,
+                    succeeded == 0 ? 0 : (double) issues / succeeded, prompt / count, completion / count);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.entity.FoodVoiceParseCacheEntry;
+import com.healthapp.repository.FoodVoiceParseCacheRepository;
+import com.healthapp.service.matching.TokenSetMatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Reuses the model's structured answer for utterances that repeat verbatim ("black coffee", "two boiled eggs and
+ * toast"). Entries are keyed by the typo-normalized utterance (lower-cased, whitespace collapsed), the model, the
+ * response schema version and the part of the day; the last matters because the model infers {@code mealType} from
+ * the clock when the utterance does not say.
+ * <p>
+ * {@code loggedAt} values are stored relative to the original request and re-anchored on every hit: "now", a
+ * calendar position such as yesterday 19:00, or a plain offset when the utterance says "... ago". Two tiers: a
+ * size-bounded LRU in memory and {@code food_voice_parse_cache} in the database. Lookups are published as
+ * {@code voice.parse.cache.*} meters, including the overall hit ratio.
+ */
+@Component
+public class FoodVoiceParseCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(FoodVoiceParseCache.class);
+
+    static final String RELATIVE_FIELD = "loggedAtRelative";
+    private static final String LOGGED_AT = "loggedAt";
+    private static final String[] ITEM_ARRAYS = {"compositeMeals", "foodItems"};
+    private static final int MAX_TEXT_LENGTH = 500;
+    /** A {@code loggedAt} this close to the request time means "when it was said". */
+    private static final Duration NOW_TOLERANCE = Duration.ofMinutes(2);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[.!?,;]+$");
+
+    private final OpenAiModelProperties.ParseCache settings;
+    private final FoodVoiceParseCacheRepository repository;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+    private final long memoryTtlNanos;
+    private final LinkedHashMap<String, MemoryEntry> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong dbHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public FoodVoiceParseCache(OpenAiModelProperties properties, FoodVoiceParseCacheRepository repository,
+                               ObjectMapper objectMapper) {
+        this(properties.getVoiceParseCache(), repository, objectMapper, System::nanoTime);
+    }
+
+    FoodVoiceParseCache(OpenAiModelProperties.ParseCache settings, FoodVoiceParseCacheRepository repository,
+                        ObjectMapper objectMapper, LongSupplier nanoClock) {
+        this.settings = settings;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+        this.memoryTtlNanos = Duration.ofMinutes(Math.max(0, settings.getMemoryTtlMinutes())).toNanos();
+        int maxEntries = Math.max(0, settings.getMemoryMaxEntries());
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * @return the cache key for this request, or null when the utterance is not cacheable (blank or too long)
+     */
+    public Key key(String normalizedVoice, String model, String schemaVersion, LocalDateTime requestTime) {
+        String text = normalizeUtterance(normalizedVoice);
+        if (!isEnabled() || text.isEmpty() || text.length() > MAX_TEXT_LENGTH) {
+            return null;
+        }
+        String dayPart = dayPart(requestTime.toLocalTime());
+        String hash = sha256(model + '\n' + schemaVersion + '\n' + dayPart + '\n' + text);
+        boolean durationRelative = TokenSetMatcher.tokenize(text).contains("ago");
+        return new Key(hash, model, schemaVersion, text, durationRelative);
+    }
+
+    /** @return the cached answer with {@code loggedAt} re-anchored on {@code requestTime}, or empty on a miss */
+    public Optional<JsonNode> get(Key key, LocalDateTime requestTime) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        JsonNode stored = getFromMemory(key.hash());
+        if (stored != null) {
+            memoryHits.incrementAndGet();
+            return Optional.of(toAbsolute(stored, requestTime));
+        }
+        stored = getFromDatabase(key);
+        if (stored != null) {
+            dbHits.incrementAndGet();
+            putInMemory(key.hash(), stored);
+            return Optional.of(toAbsolute(stored, requestTime));
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /** Stores a successfully parsed answer; {@code requestTime} is the "now" its {@code loggedAt} values refer to. */
+    public void put(Key key, JsonNode response, LocalDateTime requestTime) {
+        if (key == null || response == null || !hasItems(response)) {
+            return;
+        }
+        JsonNode relative = toRelative(response, requestTime, key.durationRelative());
+        putInMemory(key.hash(), relative);
+        stores.incrementAndGet();
+        if (!isPersistent()) {
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(relative);
+            FoodVoiceParseCacheEntry entry = repository.findByCacheKey(key.hash())
+                    .orElseGet(FoodVoiceParseCacheEntry::new);
+            entry.setCacheKey(key.hash());
+            entry.setModel(key.model());
+            entry.setSchemaVersion(key.schemaVersion());
+            entry.setNormalizedText(key.text());
+            entry.setResponseJson(json);
+            entry.setUpdatedAt(LocalDateTime.now());
+            repository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Voice parse cache write race for key {}; keeping the other writer's entry", key.hash());
+        } catch (JsonProcessingException | DataAccessException e) {
+            logger.warn("Voice parse cache write failed: {}", e.getMessage());
+        }
+    }
+
+    public void clearMemory() {
+        synchronized (memory) {
+            memory.clear();
+        }
+    }
+
+    public int memorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private JsonNode getFromMemory(String hash) {
+        long now = nanoClock.getAsLong();
+        synchronized (memory) {
+            MemoryEntry entry = memory.get(hash);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAtNanos() >= 0) {
+                memory.remove(hash);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.response();
+        }
+    }
+
+    private void putInMemory(String hash, JsonNode relative) {
+        if (settings.getMemoryMaxEntries() <= 0 || memoryTtlNanos <= 0) {
+            return;
+        }
+        MemoryEntry entry = new MemoryEntry(relative, nanoClock.getAsLong() + memoryTtlNanos);
+        synchronized (memory) {
+            memory.put(hash, entry);
+        }
+    }
+
+    private JsonNode getFromDatabase(Key key) {
+        if (!isPersistent()) {
+            return null;
+        }
+        try {
+            Optional<FoodVoiceParseCacheEntry> found = repository.findByCacheKey(key.hash());
+            if (found.isEmpty()) {
+                return null;
+            }
+            FoodVoiceParseCacheEntry entry = found.get();
+            LocalDateTime storedAt = entry.getUpdatedAt() != null ? entry.getUpdatedAt() : entry.getCreatedAt();
+            if (storedAt == null || storedAt.isBefore(LocalDateTime.now().minusDays(settings.getTtlDays()))) {
+                repository.delete(entry);
+                return null;
+            }
+            JsonNode stored = objectMapper.readTree(entry.getResponseJson());
+            repository.recordHit(key.hash());
+            return stored;
+        } catch (JsonProcessingException | DataAccessException e) {
+            logger.warn("Voice parse cache read failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isPersistent() {
+        return repository != null && settings.getTtlDays() > 0;
+    }
+
+    static String normalizeUtterance(String text) {
+        if (text == null) {
+            return "";
+        }
+        String collapsed = WHITESPACE.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+        return TRAILING_PUNCTUATION.matcher(collapsed).replaceAll("").trim();
+    }
+
+    /** Coarse meal windows; two requests in the same window get the same inferred meal type. */
+    static String dayPart(LocalTime time) {
+        int hour = time.getHour();
+        if (hour >= 4 && hour < 11) {
+            return "morning";
+        }
+        if (hour >= 11 && hour < 15) {
+            return "midday";
+        }
+        if (hour >= 15 && hour < 17) {
+            return "afternoon";
+        }
+        if (hour >= 17 && hour < 22) {
+            return "evening";
+        }
+        return "night";
+    }
+
+    /** Replaces each item's {@code loggedAt} with {@link #RELATIVE_FIELD}; the input is not modified. */
+    static JsonNode toRelative(JsonNode response, LocalDateTime requestTime, boolean durationRelative) {
+        JsonNode copy = response.deepCopy();
+        forEachItem(copy, item -> {
+            LocalDateTime loggedAt = readLoggedAt(item);
+            if (loggedAt == null) {
+                return;
+            }
+            item.remove(LOGGED_AT);
+            item.put(RELATIVE_FIELD, encodeRelative(loggedAt, requestTime, durationRelative));
+        });
+        return copy;
+    }
+
+    /** Turns stored relative times back into ISO {@code loggedAt} values anchored on {@code now}. */
+    static JsonNode toAbsolute(JsonNode stored, LocalDateTime now) {
+        JsonNode copy = stored.deepCopy();
+        forEachItem(copy, item -> {
+            JsonNode relative = item.remove(RELATIVE_FIELD);
+            if (relative != null) {
+                item.put(LOGGED_AT, decodeRelative(relative.asText(), now).toString());
+            }
+        });
+        return copy;
+    }
+
+    static String encodeRelative(LocalDateTime loggedAt, LocalDateTime requestTime, boolean durationRelative) {
+        Duration offset = Duration.between(requestTime, loggedAt);
+        if (offset.abs().compareTo(NOW_TOLERANCE) <= 0) {
+            return "now";
+        }
+        if (durationRelative) {
+            return "offset:" + offset.truncatedTo(ChronoUnit.SECONDS);
+        }
+        long days = ChronoUnit.DAYS.between(requestTime.toLocalDate(), loggedAt.toLocalDate());
+        return "day:" + days + "@" + loggedAt.toLocalTime().truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    static LocalDateTime decodeRelative(String relative, LocalDateTime now) {
+        try {
+            if (relative.startsWith("offset:")) {
+                return now.plus(Duration.parse(relative.substring("offset:".length()))).truncatedTo(ChronoUnit.SECONDS);
+            }
+            if (relative.startsWith("day:")) {
+                int at = relative.indexOf('@');
+                long days = Long.parseLong(relative.substring("day:".length(), at));
+                return now.toLocalDate().plusDays(days).atTime(LocalTime.parse(relative.substring(at + 1)));
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Unreadable cached loggedAt '{}', using current time", relative);
+        }
+        return now.truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /** Empty answers are not cached; they are usually a misheard utterance worth another try. */
+    private static boolean hasItems(JsonNode response) {
+        for (String array : ITEM_ARRAYS) {
+            if (response.path(array).size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime readLoggedAt(ObjectNode item) {
+        JsonNode value = item.get(LOGGED_AT);
+        if (value == null || !value.isTextual()) {
+            return null;
+        }
+        String text = value.asText();
+        if (text.endsWith("Z")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void forEachItem(JsonNode root, Consumer<ObjectNode> action) {
+        for (String array : ITEM_ARRAYS) {
+            for (JsonNode item : root.path(array)) {
+                if (item instanceof ObjectNode object) {
+                    action.accept(object);
+                }
+            }
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("voice.parse.cache.requests", memoryHits, AtomicLong::get)
+                .tag("result", "memory_hit").description("Food voice parse cache lookups").register(registry);
+        FunctionCounter.builder("voice.parse.cache.requests", dbHits, AtomicLong::get)
+                .tag("result", "db_hit").description("Food voice parse cache lookups").register(registry);
+        FunctionCounter.builder("voice.parse.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").description("Food voice parse cache lookups").register(registry);
+        FunctionCounter.builder("voice.parse.cache.stores", stores, AtomicLong::get)
+                .description("Food voice parses added to the cache").register(registry);
+        FunctionCounter.builder("voice.parse.cache.evictions", evictions, AtomicLong::get)
+                .description("In-memory parse cache entries dropped for size or expiry").register(registry);
+        Gauge.builder("voice.parse.cache.hit_ratio", this, FoodVoiceParseCache::hitRatio)
+                .description("Share of cacheable food voice parses answered without calling OpenAI")
+                .register(registry);
+        Gauge.builder("voice.parse.cache.size", this, FoodVoiceParseCache::memorySize)
+                .description("In-memory parse cache entries").register(registry);
+    }
+
+    double hitRatio() {
+        long hits = memoryHits.get() + dbHits.get();
+        long total = hits + misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    long memoryHitCount() {
+        return memoryHits.get();
+    }
+
+    long dbHitCount() {
+        return dbHits.get();
+    }
+
+    long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * @param hash             SHA-256 of model, schema version, day part and text; the database key
+     * @param durationRelative the utterance says "... ago", so times are kept as offsets rather than clock times
+     */
+    public record Key(String hash, String model, String schemaVersion, String text, boolean durationRelative) {}
+
+    private record MemoryEntry(JsonNode response, long expiresAtNanos) {}
+}
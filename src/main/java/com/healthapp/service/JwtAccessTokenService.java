@@ -3,8 +3,10 @@ package com.healthapp.service;
 import com.healthapp.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -12,24 +14,47 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class JwtAccessTokenService {
 
     private final SecretKey signingKey;
     private final long accessTokenTtlSeconds;
+    /** Immutable and thread-safe; built once instead of per request. */
+    private final JwtParser accessTokenParser;
+    private final Clock clock;
+    private final int verifiedTokenCacheMaxEntries;
+    /** SHA-256 hex of the compact JWT → claims, kept until the token's {@code exp}. */
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
+    @Autowired
     public JwtAccessTokenService(
             @Value("${jwt.secret}") String jwtSecret,
-            @Value("${jwt.access-token-expiration-seconds:3600}") long accessTokenTtlSeconds) {
+            @Value("${jwt.access-token-expiration-seconds:3600}") long accessTokenTtlSeconds,
+            @Value("${jwt.verified-token-cache.max-entries:10000}") int verifiedTokenCacheMaxEntries) {
+        this(jwtSecret, accessTokenTtlSeconds, verifiedTokenCacheMaxEntries, Clock.systemUTC());
+    }
+
+    JwtAccessTokenService(String jwtSecret, long accessTokenTtlSeconds, int verifiedTokenCacheMaxEntries, Clock clock) {
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         if (keyBytes.length < 32) {
             keyBytes = sha256Digest(jwtSecret);
         }
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
         this.accessTokenTtlSeconds = accessTokenTtlSeconds;
+        this.clock = clock;
+        this.verifiedTokenCacheMaxEntries = Math.max(0, verifiedTokenCacheMaxEntries);
+        this.accessTokenParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
     }
 
     private static byte[] sha256Digest(String secret) {
@@ -45,7 +70,7 @@ public class JwtAccessTokenService {
     }
 
     public String createAccessToken(User user) {
-        Date now = new Date();
+        Date now = Date.from(clock.instant());
         Date exp = new Date(now.getTime() + accessTokenTtlSeconds * 1000L);
         return Jwts.builder()
                 .setSubject(String.valueOf(user.getId()))
@@ -58,12 +83,23 @@ public class JwtAccessTokenService {
 
     /**
      * Validates signature and expiry; does not check user status in DB.
+     * Tokens already verified are served from an in-memory cache until their {@code exp}.
      */
     public Optional<AccessTokenClaims> parseValidAccessToken(String compactJwt) {
+        if (compactJwt == null || compactJwt.isEmpty()) {
+            return Optional.empty();
+        }
+        long nowMillis = clock.millis();
+        String cacheKey = sha256Hex(compactJwt);
+        VerifiedToken cached = verifiedTokens.get(cacheKey);
+        if (cached != null) {
+            if (nowMillis < cached.expiresAtMillis()) {
+                return Optional.of(cached.claims());
+            }
+            verifiedTokens.remove(cacheKey, cached);
+        }
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(signingKey)
-                    .build()
+            Claims claims = accessTokenParser
                     .parseClaimsJws(compactJwt)
                     .getBody();
             Long userId = Long.parseLong(claims.getSubject());
@@ -71,12 +107,40 @@ public class JwtAccessTokenService {
             if (role == null) {
                 return Optional.empty();
             }
-            return Optional.of(new AccessTokenClaims(userId, role));
+            AccessTokenClaims parsed = new AccessTokenClaims(userId, role);
+            Date exp = claims.getExpiration();
+            if (exp != null) {
+                cacheVerified(cacheKey, new VerifiedToken(parsed, exp.getTime()), nowMillis);
+            }
+            return Optional.of(parsed);
         } catch (JwtException | IllegalArgumentException e) {
             return Optional.empty();
         }
     }
 
+    private void cacheVerified(String cacheKey, VerifiedToken token, long nowMillis) {
+        if (verifiedTokenCacheMaxEntries == 0) {
+            return;
+        }
+        if (verifiedTokens.size() >= verifiedTokenCacheMaxEntries) {
+            verifiedTokens.values().removeIf(t -> nowMillis >= t.expiresAtMillis());
+            Iterator<String> it = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= verifiedTokenCacheMaxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verifiedTokens.put(cacheKey, token);
+    }
+
+    int verifiedTokenCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    private static String sha256Hex(String raw) {
+        return HexFormat.of().formatHex(sha256Digest(raw));
+    }
+
     public static boolean looksLikeJwt(String token) {
         if (token == null || token.isEmpty()) {
             return false;
@@ -91,4 +155,6 @@ public class JwtAccessTokenService {
     }
 
     public record AccessTokenClaims(Long userId, String role) {}
+
+    private record VerifiedToken(AccessTokenClaims claims, long expiresAtMillis) {}
 }
@@ -0,0 +1,256 @@
+package com.healthapp.service;
+
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.service.nutrition.NutritionLookupService;
+import com.healthapp.service.nutrition.NutritionProfile;
+import com.healthapp.service.nutrition.NutritionSource;
+import com.healthapp.service.nutrition.NutritionValidator;
+import com.healthapp.service.nutrition.RecommendedPortionCatalog;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Rule-based parse for short utterances that only state a quantity and a food ("2 boiled eggs", "150g chicken
+ * breast", "a glass of milk for breakfast"), so they are logged without calling OpenAI.
+ * <p>
+ * Answers only when every segment has an explicit portion ({@link ExplicitPortionParser}), a food-specific unit
+ * weight, and cached USDA nutrition at or above the configured match confidence. Anything else (times, modifiers,
+ * stated macros, unknown foods) returns empty and the caller asks the model. Outcomes and time spent on locally
+ * served requests are published as {@code voice.parse.local.*}.
+ */
+@Component
+public class LocalFoodVoiceParser implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalFoodVoiceParser.class);
+
+    private static final Pattern LEAD_IN = Pattern.compile(
+            "^(?:i\\s+)?(?:just\\s+)?(?:had|ate|drank)\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[.!?]+$");
+    /** Time, amount, preparation and macro words whose meaning only the model resolves. */
+    private static final Pattern DEFER_TO_MODEL = Pattern.compile(
+            "\\b(yesterday|ago|earlier|last|tonight|today|morning|afternoon|evening|night|at|around|about|o'?clock"
+                    + "|am|pm|half|quarter|few|couple|some|with|without|plus|extra|no|not|instead|or"
+                    + "|calories?|kcal|protein|carbs?|fat|fiber)\\b|\\d:\\d",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern PLAIN_FOOD_NAME = Pattern.compile("[a-z][a-z' -]*");
+    private static final int MAX_TEXT_LENGTH = 80;
+    private static final int MAX_FOOD_NAME_WORDS = 4;
+
+    private final OpenAiModelProperties.LocalParse settings;
+    private final NutritionLookupService nutritionLookupService;
+    private final PortionGramEstimator portionGramEstimator;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong servedNanos = new AtomicLong();
+
+    @Autowired
+    public LocalFoodVoiceParser(OpenAiModelProperties properties,
+                                @Autowired(required = false) NutritionLookupService nutritionLookupService,
+                                PortionGramEstimator portionGramEstimator) {
+        this.settings = properties.getVoiceLocalParse();
+        this.nutritionLookupService = nutritionLookupService;
+        this.portionGramEstimator = portionGramEstimator;
+    }
+
+    /**
+     * @param normalizedVoice typo-normalized utterance
+     * @return the parse when every item passed the confidence gate; empty means "ask the model"
+     */
+    public Optional<AiFoodVoiceParsingService.ParsedFoodDataList> parse(String normalizedVoice,
+                                                                      MealComplexity complexity,
+                                                                      LocalDateTime requestTime) {
+        if (!settings.isEnabled() || nutritionLookupService == null) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        AiFoodVoiceParsingService.ParsedFoodDataList dataList = complexity == MealComplexity.SIMPLE
+                ? tryParse(normalizedVoice, requestTime)
+                : null;
+        if (dataList == null) {
+            fallbacks.incrementAndGet();
+            return Optional.empty();
+        }
+        servedNanos.addAndGet(System.nanoTime() - start);
+        served.incrementAndGet();
+        logger.info("Food voice parsed locally: {} item(s) without OpenAI", dataList.getFoodItems().size());
+        return Optional.of(dataList);
+    }
+
+    private AiFoodVoiceParsingService.ParsedFoodDataList tryParse(String voiceText, LocalDateTime requestTime) {
+        if (voiceText == null || voiceText.isBlank() || voiceText.length() > MAX_TEXT_LENGTH) {
+            return null;
+        }
+        String text = TRAILING_PUNCTUATION.matcher(voiceText.trim()).replaceAll("");
+        text = LEAD_IN.matcher(text).replaceFirst("");
+        if (DEFER_TO_MODEL.matcher(text).find()) {
+            return null;
+        }
+        List<String> segments = ExplicitPortionParser.splitSegments(text);
+        if (segments.isEmpty() || segments.size() > settings.getMaxItems()) {
+            return null;
+        }
+        String mealType = mealTypeFromVoice(text, requestTime);
+        AiFoodVoiceParsingService.ParsedFoodDataList dataList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        for (String segment : segments) {
+            AiFoodVoiceParsingService.ParsedFoodData item = parseSegment(segment);
+            if (item == null) {
+                logger.debug("Local food parse declined segment '{}'", segment);
+                return null;
+            }
+            item.setMealType(mealType);
+            item.setLoggedAt(requestTime);
+            dataList.addFoodItem(item);
+        }
+        return dataList;
+    }
+
+    /** @return null unless the segment has an explicit portion and confidently cached nutrition */
+    private AiFoodVoiceParsingService.ParsedFoodData parseSegment(String segment) {
+        AiFoodVoiceParsingService.ParsedFoodData item = new AiFoodVoiceParsingService.ParsedFoodData();
+        Optional<ExplicitPortionParser.ExplicitPortion> mass = ExplicitPortionParser.parseSegment(segment);
+        String foodName;
+        if (mass.isPresent()) {
+            foodName = mass.get().foodName();
+            double grams = mass.get().grams();
+            item.setQuantity(grams);
+            item.setUnit("grams");
+            item.setEstimatedGrams(grams);
+            item.setUserSpecifiedGrams(true);
+            item.setNote("Stated: " + grams + "g " + foodName + " from voice.");
+        } else {
+            Optional<ExplicitPortionParser.ExplicitCountPortion> count =
+                    ExplicitPortionParser.parseCountSegment(segment);
+            if (count.isEmpty()) {
+                return null;
+            }
+            foodName = count.get().foodName();
+            if (!hasFoodSpecificWeight(count.get().unit(), foodName)) {
+                return null;
+            }
+            item.setQuantity(count.get().quantity());
+            item.setUnit(count.get().unit());
+            item.setEstimatedGrams(portionGramEstimator.resolveEffectiveGrams(
+                    foodName, count.get().quantity(), count.get().unit(), null));
+            item.setNote("Stated: " + count.get().quantity() + " " + count.get().unit() + " " + foodName
+                    + " from voice.");
+        }
+        if (!isPlainFoodName(foodName) || item.getEstimatedGrams() <= 0) {
+            return null;
+        }
+        NutritionProfile profile = nutritionLookupService.lookupCached(foodName).orElse(null);
+        if (profile == null || profile.getSource() != NutritionSource.USDA
+                || profile.getConfidence() < settings.getMinNutritionConfidence()) {
+            return null;
+        }
+        AiFoodVoiceParsingService.NutritionData nutrition = NutritionValidator.validateNutritionData(
+                foodName, toNutritionData(profile), item.getEstimatedGrams());
+        if (nutrition == null) {
+            return null;
+        }
+        item.setFoodName(capitalize(foodName));
+        item.setNutrition(nutrition);
+        item.setNutritionSource(profile.getSource());
+        item.setNutritionConfidence(profile.toConfidenceLevel());
+        item.setFdcId(profile.getFdcId());
+        return item;
+    }
+
+    /**
+     * Piece and slice weights fall back to a generic 100 g for foods the catalog does not know; the model's guess
+     * is better than that. Cup and glass defaults are the same ones the prompt tells the model to use.
+     */
+    private static boolean hasFoodSpecificWeight(String unit, String foodName) {
+        if (!"pieces".equals(unit) && !"slices".equals(unit)) {
+            return true;
+        }
+        String name = foodName.toLowerCase(Locale.ROOT);
+        return RecommendedPortionCatalog.weightPerUnit(unit, name) != RecommendedPortionCatalog.weightPerUnit(unit, "");
+    }
+
+    private static boolean isPlainFoodName(String foodName) {
+        String name = foodName.toLowerCase(Locale.ROOT);
+        return PLAIN_FOOD_NAME.matcher(name).matches() && name.split("\\s+").length <= MAX_FOOD_NAME_WORDS;
+    }
+
+    /**
+     * An explicit meal word wins; otherwise the meal is inferred from when the user spoke, using the same day-part
+     * windows as {@link FoodVoiceParseCache#dayPart} (afternoon and night fall back to a snack).
+     */
+    private static String mealTypeFromVoice(String voiceText, LocalDateTime requestTime) {
+        String lower = voiceText.toLowerCase(Locale.ROOT);
+        if (lower.contains("breakfast")) {
+            return "breakfast";
+        }
+        if (lower.contains("lunch")) {
+            return "lunch";
+        }
+        if (lower.contains("dinner")) {
+            return "dinner";
+        }
+        if (requestTime == null) {
+            return "snack";
+        }
+        return switch (FoodVoiceParseCache.dayPart(requestTime.toLocalTime())) {
+            case "morning" -> "breakfast";
+            case "midday" -> "lunch";
+            case "evening" -> "dinner";
+            default -> "snack";
+        };
+    }
+
+    private static AiFoodVoiceParsingService.NutritionData toNutritionData(NutritionProfile profile) {
+        AiFoodVoiceParsingService.NutritionData data = new AiFoodVoiceParsingService.NutritionData();
+        data.setCaloriesPer100g(profile.getCaloriesPer100g());
+        data.setProteinPer100g(profile.getProteinPer100g());
+        data.setCarbsPer100g(profile.getCarbsPer100g());
+        data.setFatPer100g(profile.getFatPer100g());
+        data.setFiberPer100g(profile.getFiberPer100g());
+        return data;
+    }
+
+    private static String capitalize(String food) {
+        return food.substring(0, 1).toUpperCase(Locale.ROOT) + food.substring(1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("voice.parse.local.requests", served, AtomicLong::get)
+                .tag("result", "served").description("Food voice parses by whether rules answered without OpenAI")
+                .register(registry);
+        FunctionCounter.builder("voice.parse.local.requests", fallbacks, AtomicLong::get)
+                .tag("result", "fallback").description("Food voice parses by whether rules answered without OpenAI")
+                .register(registry);
+        FunctionCounter.builder("voice.parse.local.duration.total", servedNanos, nanos -> nanos.get() / 1_000_000.0)
+                .baseUnit("milliseconds").description("Summed time of locally served parses; divide by served")
+                .register(registry);
+        Gauge.builder("voice.parse.local.share", this, LocalFoodVoiceParser::servedShare)
+                .description("Share of food voice parses served without calling OpenAI").register(registry);
+    }
+
+    double servedShare() {
+        long total = served.get() + fallbacks.get();
+        return total == 0 ? 0 : (double) served.get() / total;
+    }
+
+    long servedCount() {
+        return served.get();
+    }
+
+    long fallbackCount() {
+        return fallbacks.get();
+    }
+}
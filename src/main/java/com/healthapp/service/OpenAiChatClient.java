@@ -5,37 +5,63 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.service.resilience.DependencyGuard;
+import com.healthapp.service.resilience.DependencyGuards;
+import com.healthapp.service.resilience.DependencyUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 /**
  * OpenAI Chat Completions client with Structured Outputs (json_schema) support.
- * Uses RestTemplate for reliable schema-based responses across gpt-4o+ models.
+ * Calls go through the pooled {@link OpenAiHttpTransport}, which applies per-model timeouts.
+ * {@link #streamStructuredCompletion} streams the same request as server-sent events and reports array elements of
+ * the JSON answer while the rest is still being generated. Token usage, including prompt tokens the provider served
+ * from its prompt cache, is counted as {@code openai.tokens{type}}. Every attempt runs through the {@code openai}
+ * {@link DependencyGuard}; while its breaker is open or its bulkhead is full, calls throw
+ * {@link DependencyUnavailableException} at once and are not retried.
  */
 @Service
-public class OpenAiChatClient {
+public class OpenAiChatClient implements MeterBinder {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenAiChatClient.class);
-    private static final String CHAT_COMPLETIONS_URL = "https://api.openai.com/v1/chat/completions";
+    private static final String CHAT_COMPLETIONS_PATH = "/chat/completions";
+    /** Transport message for a non-2xx answer; 4xx other than 429 is a problem with the request, not with OpenAI. */
+    private static final Pattern CLIENT_ERROR = Pattern.compile("^OpenAI API returned 4(?!29)\\d\\d\\b");
 
     private final OpenAiModelProperties properties;
     private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
+    private final OpenAiHttpTransport transport;
+    private final DependencyGuard guard;
+
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cachedPromptTokens = new AtomicLong();
+    private final AtomicLong completionTokens = new AtomicLong();
 
     @Autowired
-    public OpenAiChatClient(OpenAiModelProperties properties, ObjectMapper objectMapper, RestTemplate restTemplate) {
+    public OpenAiChatClient(OpenAiModelProperties properties, ObjectMapper objectMapper, OpenAiHttpTransport transport,
+                            DependencyGuards guards) {
+        this(properties, objectMapper, transport, guards.openAi());
+    }
+
+    OpenAiChatClient(OpenAiModelProperties properties, ObjectMapper objectMapper, OpenAiHttpTransport transport,
+                     DependencyGuard guard) {
         this.properties = properties;
         this.objectMapper = objectMapper;
-        this.restTemplate = restTemplate;
+        this.transport = transport;
+        this.guard = guard;
     }
 
     public boolean isAvailable() {
@@ -50,6 +76,55 @@ public class OpenAiChatClient {
      */
     public String createStructuredCompletion(String model, String systemPrompt, String userText,
                                              JsonNode jsonSchema, String schemaName, int maxTokens) {
+        return createStructuredCompletion(model, systemPrompt, userText, null, jsonSchema, schemaName, maxTokens);
+    }
+
+    /**
+     * Same as above, with {@code contextMessage} (e.g. the current time) sent as a final system message after the
+     * user text. Keeping per-request details out of {@code systemPrompt} leaves the prompt prefix byte-identical
+     * across requests, which the provider can serve from its prompt cache.
+     */
+    public String createStructuredCompletion(String model, String systemPrompt, String userText,
+                                             String contextMessage, JsonNode jsonSchema, String schemaName,
+                                             int maxTokens) {
+        return createStructuredCompletion(model, systemPrompt, userText, contextMessage, jsonSchema, schemaName,
+                maxTokens, new CompletionStats());
+    }
+
+    /** Same as above, counting attempts and token usage of this call into {@code stats}. */
+    public String createStructuredCompletion(String model, String systemPrompt, String userText,
+                                             String contextMessage, JsonNode jsonSchema, String schemaName,
+                                             int maxTokens, CompletionStats stats) {
+        return withRetries(model, systemPrompt, stats, prompt -> callChatCompletions(
+                model, prompt, userText, contextMessage, jsonSchema, schemaName, maxTokens, stats));
+    }
+
+    /**
+     * Streaming variant of {@link #createStructuredCompletion}: the completion is read as server-sent events and every
+     * object element of the top-level {@code arrayFields} is passed to {@code onElement} as soon as it is complete.
+     * Returns the full content, exactly as the non-streaming call would. A retried attempt starts a fresh parse, so
+     * elements of a failed attempt may already have been reported.
+     */
+    public String streamStructuredCompletion(String model, String systemPrompt, String userText,
+                                             String contextMessage, JsonNode jsonSchema, String schemaName,
+                                             int maxTokens, Set<String> arrayFields,
+                                             BiConsumer<String, JsonNode> onElement) {
+        return streamStructuredCompletion(model, systemPrompt, userText, contextMessage, jsonSchema, schemaName,
+                maxTokens, arrayFields, onElement, new CompletionStats());
+    }
+
+    /** Same as above, counting attempts and token usage of this call into {@code stats}. */
+    public String streamStructuredCompletion(String model, String systemPrompt, String userText,
+                                             String contextMessage, JsonNode jsonSchema, String schemaName,
+                                             int maxTokens, Set<String> arrayFields,
+                                             BiConsumer<String, JsonNode> onElement, CompletionStats stats) {
+        return withRetries(model, systemPrompt, stats, prompt -> streamChatCompletions(
+                model, prompt, userText, contextMessage, jsonSchema, schemaName, maxTokens,
+                new StreamingJsonElementParser(objectMapper, arrayFields, onElement), stats));
+    }
+
+    private String withRetries(String model, String systemPrompt, CompletionStats stats,
+                               Function<String, String> attemptWithPrompt) {
         if (!isAvailable()) {
             throw new RuntimeException("OpenAI service is not available. Please configure OpenAI API key.");
         }
@@ -58,10 +133,16 @@ public class OpenAiChatClient {
         String retryPrompt = systemPrompt;
         for (int attempt = 0; attempt <= maxRetries; attempt++) {
             try {
-                String response = callChatCompletions(
-                        model, retryPrompt, userText, jsonSchema, schemaName, maxTokens);
+                String prompt = retryPrompt;
+                String response = guard.call(model, () -> {
+                    stats.attempts.incrementAndGet();
+                    return attemptWithPrompt.apply(prompt);
+                }, OpenAiChatClient::isDependencyFailure);
                 logger.debug("OpenAI structured response (model={}, attempt={}): {}", model, attempt, response);
                 return response;
+            } catch (DependencyUnavailableException e) {
+                logger.warn("OpenAI structured completion skipped (model={}): {}", model, e.getMessage());
+                throw e;
             } catch (RuntimeException e) {
                 lastError = e;
                 logger.warn("OpenAI structured completion failed (model={}, attempt={}): {}", model, attempt, e.getMessage());
@@ -82,6 +163,11 @@ public class OpenAiChatClient {
         return message != null && (message.contains("429") || message.toLowerCase(Locale.ROOT).contains("rate limit"));
     }
 
+    private static boolean isDependencyFailure(RuntimeException e) {
+        String message = e.getMessage();
+        return message == null || !CLIENT_ERROR.matcher(message).find();
+    }
+
     private static void sleepBackoff(int attempt) {
         try {
             Thread.sleep(500L * (1L << attempt));
@@ -97,52 +183,55 @@ public class OpenAiChatClient {
         if (!isAvailable()) {
             throw new RuntimeException("OpenAI service is not available. Please configure OpenAI API key.");
         }
-        return callChatCompletions(model, systemPrompt, userText, null, null, maxTokens);
+        return guard.call(model, () -> callChatCompletions(model, systemPrompt, userText, null, null, null, maxTokens,
+                new CompletionStats()), OpenAiChatClient::isDependencyFailure);
     }
 
-    private String callChatCompletions(String model, String systemPrompt, String userText,
-                                       JsonNode jsonSchema, String schemaName, int maxTokens) {
-        try {
-            ObjectNode body = objectMapper.createObjectNode();
-            body.put("model", model);
-            body.put("max_tokens", maxTokens);
-            body.put("temperature", properties.getVoiceTemperature());
-
-            ArrayNode messages = body.putArray("messages");
-            ObjectNode system = messages.addObject();
-            system.put("role", "system");
-            system.put("content", systemPrompt);
-            ObjectNode user = messages.addObject();
-            user.put("role", "user");
-            user.put("content", userText);
-
-            if (jsonSchema != null) {
-                ObjectNode responseFormat = body.putObject("response_format");
-                responseFormat.put("type", "json_schema");
-                ObjectNode jsonSchemaWrapper = responseFormat.putObject("json_schema");
-                jsonSchemaWrapper.put("name", schemaName != null ? schemaName : "response");
-                jsonSchemaWrapper.put("strict", true);
-                jsonSchemaWrapper.set("schema", jsonSchema);
-            } else {
-                ObjectNode responseFormat = body.putObject("response_format");
-                responseFormat.put("type", "json_object");
-            }
+    private ObjectNode buildRequestBody(String model, String systemPrompt, String userText, String contextMessage,
+                                        JsonNode jsonSchema, String schemaName, int maxTokens) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", model);
+        body.put("max_tokens", maxTokens);
+        body.put("temperature", properties.getVoiceTemperature());
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(properties.getApiKey().trim());
+        ArrayNode messages = body.putArray("messages");
+        ObjectNode system = messages.addObject();
+        system.put("role", "system");
+        system.put("content", systemPrompt);
+        ObjectNode user = messages.addObject();
+        user.put("role", "user");
+        user.put("content", userText);
+        if (contextMessage != null && !contextMessage.isBlank()) {
+            ObjectNode context = messages.addObject();
+            context.put("role", "system");
+            context.put("content", contextMessage);
+        }
 
-            HttpEntity<String> entity = new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
-            ResponseEntity<String> response = restTemplate.postForEntity(CHAT_COMPLETIONS_URL, entity, String.class);
+        if (jsonSchema != null) {
+            ObjectNode responseFormat = body.putObject("response_format");
+            responseFormat.put("type", "json_schema");
+            ObjectNode jsonSchemaWrapper = responseFormat.putObject("json_schema");
+            jsonSchemaWrapper.put("name", schemaName != null ? schemaName : "response");
+            jsonSchemaWrapper.put("strict", true);
+            jsonSchemaWrapper.set("schema", jsonSchema);
+        } else {
+            ObjectNode responseFormat = body.putObject("response_format");
+            responseFormat.put("type", "json_object");
+        }
+        return body;
+    }
 
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode usage = root.get("usage");
-            if (usage != null) {
-                logger.info("OpenAI usage model={} prompt_tokens={} completion_tokens={}",
-                        model,
-                        usage.path("prompt_tokens").asInt(),
-                        usage.path("completion_tokens").asInt());
-            }
+    private String callChatCompletions(String model, String systemPrompt, String userText, String contextMessage,
+                                       JsonNode jsonSchema, String schemaName, int maxTokens,
+                                       CompletionStats stats) {
+        try {
+            ObjectNode body = buildRequestBody(
+                    model, systemPrompt, userText, contextMessage, jsonSchema, schemaName, maxTokens);
+            String response = transport.postJson(CHAT_COMPLETIONS_PATH, model,
+                    objectMapper.writeValueAsString(body), properties.getApiKey().trim());
+
+            JsonNode root = objectMapper.readTree(response);
+            logUsage(model, root.get("usage"), stats);
             JsonNode choices = root.get("choices");
             if (choices == null || !choices.isArray() || choices.isEmpty()) {
                 throw new RuntimeException("OpenAI returned no choices");
@@ -158,4 +247,113 @@ public class OpenAiChatClient {
             throw new RuntimeException("OpenAI API call failed: " + e.getMessage(), e);
         }
     }
+
+    private String streamChatCompletions(String model, String systemPrompt, String userText, String contextMessage,
+                                         JsonNode jsonSchema, String schemaName, int maxTokens,
+                                         StreamingJsonElementParser elements, CompletionStats stats) {
+        try {
+            ObjectNode body = buildRequestBody(
+                    model, systemPrompt, userText, contextMessage, jsonSchema, schemaName, maxTokens);
+            body.put("stream", true);
+            body.putObject("stream_options").put("include_usage", true);
+
+            StringBuilder content = new StringBuilder();
+            transport.postJsonStream(CHAT_COMPLETIONS_PATH, model, objectMapper.writeValueAsString(body),
+                    properties.getApiKey().trim(), data -> {
+                        JsonNode chunk = readChunk(data);
+                        logUsage(model, chunk.get("usage"), stats);
+                        JsonNode choices = chunk.path("choices");
+                        if (choices.isArray() && !choices.isEmpty()) {
+                            String delta = choices.get(0).path("delta").path("content").asText(null);
+                            if (delta != null && !delta.isEmpty()) {
+                                content.append(delta);
+                                elements.feed(delta);
+                            }
+                        }
+                    });
+            if (content.isEmpty() || content.toString().isBlank()) {
+                throw new RuntimeException("OpenAI returned empty content");
+            }
+            logger.debug("OpenAI stream (model={}) reported {} element(s) before completion",
+                    model, elements.emittedCount());
+            return content.toString();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI API call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private JsonNode readChunk(String data) {
+        try {
+            return objectMapper.readTree(data);
+        } catch (Exception e) {
+            throw new RuntimeException("OpenAI stream sent an unreadable chunk: " + e.getMessage(), e);
+        }
+    }
+
+    private void logUsage(String model, JsonNode usage, CompletionStats stats) {
+        if (usage == null || usage.isNull()) {
+            return;
+        }
+        int prompt = usage.path("prompt_tokens").asInt();
+        int cached = usage.path("prompt_tokens_details").path("cached_tokens").asInt();
+        int completion = usage.path("completion_tokens").asInt();
+        promptTokens.addAndGet(prompt);
+        cachedPromptTokens.addAndGet(cached);
+        completionTokens.addAndGet(completion);
+        stats.promptTokens.addAndGet(prompt);
+        stats.completionTokens.addAndGet(completion);
+        logger.info("OpenAI usage model={} prompt_tokens={} cached_tokens={} completion_tokens={}",
+                model, prompt, cached, completion);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("openai.tokens", promptTokens, AtomicLong::get)
+                .tag("type", "prompt").description("OpenAI tokens reported in usage").register(registry);
+        FunctionCounter.builder("openai.tokens", cachedPromptTokens, AtomicLong::get)
+                .tag("type", "cached").description("Prompt tokens served from the provider's prompt cache")
+                .register(registry);
+        FunctionCounter.builder("openai.tokens", completionTokens, AtomicLong::get)
+                .tag("type", "completion").description("OpenAI tokens reported in usage").register(registry);
+    }
+
+    /**
+     * Attempts and token usage of one completion call, summed over its retries. Filled in while the call runs and
+     * complete once it returns or throws.
+     */
+    public static final class CompletionStats {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicLong promptTokens = new AtomicLong();
+        private final AtomicLong completionTokens = new AtomicLong();
+
+        static CompletionStats of(int attempts, long promptTokens, long completionTokens) {
+            CompletionStats stats = new CompletionStats();
+            stats.attempts.set(attempts);
+            stats.promptTokens.set(promptTokens);
+            stats.completionTokens.set(completionTokens);
+            return stats;
+        }
+
+        public int getAttempts() {
+            return attempts.get();
+        }
+
+        public long getPromptTokens() {
+            return promptTokens.get();
+        }
+
+        public long getCompletionTokens() {
+            return completionTokens.get();
+        }
+    }
+
+    long promptTokenCount() {
+        return promptTokens.get();
+    }
+
+    long cachedPromptTokenCount() {
+        return cachedPromptTokens.get();
+    }
 }
@@ -0,0 +1,380 @@
+package com.healthapp.service;
+
+import com.healthapp.config.OpenAiModelProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Shared HTTP transport for the OpenAI REST API: one JDK {@link HttpClient} (HTTP/2 with HTTP/1.1 fallback) whose
+ * connections stay open between calls, so voice requests after the first skip TCP and TLS setup.
+ * <p>
+ * Timeouts are split: {@code openai.http.connect-timeout-ms} for connection setup, {@code read-timeout-ms} until
+ * response headers arrive, and {@code deadline-ms} for the whole call including the body. The last two can be
+ * overridden per model under {@code openai.http.routes}.
+ * <p>
+ * The JDK client does not expose its pool, so reuse is measured from the outside as {@code openai.http.*} meters:
+ * requests by outcome, in-flight and peak concurrent calls, responses by protocol, and TLS connections opened (one
+ * per distinct TLS session). Compare the connection count with the request count to see the reuse rate.
+ * <p>
+ * {@link #postJsonStream} reads a server-sent-events response line by line and hands each {@code data:} payload to
+ * the caller as it arrives; time to the first payload is summed as {@code openai.http.stream.first_data.total}.
+ */
+@Component
+public class OpenAiHttpTransport implements MeterBinder {
+
+    /** Bounds the set of TLS session ids remembered for {@code connections.opened}. */
+    private static final int MAX_TRACKED_SESSIONS = 1024;
+    private static final int MAX_ERROR_BODY_CHARS = 300;
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+
+    private final OpenAiModelProperties properties;
+    private final HttpClient httpClient;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong latencyTotalMs = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong http11Responses = new AtomicLong();
+    private final AtomicLong connectionsOpened = new AtomicLong();
+    private final AtomicLong streams = new AtomicLong();
+    private final AtomicLong firstDataTotalMs = new AtomicLong();
+    private final Map<String, Boolean> seenSessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OpenAiHttpTransport(OpenAiModelProperties properties) {
+        this(properties, createHttpClient(properties.getHttp()));
+    }
+
+    OpenAiHttpTransport(OpenAiModelProperties properties, HttpClient httpClient) {
+        this.properties = properties;
+        this.httpClient = httpClient;
+    }
+
+    static HttpClient createHttpClient(OpenAiModelProperties.Http http) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(Math.max(1, http.getConnectTimeoutMs())))
+                .build();
+    }
+
+    /**
+     * POSTs {@code jsonBody} to {@code path} under the configured base URL and returns the response body.
+     *
+     * @param model selects the per-route read timeout and deadline
+     * @throws RuntimeException on timeout or a non-2xx status; the message carries the status (e.g. 429) for callers
+     *                          that decide whether to back off
+     */
+    public String postJson(String path, String model, String jsonBody, String apiKey) {
+        long deadlineMs = Math.max(1, properties.getHttp().deadlineMsFor(model));
+        HttpRequest request = buildRequest(path, model, jsonBody, apiKey, "application/json");
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long started = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> call =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        try {
+            HttpResponse<String> response = call.get(deadlineMs, TimeUnit.MILLISECONDS);
+            recordConnection(response);
+            if (response.statusCode() / 100 != 2) {
+                failed.incrementAndGet();
+                throw new RuntimeException("OpenAI API returned " + response.statusCode() + ": "
+                        + abbreviate(response.body()));
+            }
+            succeeded.incrementAndGet();
+            return response.body();
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            timedOut.incrementAndGet();
+            throw new RuntimeException("OpenAI API call exceeded " + deadlineMs + " ms deadline (model=" + model + ")");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpTimeoutException) {
+                timedOut.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            throw new RuntimeException("OpenAI API call failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            throw new RuntimeException("OpenAI API call interrupted", e);
+        } finally {
+            latencyTotalMs.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * POSTs {@code jsonBody} to {@code path} and reads the response as server-sent events, calling {@code onData}
+     * on this thread with each {@code data:} payload in order. Returns when the server sends {@code [DONE]} or closes
+     * the stream. The read timeout covers the wait for response headers; the model's deadline covers the whole stream,
+     * including pauses between events.
+     *
+     * @throws RuntimeException on timeout or a non-2xx status, with the same messages as {@link #postJson}; payloads
+     *                          delivered before a failure are not taken back
+     */
+    public void postJsonStream(String path, String model, String jsonBody, String apiKey, Consumer<String> onData) {
+        long deadlineMs = Math.max(1, properties.getHttp().deadlineMsFor(model));
+        HttpRequest request = buildRequest(path, model, jsonBody, apiKey, "text/event-stream");
+        LineQueue lines = new LineQueue();
+
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        streams.incrementAndGet();
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        // sendAsync completes only after the whole body; the handler sees the status as soon as headers arrive
+        CompletableFuture<HttpResponse.ResponseInfo> headers = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<Void>> call = httpClient.sendAsync(request, info -> {
+            headers.complete(info);
+            return HttpResponse.BodySubscribers.fromLineSubscriber(lines);
+        });
+        call.whenComplete((response, failure) -> {
+            if (failure != null) {
+                headers.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+            }
+        });
+        try {
+            HttpResponse.ResponseInfo info = headers.get(deadlineMs, TimeUnit.MILLISECONDS);
+            if (info.statusCode() / 100 != 2) {
+                throw new RuntimeException("OpenAI API returned " + info.statusCode() + ": "
+                        + abbreviate(lines.drain(deadline)));
+            }
+            boolean first = true;
+            String line;
+            while ((line = lines.next(deadline)) != null) {
+                if (!line.startsWith(SSE_DATA_PREFIX)) {
+                    continue; // blank separators, comments, event/id fields
+                }
+                String data = line.substring(SSE_DATA_PREFIX.length()).trim();
+                if (SSE_DONE.equals(data)) {
+                    break;
+                }
+                if (first) {
+                    firstDataTotalMs.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                    first = false;
+                }
+                onData.accept(data);
+            }
+            // Leave the subscription open so the body ends normally and the connection returns to the pool
+            call.thenAccept(this::recordConnection);
+            succeeded.incrementAndGet();
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            lines.cancel();
+            timedOut.incrementAndGet();
+            throw new RuntimeException("OpenAI API call exceeded " + deadlineMs + " ms deadline (model=" + model + ")");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpTimeoutException) {
+                timedOut.incrementAndGet();
+            } else {
+                failed.incrementAndGet();
+            }
+            throw new RuntimeException("OpenAI API call failed: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            lines.cancel();
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            throw new RuntimeException("OpenAI API call interrupted", e);
+        } catch (RuntimeException e) {
+            // Bad status, broken stream or a failing listener: release the connection before rethrowing
+            lines.cancel();
+            failed.incrementAndGet();
+            throw e;
+        } finally {
+            latencyTotalMs.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private HttpRequest buildRequest(String path, String model, String jsonBody, String apiKey, String accept) {
+        OpenAiModelProperties.Http http = properties.getHttp();
+        return HttpRequest.newBuilder(URI.create(http.getBaseUrl() + path))
+                .timeout(Duration.ofMillis(Math.max(1, http.readTimeoutMsFor(model))))
+                .header("Content-Type", "application/json")
+                .header("Accept", accept)
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private void recordConnection(HttpResponse<?> response) {
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2Responses.incrementAndGet();
+        } else {
+            http11Responses.incrementAndGet();
+        }
+        SSLSession session = response.sslSession().orElse(null);
+        if (session == null) {
+            return;
+        }
+        if (seenSessions.size() >= MAX_TRACKED_SESSIONS) {
+            seenSessions.clear();
+        }
+        if (seenSessions.putIfAbsent(HexFormat.of().formatHex(session.getId()), Boolean.TRUE) == null) {
+            connectionsOpened.incrementAndGet();
+        }
+    }
+
+    /**
+     * Buffers body lines pushed by the HTTP client so the calling thread can read them with a deadline; a stalled
+     * stream then times out instead of blocking the request thread indefinitely.
+     */
+    private static final class LineQueue implements Flow.Subscriber<String> {
+
+        private static final Object END = new Object();
+
+        private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            queue.add(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            queue.add(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            queue.add(END);
+        }
+
+        /** @return the next line, or null at the end of the body */
+        String next(long deadlineNanos) throws InterruptedException, TimeoutException {
+            Object item = queue.poll(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (item == null) {
+                throw new TimeoutException();
+            }
+            if (item == END) {
+                queue.add(END);
+                return null;
+            }
+            if (item instanceof Throwable failure) {
+                throw new RuntimeException("OpenAI API stream failed: " + failure.getMessage(), failure);
+            }
+            return (String) item;
+        }
+
+        /** Reads the rest of an error body. */
+        String drain(long deadlineNanos) {
+            StringBuilder body = new StringBuilder();
+            try {
+                String line;
+                while ((line = next(deadlineNanos)) != null && body.length() <= MAX_ERROR_BODY_CHARS) {
+                    body.append(line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (TimeoutException | RuntimeException ignored) {
+                // Best effort: the status code alone is enough for callers
+            }
+            cancel();
+            return body.toString();
+        }
+
+        void cancel() {
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+    }
+
+    private static String abbreviate(String body) {
+        if (body == null) {
+            return "";
+        }
+        return body.length() > MAX_ERROR_BODY_CHARS ? body.substring(0, MAX_ERROR_BODY_CHARS) + "..." : body;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("openai.http.requests", succeeded, AtomicLong::get)
+                .tag("outcome", "success").description("OpenAI HTTP calls").register(registry);
+        FunctionCounter.builder("openai.http.requests", failed, AtomicLong::get)
+                .tag("outcome", "error").description("OpenAI HTTP calls").register(registry);
+        FunctionCounter.builder("openai.http.requests", timedOut, AtomicLong::get)
+                .tag("outcome", "timeout").description("OpenAI HTTP calls").register(registry);
+        FunctionCounter.builder("openai.http.latency.total", latencyTotalMs, AtomicLong::get)
+                .baseUnit("milliseconds").description("Summed OpenAI call time; divide by requests for the mean")
+                .register(registry);
+        FunctionCounter.builder("openai.http.responses", http2Responses, AtomicLong::get)
+                .tag("protocol", "HTTP_2").description("OpenAI responses by negotiated protocol").register(registry);
+        FunctionCounter.builder("openai.http.responses", http11Responses, AtomicLong::get)
+                .tag("protocol", "HTTP_1_1").description("OpenAI responses by negotiated protocol").register(registry);
+        FunctionCounter.builder("openai.http.connections.opened", connectionsOpened, AtomicLong::get)
+                .description("New TLS connections to OpenAI (reused connections are not counted)").register(registry);
+        FunctionCounter.builder("openai.http.streams", streams, AtomicLong::get)
+                .description("OpenAI calls read as server-sent events").register(registry);
+        FunctionCounter.builder("openai.http.stream.first_data.total", firstDataTotalMs, AtomicLong::get)
+                .baseUnit("milliseconds").description("Summed time to the first streamed event; divide by streams")
+                .register(registry);
+        Gauge.builder("openai.http.in_flight", inFlight, AtomicInteger::get)
+                .description("OpenAI calls currently waiting on the network").register(registry);
+        Gauge.builder("openai.http.in_flight.peak", peakInFlight, AtomicInteger::get)
+                .description("Most concurrent OpenAI calls seen since startup").register(registry);
+    }
+
+    long succeededCount() {
+        return succeeded.get();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+
+    long timedOutCount() {
+        return timedOut.get();
+    }
+
+    int inFlightCount() {
+        return inFlight.get();
+    }
+
+    int peakInFlightCount() {
+        return peakInFlight.get();
+    }
+}
@@ -15,24 +15,27 @@ public class PortionSanityCorrector {
     private static final Logger logger = LoggerFactory.getLogger(PortionSanityCorrector.class);
     private static final double MIN_FRACTION_OF_TYPICAL = 0.75;
 
-    public void apply(AiFoodVoiceParsingService.ParsedFoodDataList dataList) {
+    /** @return number of portions raised */
+    public int apply(AiFoodVoiceParsingService.ParsedFoodDataList dataList) {
         if (dataList == null) {
-            return;
+            return 0;
         }
+        int corrections = 0;
         for (AiFoodVoiceParsingService.ParsedFoodData composite : dataList.getCompositeMeals()) {
-            correctComposite(composite);
+            corrections += correctComposite(composite);
         }
         for (AiFoodVoiceParsingService.ParsedFoodData item : dataList.getFoodItems()) {
-            correctItem(item, null);
+            corrections += correctItem(item, null);
         }
+        return corrections;
     }
 
-    private void correctComposite(AiFoodVoiceParsingService.ParsedFoodData composite) {
+    private int correctComposite(AiFoodVoiceParsingService.ParsedFoodData composite) {
         if (composite.getIngredients() == null || composite.getIngredients().isEmpty()) {
-            correctItem(composite, null);
-            return;
+            return correctItem(composite, null);
         }
         String mealContext = composite.getFoodName();
+        int corrections = 0;
         double ingredientTotal = 0;
         for (AiFoodVoiceParsingService.IngredientData ingredient : composite.getIngredients()) {
             double corrected = correctGrams(
@@ -41,6 +44,7 @@ public class PortionSanityCorrector {
                 logger.info("Portion sanity: raised '{}' from {}g to {}g",
                         ingredient.getName(), ingredient.getEstimatedGrams(), corrected);
                 ingredient.setEstimatedGrams(corrected);
+                corrections++;
             }
             ingredientTotal += ingredient.getEstimatedGrams();
         }
@@ -49,11 +53,12 @@ public class PortionSanityCorrector {
             composite.setQuantity(ingredientTotal);
             composite.setUnit("grams");
         }
+        return corrections;
     }
 
-    private void correctItem(AiFoodVoiceParsingService.ParsedFoodData item, String mealContext) {
+    private int correctItem(AiFoodVoiceParsingService.ParsedFoodData item, String mealContext) {
         if (item.isUserSpecifiedGrams()) {
-            return;
+            return 0;
         }
         double corrected = correctGrams(item.getFoodName(), item.getEstimatedGrams(), mealContext, false);
         if (corrected != item.getEstimatedGrams()) {
@@ -63,7 +68,9 @@ public class PortionSanityCorrector {
             if ("grams".equalsIgnoreCase(item.getUnit()) || "g".equalsIgnoreCase(item.getUnit())) {
                 item.setQuantity(corrected);
             }
+            return 1;
         }
+        return 0;
     }
 
     private double correctGrams(String foodName, double currentGrams, String mealContext, boolean userSpecified) {
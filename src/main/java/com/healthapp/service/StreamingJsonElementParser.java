@@ -0,0 +1,143 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Incremental reader for a JSON object that arrives in arbitrary text fragments, such as streamed completion deltas.
+ * Each object element of the named top-level arrays (e.g. {@code foodItems}) is handed to the listener as soon as
+ * its closing brace has been fed, while later elements are still being generated.
+ * <p>
+ * Uses Jackson's non-blocking parser, so fragments may split tokens, strings and escapes anywhere. Text before the
+ * first opening brace (a markdown fence, say) is skipped. Malformed input stops extraction quietly; callers still
+ * parse the complete text afterwards and treat streamed elements as early hints only.
+ */
+public class StreamingJsonElementParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingJsonElementParser.class);
+
+    private final ObjectMapper objectMapper;
+    private final Set<String> arrayFields;
+    private final BiConsumer<String, JsonNode> listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private boolean started;
+    private boolean stopped;
+    private int depth;
+    private String topLevelField;
+    /** Name of the top-level array being read, or null. */
+    private String currentArray;
+    private TokenBuffer element;
+    private int emitted;
+
+    public StreamingJsonElementParser(ObjectMapper objectMapper, Set<String> arrayFields,
+                                      BiConsumer<String, JsonNode> listener) {
+        this.objectMapper = objectMapper;
+        this.arrayFields = arrayFields;
+        this.listener = listener;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Non-blocking JSON parser unavailable", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /** Feeds the next fragment; listener calls happen on this thread before it returns. */
+    public void feed(String fragment) {
+        if (stopped || fragment == null || fragment.isEmpty()) {
+            return;
+        }
+        if (!started) {
+            int start = fragment.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            fragment = fragment.substring(start);
+            started = true;
+        }
+        byte[] bytes = fragment.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            stop("unreadable JSON: " + e.getMessage());
+        }
+    }
+
+    /** Number of elements handed to the listener so far. */
+    public int emittedCount() {
+        return emitted;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!stopped && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (element != null) {
+                element.copyCurrentEvent(parser);
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    if (depth == 2 && token == JsonToken.START_ARRAY && arrayFields.contains(topLevelField)) {
+                        currentArray = topLevelField;
+                    } else if (depth == 3 && token == JsonToken.START_OBJECT && currentArray != null) {
+                        element = new TokenBuffer(objectMapper, false);
+                        element.copyCurrentEvent(parser);
+                    }
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    depth--;
+                    if (depth == 2 && element != null) {
+                        emit();
+                    } else if (depth == 1) {
+                        currentArray = null;
+                    } else if (depth == 0) {
+                        stopped = true;
+                        feeder.endOfInput();
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        topLevelField = parser.getCurrentName();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void emit() throws IOException {
+        TokenBuffer buffer = element;
+        element = null;
+        JsonNode node;
+        try (JsonParser replay = buffer.asParser(objectMapper)) {
+            node = objectMapper.readTree(replay);
+        }
+        emitted++;
+        try {
+            listener.accept(currentArray, node);
+        } catch (RuntimeException e) {
+            logger.warn("Streamed {} element listener failed: {}", currentArray, e.getMessage());
+        }
+    }
+
+    private void stop(String reason) {
+        stopped = true;
+        element = null;
+        logger.debug("Stopped incremental JSON extraction after {} element(s): {}", emitted, reason);
+    }
+}
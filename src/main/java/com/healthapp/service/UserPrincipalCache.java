@@ -0,0 +1,96 @@
+package com.healthapp.service;
+
+import com.healthapp.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, TTL-based cache of {@link User.AccountStatus} by user id, consulted by
+ * {@link com.healthapp.config.JwtAuthenticationFilter} so warm users do not cost a DB round-trip per request.
+ * <p>
+ * {@link UserService} invalidates entries whenever it changes a user's status or credentials; the TTL bounds
+ * staleness for changes made outside the service (e.g. manual DB edits).
+ */
+@Component
+public class UserPrincipalCache {
+
+    private final Map<Long, CachedStatus> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public UserPrincipalCache(
+            @Value("${app.auth.principal-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.auth.principal-cache.max-entries:10000}") int maxEntries) {
+        this(ttlSeconds, maxEntries, System::nanoTime);
+    }
+
+    UserPrincipalCache(long ttlSeconds, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = Math.max(0, ttlSeconds) * 1_000_000_000L;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Cached status for the user, or empty when absent or expired (caller should load from DB and {@link #put}).
+     */
+    public Optional<User.AccountStatus> getStatus(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        CachedStatus cached = entries.get(userId);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (nanoClock.getAsLong() - cached.expiresAtNanos() >= 0) {
+            entries.remove(userId, cached);
+            return Optional.empty();
+        }
+        return Optional.of(cached.status());
+    }
+
+    public void put(Long userId, User.AccountStatus status) {
+        if (userId == null || status == null || ttlNanos == 0 || maxEntries == 0) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        if (entries.size() >= maxEntries && !entries.containsKey(userId)) {
+            makeRoom(now);
+        }
+        entries.put(userId, new CachedStatus(status, now + ttlNanos));
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /** Drops expired entries first; if still full, evicts arbitrary entries until one slot is free. */
+    private void makeRoom(long now) {
+        entries.values().removeIf(e -> now - e.expiresAtNanos() >= 0);
+        Iterator<Long> it = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record CachedStatus(User.AccountStatus status, long expiresAtNanos) {}
+}
@@ -14,6 +14,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +33,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
     /**
      * When false (default), public registration always creates {@link User.UserRole#USER} even if the client sends ADMIN.
      * Enable on trusted dev profiles (e.g. {@code local}) to register an admin via POST /users for testing.
@@ -313,7 +318,9 @@ public class UserService {
                         user.setPassword(passwordEncoder.encode(userDetails.getPassword()));
                     }
                     
-                    return userRepository.save(user);
+                    User saved = userRepository.save(user);
+                    evictPrincipal(id);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
@@ -342,6 +349,7 @@ public class UserService {
         // Soft delete - mark as deleted instead of hard delete
         user.setAccountStatus(User.AccountStatus.DELETED);
         userRepository.save(user);
+        evictPrincipal(id);
         
     }
     
@@ -376,7 +384,9 @@ public class UserService {
                         user.setPassword(passwordEncoder.encode(patchRequest.getPassword()));
                     }
                     
-                    return userRepository.save(user);
+                    User saved = userRepository.save(user);
+                    evictPrincipal(id);
+                    return saved;
                 })
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
@@ -412,6 +422,23 @@ public class UserService {
         // Encode and set new password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        evictPrincipal(userId);
         
     }
+
+    /**
+     * Drops the cached principal now and again after commit, so a concurrent request that reloads
+     * the row before this transaction commits cannot leave a stale status in the cache.
+     */
+    private void evictPrincipal(Long userId) {
+        userPrincipalCache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    userPrincipalCache.invalidate(userId);
+                }
+            });
+        }
+    }
 } 
\ No newline at end of file
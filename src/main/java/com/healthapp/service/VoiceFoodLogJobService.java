@@ -0,0 +1,318 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.AiFoodProperties;
+import com.healthapp.dto.VoiceFoodLogJobResponse;
+import com.healthapp.dto.VoiceFoodLogRequest;
+import com.healthapp.dto.VoiceFoodLogResponse;
+import com.healthapp.entity.VoiceFoodLogJob;
+import com.healthapp.exception.VoiceFoodLogException;
+import com.healthapp.repository.VoiceFoodLogJobRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs {@link VoiceFoodLogService#processVoiceFoodLog} off the servlet thread. {@link #submit} stores a
+ * {@code QUEUED} job and hands it to a bounded worker pool; the client polls {@link #find} until the job has
+ * finished, and then gets the status code and body the synchronous endpoint would have returned. The worker
+ * processes the request as of its {@code requestedAt}, so a queued "for breakfast" is not logged at lunch time.
+ * <p>
+ * A full queue refuses new jobs with 503 instead of growing. Unfinished jobs that stop being updated (the instance
+ * was restarted) are failed by a periodic sweep, which also deletes finished jobs after the retention period.
+ * Running jobs are stale after {@code staleAfterMinutes}; queued jobs only once they have waited longer than a full
+ * queue takes to drain, so a backlog is not mistaken for a lost job. Status changes are conditional updates; a
+ * worker that finishes after the sweep failed its job replaces that failure with its real outcome.
+ * Meters: {@code voice.food.jobs.*}.
+ */
+@Service
+public class VoiceFoodLogJobService implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceFoodLogJobService.class);
+
+    static final String QUEUE_FULL = "VOICE_QUEUE_FULL";
+    static final String JOB_LOST = "JOB_INTERRUPTED";
+    private static final EnumSet<VoiceFoodLogJob.Status> QUEUED = EnumSet.of(VoiceFoodLogJob.Status.QUEUED);
+    private static final EnumSet<VoiceFoodLogJob.Status> RUNNING = EnumSet.of(VoiceFoodLogJob.Status.RUNNING);
+
+    private final AiFoodProperties.Async settings;
+    private final VoiceFoodLogService voiceFoodLogService;
+    private final VoiceFoodLogJobRepository jobRepository;
+    private final ObjectMapper objectMapper;
+    /** Null when async logging is disabled. */
+    private final ThreadPoolExecutor executor;
+    private ScheduledExecutorService maintenance;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong staleFailed = new AtomicLong();
+    private final AtomicLong runTotalMs = new AtomicLong();
+
+    @Autowired
+    public VoiceFoodLogJobService(AiFoodProperties properties,
+                                  VoiceFoodLogService voiceFoodLogService,
+                                  VoiceFoodLogJobRepository jobRepository,
+                                  ObjectMapper objectMapper) {
+        this(properties, voiceFoodLogService, jobRepository, objectMapper,
+                properties.getAsync().isEnabled() ? createExecutor(properties.getAsync()) : null);
+    }
+
+    VoiceFoodLogJobService(AiFoodProperties properties,
+                           VoiceFoodLogService voiceFoodLogService,
+                           VoiceFoodLogJobRepository jobRepository,
+                           ObjectMapper objectMapper,
+                           ThreadPoolExecutor executor) {
+        this.settings = properties.getAsync();
+        this.voiceFoodLogService = voiceFoodLogService;
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    void start() {
+        if (executor == null) {
+            return;
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "voice-food-job-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::sweepSafely, 1, 1, TimeUnit.MINUTES);
+        logger.info("Async voice food logging enabled ({} workers, queue {})",
+                settings.getWorkers(), settings.getQueueCapacity());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        if (executor != null) {
+            // Jobs still queued are failed by the next sweep on any instance
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    /**
+     * Accepts a request for background processing. Ownership is checked here so a mismatched user id still fails
+     * the request itself with 400; every other outcome is reported through the job.
+     */
+    public VoiceFoodLogJobResponse submit(VoiceFoodLogRequest request, Long authenticatedUserId) {
+        if (!request.getUserId().equals(authenticatedUserId)) {
+            throw new IllegalArgumentException("You can only create food logs for your own account.");
+        }
+        if (executor == null) {
+            throw new VoiceFoodLogException(
+                    "AI_SERVICE_UNAVAILABLE",
+                    "Background voice logging is turned off. Please log your food with the regular voice option.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        LocalDateTime requestedAt = LocalDateTime.now();
+        VoiceFoodLogJob job = new VoiceFoodLogJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setUserId(authenticatedUserId);
+        job.setVoiceText(request.getVoiceText());
+        job.setStatus(VoiceFoodLogJob.Status.QUEUED);
+        job.setRequestedAt(requestedAt);
+        VoiceFoodLogJob saved = jobRepository.save(job);
+        try {
+            executor.execute(() -> run(saved.getId(), request, authenticatedUserId, requestedAt));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            jobRepository.deleteById(saved.getId());
+            throw new VoiceFoodLogException(
+                    QUEUE_FULL,
+                    "Lots of meals are being logged right now. Please try again in a moment.",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        submitted.incrementAndGet();
+        return toResponse(saved);
+    }
+
+    public Optional<VoiceFoodLogJobResponse> find(String jobId, Long authenticatedUserId) {
+        return jobRepository.findByIdAndUserId(jobId, authenticatedUserId).map(this::toResponse);
+    }
+
+    void run(String jobId, VoiceFoodLogRequest request, Long userId, LocalDateTime requestedAt) {
+        long started = System.currentTimeMillis();
+        if (jobRepository.transition(jobId, VoiceFoodLogJob.Status.QUEUED, VoiceFoodLogJob.Status.RUNNING,
+                LocalDateTime.now()) == 0) {
+            return;
+        }
+
+        HttpStatus status;
+        VoiceFoodLogResponse result;
+        try {
+            result = voiceFoodLogService.processVoiceFoodLog(request, userId, requestedAt);
+            status = HttpStatus.CREATED;
+        } catch (VoiceFoodLogException e) {
+            logger.warn("Voice food log job {} failed [{}]: {}", jobId, e.getErrorCode(), e.getUserMessage());
+            status = e.getHttpStatus();
+            result = VoiceFoodLogResponse.error(e.getUserMessage(), e.getErrorCode());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid voice food job {}: {}", jobId, e.getMessage());
+            status = HttpStatus.BAD_REQUEST;
+            result = VoiceFoodLogResponse.error(e.getMessage(), "INVALID_REQUEST");
+        } catch (RuntimeException e) {
+            logger.error("Error processing voice food job {}: {}", jobId, e.getMessage(), e);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            result = VoiceFoodLogResponse.error(
+                    "Something went wrong while saving your food. Please try again or add manually.",
+                    "INTERNAL_ERROR");
+        }
+
+        boolean success = status.is2xxSuccessful();
+        // A sweep that gave up on this job while it was still running is overwritten: the food logs may be saved,
+        // and reporting JOB_INTERRUPTED would make the client retry and log everything twice
+        int stored = jobRepository.complete(jobId, VoiceFoodLogJob.Status.RUNNING,
+                VoiceFoodLogJob.Status.FAILED, JOB_LOST,
+                success ? VoiceFoodLogJob.Status.SUCCEEDED : VoiceFoodLogJob.Status.FAILED,
+                status.value(), result.getErrorCode(), writeResult(result), LocalDateTime.now());
+        if (stored == 0) {
+            logger.warn("Voice food job {} finished ({}) but is no longer tracked; result dropped",
+                    jobId, status.value());
+            return;
+        }
+        (success ? succeeded : failed).incrementAndGet();
+        runTotalMs.addAndGet(System.currentTimeMillis() - started);
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            logger.warn("Voice food job sweep failed: {}", e.getMessage());
+        }
+    }
+
+    void sweep(LocalDateTime now) {
+        int stale = jobRepository.failStale(RUNNING, now.minusMinutes(settings.getStaleAfterMinutes()),
+                VoiceFoodLogJob.Status.FAILED, JOB_LOST, HttpStatus.SERVICE_UNAVAILABLE.value(), now);
+        stale += jobRepository.failStale(QUEUED, now.minusMinutes(queuedStaleAfterMinutes()),
+                VoiceFoodLogJob.Status.FAILED, JOB_LOST, HttpStatus.SERVICE_UNAVAILABLE.value(), now);
+        staleFailed.addAndGet(stale);
+        int purged = jobRepository.deleteCompletedBefore(now.minusHours(settings.getRetentionHours()));
+        if (stale > 0 || purged > 0) {
+            logger.info("Voice food jobs: {} stale job(s) failed, {} finished job(s) deleted", stale, purged);
+        }
+    }
+
+    /**
+     * How long a queued job may legitimately wait: with every worker busy, a job at the back of a full queue starts
+     * after {@code queueCapacity / workers} rounds of jobs, each of which may run up to {@code staleAfterMinutes}.
+     */
+    long queuedStaleAfterMinutes() {
+        int workers = Math.max(1, settings.getWorkers());
+        long rounds = (Math.max(1, settings.getQueueCapacity()) + workers - 1) / workers;
+        return Math.max(1, rounds) * settings.getStaleAfterMinutes();
+    }
+
+    private String writeResult(VoiceFoodLogResponse result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize voice food job result: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private VoiceFoodLogJobResponse toResponse(VoiceFoodLogJob job) {
+        VoiceFoodLogResponse result = null;
+        if (job.getResultJson() != null) {
+            try {
+                result = objectMapper.readValue(job.getResultJson(), VoiceFoodLogResponse.class);
+            } catch (JsonProcessingException e) {
+                logger.warn("Unreadable result for voice food job {}: {}", job.getId(), e.getMessage());
+            }
+        } else if (job.getErrorCode() != null) {
+            result = VoiceFoodLogResponse.error(
+                    "We could not finish logging this meal. Please try again or add it manually.", job.getErrorCode());
+        }
+        return new VoiceFoodLogJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getHttpStatus(),
+                result,
+                job.getCreatedAt() != null ? job.getCreatedAt().toString() : null,
+                job.getCompletedAt() != null ? job.getCompletedAt().toString() : null);
+    }
+
+    private static ThreadPoolExecutor createExecutor(AiFoodProperties.Async settings) {
+        int workers = Math.max(1, settings.getWorkers());
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())), r -> {
+                    Thread t = new Thread(r, "voice-food-job-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("voice.food.jobs.submitted", submitted, AtomicLong::get)
+                .description("Voice food log jobs accepted for background processing").register(registry);
+        FunctionCounter.builder("voice.food.jobs.rejected", rejected, AtomicLong::get)
+                .description("Voice food log jobs refused because the queue was full").register(registry);
+        FunctionCounter.builder("voice.food.jobs.completed", succeeded, AtomicLong::get)
+                .tag("result", "succeeded").description("Finished voice food log jobs").register(registry);
+        FunctionCounter.builder("voice.food.jobs.completed", failed, AtomicLong::get)
+                .tag("result", "failed").description("Finished voice food log jobs").register(registry);
+        FunctionCounter.builder("voice.food.jobs.completed", staleFailed, AtomicLong::get)
+                .tag("result", "interrupted").description("Finished voice food log jobs").register(registry);
+        FunctionCounter.builder("voice.food.jobs.run.total", runTotalMs, AtomicLong::get)
+                .baseUnit("milliseconds").description("Summed pipeline time of finished jobs; divide by completed")
+                .register(registry);
+        if (executor != null) {
+            Gauge.builder("voice.food.jobs.queued", executor, pool -> pool.getQueue().size())
+                    .description("Jobs waiting for a worker").register(registry);
+            Gauge.builder("voice.food.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Jobs currently running").register(registry);
+        }
+    }
+
+    long submittedCount() {
+        return submitted.get();
+    }
+
+    long rejectedCount() {
+        return rejected.get();
+    }
+}
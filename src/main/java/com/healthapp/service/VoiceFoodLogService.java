@@ -10,6 +10,7 @@ import com.healthapp.service.nutrition.NutritionConfidence;
 import com.healthapp.service.nutrition.NutritionSource;
 import com.healthapp.service.nutrition.NutritionValidator;
 import com.healthapp.service.nutrition.SimpleFoodNutritionResolver;
+import com.healthapp.service.resilience.DependencyUnavailableException;
 
 import com.healthapp.repository.FoodItemRepository;
 import com.healthapp.repository.UserRepository;
@@ -18,11 +19,22 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class VoiceFoodLogService {
@@ -55,8 +67,51 @@ public class VoiceFoodLogService {
 
     @Autowired
     private CompositeFoodNutritionResolver compositeFoodNutritionResolver;
+
+    /** Creates food items and food logs in one transaction; without a transaction manager they run as-is. */
+    @Autowired
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
+    /** Null when {@code ai.food.nutrition-parallelism} is 1 (or before startup): items resolve one by one. */
+    private ExecutorService nutritionExecutor;
+
+    @PostConstruct
+    void startNutritionExecutor() {
+        int parallelism = aiFoodProperties.getNutritionParallelism();
+        if (parallelism <= 1) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(parallelism * 16),
+                r -> {
+                    Thread t = new Thread(r, "voice-food-nutrition-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // Saturated: resolve on the request thread rather than failing the item
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        nutritionExecutor = executor;
+    }
+
+    @PreDestroy
+    void shutdownNutritionExecutor() {
+        if (nutritionExecutor != null) {
+            nutritionExecutor.shutdownNow();
+        }
+    }
     
     public VoiceFoodLogResponse processVoiceFoodLog(VoiceFoodLogRequest request, Long authenticatedUserId) {
+        return processVoiceFoodLog(request, authenticatedUserId, LocalDateTime.now());
+    }
+
+    /**
+     * Logs {@code request} as made at {@code requestTime}; items the utterance gives no time for are logged then, and
+     * their meal type is inferred from it, however long the request waited before being processed.
+     */
+    public VoiceFoodLogResponse processVoiceFoodLog(VoiceFoodLogRequest request, Long authenticatedUserId,
+                                                    LocalDateTime requestTime) {
         // Validate user access
         if (!request.getUserId().equals(authenticatedUserId)) {
             throw new IllegalArgumentException("You can only create food logs for your own account.");
@@ -74,8 +129,17 @@ public class VoiceFoodLogService {
 
         AiFoodVoiceParsingService.ParsedFoodDataList parsedDataList;
         try {
-            parsedDataList = aiFoodVoiceParsingService.parseVoiceText(request.getVoiceText());
+            parsedDataList = aiFoodVoiceParsingService.parseVoiceText(request.getVoiceText(), requestTime);
         } catch (RuntimeException e) {
+            Optional<DependencyUnavailableException> rejection = DependencyUnavailableException.findIn(e);
+            if (rejection.isPresent()) {
+                logger.warn("AI food voice parse skipped: {}", rejection.get().getMessage());
+                throw new VoiceFoodLogException(
+                        "AI_SERVICE_UNAVAILABLE",
+                        "Voice food logging is temporarily unavailable. Please try again in a minute or add food manually.",
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        e);
+            }
             logger.error("AI food voice parse failed: {}", e.getMessage(), e);
             throw new VoiceFoodLogException(
                     "AI_PARSE_FAILED",
@@ -91,15 +155,26 @@ public class VoiceFoodLogService {
                     HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
-        List<VoiceFoodLogResponse.LoggedFoodItem> loggedItems = new ArrayList<>();
-
+        List<ParsedItem> parsedItems = new ArrayList<>();
         for (AiFoodVoiceParsingService.ParsedFoodData parsedData : parsedDataList.getCompositeMeals()) {
-            appendParsedFoodLog(request, authenticatedUserId, parsedData, true, loggedItems);
+            parsedItems.add(new ParsedItem(parsedData, true));
         }
         for (AiFoodVoiceParsingService.ParsedFoodData parsedData : parsedDataList.getFoodItems()) {
-            appendParsedFoodLog(request, authenticatedUserId, parsedData, false, loggedItems);
+            parsedItems.add(new ParsedItem(parsedData, false));
         }
 
+        // Nutrition for all items concurrently, outside the transaction; food items and logs then in spoken order
+        // in one transaction, logs in one batch, so a failed item leaves neither new food items nor logs behind
+        List<FoodItem> trustedItems = resolveNutrition(parsedItems, authenticatedUserId);
+        List<VoiceFoodLogResponse.LoggedFoodItem> loggedItems = transactionOperations.execute(status -> {
+            List<PendingFoodLog> pendingLogs = new ArrayList<>(parsedItems.size());
+            for (int i = 0; i < parsedItems.size(); i++) {
+                pendingLogs.add(prepareFoodLog(request, authenticatedUserId, parsedItems.get(i), trustedItems.get(i),
+                        requestTime));
+            }
+            return saveFoodLogs(pendingLogs, authenticatedUserId);
+        });
+
         if (loggedItems.isEmpty()) {
             throw new VoiceFoodLogException(
                     "NO_LOGS_CREATED",
@@ -126,21 +201,131 @@ public class VoiceFoodLogService {
         return new VoiceFoodLogResponse(message, loggedItems);
     }
 
-    private void appendParsedFoodLog(VoiceFoodLogRequest request, Long authenticatedUserId,
-            AiFoodVoiceParsingService.ParsedFoodData parsedData, boolean compositeMeal,
-            List<VoiceFoodLogResponse.LoggedFoodItem> loggedItems) {
-        String foodLabel = parsedData.getFoodName() != null && !parsedData.getFoodName().isBlank()
-                ? parsedData.getFoodName()
-                : "this item";
+    private record ParsedItem(AiFoodVoiceParsingService.ParsedFoodData parsedData, boolean compositeMeal) {
+        String foodLabel() {
+            return parsedData.getFoodName() != null && !parsedData.getFoodName().isBlank()
+                    ? parsedData.getFoodName()
+                    : "this item";
+        }
+    }
+
+    /** A resolved food item and the log request for it, waiting for the batched insert. */
+    private record PendingFoodLog(AiFoodVoiceParsingService.ParsedFoodData parsedData, FoodItem foodItem,
+                                  FoodLogCreateRequest logRequest, boolean compositeMeal, String foodLabel) {
+    }
+
+    /**
+     * Resolves grams and nutrition for every item, concurrently on {@link #nutritionExecutor} under one
+     * deadline. Results are read in input order, so the first failing item (not the fastest) decides the error.
+     *
+     * @return per item, a trusted DB food item to log against as-is, or null when one must be found or created
+     */
+    private List<FoodItem> resolveNutrition(List<ParsedItem> items, Long userId) {
+        List<FoodItem> trustedItems = new ArrayList<>(items.size());
+        if (nutritionExecutor == null || items.size() <= 1) {
+            for (ParsedItem item : items) {
+                trustedItems.add(resolveItemNutrition(item, userId));
+            }
+            return trustedItems;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(aiFoodProperties.getNutritionTimeoutMs());
+        List<Future<FoodItem>> futures = new ArrayList<>(items.size());
+        for (ParsedItem item : items) {
+            futures.add(nutritionExecutor.submit(() -> resolveItemNutrition(item, userId)));
+        }
+        try {
+            for (Future<FoodItem> future : futures) {
+                trustedItems.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            return trustedItems;
+        } catch (TimeoutException e) {
+            String foodLabel = items.get(trustedItems.size()).foodLabel();
+            logger.warn("Nutrition for voice food item \"{}\" not resolved within {} ms ({} of {} items done)",
+                    foodLabel, aiFoodProperties.getNutritionTimeoutMs(), trustedItems.size(), items.size());
+            throw new VoiceFoodLogException(
+                    "NUTRITION_TIMEOUT",
+                    "Looking up nutrition for \"" + foodLabel + "\" took too long. Try again or add that item manually.",
+                    HttpStatus.GATEWAY_TIMEOUT,
+                    e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VoiceFoodLogException(
+                    "FOOD_ITEM_SAVE_FAILED",
+                    "Could not save your food. Try again or add manually.",
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<FoodItem> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private FoodItem resolveItemNutrition(ParsedItem item, Long userId) {
+        AiFoodVoiceParsingService.ParsedFoodData parsedData = item.parsedData();
+        try {
+            parsedData.setEstimatedGrams(resolveEstimatedGrams(parsedData));
+            if (parsedData.getFoodName() != null && parsedData.getFoodName().length() > 100) {
+                parsedData.setFoodName(parsedData.getFoodName().substring(0, 100));
+            }
+            if (SimpleFoodNutritionResolver.isSimpleFood(parsedData)) {
+                Optional<FoodItem> trusted = findTrustedFoodItem(normalizeFoodName(parsedData.getFoodName()), userId);
+                if (trusted.isPresent()
+                        && hasUsdaAnchor(trusted.get())
+                        && !parsedData.isUserSpecifiedMacros()
+                        && !parsedData.isUserSpecifiedGrams()) {
+                    simpleFoodNutritionResolver.applyFoodItemToParsedData(parsedData, trusted.get());
+                    logger.info("Using trusted DB food item: {}", trusted.get().getName());
+                    return trusted.get();
+                }
+                if (!parsedData.isUserSpecifiedMacros()) {
+                    simpleFoodNutritionResolver.resolve(parsedData);
+                }
+            } else if (!parsedData.isUserSpecifiedMacros()) {
+                compositeFoodNutritionResolver.resolve(parsedData);
+            }
+            return null;
+        } catch (RuntimeException e) {
+            throw itemFailure(item.foodLabel(), e);
+        }
+    }
+
+    /** Maps a failure on one item to the exception reported for the whole request. */
+    private RuntimeException itemFailure(String foodLabel, RuntimeException e) {
+        if (e instanceof VoiceFoodLogException) {
+            return e;
+        }
+        if (e instanceof IllegalArgumentException) {
+            logger.warn("Validation failed for voice food item \"{}\": {}", foodLabel, e.getMessage());
+            return new IllegalArgumentException("Could not log \"" + foodLabel + "\": " + e.getMessage(), e);
+        }
+        logger.error("Failed to save voice food item \"{}\": {}", foodLabel, e.getMessage(), e);
+        return new VoiceFoodLogException(
+                "FOOD_ITEM_SAVE_FAILED",
+                "Could not save \"" + foodLabel + "\". Try again or add that item manually.",
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                e);
+    }
+
+    private PendingFoodLog prepareFoodLog(VoiceFoodLogRequest request, Long authenticatedUserId,
+            ParsedItem item, FoodItem trustedItem, LocalDateTime requestTime) {
+        AiFoodVoiceParsingService.ParsedFoodData parsedData = item.parsedData();
+        String foodLabel = item.foodLabel();
         try {
-            Double normalizedGrams = resolveEstimatedGrams(parsedData);
-            parsedData.setEstimatedGrams(normalizedGrams);
-            FoodItem foodItem = findOrCreateFoodItem(parsedData, authenticatedUserId);
+            Double normalizedGrams = parsedData.getEstimatedGrams();
+            FoodItem foodItem = trustedItem != null
+                    ? trustedItem
+                    : findOrCreateFoodItem(parsedData, authenticatedUserId);
 
             FoodLogCreateRequest logRequest = new FoodLogCreateRequest();
             logRequest.setUserId(authenticatedUserId);
             logRequest.setFoodItemId(foodItem.getId());
-            LocalDateTime loggedAt = parsedData.getLoggedAt() != null ? parsedData.getLoggedAt() : LocalDateTime.now();
+            LocalDateTime loggedAt = parsedData.getLoggedAt() != null ? parsedData.getLoggedAt() : requestTime;
             LocalDateTime now = LocalDateTime.now();
             if (loggedAt.isAfter(now.plusMinutes(10))) {
                 logger.warn("Clamping AI loggedAt {} to now (future time rejected by food log rules)", loggedAt);
@@ -150,6 +335,12 @@ public class VoiceFoodLogService {
             String mealType = parsedData.getMealType() != null && !parsedData.getMealType().isBlank()
                     ? parsedData.getMealType().toUpperCase()
                     : "SNACK";
+            // Checked per item here so a bad meal type is reported against its food, not the whole batch
+            try {
+                FoodLog.MealType.valueOf(mealType);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid meal type: " + mealType);
+            }
             logRequest.setMealType(mealType);
             logRequest.setQuantity(parsedData.getQuantity());
             String unit = parsedData.getUnit();
@@ -166,7 +357,36 @@ public class VoiceFoodLogService {
             }
             logRequest.setNote(note);
 
-            FoodLogCreateResponse logResponse = foodLogService.createFoodLog(logRequest, authenticatedUserId);
+            return new PendingFoodLog(parsedData, foodItem, logRequest, item.compositeMeal(), foodLabel);
+        } catch (RuntimeException e) {
+            throw itemFailure(foodLabel, e);
+        }
+    }
+
+    private List<VoiceFoodLogResponse.LoggedFoodItem> saveFoodLogs(List<PendingFoodLog> pendingLogs,
+                                                                   Long authenticatedUserId) {
+        String foodLabel = pendingLogs.size() == 1 ? pendingLogs.get(0).foodLabel() : "these items";
+        List<FoodLogCreateResponse> logResponses;
+        try {
+            logResponses = foodLogService.createFoodLogs(
+                    pendingLogs.stream().map(PendingFoodLog::logRequest).toList(), authenticatedUserId);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Validation failed for voice food logs \"{}\": {}", foodLabel, e.getMessage());
+            throw new IllegalArgumentException("Could not log \"" + foodLabel + "\": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to save voice food logs \"{}\": {}", foodLabel, e.getMessage(), e);
+            throw new VoiceFoodLogException(
+                    "FOOD_ITEM_SAVE_FAILED",
+                    "Could not save \"" + foodLabel + "\". Try again or add manually.",
+                    HttpStatus.INTERNAL_SERVER_ERROR,
+                    e);
+        }
+
+        List<VoiceFoodLogResponse.LoggedFoodItem> loggedItems = new ArrayList<>(pendingLogs.size());
+        for (int i = 0; i < pendingLogs.size(); i++) {
+            PendingFoodLog pending = pendingLogs.get(i);
+            FoodLogCreateResponse logResponse = logResponses.get(i);
+            AiFoodVoiceParsingService.ParsedFoodData parsedData = pending.parsedData();
 
             if (shouldFlagLowCalorieReview(parsedData.getFoodName(), logResponse.getCalories())) {
                 parsedData.setNutritionConfidence(NutritionConfidence.LOW);
@@ -177,55 +397,26 @@ public class VoiceFoodLogService {
                     : null;
 
             loggedItems.add(new VoiceFoodLogResponse.LoggedFoodItem(
-                    foodItem.getName(),
+                    pending.foodItem().getName(),
                     parsedData.getQuantity(),
-                    normalizedGrams,
-                    mealType,
-                    compositeMeal,
+                    pending.logRequest().getEstimatedGrams(),
+                    pending.logRequest().getMealType(),
+                    pending.compositeMeal(),
                     logResponse.getCalories(),
                     logResponse.getProtein(),
                     logResponse.getCarbs(),
                     logResponse.getFat(),
                     logResponse.getFiber(),
-                    loggedAt.toString(),
+                    pending.logRequest().getLoggedAt().toString(),
                     confidenceLabel
             ));
-        } catch (IllegalArgumentException e) {
-            logger.warn("Validation failed for voice food item \"{}\": {}", foodLabel, e.getMessage());
-            throw new IllegalArgumentException("Could not log \"" + foodLabel + "\": " + e.getMessage(), e);
-        } catch (RuntimeException e) {
-            logger.error("Failed to save voice food item \"{}\": {}", foodLabel, e.getMessage(), e);
-            throw new VoiceFoodLogException(
-                    "FOOD_ITEM_SAVE_FAILED",
-                    "Could not save \"" + foodLabel + "\". Try again or add that item manually.",
-                    HttpStatus.INTERNAL_SERVER_ERROR,
-                    e);
         }
+        return loggedItems;
     }
     
+    /** Runs after {@link #resolveItemNutrition}; finds, refreshes or creates the food item to log against. */
     private FoodItem findOrCreateFoodItem(AiFoodVoiceParsingService.ParsedFoodData parsedData, Long userId) {
-        if (parsedData.getFoodName() != null && parsedData.getFoodName().length() > 100) {
-            parsedData.setFoodName(parsedData.getFoodName().substring(0, 100));
-        }
         String normalizedName = normalizeFoodName(parsedData.getFoodName());
-        boolean simple = SimpleFoodNutritionResolver.isSimpleFood(parsedData);
-
-        if (simple) {
-            Optional<FoodItem> trusted = findTrustedFoodItem(normalizedName, userId);
-            if (trusted.isPresent()
-                    && hasUsdaAnchor(trusted.get())
-                    && !parsedData.isUserSpecifiedMacros()
-                    && !parsedData.isUserSpecifiedGrams()) {
-                simpleFoodNutritionResolver.applyFoodItemToParsedData(parsedData, trusted.get());
-                logger.info("Using trusted DB food item: {}", normalizedName);
-                return trusted.get();
-            }
-            if (!parsedData.isUserSpecifiedMacros()) {
-                simpleFoodNutritionResolver.resolve(parsedData);
-            }
-        } else if (!parsedData.isUserSpecifiedMacros()) {
-            compositeFoodNutritionResolver.resolve(parsedData);
-        }
 
         Optional<FoodItem> existingItem = foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(
                 normalizedName, FoodItem.FoodStatus.ACTIVE, userId);
@@ -249,10 +440,8 @@ public class VoiceFoodLogService {
 
         try {
             FoodItemCreateRequest createRequest = buildFoodItemCreateRequest(parsedData, userId);
-            FoodItemCreateResponse response = foodItemService.createFoodItem(createRequest, userId);
-
-            FoodItem createdItem = foodItemRepository.findById(response.getId())
-                    .orElseThrow(() -> new RuntimeException("Failed to retrieve created food item"));
+            // The user was verified once in processVoiceFoodLog
+            FoodItem createdItem = foodItemService.saveNewFoodItem(createRequest, userId);
 
             logger.info("Successfully created new public food item: {} (ID: {})",
                     createdItem.getName(), createdItem.getId());
@@ -0,0 +1,218 @@
+package com.healthapp.service.matching;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+/**
+ * Ordered "first matching rule wins" table over substring keywords, compiled once into an Aho-Corasick automaton.
+ * <p>
+ * A lookup scans the input once to find every keyword it contains, then evaluates rules in declaration order against
+ * that hit set, so the result is identical to a chain of {@code if (n.contains(..))} checks at a fraction of the cost.
+ * <p>
+ * Rule specs: alternatives separated by {@code |}; within an alternative, the first keyword and any {@code + kw} are
+ * required, any {@code - kw} must be absent. E.g. {@code "rolled oats | oat -milk -meal"} or {@code "chicken + breast"}.
+ * An operator needs whitespace before it, so hyphenated keywords such as {@code "stir-fry"} stay whole.
+ * Matching is case-sensitive; callers pass the same lower-cased text they previously ran {@code contains} on.
+ */
+public final class KeywordRuleSet<T> {
+
+    private final Node root;
+    private final int keywordCount;
+    private final List<Rule<T>> rules;
+
+    private KeywordRuleSet(Map<String, Integer> keywordIds, List<Rule<T>> rules) {
+        this.root = buildAutomaton(keywordIds);
+        this.keywordCount = keywordIds.size();
+        this.rules = List.copyOf(rules);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /** Value of the first matching rule, or null when none match. */
+    public T match(String input) {
+        if (input == null) {
+            return null;
+        }
+        long[] hits = scan(input);
+        for (Rule<T> rule : rules) {
+            if (rule.matches(input, hits)) {
+                return rule.value();
+            }
+        }
+        return null;
+    }
+
+    public T match(String input, T defaultValue) {
+        T value = match(input);
+        return value != null ? value : defaultValue;
+    }
+
+    int ruleCount() {
+        return rules.size();
+    }
+
+    private long[] scan(String input) {
+        long[] hits = new long[(keywordCount + 63) >>> 6];
+        Node node = root;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            Node next = node.next.get(c);
+            while (next == null && node != root) {
+                node = node.fail;
+                next = node.next.get(c);
+            }
+            node = next != null ? next : root;
+            for (int id : node.outputs) {
+                hits[id >>> 6] |= 1L << id;
+            }
+        }
+        return hits;
+    }
+
+    private static Node buildAutomaton(Map<String, Integer> keywordIds) {
+        Node root = new Node();
+        for (Map.Entry<String, Integer> keyword : keywordIds.entrySet()) {
+            Node node = root;
+            for (char c : keyword.getKey().toCharArray()) {
+                node = node.next.computeIfAbsent(c, k -> new Node());
+            }
+            node.ownOutputs.add(keyword.getValue());
+        }
+        root.fail = root;
+        root.outputs = toArray(root.ownOutputs);
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.remove();
+            List<Integer> outputs = new ArrayList<>(node.ownOutputs);
+            for (int id : node.fail.outputs) {
+                outputs.add(id);
+            }
+            node.outputs = toArray(outputs);
+            for (Map.Entry<Character, Node> edge : node.next.entrySet()) {
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(edge.getKey())) {
+                    fail = fail.fail;
+                }
+                Node target = fail.next.get(edge.getKey());
+                edge.getValue().fail = target != null && target != edge.getValue() ? target : root;
+                queue.add(edge.getValue());
+            }
+        }
+        return root;
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean has(long[] hits, int id) {
+        return (hits[id >>> 6] & (1L << id)) != 0;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> next = new HashMap<>();
+        private final List<Integer> ownOutputs = new ArrayList<>(1);
+        private Node fail;
+        private int[] outputs;
+    }
+
+    private record Clause(int[] required, int[] forbidden) {
+        boolean matches(long[] hits) {
+            for (int id : required) {
+                if (!has(hits, id)) {
+                    return false;
+                }
+            }
+            for (int id : forbidden) {
+                if (has(hits, id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Either keyword clauses (any may match) or an opaque predicate over the raw input. */
+    private record Rule<T>(Clause[] clauses, Predicate<String> predicate, T value) {
+        boolean matches(String input, long[] hits) {
+            if (predicate != null) {
+                return predicate.test(input);
+            }
+            for (Clause clause : clauses) {
+                if (clause.matches(hits)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, Integer> keywordIds = new LinkedHashMap<>();
+        private final List<Rule<T>> rules = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> rule(String spec, T value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Rule value must not be null: " + spec);
+            }
+            List<Clause> clauses = new ArrayList<>();
+            for (String alternative : spec.split("\\|")) {
+                clauses.add(parseClause(alternative, spec));
+            }
+            rules.add(new Rule<>(clauses.toArray(new Clause[0]), null, value));
+            return this;
+        }
+
+        /** Escape hatch for checks that are not substring tests (exact names, shared detectors). */
+        public Builder<T> rule(Predicate<String> predicate, T value) {
+            if (value == null) {
+                throw new IllegalArgumentException("Rule value must not be null");
+            }
+            rules.add(new Rule<>(null, predicate, value));
+            return this;
+        }
+
+        public KeywordRuleSet<T> build() {
+            return new KeywordRuleSet<>(keywordIds, rules);
+        }
+
+        private Clause parseClause(String alternative, String spec) {
+            List<Integer> required = new ArrayList<>();
+            List<Integer> forbidden = new ArrayList<>();
+            String[] parts = alternative.split("(?=\\s[+-])");
+            for (int i = 0; i < parts.length; i++) {
+                String part = parts[i].trim();
+                boolean negate = part.startsWith("-");
+                if (part.startsWith("+") || negate) {
+                    part = part.substring(1).trim();
+                } else if (i > 0) {
+                    throw new IllegalArgumentException("Malformed keyword rule: " + spec);
+                }
+                if (part.isEmpty()) {
+                    throw new IllegalArgumentException("Empty keyword in rule: " + spec);
+                }
+                int id = keywordIds.computeIfAbsent(part, k -> keywordIds.size());
+                (negate ? forbidden : required).add(id);
+            }
+            if (required.isEmpty()) {
+                throw new IllegalArgumentException("Rule alternative needs a required keyword: " + spec);
+            }
+            return new Clause(toArray(required), toArray(forbidden));
+        }
+    }
+}
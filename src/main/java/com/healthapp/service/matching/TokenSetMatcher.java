@@ -0,0 +1,152 @@
+package com.healthapp.service.matching;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-set similarity between one query and many candidate descriptions. The query is lower-cased, tokenized and
+ * indexed once by {@link #of}; each {@link #score} then makes a single pass over the candidate with no regex and no
+ * copy of the candidate beyond its tokens.
+ * <p>
+ * Scores keep the scale of the substring scorer this replaced, so existing confidence thresholds still apply:
+ * {@value #EXACT} for the same token sequence, {@value #PHRASE} when the query appears as a contiguous run of
+ * candidate tokens (plurals allowed), otherwise the share of query tokens (of {@value #MIN_SIGNIFICANT_LENGTH}+ chars) found among the
+ * candidate's tokens. Tokens compare whole, allowing a plural {@code s}/{@code es}, so "egg" matches "Eggs" but "rice"
+ * no longer matches "licorice".
+ */
+public final class TokenSetMatcher {
+
+    public static final double EXACT = 1.0;
+    public static final double PHRASE = 0.85;
+    public static final int MIN_SIGNIFICANT_LENGTH = 3;
+
+    private final String[] tokens;
+    /** Significant query token (and its singular form) -> slot; slots count repeated tokens once each. */
+    private final Map<String, Integer> slots;
+    private final int[] slotWeights;
+
+    private TokenSetMatcher(String[] tokens) {
+        this.tokens = tokens;
+        Map<String, Integer> slots = new HashMap<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String token : tokens) {
+            if (token.length() < MIN_SIGNIFICANT_LENGTH) {
+                continue;
+            }
+            Integer slot = slots.get(token);
+            if (slot == null) {
+                slot = weights.size();
+                weights.add(0);
+                slots.put(token, slot);
+            }
+            weights.set(slot, weights.get(slot) + 1);
+        }
+        // Let a plural query token also match the singular in a description
+        for (Map.Entry<String, Integer> entry : List.copyOf(slots.entrySet())) {
+            for (String singular : singulars(entry.getKey())) {
+                slots.putIfAbsent(singular, entry.getValue());
+            }
+        }
+        this.slots = slots;
+        this.slotWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static TokenSetMatcher of(String query) {
+        return new TokenSetMatcher(tokenize(query).toArray(new String[0]));
+    }
+
+    public boolean isEmpty() {
+        return tokens.length == 0;
+    }
+
+    public double score(String description) {
+        if (tokens.length == 0 || description == null) {
+            return 0;
+        }
+        List<String> candidate = tokenize(description);
+        if (candidate.size() == tokens.length && Arrays.equals(tokens, candidate.toArray())) {
+            return EXACT;
+        }
+        if (containsRun(candidate)) {
+            return PHRASE;
+        }
+        boolean[] found = new boolean[slotWeights.length];
+        int hits = 0;
+        for (String token : candidate) {
+            Integer slot = slotFor(token);
+            if (slot != null && !found[slot]) {
+                found[slot] = true;
+                hits += slotWeights[slot];
+            }
+        }
+        return (double) hits / tokens.length;
+    }
+
+    /** Lower-cased runs of letters and digits, in order, including short ones. */
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) {
+            return out;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                out.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            out.add(current.toString());
+        }
+        return out;
+    }
+
+    private Integer slotFor(String token) {
+        Integer slot = slots.get(token);
+        if (slot != null) {
+            return slot;
+        }
+        for (String singular : singulars(token)) {
+            slot = slots.get(singular);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    private boolean containsRun(List<String> candidate) {
+        for (int start = 0; start + tokens.length <= candidate.size(); start++) {
+            int i = 0;
+            while (i < tokens.length && sameWord(tokens[i], candidate.get(start + i))) {
+                i++;
+            }
+            if (i == tokens.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameWord(String a, String b) {
+        return a.equals(b) || singulars(a).contains(b) || singulars(b).contains(a);
+    }
+
+    /** "apples" -> apple, appl; "tomatoes" -> tomatoe, tomato; the wrong guess simply never matches. */
+    private static List<String> singulars(String token) {
+        if (token.length() <= MIN_SIGNIFICANT_LENGTH || !token.endsWith("s") || token.endsWith("ss")) {
+            return List.of();
+        }
+        String withoutS = token.substring(0, token.length() - 1);
+        if (token.length() > MIN_SIGNIFICANT_LENGTH + 1 && token.endsWith("es")) {
+            return List.of(withoutS, token.substring(0, token.length() - 2));
+        }
+        return List.of(withoutS);
+    }
+}
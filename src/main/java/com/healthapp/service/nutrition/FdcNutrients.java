@@ -0,0 +1,190 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * FoodData Central nutrient identifiers for the five macros we store, matched by number rather than display name.
+ * FDC payloads carry both the legacy SR "number" (e.g. {@code "208"}) and the numeric nutrient id (e.g. {@code 1008}).
+ */
+final class FdcNutrients {
+
+    private FdcNutrients() {
+    }
+
+    /**
+     * Collects macros from a stream of (id or number, amount) pairs. Energy prefers kcal (1008), then the Atwater
+     * kcal variants Foundation foods use (2048, then 2047), then kJ (1062) converted. Carbs prefer "by difference"
+     * (1005), then "by summation" (1050), which some Foundation foods report instead.
+     */
+    static final class MacroAccumulator {
+        private Double kcal;
+        private Double atwaterSpecificKcal;
+        private Double atwaterGeneralKcal;
+        private Double kilojoules;
+        private double protein;
+        private Double carbsByDifference;
+        private Double carbsBySummation;
+        private double fat;
+        private double fiber;
+        private int seen;
+
+        /** @param nutrientId FDC nutrient id, or 0 when only {@code number} is known */
+        void accept(int nutrientId, String number, double amount) {
+            int key = nutrientId > 0 ? nutrientId : idForNumber(number);
+            seen |= bit(key);
+            switch (key) {
+                case 1008 -> kcal = amount;
+                case 2048 -> atwaterSpecificKcal = amount;
+                case 2047 -> atwaterGeneralKcal = amount;
+                case 1062 -> kilojoules = amount;
+                case 1003 -> protein = amount;
+                case 1005 -> carbsByDifference = amount;
+                case 1050 -> carbsBySummation = amount;
+                case 1004 -> fat = amount;
+                case 1079 -> fiber = amount;
+                default -> {
+                    // not a macro we track
+                }
+            }
+        }
+
+        /** True once kcal energy and the other four macros have all been seen; later entries cannot change the result. */
+        boolean isComplete() {
+            return seen == COMPLETE;
+        }
+
+        Double calories() {
+            if (kcal != null) {
+                return kcal;
+            }
+            if (atwaterSpecificKcal != null) {
+                return atwaterSpecificKcal;
+            }
+            if (atwaterGeneralKcal != null) {
+                return atwaterGeneralKcal;
+            }
+            return kilojoules != null ? kilojoules / 4.184 : null;
+        }
+
+        double protein() {
+            return protein;
+        }
+
+        double carbs() {
+            if (carbsByDifference != null) {
+                return carbsByDifference;
+            }
+            return carbsBySummation != null ? carbsBySummation : 0;
+        }
+
+        /** False when neither carbohydrate nutrient was seen, e.g. a response filtered to integer nutrient numbers. */
+        boolean hasCarbs() {
+            return carbsByDifference != null || carbsBySummation != null;
+        }
+
+        double fat() {
+            return fat;
+        }
+
+        double fiber() {
+            return fiber;
+        }
+
+        NutritionProfile toProfile(double confidence, Integer fdcId) {
+            Double calories = calories();
+            if (calories == null) {
+                return null;
+            }
+            return new NutritionProfile(calories, protein, carbs(), fat, fiber, NutritionSource.USDA, confidence,
+                    fdcId);
+        }
+    }
+
+    private static final int COMPLETE = bit(1008) | bit(1003) | bit(1005) | bit(1004) | bit(1079);
+
+    private static int bit(int nutrientId) {
+        return switch (nutrientId) {
+            case 1008 -> 1;
+            case 1003 -> 1 << 1;
+            case 1005 -> 1 << 2;
+            case 1004 -> 1 << 3;
+            case 1079 -> 1 << 4;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Streams a {@code foodNutrients} array (parser positioned on its START_ARRAY) into {@code acc}. Handles the full
+     * detail shape ({@code nutrient.id / nutrient.number} + {@code amount}), the abridged shape ({@code number}) and
+     * the search shape ({@code nutrientId / nutrientNumber} + {@code value}).
+     *
+     * @param stopEarly return as soon as {@link MacroAccumulator#isComplete()}, leaving the parser mid-array
+     * @return true if it stopped early
+     */
+    static boolean readFoodNutrients(JsonParser parser, MacroAccumulator acc, boolean stopEarly) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int nutrientId = 0;
+            String number = null;
+            Double amount = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "nutrient" -> {
+                        if (value == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String nested = parser.getCurrentName();
+                                parser.nextToken();
+                                if ("id".equals(nested)) {
+                                    nutrientId = parser.getValueAsInt(0);
+                                } else if ("number".equals(nested)) {
+                                    number = parser.getValueAsString();
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "nutrientId" -> nutrientId = parser.getValueAsInt(0);
+                    case "number", "nutrientNumber" -> number = parser.getValueAsString();
+                    case "amount", "value" -> {
+                        if (value.isNumeric()) {
+                            amount = parser.getDoubleValue();
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (amount != null) {
+                acc.accept(nutrientId, number, amount);
+                if (stopEarly && acc.isComplete()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static int idForNumber(String number) {
+        if (number == null) {
+            return 0;
+        }
+        return switch (number) {
+            case "208" -> 1008;
+            case "958" -> 2048;
+            case "957" -> 2047;
+            case "268" -> 1062;
+            case "203" -> 1003;
+            case "205" -> 1005;
+            case "205.2" -> 1050;
+            case "204" -> 1004;
+            case "291" -> 1079;
+            default -> 0;
+        };
+    }
+}
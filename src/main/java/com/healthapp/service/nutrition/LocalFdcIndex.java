@@ -0,0 +1,220 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.service.matching.TokenSetMatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable, in-memory index over a FoodData Central JSON export (Foundation / SR Legacy / Survey / Branded).
+ * Foods are stored column-wise in primitive arrays; descriptions are tokenized into a sorted term dictionary with
+ * postings so a query touches only foods sharing at least one term prefix with it.
+ */
+final class LocalFdcIndex {
+
+    /** Top-level array names used by the FDC bulk downloads. */
+    private static final Set<String> FOOD_ARRAYS = Set.of(
+            "FoundationFoods", "SRLegacyFoods", "SurveyFoods", "BrandedFoods");
+    private static final int MIN_TOKEN_LENGTH = 3;
+    /** Candidates (by shared-term count) re-scored with a {@link TokenSetMatcher} built once per query. */
+    private static final int RESCORE_LIMIT = 25;
+
+    private final int[] fdcIds;
+    private final String[] descriptions;
+    private final double[] calories;
+    private final double[] protein;
+    private final double[] carbs;
+    private final double[] fat;
+    private final double[] fiber;
+    private final String[] terms;
+    private final int[][] postings;
+
+    private LocalFdcIndex(Builder builder) {
+        int n = builder.fdcIds.size();
+        this.fdcIds = new int[n];
+        this.descriptions = builder.descriptions.toArray(new String[0]);
+        this.calories = new double[n];
+        this.protein = new double[n];
+        this.carbs = new double[n];
+        this.fat = new double[n];
+        this.fiber = new double[n];
+        for (int i = 0; i < n; i++) {
+            fdcIds[i] = builder.fdcIds.get(i);
+            double[] m = builder.macros.get(i);
+            calories[i] = m[0];
+            protein[i] = m[1];
+            carbs[i] = m[2];
+            fat[i] = m[3];
+            fiber[i] = m[4];
+        }
+        this.terms = builder.postings.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        this.postings = new int[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            List<Integer> docs = builder.postings.get(terms[t]);
+            int[] ids = new int[docs.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = docs.get(i);
+            }
+            postings[t] = ids;
+        }
+    }
+
+    /**
+     * Streams the export one food at a time, so peak memory is the index plus a single food tree. Foods without a
+     * description or any energy value are skipped.
+     */
+    static LocalFdcIndex load(InputStream in, ObjectMapper objectMapper) throws IOException {
+        Builder builder = new Builder();
+        JsonFactory factory = objectMapper.getFactory();
+        try (JsonParser parser = factory.createParser(in)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_ARRAY) {
+                readFoods(parser, objectMapper, builder);
+            } else if (first == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.START_ARRAY && FOOD_ARRAYS.contains(field)) {
+                        readFoods(parser, objectMapper, builder);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                throw new IOException("Unexpected FDC export root: " + first);
+            }
+        }
+        return new LocalFdcIndex(builder);
+    }
+
+    private static void readFoods(JsonParser parser, ObjectMapper objectMapper, Builder builder) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            JsonNode food = objectMapper.readTree(parser);
+            builder.add(food);
+        }
+    }
+
+    int size() {
+        return fdcIds.length;
+    }
+
+    /**
+     * Best-scoring food for the query, or empty when nothing shares a term with it.
+     *
+     * @param searchTerm   terms used to pick candidates (typically {@link NutritionLookupService#buildSearchTerm})
+     * @param scoringQuery name the candidates are scored against (the normalized food name, as with USDA search)
+     */
+    Optional<Match> search(String searchTerm, String scoringQuery) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (String token : tokenize(searchTerm)) {
+            int from = lowerBound(token);
+            for (int t = from; t < terms.length && terms[t].startsWith(token); t++) {
+                for (int doc : postings[t]) {
+                    hits.merge(doc, 1, Integer::sum);
+                }
+            }
+        }
+        if (hits.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Integer> candidates = new ArrayList<>(hits.keySet());
+        candidates.sort((a, b) -> {
+            int byHits = Integer.compare(hits.get(b), hits.get(a));
+            if (byHits != 0) {
+                return byHits;
+            }
+            int byLength = Integer.compare(descriptions[a].length(), descriptions[b].length());
+            return byLength != 0 ? byLength : Integer.compare(a, b);
+        });
+        TokenSetMatcher matcher = TokenSetMatcher.of(scoringQuery);
+        int best = -1;
+        double bestScore = -1;
+        for (int i = 0; i < Math.min(RESCORE_LIMIT, candidates.size()); i++) {
+            int doc = candidates.get(i);
+            double score = matcher.score(descriptions[doc]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = doc;
+            }
+        }
+        return Optional.of(new Match(best, bestScore));
+    }
+
+    String description(int doc) {
+        return descriptions[doc];
+    }
+
+    NutritionProfile profile(int doc, double confidence) {
+        return new NutritionProfile(calories[doc], protein[doc], carbs[doc], fat[doc], fiber[doc],
+                NutritionSource.USDA, confidence, fdcIds[doc]);
+    }
+
+    private int lowerBound(String token) {
+        int idx = Arrays.binarySearch(terms, token);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TokenSetMatcher.tokenize(text)) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    record Match(int doc, double confidence) {}
+
+    private static final class Builder {
+        private final List<Integer> fdcIds = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+        private final List<double[]> macros = new ArrayList<>();
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+
+        void add(JsonNode food) {
+            String description = food.path("description").asText("").trim();
+            if (description.isEmpty()) {
+                return;
+            }
+            FdcNutrients.MacroAccumulator acc = new FdcNutrients.MacroAccumulator();
+            for (JsonNode n : food.path("foodNutrients")) {
+                JsonNode nutrient = n.path("nutrient");
+                JsonNode amount = n.path("amount");
+                if (!amount.isNumber()) {
+                    continue;
+                }
+                acc.accept(nutrient.path("id").asInt(0), nutrient.path("number").asText(null), amount.asDouble());
+            }
+            Double kcal = acc.calories();
+            if (kcal == null) {
+                return;
+            }
+            int doc = fdcIds.size();
+            fdcIds.add(food.path("fdcId").asInt());
+            descriptions.add(description);
+            macros.add(new double[] {kcal, acc.protein(), acc.carbs(),
+                    acc.fat(), acc.fiber()});
+            for (String token : tokenize(description)) {
+                postings.computeIfAbsent(token, k -> new ArrayList<>()).add(doc);
+            }
+        }
+    }
+}
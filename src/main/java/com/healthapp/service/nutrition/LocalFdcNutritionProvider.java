@@ -0,0 +1,98 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.NutritionLookupProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@code nutrition.lookup.provider=local-fdc}: resolves foods against a FoodData Central export loaded into a
+ * {@link LocalFdcIndex} at startup, so lookups need no network round-trip or API key. The index is only built when
+ * that provider is selected.
+ */
+@Component
+public class LocalFdcNutritionProvider {
+
+    public static final String PROVIDER = "local-fdc";
+    private static final Logger logger = LoggerFactory.getLogger(LocalFdcNutritionProvider.class);
+
+    private final NutritionLookupProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private volatile LocalFdcIndex index;
+
+    public LocalFdcNutritionProvider(NutritionLookupProperties properties, ObjectMapper objectMapper,
+                                     ResourceLoader resourceLoader) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    void loadIndex() {
+        if (!properties.isEnabled() || !PROVIDER.equalsIgnoreCase(properties.getProvider())) {
+            return;
+        }
+        String path = properties.getLocalFdc().getPath();
+        if (path == null || path.isBlank()) {
+            logger.warn("Nutrition provider '{}' selected but nutrition.lookup.local-fdc.path is not set", PROVIDER);
+            return;
+        }
+        long started = System.nanoTime();
+        Resource resource = resourceLoader.getResource(path);
+        try (InputStream in = open(resource, path)) {
+            index = LocalFdcIndex.load(in, objectMapper);
+            logger.info("Loaded local FDC index from {}: {} foods in {} ms",
+                    path, index.size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("Failed to load local FDC index from {}: {}", path, e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return index != null;
+    }
+
+    /**
+     * Best local match at or above the threshold.
+     *
+     * @param searchTerm   terms used to gather candidates
+     * @param normalized   normalized food name candidates are scored against
+     */
+    public Optional<NutritionProfile> lookup(String searchTerm, String normalized, double confidenceThreshold) {
+        LocalFdcIndex current = index;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Optional<LocalFdcIndex.Match> match = current.search(searchTerm, normalized);
+        if (match.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalFdcIndex.Match best = match.get();
+        if (best.confidence() < confidenceThreshold) {
+            logger.info("Local FDC match below threshold for '{}': {} (confidence={})",
+                    normalized, current.description(best.doc()), best.confidence());
+            return Optional.empty();
+        }
+        return Optional.of(current.profile(best.doc(), best.confidence()));
+    }
+
+    void setIndex(LocalFdcIndex index) {
+        this.index = index;
+    }
+
+    private static InputStream open(Resource resource, String path) throws IOException {
+        InputStream in = new BufferedInputStream(resource.getInputStream(), 1 << 16);
+        return path.endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+}
@@ -0,0 +1,45 @@
+package com.healthapp.service.nutrition;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers positive cache hits per food in memory so reads never write to {@code food_nutrition_cache};
+ * {@link NutritionCacheRefreshJob} drains the buffer into {@code hit_count} / {@code last_accessed_at}.
+ */
+@Component
+public class NutritionCacheHitTracker {
+
+    static final int MAX_TRACKED_NAMES = 10_000;
+
+    private final Map<String, Integer> pending = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public void record(String normalizedName) {
+        if (pending.size() >= MAX_TRACKED_NAMES && !pending.containsKey(normalizedName)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        pending.merge(normalizedName, 1, Integer::sum);
+    }
+
+    /** Removes and returns the hits buffered since the last drain. */
+    Map<String, Integer> drain() {
+        Map<String, Integer> drained = new HashMap<>();
+        for (String name : pending.keySet()) {
+            Integer hits = pending.remove(name);
+            if (hits != null) {
+                drained.put(name, hits);
+            }
+        }
+        return drained;
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+}
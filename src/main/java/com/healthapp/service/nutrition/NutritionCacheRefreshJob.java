@@ -0,0 +1,233 @@
+package com.healthapp.service.nutrition;
+
+import com.healthapp.config.NutritionLookupProperties;
+import com.healthapp.entity.FoodNutritionCache;
+import com.healthapp.repository.FoodNutritionCacheRepository;
+import com.healthapp.repository.ScheduledJobLeaseRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodic maintenance of {@code food_nutrition_cache}, so user requests rarely pay for an expired entry:
+ * <ol>
+ *   <li>flushes hits buffered by {@link NutritionCacheHitTracker} into {@code hit_count} / {@code last_accessed_at};</li>
+ *   <li>bulk-deletes {@code USDA_MISS} rows older than {@code nutrition.lookup.refresh.negative-ttl-days};</li>
+ *   <li>re-resolves the most popular USDA entries whose TTL ends within {@code ahead-days}.</li>
+ * </ol>
+ * Every instance flushes its own hits. Steps 2 and 3 run only on the instance holding the
+ * {@code nutrition-cache-refresh} lease in {@code scheduled_job_leases}, so one refresh per interval spends the
+ * shared USDA quota however many instances are running.
+ * Run stats are published as {@code nutrition.cache.refresh.*} meters (visible under {@code /actuator/metrics}).
+ */
+@Component
+public class NutritionCacheRefreshJob implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NutritionCacheRefreshJob.class);
+    static final String LEASE_NAME = "nutrition-cache-refresh";
+
+    private final NutritionLookupProperties properties;
+    private final FoodNutritionCacheRepository cacheRepository;
+    private final NutritionLookupService lookupService;
+    private final NutritionCacheHitTracker hitTracker;
+    private final ScheduledJobLeaseRepository leaseRepository;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicLong hitsFlushed = new AtomicLong();
+    private final AtomicLong negativesPurged = new AtomicLong();
+    private final AtomicLong candidatesFound = new AtomicLong();
+    private final AtomicLong entriesRefreshed = new AtomicLong();
+    private final AtomicLong lastRunDurationMs = new AtomicLong();
+    private final AtomicLong lastRunEpochMs = new AtomicLong();
+
+    @Autowired
+    public NutritionCacheRefreshJob(NutritionLookupProperties properties,
+                                    FoodNutritionCacheRepository cacheRepository,
+                                    NutritionLookupService lookupService,
+                                    NutritionCacheHitTracker hitTracker,
+                                    ScheduledJobLeaseRepository leaseRepository) {
+        this(properties, cacheRepository, lookupService, hitTracker, leaseRepository, Clock.systemDefaultZone());
+    }
+
+    NutritionCacheRefreshJob(NutritionLookupProperties properties,
+                             FoodNutritionCacheRepository cacheRepository,
+                             NutritionLookupService lookupService,
+                             NutritionCacheHitTracker hitTracker,
+                             ScheduledJobLeaseRepository leaseRepository,
+                             Clock clock) {
+        this.properties = properties;
+        this.cacheRepository = cacheRepository;
+        this.lookupService = lookupService;
+        this.hitTracker = hitTracker;
+        this.leaseRepository = leaseRepository;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    void start() {
+        NutritionLookupProperties.Refresh refresh = properties.getRefresh();
+        if (!properties.isEnabled() || !refresh.isEnabled()) {
+            return;
+        }
+        long interval = Math.max(1, refresh.getIntervalMinutes());
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nutrition-cache-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.MINUTES);
+        logger.info("Nutrition cache maintenance scheduled every {} min (refresh ahead {} days, max {} per run)",
+                interval, refresh.getAheadDays(), refresh.getMaxPerRun());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        // Keep hits gathered since the last run
+        try {
+            flushHits(LocalDateTime.now(clock));
+        } catch (RuntimeException e) {
+            logger.debug("Dropping buffered nutrition cache hits on shutdown: {}", e.getMessage());
+        }
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            failedRuns.incrementAndGet();
+            logger.warn("Nutrition cache maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    void run() {
+        long started = clock.millis();
+        LocalDateTime now = LocalDateTime.now(clock);
+        NutritionLookupProperties.Refresh refresh = properties.getRefresh();
+
+        int flushed = flushHits(now);
+        if (!claimLease(now)) {
+            skippedRuns.incrementAndGet();
+            logger.debug("Nutrition cache maintenance: {} hits flushed, refresh left to the lease holder", flushed);
+            return;
+        }
+        int purged = cacheRepository.deleteBySourceUpdatedBefore(
+                NutritionLookupService.NEGATIVE_CACHE_SOURCE, now.minusDays(refresh.getNegativeTtlDays()));
+        negativesPurged.addAndGet(purged);
+
+        LocalDateTime expiredBefore = now.minusDays(properties.getCacheTtlDays());
+        List<FoodNutritionCache> candidates = cacheRepository.findRefreshCandidates(
+                NutritionSource.USDA.name(),
+                expiredBefore.plusDays(refresh.getAheadDays()),
+                expiredBefore,
+                refresh.getMinHits(),
+                now.minusDays(refresh.getAccessedWithinDays()),
+                PageRequest.of(0, Math.max(1, refresh.getMaxPerRun())));
+        candidatesFound.addAndGet(candidates.size());
+        int refreshed = lookupService.refreshFromUsda(candidates);
+        entriesRefreshed.addAndGet(refreshed);
+
+        runs.incrementAndGet();
+        lastRunEpochMs.set(clock.millis());
+        lastRunDurationMs.set(clock.millis() - started);
+        logger.info("Nutrition cache maintenance: {} hits flushed, {} negative rows purged, {}/{} entries refreshed",
+                flushed, purged, refreshed, candidates.size());
+    }
+
+    /**
+     * Holds the lease for a little less than one interval, so this instance's next run (or any other's) can take it
+     * over and a crashed holder blocks refreshes for at most one round.
+     */
+    private boolean claimLease(LocalDateTime now) {
+        Duration interval = Duration.ofMinutes(Math.max(1, properties.getRefresh().getIntervalMinutes()));
+        LocalDateTime leaseUntil = now.plus(interval.minusSeconds(30));
+        if (leaseRepository.claim(LEASE_NAME, instanceId, now, leaseUntil) > 0) {
+            return true;
+        }
+        if (leaseRepository.existsById(LEASE_NAME)) {
+            return false;
+        }
+        try {
+            leaseRepository.insert(LEASE_NAME, instanceId, leaseUntil);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private int flushHits(LocalDateTime now) {
+        Map<String, Integer> hits = hitTracker.drain();
+        for (Map.Entry<String, Integer> entry : hits.entrySet()) {
+            cacheRepository.recordHits(entry.getKey(), entry.getValue(), now);
+            hitsFlushed.addAndGet(entry.getValue());
+        }
+        return hits.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nutrition.cache.refresh.runs", runs, AtomicLong::get)
+                .tag("result", "success").description("Nutrition cache maintenance runs").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.runs", failedRuns, AtomicLong::get)
+                .tag("result", "failure").description("Nutrition cache maintenance runs").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.runs", skippedRuns, AtomicLong::get)
+                .tag("result", "skipped").description("Nutrition cache maintenance runs").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.candidates", candidatesFound, AtomicLong::get)
+                .description("Entries selected for refresh-ahead").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.refreshed", entriesRefreshed, AtomicLong::get)
+                .description("Entries re-resolved from USDA before expiry").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.negative_purged", negativesPurged, AtomicLong::get)
+                .description("Stale USDA_MISS rows bulk-deleted").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.hits_flushed", hitsFlushed, AtomicLong::get)
+                .description("Cache hits written to hit_count").register(registry);
+        FunctionCounter.builder("nutrition.cache.refresh.hits_dropped", hitTracker, NutritionCacheHitTracker::droppedCount)
+                .description("Cache hits not tracked because the buffer was full").register(registry);
+        Gauge.builder("nutrition.cache.refresh.last_run_duration", lastRunDurationMs, AtomicLong::get)
+                .baseUnit("milliseconds").description("Duration of the last maintenance run").register(registry);
+        Gauge.builder("nutrition.cache.refresh.last_run_timestamp", lastRunEpochMs, AtomicLong::get)
+                .baseUnit("milliseconds").description("Epoch millis when the last run finished").register(registry);
+    }
+
+    long runCount() {
+        return runs.get();
+    }
+
+    long skippedRunCount() {
+        return skippedRuns.get();
+    }
+
+    long refreshedCount() {
+        return entriesRefreshed.get();
+    }
+
+    long negativePurgedCount() {
+        return negativesPurged.get();
+    }
+}
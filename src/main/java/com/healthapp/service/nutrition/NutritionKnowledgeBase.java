@@ -0,0 +1,248 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.service.matching.KeywordRuleSet;
+import com.healthapp.service.nutrition.RecommendedPortionCatalog.PortionRecommendation;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of the editable nutrition knowledge: fallback macros per 100 g, default single portions, and
+ * voice typo fixes. The bundled copy is {@code classpath:nutrition/knowledge-base.json}; an external file can replace
+ * it at runtime through {@link NutritionKnowledgeBaseLoader}.
+ * <p>
+ * Readers call {@link #current()} once per lookup and never lock; a reload builds a complete new snapshot and swaps
+ * the reference, so a lookup sees either the old tables or the new ones, never a mix.
+ * <p>
+ * {@code match} specs use the {@link KeywordRuleSet} syntax. Checks that are not substring tests are referenced by
+ * name: {@code @cookingOil} and {@code @dietOrZeroCalBeverage}.
+ */
+public final class NutritionKnowledgeBase {
+
+    static final String BUNDLED_LOCATION = "nutrition/knowledge-base.json";
+
+    private static final Map<String, Predicate<String>> NAMED_MATCHERS = Map.of(
+            "@cookingOil", CookingOilDetector::containsCookingOil,
+            "@dietOrZeroCalBeverage", NutritionValidator::isDietOrZeroCalBeverage);
+
+    private static final AtomicReference<NutritionKnowledgeBase> CURRENT = new AtomicReference<>(loadBundled());
+
+    private final String version;
+    private final Map<String, Macros> exactMacros;
+    private final KeywordRuleSet<Macros> containsMacros;
+    private final int containsRuleCount;
+    private final KeywordRuleSet<PortionRecommendation> singlePortions;
+    private final int portionRuleCount;
+    private final PortionRecommendation defaultPortion;
+    private final List<TypoFix> typos;
+
+    private NutritionKnowledgeBase(String version, Map<String, Macros> exactMacros,
+                                   KeywordRuleSet<Macros> containsMacros, int containsRuleCount,
+                                   KeywordRuleSet<PortionRecommendation> singlePortions, int portionRuleCount,
+                                   PortionRecommendation defaultPortion, List<TypoFix> typos) {
+        this.version = version;
+        this.exactMacros = exactMacros;
+        this.containsMacros = containsMacros;
+        this.containsRuleCount = containsRuleCount;
+        this.singlePortions = singlePortions;
+        this.portionRuleCount = portionRuleCount;
+        this.defaultPortion = defaultPortion;
+        this.typos = typos;
+    }
+
+    public static NutritionKnowledgeBase current() {
+        return CURRENT.get();
+    }
+
+    /** Installs {@code next} for all subsequent lookups and returns the snapshot it replaced. */
+    static NutritionKnowledgeBase swap(NutritionKnowledgeBase next) {
+        if (next == null) {
+            throw new IllegalArgumentException("Knowledge base snapshot must not be null");
+        }
+        return CURRENT.getAndSet(next);
+    }
+
+    static NutritionKnowledgeBase bundled() {
+        return loadBundled();
+    }
+
+    /**
+     * Parses and validates a knowledge base document. Nothing is installed; a malformed document fails here with
+     * the offending entry in the message, before it can replace a working snapshot.
+     */
+    public static NutritionKnowledgeBase read(InputStream in, ObjectMapper objectMapper) throws IOException {
+        JsonNode root = objectMapper.readTree(in);
+        if (root == null || !root.isObject()) {
+            throw new IOException("Knowledge base must be a JSON object");
+        }
+        String version = root.path("version").asText("");
+        if (version.isBlank()) {
+            throw new IOException("Knowledge base is missing \"version\"");
+        }
+        try {
+            Map<String, Macros> exact = new HashMap<>();
+            for (JsonNode entry : root.path("exactMacros")) {
+                Macros macros = macros(entry);
+                for (JsonNode name : entry.path("names")) {
+                    exact.put(name.asText().toLowerCase(Locale.ROOT).trim(), macros);
+                }
+            }
+
+            KeywordRuleSet.Builder<Macros> contains = KeywordRuleSet.builder();
+            int containsCount = 0;
+            for (JsonNode entry : root.path("containsMacros")) {
+                addRule(contains, entry.path("match").asText(""), macros(entry));
+                containsCount++;
+            }
+
+            KeywordRuleSet.Builder<PortionRecommendation> portions = KeywordRuleSet.builder();
+            int portionCount = 0;
+            for (JsonNode entry : root.path("singlePortions")) {
+                addRule(portions, entry.path("match").asText(""), portion(entry));
+                portionCount++;
+            }
+            JsonNode defaultNode = root.path("defaultPortion");
+            PortionRecommendation defaultPortion = defaultNode.isObject()
+                    ? portion(defaultNode)
+                    : new PortionRecommendation(1, "serving", 200);
+
+            List<TypoFix> typos = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = root.path("typos").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                String target = field.getKey().toLowerCase(Locale.ROOT);
+                if (target.isBlank() || !field.getValue().isTextual()) {
+                    throw new IllegalArgumentException("Invalid typo entry: " + field.getKey());
+                }
+                typos.add(new TypoFix(target, field.getValue().asText()));
+            }
+
+            return new NutritionKnowledgeBase(version, Map.copyOf(exact), contains.build(), containsCount,
+                    portions.build(), portionCount, defaultPortion, List.copyOf(typos));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid knowledge base " + version + ": " + e.getMessage(), e);
+        }
+    }
+
+    public String version() {
+        return version;
+    }
+
+    /** Macros for a name listed verbatim in {@code exactMacros}; {@code n} is lower-cased and trimmed. */
+    Macros exactMacros(String n) {
+        return exactMacros.get(n);
+    }
+
+    /** First {@code containsMacros} rule matching {@code n}, or null. */
+    Macros containsMacros(String n) {
+        return containsMacros.match(n);
+    }
+
+    PortionRecommendation singlePortion(String n) {
+        return singlePortions.match(n, defaultPortion);
+    }
+
+    /** Applies every typo fix, case-insensitively, in file order. */
+    public String fixTypos(String text) {
+        String result = text;
+        String lower = result.toLowerCase(Locale.ROOT);
+        for (TypoFix typo : typos) {
+            int idx = lower.indexOf(typo.target());
+            if (idx < 0) {
+                continue;
+            }
+            StringBuilder sb = new StringBuilder(result.length());
+            int from = 0;
+            while (idx >= 0) {
+                sb.append(result, from, idx).append(typo.replacement());
+                from = idx + typo.target().length();
+                idx = lower.indexOf(typo.target(), from);
+            }
+            sb.append(result, from, result.length());
+            result = sb.toString();
+            lower = result.toLowerCase(Locale.ROOT);
+        }
+        return result;
+    }
+
+    public int exactFoodCount() {
+        return exactMacros.size();
+    }
+
+    public int containsRuleCount() {
+        return containsRuleCount;
+    }
+
+    public int portionRuleCount() {
+        return portionRuleCount;
+    }
+
+    public int typoCount() {
+        return typos.size();
+    }
+
+    private static <T> void addRule(KeywordRuleSet.Builder<T> builder, String match, T value) {
+        if (match.startsWith("@")) {
+            Predicate<String> predicate = NAMED_MATCHERS.get(match);
+            if (predicate == null) {
+                throw new IllegalArgumentException("Unknown matcher " + match);
+            }
+            builder.rule(predicate, value);
+        } else {
+            builder.rule(match, value);
+        }
+    }
+
+    private static Macros macros(JsonNode entry) {
+        Macros macros = new Macros(
+                number(entry, "calories"), number(entry, "protein"), number(entry, "carbs"),
+                number(entry, "fat"), number(entry, "fiber"));
+        if (macros.calories() < 0 || macros.protein() < 0 || macros.carbs() < 0 || macros.fat() < 0
+                || macros.fiber() < 0) {
+            throw new IllegalArgumentException("Negative macros in " + entry);
+        }
+        return macros;
+    }
+
+    private static PortionRecommendation portion(JsonNode entry) {
+        double quantity = number(entry, "quantity");
+        double grams = number(entry, "grams");
+        String unit = entry.path("unit").asText("");
+        if (quantity <= 0 || grams <= 0 || unit.isBlank()) {
+            throw new IllegalArgumentException("Invalid portion " + entry);
+        }
+        return new PortionRecommendation(quantity, unit, grams);
+    }
+
+    private static double number(JsonNode entry, String field) {
+        JsonNode value = entry.get(field);
+        if (value == null || !value.isNumber()) {
+            throw new IllegalArgumentException("Missing numeric \"" + field + "\" in " + entry);
+        }
+        return value.asDouble();
+    }
+
+    private static NutritionKnowledgeBase loadBundled() {
+        try (InputStream in = new ClassPathResource(BUNDLED_LOCATION).getInputStream()) {
+            return read(in, new ObjectMapper());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load bundled " + BUNDLED_LOCATION, e);
+        }
+    }
+
+    record Macros(double calories, double protein, double carbs, double fat, double fiber) {}
+
+    private record TypoFix(String target, String replacement) {}
+}
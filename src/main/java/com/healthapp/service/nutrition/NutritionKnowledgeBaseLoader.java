@@ -0,0 +1,154 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.NutritionLookupProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replaces the bundled {@link NutritionKnowledgeBase} with {@code nutrition.lookup.knowledge.path} at startup and
+ * whenever that file changes (polled every {@code poll-seconds}) or an admin calls {@link #reload()}. A document that
+ * fails to parse or validate is rejected and the running snapshot stays in place.
+ * Reloads are counted as {@code nutrition.knowledge.reloads}.
+ * <p>
+ * Each swap also evicts cached {@code FALLBACK_HARDCODED} nutrition, which was resolved from the old tables. The
+ * snapshot is per instance: an instance picks up an edited shared {@code file:} path on its next poll, but
+ * {@link #reload()} only swaps the instance it runs on.
+ */
+@Component
+public class NutritionKnowledgeBaseLoader implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NutritionKnowledgeBaseLoader.class);
+
+    private final NutritionLookupProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ResourceLoader resourceLoader;
+    private final NutritionLookupService lookupService;
+    private ScheduledExecutorService scheduler;
+    private volatile long lastModified = -1;
+
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+
+    public NutritionKnowledgeBaseLoader(NutritionLookupProperties properties, ObjectMapper objectMapper,
+                                        ResourceLoader resourceLoader, NutritionLookupService lookupService) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.resourceLoader = resourceLoader;
+        this.lookupService = lookupService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isExternal()) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            logger.error("Keeping bundled nutrition knowledge base {}: {}",
+                    NutritionKnowledgeBase.current().version(), e.getMessage());
+        }
+        int poll = properties.getKnowledge().getPollSeconds();
+        if (poll <= 0 || !resourceLoader.getResource(path()).isFile()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nutrition-knowledge-watch");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reloadIfChanged, poll, poll, TimeUnit.SECONDS);
+        logger.info("Watching nutrition knowledge base {} every {} s", path(), poll);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the configured knowledge base (or the bundled one when no path is set) and swaps it in.
+     *
+     * @return the snapshot that was replaced
+     * @throws IOException when the document is missing or invalid; the current snapshot is kept
+     */
+    public synchronized NutritionKnowledgeBase reload() throws IOException {
+        NutritionKnowledgeBase next;
+        try {
+            if (isExternal()) {
+                Resource resource = resourceLoader.getResource(path());
+                long modified = resource.isFile() ? resource.lastModified() : -1;
+                try (InputStream in = resource.getInputStream()) {
+                    next = NutritionKnowledgeBase.read(in, objectMapper);
+                }
+                lastModified = modified;
+            } else {
+                next = NutritionKnowledgeBase.bundled();
+            }
+        } catch (IOException | RuntimeException e) {
+            failedReloads.incrementAndGet();
+            throw e instanceof IOException io ? io : new IOException(e.getMessage(), e);
+        }
+        NutritionKnowledgeBase previous = NutritionKnowledgeBase.swap(next);
+        reloads.incrementAndGet();
+        int evicted = lookupService.evictFallbackEntries();
+        logger.info("Nutrition knowledge base {} -> {} ({} exact foods, {} contains rules, {} portions, {} typos; "
+                        + "{} cached fallback entries evicted)",
+                previous.version(), next.version(), next.exactFoodCount(), next.containsRuleCount(),
+                next.portionRuleCount(), next.typoCount(), evicted);
+        return previous;
+    }
+
+    void reloadIfChanged() {
+        try {
+            long modified = resourceLoader.getResource(path()).lastModified();
+            if (modified == lastModified) {
+                return;
+            }
+            reload();
+        } catch (IOException e) {
+            logger.warn("Ignoring changed nutrition knowledge base {}: {}", path(), e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Nutrition knowledge base watch failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nutrition.knowledge.reloads", reloads, AtomicLong::get)
+                .tag("result", "success").description("Nutrition knowledge base reloads").register(registry);
+        FunctionCounter.builder("nutrition.knowledge.reloads", failedReloads, AtomicLong::get)
+                .tag("result", "failure").description("Nutrition knowledge base reloads").register(registry);
+    }
+
+    long failedReloadCount() {
+        return failedReloads.get();
+    }
+
+    private boolean isExternal() {
+        String path = path();
+        return path != null && !path.isBlank();
+    }
+
+    private String path() {
+        return properties.getKnowledge().getPath();
+    }
+}
@@ -3,6 +3,8 @@ package com.healthapp.service.nutrition;
 import com.healthapp.config.NutritionLookupProperties;
 import com.healthapp.entity.FoodNutritionCache;
 import com.healthapp.repository.FoodNutritionCacheRepository;
+import com.healthapp.service.matching.KeywordRuleSet;
+import com.healthapp.service.matching.TokenSetMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,10 +12,29 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 
 @Service
 public class NutritionLookupService {
@@ -21,21 +42,46 @@ public class NutritionLookupService {
     private static final Logger logger = LoggerFactory.getLogger(NutritionLookupService.class);
     static final String NEGATIVE_CACHE_SOURCE = "USDA_MISS";
     private static final int MAX_NORMALIZED_NAME_LENGTH = 120;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
 
     private final NutritionLookupProperties properties;
     private final FoodNutritionCacheRepository cacheRepository;
     private final UsdaFoodDataClient usdaClient;
     private final FoodNutritionFallback foodNutritionFallback;
+    private final NutritionMemoryCache memoryCache;
+    private final LocalFdcNutritionProvider localFdcProvider;
+    private final NutritionCacheHitTracker hitTracker;
+    private final ConcurrentMap<String, CompletableFuture<Optional<NutritionProfile>>> inFlight = new ConcurrentHashMap<>();
+    /** Returned by {@link BlendFlights#claim} once the blend has ended. */
+    private static final CompletableFuture<Optional<NutritionProfile>> BLEND_CLOSED = new CompletableFuture<>();
+    /** Shared, bounded pool for blend ingredient lookups; null when blends resolve sequentially. */
+    private final ExecutorService blendExecutor;
+
+    public NutritionLookupService(NutritionLookupProperties properties,
+                                  FoodNutritionCacheRepository cacheRepository,
+                                  UsdaFoodDataClient usdaClient,
+                                  FoodNutritionFallback foodNutritionFallback,
+                                  NutritionMemoryCache memoryCache) {
+        this(properties, cacheRepository, usdaClient, foodNutritionFallback, memoryCache, null,
+                new NutritionCacheHitTracker());
+    }
 
     @Autowired
     public NutritionLookupService(NutritionLookupProperties properties,
                                   FoodNutritionCacheRepository cacheRepository,
                                   UsdaFoodDataClient usdaClient,
-                                  FoodNutritionFallback foodNutritionFallback) {
+                                  FoodNutritionFallback foodNutritionFallback,
+                                  NutritionMemoryCache memoryCache,
+                                  LocalFdcNutritionProvider localFdcProvider,
+                                  NutritionCacheHitTracker hitTracker) {
         this.properties = properties;
         this.cacheRepository = cacheRepository;
         this.usdaClient = usdaClient;
         this.foodNutritionFallback = foodNutritionFallback;
+        this.memoryCache = memoryCache;
+        this.localFdcProvider = localFdcProvider;
+        this.hitTracker = hitTracker;
+        this.blendExecutor = createBlendExecutor(properties.getBlendParallelism());
     }
 
     @PostConstruct
@@ -44,8 +90,14 @@ public class NutritionLookupService {
             logger.info("Nutrition lookup is disabled");
             return;
         }
+        if (isLocalFdcProvider()) {
+            logger.info("Local FDC nutrition lookup selected (confidence threshold={})",
+                    properties.getConfidenceThreshold());
+            return;
+        }
         if (!"usda".equalsIgnoreCase(properties.getProvider())) {
-            logger.warn("Nutrition provider '{}' is not supported; only 'usda' is implemented", properties.getProvider());
+            logger.warn("Nutrition provider '{}' is not supported; use 'usda' or '{}'",
+                    properties.getProvider(), LocalFdcNutritionProvider.PROVIDER);
         }
         if (usdaClient.isAvailable()) {
             logger.info("USDA nutrition lookup enabled (confidence threshold={}, cache TTL={} days)",
@@ -66,10 +118,32 @@ public class NutritionLookupService {
                 INGREDIENT_BLEND_CONFIDENCE_THRESHOLD);
     }
 
+    /**
+     * Same answer {@link #lookup(String)} would give when it is already known locally: the in-memory FDC index, or
+     * the L1/DB cache for USDA. Never calls USDA and never falls back to the hardcoded tables.
+     */
+    public Optional<NutritionProfile> lookupCached(String foodName) {
+        if (!properties.isEnabled() || foodName == null || foodName.isBlank()) {
+            return Optional.empty();
+        }
+        String normalized = normalize(foodName);
+        if (isLocalFdcProvider()) {
+            return localFdcProvider.lookup(buildSearchTerm(foodName), normalized, properties.getConfidenceThreshold())
+                    .filter(profile -> isPlausibleProfile(foodName, profile));
+        }
+        if (!"usda".equalsIgnoreCase(properties.getProvider())) {
+            return Optional.empty();
+        }
+        return loadFromCache(normalized, foodName);
+    }
+
     private Optional<NutritionProfile> lookup(String foodName, double confidenceThreshold) {
         if (!properties.isEnabled() || foodName == null || foodName.isBlank()) {
             return Optional.empty();
         }
+        if (isLocalFdcProvider()) {
+            return lookupLocalFdc(normalize(foodName), foodName, confidenceThreshold);
+        }
         if (!"usda".equalsIgnoreCase(properties.getProvider())) {
             return fallbackLookup(normalize(foodName), foodName);
         }
@@ -82,24 +156,110 @@ public class NutritionLookupService {
         if (!usdaClient.isAvailable()) {
             return fallbackLookup(normalized, foodName);
         }
+        return resolveSingleFlight(normalized, foodName, confidenceThreshold);
+    }
+
+    /** Offline path: no DB cache or single-flight, since the index is already in memory. */
+    private Optional<NutritionProfile> lookupLocalFdc(String normalized, String foodName, double confidenceThreshold) {
+        Optional<NutritionProfile> local = localFdcProvider.lookup(buildSearchTerm(foodName), normalized,
+                confidenceThreshold);
+        if (local.isPresent() && isPlausibleProfile(foodName, local.get())) {
+            return local;
+        }
+        return fallbackLookup(normalized, foodName);
+    }
+
+    private boolean isLocalFdcProvider() {
+        return localFdcProvider != null
+                && LocalFdcNutritionProvider.PROVIDER.equalsIgnoreCase(properties.getProvider());
+    }
+
+    /**
+     * Concurrent misses for the same food (and threshold) share one USDA search + detail round-trip: the first
+     * caller resolves and persists, the rest wait for its result. This also keeps same-instance writers from
+     * racing each other into {@link #persistCache}'s duplicate-key retry.
+     */
+    private Optional<NutritionProfile> resolveSingleFlight(String normalized, String foodName, double confidenceThreshold) {
+        String flightKey = flightKey(normalized, confidenceThreshold);
+        CompletableFuture<Optional<NutritionProfile>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<NutritionProfile>> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            logger.debug("Joining in-flight USDA resolution for '{}'", normalized);
+            Optional<NutritionProfile> joined = awaitFlight(existing);
+            return joined != null ? joined : resolveSingleFlight(normalized, foodName, confidenceThreshold);
+        }
+        try {
+            // A previous flight may have completed between our cache miss and taking the slot.
+            Optional<NutritionProfile> justResolved = memoryCache.peekProfile(normalized);
+            Optional<NutritionProfile> result = justResolved.isPresent()
+                    ? justResolved
+                    : resolveFromUsda(normalized, foodName, confidenceThreshold);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static String flightKey(String normalized, double confidenceThreshold) {
+        return normalized + '|' + confidenceThreshold;
+    }
+
+    /** @return the flight's result, or null when a blend abandoned it and the caller should resolve on its own */
+    private static Optional<NutritionProfile> awaitFlight(CompletableFuture<Optional<NutritionProfile>> flight) {
+        try {
+            return flight.join();
+        } catch (CancellationException e) {
+            return null;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<NutritionProfile> resolveFromUsda(String normalized, String foodName, double confidenceThreshold) {
+        UsdaMatch match = searchUsda(normalized, foodName, confidenceThreshold);
+        if (match.settled() != null) {
+            return match.settled();
+        }
+        UsdaFoodDataClient.UsdaDetailResponse detailResponse =
+                usdaClient.getFoodDetails(match.fdcId(), match.confidence());
+        return completeFromDetail(normalized, foodName, match.confidence(), detailResponse);
+    }
+
+    /**
+     * Search leg of the USDA flow: either settles the lookup (miss, low confidence, transient failure) or names the
+     * fdcId whose details should be fetched.
+     */
+    private UsdaMatch searchUsda(String normalized, String foodName, double confidenceThreshold) {
         String searchTerm = buildSearchTerm(foodName);
         UsdaFoodDataClient.UsdaSearchResponse searchResponse = usdaClient.searchFoods(searchTerm, 5);
         if (searchResponse.failedTransiently()) {
             logger.warn("USDA search transient failure for '{}'; skipping negative cache", foodName);
-            return fallbackLookup(normalized, foodName);
+            return UsdaMatch.settled(fallbackLookup(normalized, foodName));
         }
         if (searchResponse.results().isEmpty()) {
             saveNegativeCache(normalized);
-            return fallbackLookup(normalized, foodName);
+            return UsdaMatch.settled(fallbackLookup(normalized, foodName));
         }
-        UsdaFoodDataClient.UsdaSearchResult best = pickBestResult(normalized, searchResponse.results());
-        double confidence = scoreMatch(normalized, best.description());
+        ScoredResult scored = pickBestResult(normalized, searchResponse.results());
+        UsdaFoodDataClient.UsdaSearchResult best = scored.result();
+        double confidence = scored.confidence();
         if (confidence < confidenceThreshold) {
             logger.info("USDA match below threshold for '{}': {} (confidence={})", foodName, best.description(), confidence);
             saveNegativeCache(normalized);
-            return fallbackLookup(normalized, foodName);
+            return UsdaMatch.settled(fallbackLookup(normalized, foodName));
         }
-        UsdaFoodDataClient.UsdaDetailResponse detailResponse = usdaClient.getFoodDetails(best.fdcId(), confidence);
+        return new UsdaMatch(best.fdcId(), confidence, null);
+    }
+
+    private Optional<NutritionProfile> completeFromDetail(String normalized, String foodName, double confidence,
+                                                          UsdaFoodDataClient.UsdaDetailResponse detailResponse) {
         if (detailResponse.failedTransiently()) {
             logger.warn("USDA detail transient failure for '{}'; skipping negative cache", foodName);
             return fallbackLookup(normalized, foodName);
@@ -115,24 +275,100 @@ public class NutritionLookupService {
         return Optional.of(profile);
     }
 
+    /** @param settled final result when no detail fetch is needed; null when {@code fdcId} still needs details */
+    private record UsdaMatch(int fdcId, double confidence, Optional<NutritionProfile> settled) {
+        static UsdaMatch settled(Optional<NutritionProfile> result) {
+            return new UsdaMatch(0, 0, result);
+        }
+    }
+
+    /**
+     * Forgets hardcoded-fallback results in the DB and L1 caches so the next lookup of those foods reads the
+     * knowledge base that is now current. Called by {@link NutritionKnowledgeBaseLoader} after every swap.
+     *
+     * @return DB entries removed
+     */
+    public int evictFallbackEntries() {
+        int removed = cacheRepository.deleteBySource(NutritionSource.FALLBACK_HARDCODED.name());
+        memoryCache.invalidateSource(NutritionSource.FALLBACK_HARDCODED);
+        return removed;
+    }
+
+    /**
+     * Refresh-ahead for {@link NutritionCacheRefreshJob}: re-resolves positive USDA entries before they expire, with
+     * one batched detail fetch. An entry is only rewritten when USDA returns a plausible match at least as confident
+     * as the configured threshold (or the entry's own confidence, if lower); otherwise it is left to expire normally.
+     *
+     * @return number of entries rewritten
+     */
+    public int refreshFromUsda(List<FoodNutritionCache> entries) {
+        if (!properties.isEnabled() || !usdaClient.isAvailable() || entries.isEmpty()) {
+            return 0;
+        }
+        List<FoodNutritionCache> matched = new ArrayList<>();
+        List<UsdaFoodDataClient.UsdaSearchResult> matches = new ArrayList<>();
+        List<Double> confidences = new ArrayList<>();
+        for (FoodNutritionCache entry : entries) {
+            String normalized = entry.getNormalizedName();
+            UsdaFoodDataClient.UsdaSearchResponse search = usdaClient.searchFoods(buildSearchTerm(normalized), 5);
+            if (search.failedTransiently() || search.results().isEmpty()) {
+                continue;
+            }
+            ScoredResult scored = pickBestResult(normalized, search.results());
+            UsdaFoodDataClient.UsdaSearchResult best = scored.result();
+            double confidence = scored.confidence();
+            double required = Math.min(properties.getConfidenceThreshold(), safe(entry.getConfidence()));
+            if (confidence < required) {
+                logger.debug("Refresh skipped for '{}': best match {} (confidence={})",
+                        normalized, best.description(), confidence);
+                continue;
+            }
+            matched.add(entry);
+            matches.add(best);
+            confidences.add(confidence);
+        }
+        if (matched.isEmpty()) {
+            return 0;
+        }
+        UsdaFoodDataClient.UsdaBatchDetailResponse details =
+                usdaClient.getFoodDetails(matches.stream().map(UsdaFoodDataClient.UsdaSearchResult::fdcId).toList());
+        int refreshed = 0;
+        for (int i = 0; i < matched.size(); i++) {
+            String normalized = matched.get(i).getNormalizedName();
+            UsdaFoodDataClient.UsdaDetailResponse detail = details.detail(matches.get(i).fdcId(), confidences.get(i));
+            NutritionProfile profile = detail.profile();
+            if (!detail.found() || profile == null || !isPlausibleProfile(normalized, profile)) {
+                continue;
+            }
+            saveCache(normalized, profile);
+            refreshed++;
+        }
+        return refreshed;
+    }
+
     /**
      * Sums per-ingredient nutrition (USDA then fallback) into composite per-100g macros.
+     * Ingredients are resolved concurrently on {@link #blendExecutor} under one deadline, then summed in input order;
+     * any unresolved (or timed-out) ingredient aborts the whole blend.
      */
     public Optional<NutritionProfile> blendIngredients(List<IngredientPortion> ingredients) {
         if (ingredients == null || ingredients.isEmpty()) {
             return Optional.empty();
         }
-        BlendAccumulator acc = new BlendAccumulator();
+        List<IngredientPortion> expanded = new ArrayList<>();
         for (IngredientPortion portion : ingredients) {
             if (portion.estimatedGrams() <= 0) {
                 continue;
             }
-            for (IngredientPortion expanded : expandSandwichIngredient(portion)) {
-                if (!acc.add(expanded)) {
-                    logger.info("Ingredient blend aborted — unresolved ingredient '{}'", expanded.name());
-                    return Optional.empty();
-                }
-            }
+            expanded.addAll(expandSandwichIngredient(portion));
+        }
+        List<NutritionProfile> resolved = resolveIngredients(expanded);
+        if (resolved == null) {
+            return Optional.empty();
+        }
+        BlendAccumulator acc = new BlendAccumulator();
+        for (int i = 0; i < expanded.size(); i++) {
+            acc.add(expanded.get(i), resolved.get(i));
         }
         if (acc.totalGrams <= 0) {
             return Optional.empty();
@@ -153,7 +389,299 @@ public class NutritionLookupService {
         ));
     }
 
-    private final class BlendAccumulator {
+    /**
+     * Resolves in two passes: cache lookups and USDA searches run per ingredient (concurrently when a pool is
+     * configured), then every ingredient still waiting on USDA details is fetched in one batched {@code /foods} call.
+     * Both passes share the blend deadline. Ingredients go through the same single-flight slots as
+     * {@link #lookupIngredient}, so a blend joins a prefetch or lookup already resolving one of them, and lookups
+     * arriving meanwhile wait for the blend's batch.
+     *
+     * @return one profile per portion in input order, or null when any ingredient is unresolved or the deadline passes
+     */
+    private List<NutritionProfile> resolveIngredients(List<IngredientPortion> portions) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getBlendTimeoutMs());
+        BlendFlights flights = new BlendFlights();
+        try {
+            List<IngredientPlan> plans = planIngredients(portions, deadline, flights);
+            if (plans == null) {
+                return null;
+            }
+            List<Integer> pendingIds = new ArrayList<>();
+            for (IngredientPlan plan : plans) {
+                if (plan.match() != null) {
+                    pendingIds.add(plan.match().fdcId());
+                }
+            }
+            if (!pendingIds.isEmpty()) {
+                UsdaFoodDataClient.UsdaBatchDetailResponse details = fetchBlendDetails(pendingIds, deadline);
+                if (details == null) {
+                    return null;
+                }
+                // Settle this blend's flights first; ingredients repeated in the blend read them below
+                for (IngredientPlan plan : plans) {
+                    if (plan.match() != null) {
+                        flights.complete(plan.flight(), completeFromDetail(plan.normalized(), plan.lookupName(),
+                                plan.match().confidence(),
+                                details.detail(plan.match().fdcId(), plan.match().confidence())));
+                    }
+                }
+            }
+            List<NutritionProfile> resolved = new ArrayList<>(plans.size());
+            for (IngredientPlan plan : plans) {
+                NutritionProfile profile = plan.flight() == null
+                        ? plan.profile()
+                        : finishIngredient(plan.portion(), plan.flight().join());
+                if (profile == null) {
+                    logger.info("Ingredient blend aborted — unresolved ingredient '{}'", plan.portion().name());
+                    return null;
+                }
+                resolved.add(profile);
+            }
+            return resolved;
+        } finally {
+            flights.close();
+        }
+    }
+
+    /**
+     * Batched detail fetch for a blend. With a pool it is bounded by what is left of the blend deadline rather than
+     * by the client's per-chunk read timeout; sequential blends run it inline, as they do their searches.
+     *
+     * @return null when the deadline passes first
+     */
+    private UsdaFoodDataClient.UsdaBatchDetailResponse fetchBlendDetails(List<Integer> fdcIds, long deadline) {
+        if (blendExecutor == null) {
+            return usdaClient.getFoodDetails(fdcIds);
+        }
+        Future<UsdaFoodDataClient.UsdaBatchDetailResponse> future =
+                blendExecutor.submit(() -> usdaClient.getFoodDetails(fdcIds));
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Ingredient blend aborted — USDA details for {} ingredients not fetched within {} ms",
+                    fdcIds.size(), properties.getBlendTimeoutMs());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            future.cancel(true);
+        }
+    }
+
+    /** @return one plan per portion in input order, or null when any ingredient is unresolved or the deadline passes */
+    private List<IngredientPlan> planIngredients(List<IngredientPortion> portions, long deadline,
+                                                 BlendFlights flights) {
+        if (blendExecutor == null || portions.size() <= 1) {
+            List<IngredientPlan> plans = new ArrayList<>(portions.size());
+            for (IngredientPortion portion : portions) {
+                IngredientPlan plan = planIngredient(portion, flights);
+                if (plan.isUnresolved()) {
+                    logger.info("Ingredient blend aborted — unresolved ingredient '{}'", portion.name());
+                    return null;
+                }
+                plans.add(plan);
+            }
+            return plans;
+        }
+        List<Future<IngredientPlan>> futures = new ArrayList<>(portions.size());
+        for (IngredientPortion portion : portions) {
+            futures.add(blendExecutor.submit(() -> planIngredient(portion, flights)));
+        }
+        List<IngredientPlan> plans = new ArrayList<>(portions.size());
+        try {
+            for (int i = 0; i < portions.size(); i++) {
+                IngredientPlan plan = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (plan.isUnresolved()) {
+                    logger.info("Ingredient blend aborted — unresolved ingredient '{}'", portions.get(i).name());
+                    return null;
+                }
+                plans.add(plan);
+            }
+            return plans;
+        } catch (TimeoutException e) {
+            logger.warn("Ingredient blend aborted — {} ingredients not resolved within {} ms",
+                    portions.size() - plans.size(), properties.getBlendTimeoutMs());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            for (Future<IngredientPlan> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Same resolution as {@link #resolveIngredientProfile(IngredientPortion)}, except that a USDA match needing
+     * details is returned as pending, holding the ingredient's flight, so {@link #resolveIngredients} can batch the
+     * detail fetch.
+     */
+    private IngredientPlan planIngredient(IngredientPortion portion, BlendFlights flights) {
+        String lookupName = ingredientSearchTerm(portion);
+        if (!canResolveFromUsda() || lookupName.isBlank()) {
+            return IngredientPlan.done(portion, resolveIngredientProfile(portion));
+        }
+        String normalized = normalize(lookupName);
+        Optional<NutritionProfile> cached = loadFromCache(normalized, lookupName);
+        if (cached.isPresent()) {
+            return IngredientPlan.done(portion, finishIngredient(portion, cached));
+        }
+        String flightKey = flightKey(normalized, INGREDIENT_BLEND_CONFIDENCE_THRESHOLD);
+        CompletableFuture<Optional<NutritionProfile>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<NutritionProfile>> existing = flights.claim(flightKey, flight);
+        if (existing == BLEND_CLOSED) {
+            return IngredientPlan.done(portion, null);
+        }
+        if (existing != null) {
+            if (flights.owns(existing)) {
+                return IngredientPlan.sharing(portion, existing);
+            }
+            logger.debug("Blend joining in-flight USDA resolution for '{}'", normalized);
+            Optional<NutritionProfile> joined = awaitFlight(existing);
+            return IngredientPlan.done(portion, finishIngredient(portion, joined != null
+                    ? joined
+                    : resolveSingleFlight(normalized, lookupName, INGREDIENT_BLEND_CONFIDENCE_THRESHOLD)));
+        }
+        try {
+            Optional<NutritionProfile> justResolved = memoryCache.peekProfile(normalized);
+            if (justResolved.isPresent()) {
+                flights.complete(flight, justResolved);
+                return IngredientPlan.done(portion, finishIngredient(portion, justResolved));
+            }
+            UsdaMatch match = searchUsda(normalized, lookupName, INGREDIENT_BLEND_CONFIDENCE_THRESHOLD);
+            if (match.settled() != null) {
+                flights.complete(flight, match.settled());
+                return IngredientPlan.done(portion, finishIngredient(portion, match.settled()));
+            }
+            return new IngredientPlan(portion, null, normalized, lookupName, match, flight);
+        } catch (RuntimeException e) {
+            flights.fail(flight, e);
+            throw e;
+        }
+    }
+
+    private boolean canResolveFromUsda() {
+        return properties.isEnabled() && "usda".equalsIgnoreCase(properties.getProvider()) && usdaClient.isAvailable();
+    }
+
+    /**
+     * @param match  non-null while USDA details are still pending
+     * @param flight the ingredient's flight when its result comes from this blend's detail batch: its own
+     *               ({@code match} set) or one another ingredient of the blend claimed
+     */
+    private record IngredientPlan(IngredientPortion portion, NutritionProfile profile, String normalized,
+                                  String lookupName, UsdaMatch match,
+                                  CompletableFuture<Optional<NutritionProfile>> flight) {
+        static IngredientPlan done(IngredientPortion portion, NutritionProfile profile) {
+            return new IngredientPlan(portion, profile, null, null, null, null);
+        }
+
+        static IngredientPlan sharing(IngredientPortion portion, CompletableFuture<Optional<NutritionProfile>> flight) {
+            return new IngredientPlan(portion, null, null, null, null, flight);
+        }
+
+        boolean isUnresolved() {
+            return flight == null && profile == null;
+        }
+    }
+
+    /**
+     * Single-flight slots one blend has claimed in {@link #inFlight}. A slot stays open until the blend's detail
+     * batch completes it; slots still open when the blend ends (unresolved ingredient, deadline, failure) are
+     * abandoned, so callers waiting on them resolve on their own instead of waiting forever.
+     */
+    private final class BlendFlights {
+        private final Map<CompletableFuture<Optional<NutritionProfile>>, String> owned = new IdentityHashMap<>();
+        private boolean closed;
+
+        /**
+         * @return null when {@code flight} now holds the slot for this blend, {@link #BLEND_CLOSED} when the blend has
+         * already ended, otherwise the flight already holding the slot
+         */
+        synchronized CompletableFuture<Optional<NutritionProfile>> claim(
+                String flightKey, CompletableFuture<Optional<NutritionProfile>> flight) {
+            if (closed) {
+                return BLEND_CLOSED;
+            }
+            CompletableFuture<Optional<NutritionProfile>> existing = inFlight.putIfAbsent(flightKey, flight);
+            if (existing == null) {
+                owned.put(flight, flightKey);
+            }
+            return existing;
+        }
+
+        synchronized boolean owns(CompletableFuture<Optional<NutritionProfile>> flight) {
+            return owned.containsKey(flight);
+        }
+
+        void complete(CompletableFuture<Optional<NutritionProfile>> flight, Optional<NutritionProfile> result) {
+            flight.complete(result);
+            inFlight.remove(keyOf(flight), flight);
+        }
+
+        void fail(CompletableFuture<Optional<NutritionProfile>> flight, RuntimeException e) {
+            flight.completeExceptionally(e);
+            inFlight.remove(keyOf(flight), flight);
+        }
+
+        void close() {
+            List<Map.Entry<CompletableFuture<Optional<NutritionProfile>>, String>> open;
+            synchronized (this) {
+                closed = true;
+                open = new ArrayList<>(owned.entrySet());
+            }
+            for (Map.Entry<CompletableFuture<Optional<NutritionProfile>>, String> entry : open) {
+                if (!entry.getKey().isDone()) {
+                    // Leave the slot before cancelling so a waiter that retries does not find it again
+                    inFlight.remove(entry.getValue(), entry.getKey());
+                    entry.getKey().cancel(false);
+                }
+            }
+        }
+
+        private synchronized String keyOf(CompletableFuture<Optional<NutritionProfile>> flight) {
+            return owned.get(flight);
+        }
+    }
+
+    @PreDestroy
+    void shutdownBlendExecutor() {
+        if (blendExecutor != null) {
+            blendExecutor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService createBlendExecutor(int parallelism) {
+        if (parallelism <= 1) {
+            return null;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(parallelism * 16),
+                r -> {
+                    Thread t = new Thread(r, "nutrition-blend-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                // Saturated: resolve on the request thread rather than failing the blend
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class BlendAccumulator {
         double totalGrams;
         double totalCalories;
         double totalProtein;
@@ -163,15 +691,7 @@ public class NutritionLookupService {
         double minConfidence = 1.0;
         int usdaCount;
 
-        /** @return false when the ingredient could not be resolved */
-        boolean add(IngredientPortion portion) {
-            String term = portion.fdcSearchTerm() != null && !portion.fdcSearchTerm().isBlank()
-                    ? portion.fdcSearchTerm() : portion.name();
-            NutritionProfile resolved = resolveIngredientProfile(portion.name(), term);
-            if (resolved == null) {
-                logger.warn("Ingredient '{}' unresolved in blend", portion.name());
-                return false;
-            }
+        void add(IngredientPortion portion, NutritionProfile resolved) {
             if (resolved.getSource() == NutritionSource.USDA) {
                 usdaCount++;
             }
@@ -183,7 +703,6 @@ public class NutritionLookupService {
             totalFat += resolved.getFatPer100g() * scale;
             totalFiber += resolved.getFiberPer100g() * scale;
             minConfidence = Math.min(minConfidence, resolved.getConfidence());
-            return true;
         }
     }
 
@@ -245,8 +764,19 @@ public class NutritionLookupService {
         return Optional.of(profile);
     }
 
-    private NutritionProfile resolveIngredientProfile(String foodName, String searchTerm) {
-        Optional<NutritionProfile> usda = lookupIngredient(foodName, searchTerm);
+    /** @return null when the ingredient could not be resolved */
+    private NutritionProfile resolveIngredientProfile(IngredientPortion portion) {
+        return finishIngredient(portion, lookupIngredient(portion.name(), ingredientSearchTerm(portion)));
+    }
+
+    private static String ingredientSearchTerm(IngredientPortion portion) {
+        return portion.fdcSearchTerm() != null && !portion.fdcSearchTerm().isBlank()
+                ? portion.fdcSearchTerm() : portion.name();
+    }
+
+    /** Applies the ingredient-name plausibility check to a lookup result, then the hardcoded fallback. */
+    private NutritionProfile finishIngredient(IngredientPortion portion, Optional<NutritionProfile> usda) {
+        String foodName = portion.name();
         if (usda.isPresent() && isPlausibleProfile(foodName, usda.get())) {
             return usda.get();
         }
@@ -255,6 +785,7 @@ public class NutritionLookupService {
             logger.debug("Ingredient fallback for '{}'", foodName);
             return fallback.get();
         }
+        logger.warn("Ingredient '{}' unresolved in blend", foodName);
         return null;
     }
 
@@ -274,7 +805,17 @@ public class NutritionLookupService {
         return data;
     }
 
+    /**
+     * L1 (in-memory) first, then the {@code food_nutrition_cache} table; DB hits are promoted into L1.
+     */
     private Optional<NutritionProfile> loadFromCache(String normalized, String foodName) {
+        Optional<NutritionMemoryCache.Lookup> l1 = memoryCache.get(normalized);
+        if (l1.isPresent()) {
+            if (l1.get().profile() != null) {
+                hitTracker.record(normalized);
+            }
+            return Optional.ofNullable(l1.get().profile());
+        }
         Optional<FoodNutritionCache> cacheOpt = cacheRepository.findByNormalizedName(normalized);
         if (cacheOpt.isEmpty()) {
             return Optional.empty();
@@ -285,6 +826,7 @@ public class NutritionLookupService {
             return Optional.empty();
         }
         if (NEGATIVE_CACHE_SOURCE.equals(cache.getSource())) {
+            memoryCache.putNegative(normalized);
             return Optional.empty();
         }
         NutritionProfile profile = toProfile(cache);
@@ -294,6 +836,8 @@ public class NutritionLookupService {
             evictCache(cache);
             return Optional.empty();
         }
+        memoryCache.put(normalized, profile, remainingFreshness(cache));
+        hitTracker.record(normalized);
         return Optional.of(profile);
     }
 
@@ -302,10 +846,22 @@ public class NutritionLookupService {
         if (updatedAt == null) {
             return false;
         }
-        return updatedAt.isAfter(LocalDateTime.now().minusDays(properties.getCacheTtlDays()));
+        int ttlDays = NEGATIVE_CACHE_SOURCE.equals(cache.getSource())
+                ? Math.min(properties.getCacheTtlDays(), properties.getRefresh().getNegativeTtlDays())
+                : properties.getCacheTtlDays();
+        return updatedAt.isAfter(LocalDateTime.now().minusDays(ttlDays));
+    }
+
+    private Duration remainingFreshness(FoodNutritionCache cache) {
+        LocalDateTime updatedAt = cache.getUpdatedAt() != null ? cache.getUpdatedAt() : cache.getCreatedAt();
+        if (updatedAt == null) {
+            return Duration.ZERO;
+        }
+        return Duration.between(LocalDateTime.now(), updatedAt.plusDays(properties.getCacheTtlDays()));
     }
 
     private void evictCache(FoodNutritionCache cache) {
+        memoryCache.invalidate(cache.getNormalizedName());
         cacheRepository.delete(cache);
     }
 
@@ -339,6 +895,7 @@ public class NutritionLookupService {
         cache.setFiberPer100g(0.0);
         cache.setConfidence(0.0);
         persistCache(cache, normalized);
+        memoryCache.putNegative(normalized);
     }
 
     private void saveCache(String normalized, NutritionProfile profile) {
@@ -352,7 +909,10 @@ public class NutritionLookupService {
         cache.setFatPer100g(profile.getFatPer100g());
         cache.setFiberPer100g(profile.getFiberPer100g());
         cache.setConfidence(profile.getConfidence());
+        // Restart the TTL even when a re-resolution returns identical macros (no dirty fields, no audit update)
+        cache.setUpdatedAt(LocalDateTime.now());
         persistCache(cache, normalized);
+        memoryCache.put(normalized, profile, Duration.ofDays(properties.getCacheTtlDays()));
     }
 
     private void persistCache(FoodNutritionCache cache, String normalized) {
@@ -374,162 +934,76 @@ public class NutritionLookupService {
         }
     }
 
-    private UsdaFoodDataClient.UsdaSearchResult pickBestResult(String normalized, List<UsdaFoodDataClient.UsdaSearchResult> results) {
+    /** Highest-scoring result against {@code normalized}; the first one wins ties, keeping USDA's relevance order. */
+    private ScoredResult pickBestResult(String normalized, List<UsdaFoodDataClient.UsdaSearchResult> results) {
+        TokenSetMatcher matcher = TokenSetMatcher.of(normalized);
         UsdaFoodDataClient.UsdaSearchResult best = results.get(0);
-        double bestScore = scoreMatch(normalized, best.description());
-        for (UsdaFoodDataClient.UsdaSearchResult candidate : results) {
-            double score = scoreMatch(normalized, candidate.description());
+        double bestScore = matcher.score(best.description());
+        for (int i = 1; i < results.size(); i++) {
+            UsdaFoodDataClient.UsdaSearchResult candidate = results.get(i);
+            double score = matcher.score(candidate.description());
             if (score > bestScore) {
                 bestScore = score;
                 best = candidate;
             }
         }
-        return best;
+        return new ScoredResult(best, bestScore);
     }
 
+    private record ScoredResult(UsdaFoodDataClient.UsdaSearchResult result, double confidence) {}
+
+    /** One-off score; callers scoring many candidates should reuse a {@link TokenSetMatcher}. */
     static double scoreMatch(String query, String description) {
-        String q = normalize(query);
-        String d = normalize(description);
-        if (q.equals(d)) {
-            return 1.0;
-        }
-        if (d.contains(q)) {
-            return 0.85;
-        }
-        String[] qTokens = q.split("\\s+");
-        int hits = 0;
-        for (String token : qTokens) {
-            if (token.length() > 2 && d.contains(token)) {
-                hits++;
-            }
-        }
-        if (qTokens.length == 0) {
-            return 0;
-        }
-        return (double) hits / qTokens.length;
+        return TokenSetMatcher.of(query).score(description);
     }
 
+    /** USDA search phrasing for common foods; first matching rule wins. */
+    private static final KeywordRuleSet<String> SEARCH_TERMS = KeywordRuleSet.<String>builder()
+            .rule("avocado", "avocado raw")
+            .rule("egg", "egg boiled")
+            .rule("banana", "banana raw")
+            .rule("cashew", "cashew nuts raw")
+            .rule("almond", "almonds raw")
+            .rule("chia", "chia seeds dried")
+            .rule("blueberr", "blueberries raw")
+            .rule("rolled oats | oat -milk -meal", "oats rolled dry")
+            .rule("whole milk | milk -shake -almond", "milk whole")
+            .rule("apple", "apple raw")
+            .rule("carbonara", "pasta carbonara")
+            .rule("chicken + breast", "chicken breast cooked")
+            .rule("salmon + grill | salmon + grilled", "salmon cooked")
+            .rule("quinoa", "quinoa cooked")
+            .rule("broccoli", "broccoli cooked")
+            .rule("whole wheat + toast", "whole wheat bread")
+            .rule("toast | bread", "bread wheat")
+            .rule("peanut butter", "peanut butter")
+            .rule("butter -peanut", "butter salted")
+            .rule("lassi", "mango lassi")
+            .rule("olive oil", "olive oil")
+            .rule("black coffee | coffee -latte", "coffee brewed")
+            .rule("coke | cola | soda", "cola soft drink")
+            .rule("wine", "wine table red")
+            .rule("cappuccino | latte", "coffee latte")
+            .rule("cookie", "cookie")
+            .rule("muffin", "muffin blueberry")
+            .rule("burger", "hamburger")
+            .rule("fries | french fry", "french fries")
+            .rule("steak | sirloin", "beef steak grilled")
+            .rule("mashed potato", "mashed potatoes")
+            .rule("green bean", "green beans cooked")
+            .rule("cake", "chocolate cake")
+            .rule("ice cream", "ice cream vanilla")
+            .rule("pizza", "pizza cheese")
+            .rule("cheese -cake", "cheese cheddar")
+            .rule("whey | protein powder", "whey protein powder")
+            .build();
+
     static String buildSearchTerm(String foodName) {
-        String n = foodName.toLowerCase(Locale.ROOT);
-        if (n.contains("avocado")) {
-            return "avocado raw";
-        }
-        if (n.contains("egg")) {
-            return "egg boiled";
-        }
-        if (n.contains("banana")) {
-            return "banana raw";
-        }
-        if (n.contains("cashew")) {
-            return "cashew nuts raw";
-        }
-        if (n.contains("almond")) {
-            return "almonds raw";
-        }
-        if (n.contains("chia")) {
-            return "chia seeds dried";
-        }
-        if (n.contains("blueberr")) {
-            return "blueberries raw";
-        }
-        if (n.contains("rolled oats") || (n.contains("oat") && !n.contains("milk") && !n.contains("meal"))) {
-            return "oats rolled dry";
-        }
-        if (n.contains("whole milk") || (n.contains("milk") && !n.contains("shake") && !n.contains("almond"))) {
-            return "milk whole";
-        }
-        if (n.contains("apple")) {
-            return "apple raw";
-        }
-        if (n.contains("carbonara")) {
-            return "pasta carbonara";
-        }
-        if (n.contains("chicken") && n.contains("breast")) {
-            return "chicken breast cooked";
-        }
-        if (n.contains("salmon") && (n.contains("grill") || n.contains("grilled"))) {
-            return "salmon cooked";
-        }
-        if (n.contains("quinoa") && n.contains("cook")) {
-            return "quinoa cooked";
-        }
-        if (n.contains("quinoa")) {
-            return "quinoa cooked";
-        }
-        if (n.contains("broccoli")) {
-            return "broccoli cooked";
-        }
-        if (n.contains("whole wheat") && n.contains("toast")) {
-            return "whole wheat bread";
-        }
-        if (n.contains("toast") || n.contains("bread")) {
-            return "bread wheat";
-        }
-        if (n.contains("peanut butter")) {
-            return "peanut butter";
-        }
-        if (n.contains("butter") && !n.contains("peanut")) {
-            return "butter salted";
-        }
-        if (n.contains("lassi") || n.contains("mango lassi")) {
-            return "mango lassi";
-        }
-        if (n.contains("olive oil")) {
-            return "olive oil";
-        }
-        if (n.contains("black coffee") || (n.contains("coffee") && !n.contains("latte"))) {
-            return "coffee brewed";
-        }
-        if (n.contains("coke") || n.contains("cola") || n.contains("soda")) {
-            return "cola soft drink";
-        }
-        if (n.contains("wine")) {
-            return "wine table red";
-        }
-        if (n.contains("cappuccino") || n.contains("latte")) {
-            return "coffee latte";
-        }
-        if (n.contains("cookie")) {
-            return "cookie";
-        }
-        if (n.contains("muffin")) {
-            return "muffin blueberry";
-        }
-        if (n.contains("burger")) {
-            return "hamburger";
-        }
-        if (n.contains("fries") || n.contains("french fry")) {
-            return "french fries";
-        }
-        if (n.contains("steak") || n.contains("sirloin")) {
-            return "beef steak grilled";
-        }
-        if (n.contains("mashed potato")) {
-            return "mashed potatoes";
-        }
-        if (n.contains("green bean")) {
-            return "green beans cooked";
-        }
-        if (n.contains("cake")) {
-            return "chocolate cake";
-        }
-        if (n.contains("ice cream")) {
-            return "ice cream vanilla";
-        }
-        if (n.contains("pizza")) {
-            return "pizza cheese";
-        }
-        if (n.contains("cheese") && !n.contains("cake")) {
-            return "cheese cheddar";
-        }
-        if (n.contains("whey") || n.contains("protein powder")) {
-            return "whey protein powder";
-        }
-        return foodName;
+        return SEARCH_TERMS.match(foodName.toLowerCase(Locale.ROOT), foodName);
     }
 
     static String normalize(String name) {
-        String normalized = name.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        String normalized = WHITESPACE.matcher(name.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
         if (normalized.length() > MAX_NORMALIZED_NAME_LENGTH) {
             return normalized.substring(0, MAX_NORMALIZED_NAME_LENGTH);
         }
@@ -0,0 +1,190 @@
+package com.healthapp.service.nutrition;
+
+import com.healthapp.config.NutritionLookupProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory L1 in front of {@code food_nutrition_cache}: size-bounded LRU with per-entry expiry.
+ * <p>
+ * Holds validated profiles and negative ({@code USDA_MISS}) markers so hot foods skip the DB entirely. Positive
+ * entries never outlive the DB row's own freshness window. Hit/miss/eviction counts are published as
+ * {@code nutrition.cache.l1.*} meters (visible under {@code /actuator/metrics}).
+ */
+@Component
+public class NutritionMemoryCache implements MeterBinder {
+
+    private final int maxEntries;
+    private final long positiveTtlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public NutritionMemoryCache(NutritionLookupProperties properties) {
+        this(properties.getMemoryCache().getMaxEntries(),
+                Duration.ofMinutes(properties.getMemoryCache().getTtlMinutes()),
+                Duration.ofMinutes(properties.getMemoryCache().getNegativeTtlMinutes()),
+                System::nanoTime);
+    }
+
+    NutritionMemoryCache(int maxEntries, Duration positiveTtl, Duration negativeTtl, LongSupplier nanoClock) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.positiveTtlNanos = positiveTtl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > NutritionMemoryCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return empty on miss; {@link Lookup#negative()} when the food is a cached USDA miss
+     */
+    public Optional<Lookup> get(String normalizedName) {
+        long now = nanoClock.getAsLong();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(normalizedName);
+            if (entry != null && now - entry.expiresAtNanos() >= 0) {
+                entries.remove(normalizedName);
+                evictions.incrementAndGet();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (entry.profile() == null) {
+            negativeHits.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return Optional.of(new Lookup(entry.profile()));
+    }
+
+    /**
+     * Live positive profile without touching hit/miss statistics (used for internal re-checks).
+     */
+    Optional<NutritionProfile> peekProfile(String normalizedName) {
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(normalizedName);
+            if (entry == null || entry.profile() == null || now - entry.expiresAtNanos() >= 0) {
+                return Optional.empty();
+            }
+            return Optional.of(entry.profile());
+        }
+    }
+
+    /**
+     * Caches a validated profile for at most the configured TTL and never past {@code maxAge} (remaining DB freshness).
+     */
+    public void put(String normalizedName, NutritionProfile profile, Duration maxAge) {
+        long ttl = Math.min(positiveTtlNanos, Math.max(0, maxAge.toNanos()));
+        store(normalizedName, profile, ttl);
+    }
+
+    public void putNegative(String normalizedName) {
+        store(normalizedName, null, negativeTtlNanos);
+    }
+
+    public void invalidate(String normalizedName) {
+        synchronized (entries) {
+            entries.remove(normalizedName);
+        }
+    }
+
+    /** Drops every positive entry resolved from {@code source}. */
+    public void invalidateSource(NutritionSource source) {
+        synchronized (entries) {
+            entries.values().removeIf(entry -> entry.profile() != null && entry.profile().getSource() == source);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void store(String normalizedName, NutritionProfile profile, long ttlNanos) {
+        if (maxEntries == 0 || ttlNanos <= 0) {
+            invalidate(normalizedName);
+            return;
+        }
+        Entry entry = new Entry(profile, nanoClock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            entries.put(normalizedName, entry);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nutrition.cache.l1.requests", hits, AtomicLong::get)
+                .tag("result", "hit").description("L1 nutrition cache lookups").register(registry);
+        FunctionCounter.builder("nutrition.cache.l1.requests", negativeHits, AtomicLong::get)
+                .tag("result", "negative_hit").description("L1 nutrition cache lookups").register(registry);
+        FunctionCounter.builder("nutrition.cache.l1.requests", misses, AtomicLong::get)
+                .tag("result", "miss").description("L1 nutrition cache lookups").register(registry);
+        FunctionCounter.builder("nutrition.cache.l1.evictions", evictions, AtomicLong::get)
+                .description("L1 nutrition cache entries dropped for size or expiry").register(registry);
+        Gauge.builder("nutrition.cache.l1.size", this, NutritionMemoryCache::size)
+                .description("L1 nutrition cache entries").register(registry);
+    }
+
+    long hitCount() {
+        return hits.get();
+    }
+
+    long negativeHitCount() {
+        return negativeHits.get();
+    }
+
+    long missCount() {
+        return misses.get();
+    }
+
+    long evictionCount() {
+        return evictions.get();
+    }
+
+    /** {@code profile} is null for a negative (USDA miss) entry. */
+    public record Lookup(NutritionProfile profile) {
+        public boolean negative() {
+            return profile == null;
+        }
+    }
+
+    private record Entry(NutritionProfile profile, long expiresAtNanos) {}
+}
@@ -0,0 +1,118 @@
+package com.healthapp.service.nutrition;
+
+import com.healthapp.config.NutritionLookupProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts nutrition lookups for foods the voice parser has only just named, so USDA round trips overlap with the rest
+ * of the model's answer. Results are discarded: the lookups only warm the memory and database caches (and join the
+ * single-flight map) that {@link SimpleFoodNutritionResolver} and {@link CompositeFoodNutritionResolver} read later.
+ * <p>
+ * Prefetching is best effort. Work runs on a small pool of its own, never on the caller's thread, and is dropped when
+ * the queue is full. Counted as {@code nutrition.prefetch{result}}.
+ */
+@Component
+public class NutritionPrefetcher implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NutritionPrefetcher.class);
+    private static final int QUEUE_PER_THREAD = 8;
+
+    private final NutritionLookupService nutritionLookupService;
+    private final ExecutorService executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Autowired
+    public NutritionPrefetcher(NutritionLookupService nutritionLookupService, NutritionLookupProperties properties) {
+        this(nutritionLookupService, createExecutor(Math.max(1, properties.getBlendParallelism())));
+    }
+
+    NutritionPrefetcher(NutritionLookupService nutritionLookupService, ExecutorService executor) {
+        this.nutritionLookupService = nutritionLookupService;
+        this.executor = executor;
+    }
+
+    /** Warms the lookup used for a standalone food item. */
+    public void prefetchFood(String foodName) {
+        if (foodName != null && !foodName.isBlank()) {
+            submit(() -> nutritionLookupService.lookup(foodName));
+        }
+    }
+
+    /** Warms the lookup used for one ingredient of a composite meal blend. */
+    public void prefetchIngredient(String name, String fdcSearchTerm) {
+        if ((name != null && !name.isBlank()) || (fdcSearchTerm != null && !fdcSearchTerm.isBlank())) {
+            submit(() -> nutritionLookupService.lookupIngredient(name, fdcSearchTerm));
+        }
+    }
+
+    private void submit(Runnable lookup) {
+        try {
+            executor.execute(() -> {
+                try {
+                    lookup.run();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    logger.debug("Nutrition prefetch failed: {}", e.getMessage());
+                }
+            });
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService createExecutor(int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(threads * QUEUE_PER_THREAD),
+                r -> {
+                    Thread t = new Thread(r, "nutrition-prefetch-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("nutrition.prefetch", submitted, AtomicLong::get)
+                .tag("result", "submitted").description("Speculative nutrition lookups").register(registry);
+        FunctionCounter.builder("nutrition.prefetch", dropped, AtomicLong::get)
+                .tag("result", "dropped").description("Speculative nutrition lookups").register(registry);
+        FunctionCounter.builder("nutrition.prefetch", failed, AtomicLong::get)
+                .tag("result", "failed").description("Speculative nutrition lookups").register(registry);
+    }
+
+    long submittedCount() {
+        return submitted.get();
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+}
@@ -56,6 +56,11 @@ public class NutritionProfile {
         return fdcId;
     }
 
+    public NutritionProfile withConfidence(double newConfidence) {
+        return new NutritionProfile(caloriesPer100g, proteinPer100g, carbsPer100g, fatPer100g, fiberPer100g,
+                source, newConfidence, fdcId);
+    }
+
     public NutritionConfidence toConfidenceLevel() {
         if (source == NutritionSource.USDA && confidence >= 0.75) {
             return NutritionConfidence.HIGH;
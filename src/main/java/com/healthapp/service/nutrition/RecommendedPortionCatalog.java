@@ -13,7 +13,8 @@ public final class RecommendedPortionCatalog {
     public record PortionRecommendation(double quantity, String unit, double totalGrams) {}
 
     /**
-     * Default single portion when the user did not state quantity, unit, or grams.
+     * Default single portion when the user did not state quantity, unit, or grams; see the
+     * {@code singlePortions} table in {@link NutritionKnowledgeBase}.
      */
     public static PortionRecommendation singlePortion(String foodName) {
         String n = normalize(foodName);
@@ -23,106 +24,7 @@ public final class RecommendedPortionCatalog {
         if (NutritionValidator.isVaguePortion(n)) {
             return new PortionRecommendation(1, "serving", 80);
         }
-        if (n.contains("banana")) {
-            return new PortionRecommendation(1, "medium", 120);
-        }
-        if (n.contains("apple") || n.contains("orange")) {
-            return new PortionRecommendation(1, "medium", 150);
-        }
-        if (n.contains("egg")) {
-            return new PortionRecommendation(1, "pieces", 50);
-        }
-        if (n.contains("avocado")) {
-            return new PortionRecommendation(1, "medium", 150);
-        }
-        if (n.contains("coffee") && !n.contains("latte") && !n.contains("cappuccino")) {
-            return new PortionRecommendation(1, "cup", 250);
-        }
-        if (n.contains("latte") || n.contains("cappuccino") || n.contains("mocha")) {
-            return new PortionRecommendation(1, "cup", lattePortionGrams(n, extractLatteSize(n)));
-        }
-        if (n.contains("espresso")) {
-            return new PortionRecommendation(1, "shot", 30);
-        }
-        if (n.contains("lassi") || n.contains("smoothie") || n.contains("milkshake")) {
-            return new PortionRecommendation(1, "glass", 300);
-        }
-        if (n.contains("juice") || n.contains("coke") || n.contains("cola") || n.contains("soda")) {
-            return new PortionRecommendation(1, "glass", 330);
-        }
-        if (n.contains("wine")) {
-            return new PortionRecommendation(1, "glass", 150);
-        }
-        if (n.contains("beer")) {
-            return new PortionRecommendation(1, "glass", 355);
-        }
-        if (n.contains("milk") && !n.contains("shake")) {
-            return new PortionRecommendation(1, "glass", 240);
-        }
-        if (n.contains("muffin") || n.contains("croissant")) {
-            return new PortionRecommendation(1, "serving", 110);
-        }
-        if (n.contains("cookie")) {
-            return new PortionRecommendation(1, "pieces", 32);
-        }
-        if (n.contains("toast") || n.contains("bread") || n.contains("slice")) {
-            return new PortionRecommendation(1, "slices", 30);
-        }
-        if (n.contains("sandwich") || n.contains("wrap")) {
-            return new PortionRecommendation(1, "serving", 220);
-        }
-        if (n.contains("burger")) {
-            return new PortionRecommendation(1, "serving", 200);
-        }
-        if (n.contains("fries") || n.contains("french fry")) {
-            return new PortionRecommendation(1, "serving", 130);
-        }
-        if (n.contains("crisp") || n.contains("chip") && !n.contains("chocolate")) {
-            return new PortionRecommendation(1, "serving", 32);
-        }
-        if (n.contains("salad")) {
-            return new PortionRecommendation(1, "serving", 200);
-        }
-        if (n.contains("soup")) {
-            return new PortionRecommendation(1, "serving", 250);
-        }
-        if (n.contains("quinoa") || n.contains("rice") || n.contains("pasta")) {
-            return new PortionRecommendation(1, "cup", 185);
-        }
-        if (n.contains("broccoli") || n.contains("vegetable")) {
-            return new PortionRecommendation(1, "cup", 150);
-        }
-        if (n.contains("oatmeal") || n.contains("porridge")) {
-            return new PortionRecommendation(1, "cup", 100);
-        }
-        if (n.contains("yogurt")) {
-            return new PortionRecommendation(1, "serving", 170);
-        }
-        if (n.contains("biryani") || n.contains("curry") || n.contains("thali")) {
-            return new PortionRecommendation(1, "serving", 350);
-        }
-        if (n.contains("pizza")) {
-            return new PortionRecommendation(1, "slices", 120);
-        }
-        if (n.contains("salmon") || n.contains("chicken breast") || n.contains("steak")) {
-            return new PortionRecommendation(1, "serving", 150);
-        }
-        if (n.contains("protein shake") || (n.contains("whey") && n.contains("shake"))) {
-            return new PortionRecommendation(1, "glass", 350);
-        }
-        if (n.contains("almond") || n.contains("nut")) {
-            return new PortionRecommendation(1, "serving", 30);
-        }
-        if (n.contains("butter") && !n.contains("peanut")) {
-            return new PortionRecommendation(1, "tablespoon", 14);
-        }
-        if (n.contains("peanut butter")) {
-            return new PortionRecommendation(1, "tablespoon", 16);
-        }
-        if (n.contains("olive oil") || CookingOilDetector.containsCookingOil(n)) {
-            return new PortionRecommendation(1, "tablespoon", 14);
-        }
-        return new PortionRecommendation(1, "serving", 200);
+        return NutritionKnowledgeBase.current().singlePortion(n);
     }
 
     public static double gramsPerUnit(String foodName, String unit, double quantity) {
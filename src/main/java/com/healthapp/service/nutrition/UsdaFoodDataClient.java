@@ -1,35 +1,83 @@
 package com.healthapp.service.nutrition;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthapp.config.NutritionLookupProperties;
+import com.healthapp.service.resilience.DependencyGuard;
+import com.healthapp.service.resilience.DependencyGuards;
+import com.healthapp.service.resilience.DependencyUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * FoodData Central REST client. Uses its own keep-alive connection pool (JDK {@link HttpClient}) with the short
+ * connect and read timeouts from {@code nutrition.lookup.usda}. Requests run through the {@code usda}
+ * {@link DependencyGuard}; a rejected request is reported as a transient failure straight away, so lookups fall back
+ * without waiting on a failing API.
+ */
 @Service
 public class UsdaFoodDataClient {
 
     private static final Logger logger = LoggerFactory.getLogger(UsdaFoodDataClient.class);
-    private static final String SEARCH_URL = "https://api.nal.usda.gov/fdc/v1/foods/search";
-    private static final String DETAIL_URL = "https://api.nal.usda.gov/fdc/v1/food/{fdcId}";
+    private static final String SEARCH_PATH = "/foods/search";
+    private static final String DETAIL_PATH = "/food/{fdcId}";
+    private static final String FOODS_PATH = "/foods";
+    /** FDC rejects multi-id requests above this size. */
+    private static final int MAX_BATCH_SIZE = 20;
+    /** Nutrient numbers requested from {@code /foods}: energy (kcal, kJ, Atwater), protein, fat, carbs, fiber. */
+    private static final List<Integer> MACRO_NUTRIENT_NUMBERS = List.of(208, 268, 957, 958, 203, 204, 205, 291);
+    /** Unread response bytes worth draining to keep the connection alive; larger remainders close it instead. */
+    private static final long MAX_DRAIN_BYTES = 256 * 1024;
 
     private final NutritionLookupProperties properties;
     private final ObjectMapper objectMapper;
     private final RestTemplate restTemplate;
+    private final DependencyGuard guard;
 
     @Autowired
-    public UsdaFoodDataClient(NutritionLookupProperties properties, ObjectMapper objectMapper, RestTemplate restTemplate) {
+    public UsdaFoodDataClient(NutritionLookupProperties properties, ObjectMapper objectMapper,
+                              DependencyGuards guards) {
+        this(properties, objectMapper, createRestTemplate(properties.getUsda()), guards.usda());
+    }
+
+    UsdaFoodDataClient(NutritionLookupProperties properties, ObjectMapper objectMapper, RestTemplate restTemplate,
+                       DependencyGuard guard) {
         this.properties = properties;
         this.objectMapper = objectMapper;
         this.restTemplate = restTemplate;
+        this.guard = guard;
+    }
+
+    static RestTemplate createRestTemplate(NutritionLookupProperties.Usda usda) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(usda.getConnectTimeoutMs()))
+                .build();
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(usda.getReadTimeoutMs()));
+        return new RestTemplate(factory);
     }
 
     public boolean isAvailable() {
@@ -41,13 +89,14 @@ public class UsdaFoodDataClient {
             return UsdaSearchResponse.empty();
         }
         try {
-            String url = UriComponentsBuilder.fromHttpUrl(SEARCH_URL)
+            String url = UriComponentsBuilder.fromHttpUrl(properties.getUsda().getBaseUrl() + SEARCH_PATH)
                     .queryParam("api_key", properties.getUsda().getApiKey())
                     .queryParam("query", query)
                     .queryParam("pageSize", pageSize)
                     .queryParam("dataType", "Foundation,SR Legacy")
                     .toUriString();
-            String body = restTemplate.getForObject(url, String.class);
+            String body = guard.call(() -> restTemplate.getForObject(url, String.class),
+                    UsdaFoodDataClient::isDependencyFailure);
             JsonNode root = objectMapper.readTree(body);
             JsonNode foods = root.get("foods");
             if (foods == null || !foods.isArray()) {
@@ -62,6 +111,9 @@ public class UsdaFoodDataClient {
                 }
             }
             return new UsdaSearchResponse(results, false);
+        } catch (DependencyUnavailableException e) {
+            logger.debug("USDA search skipped for query '{}': {}", query, e.getMessage());
+            return UsdaSearchResponse.transientError();
         } catch (Exception e) {
             logger.warn("USDA search failed for query '{}': {}", query, e.getMessage());
             return UsdaSearchResponse.transientError();
@@ -73,73 +125,162 @@ public class UsdaFoodDataClient {
             return UsdaDetailResponse.unavailable();
         }
         try {
-            String url = UriComponentsBuilder.fromHttpUrl(DETAIL_URL)
+            String url = UriComponentsBuilder.fromHttpUrl(properties.getUsda().getBaseUrl() + DETAIL_PATH)
                     .queryParam("api_key", properties.getUsda().getApiKey())
                     .buildAndExpand(fdcId)
                     .toUriString();
-            String body = restTemplate.getForObject(url, String.class);
-            JsonNode root = objectMapper.readTree(body);
-            NutritionProfile profile = extractMacros(root, fdcId, confidence);
+            NutritionProfile profile = guard.call(() -> restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                InputStream body = response.getBody();
+                try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                    NutritionProfile extracted = extractMacros(parser, fdcId, confidence);
+                    drain(body);
+                    return extracted;
+                }
+            }), UsdaFoodDataClient::isDependencyFailure);
             if (profile == null) {
                 return UsdaDetailResponse.notFound();
             }
             return UsdaDetailResponse.success(profile);
+        } catch (DependencyUnavailableException e) {
+            logger.debug("USDA detail skipped for fdcId {}: {}", fdcId, e.getMessage());
+            return UsdaDetailResponse.transientError();
         } catch (Exception e) {
             logger.warn("USDA detail failed for fdcId {}: {}", fdcId, e.getMessage());
             return UsdaDetailResponse.transientError();
         }
     }
 
-    static NutritionProfile extractMacros(JsonNode root, int fdcId, double confidence) {
-        JsonNode nutrients = root.get("foodNutrients");
-        if (nutrients == null || !nutrients.isArray()) {
-            return null;
+    /**
+     * Fetches many foods via {@code POST /foods}, {@link NutritionLookupProperties.Usda#getBatchSize()} ids per
+     * request. Profiles carry confidence 1.0; callers apply their own match confidence via
+     * {@link UsdaBatchDetailResponse#detail}.
+     * <p>
+     * The {@code nutrients} filter only takes integer numbers, so it cannot ask for carbs by summation (205.2). Foods
+     * that come back without carbs by difference are fetched once more through the unfiltered detail endpoint.
+     */
+    public UsdaBatchDetailResponse getFoodDetails(List<Integer> fdcIds) {
+        if (!isAvailable()) {
+            return UsdaBatchDetailResponse.unavailable();
         }
-        Double calories = null;
-        Double protein = 0.0;
-        Double carbs = 0.0;
-        Double fat = 0.0;
-        Double fiber = 0.0;
-        for (JsonNode n : nutrients) {
-            String name = nutrientName(n);
-            double amount = nutrientAmount(n);
-            if (name.contains("energy")) {
-                if (name.contains("kcal") || name.equals("energy")) {
-                    calories = amount;
-                } else if (name.contains("kj") && calories == null) {
-                    calories = amount / 4.184;
+        List<Integer> distinct = fdcIds.stream().filter(id -> id != null && id > 0).distinct().toList();
+        Map<Integer, NutritionProfile> profiles = new HashMap<>();
+        Set<Integer> failed = new HashSet<>();
+        List<Integer> withoutCarbs = new ArrayList<>();
+        ResponseExtractor<Void> readFoods = response -> {
+            InputStream body = response.getBody();
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("expected a JSON array of foods");
                 }
-            } else if (name.equals("protein")) {
-                protein = amount;
-            } else if (name.contains("carbohydrate")) {
-                carbs = amount;
-            } else if (name.contains("total lipid") || name.equals("fat")) {
-                fat = amount;
-            } else if (name.contains("fiber")) {
-                fiber = amount;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    FoodMacros food = readFood(parser, false);
+                    NutritionProfile profile = food.macros().toProfile(1.0, food.fdcId());
+                    if (profile != null && food.fdcId() > 0) {
+                        profiles.put(food.fdcId(), profile);
+                        if (!food.macros().hasCarbs()) {
+                            withoutCarbs.add(food.fdcId());
+                        }
+                    }
+                }
+                drain(body);
             }
-        }
-        if (calories == null) {
             return null;
+        };
+        int batchSize = Math.max(1, Math.min(MAX_BATCH_SIZE, properties.getUsda().getBatchSize()));
+        for (int from = 0; from < distinct.size(); from += batchSize) {
+            List<Integer> chunk = distinct.subList(from, Math.min(distinct.size(), from + batchSize));
+            try {
+                String url = UriComponentsBuilder.fromHttpUrl(properties.getUsda().getBaseUrl() + FOODS_PATH)
+                        .queryParam("api_key", properties.getUsda().getApiKey())
+                        .toUriString();
+                Map<String, Object> request = Map.of(
+                        "fdcIds", chunk,
+                        "format", "full",
+                        "nutrients", MACRO_NUTRIENT_NUMBERS);
+                guard.call(() -> restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(request),
+                        readFoods), UsdaFoodDataClient::isDependencyFailure);
+            } catch (DependencyUnavailableException e) {
+                logger.debug("USDA batch detail skipped for fdcIds {}: {}", chunk, e.getMessage());
+                failed.addAll(chunk);
+            } catch (Exception e) {
+                logger.warn("USDA batch detail failed for fdcIds {}: {}", chunk, e.getMessage());
+                failed.addAll(chunk);
+            }
+        }
+        for (Integer fdcId : withoutCarbs) {
+            UsdaDetailResponse detail = getFoodDetails(fdcId, 1.0);
+            if (detail.found()) {
+                profiles.put(fdcId, detail.profile());
+            }
+        }
+        return new UsdaBatchDetailResponse(profiles, failed, true);
+    }
+
+    /**
+     * Reads what is left of a response body the parser stopped short of. The JDK client only returns a connection to
+     * its keep-alive pool once the body was read to the end; closing it early drops the connection.
+     */
+    private static void drain(InputStream body) throws IOException {
+        byte[] buffer = new byte[8192];
+        long remaining = MAX_DRAIN_BYTES;
+        int read;
+        while (remaining > 0 && (read = body.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0) {
+            remaining -= read;
         }
-        return new NutritionProfile(calories, protein, carbs, fat, fiber, NutritionSource.USDA, confidence, fdcId);
     }
 
-    private static String nutrientName(JsonNode n) {
-        JsonNode nutrient = n.get("nutrient");
-        if (nutrient != null && nutrient.has("name")) {
-            return nutrient.get("name").asText("").toLowerCase(Locale.ROOT);
+    /** A 4xx other than 429 is a problem with the request (bad id, bad key), not an unhealthy API. */
+    private static boolean isDependencyFailure(RuntimeException e) {
+        return !(e instanceof HttpClientErrorException clientError)
+                || clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * Streams one food object and returns its macros, or null when it has no energy value. Stops reading as soon as
+     * all five macros are known, so the remaining nutrients, portions and metadata are never parsed.
+     */
+    static NutritionProfile extractMacros(JsonParser parser, int fdcId, double confidence) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
         }
-        return n.path("nutrientName").asText("").toLowerCase(Locale.ROOT);
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        return readFood(parser, true).macros().toProfile(confidence, fdcId);
     }
 
-    private static double nutrientAmount(JsonNode n) {
-        if (n.has("amount")) {
-            return n.get("amount").asDouble();
+    /**
+     * Reads the food object the parser is positioned on, matching nutrients by FDC number (see {@link FdcNutrients}).
+     *
+     * @param abandonWhenComplete return mid-object once the macros are complete (single-food responses); otherwise
+     *                            skip to the end of the object so the caller can read the next food
+     */
+    private static FoodMacros readFood(JsonParser parser, boolean abandonWhenComplete) throws IOException {
+        int fdcId = 0;
+        FdcNutrients.MacroAccumulator macros = new FdcNutrients.MacroAccumulator();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("fdcId".equals(field)) {
+                fdcId = parser.getValueAsInt(0);
+            } else if ("foodNutrients".equals(field) && value == JsonToken.START_ARRAY) {
+                if (FdcNutrients.readFoodNutrients(parser, macros, true)) {
+                    if (abandonWhenComplete) {
+                        return new FoodMacros(fdcId, macros);
+                    }
+                    for (JsonToken t = parser.nextToken(); t != null && t != JsonToken.END_ARRAY; t = parser.nextToken()) {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
         }
-        return n.path("value").asDouble(0);
+        return new FoodMacros(fdcId, macros);
     }
 
+    private record FoodMacros(int fdcId, FdcNutrients.MacroAccumulator macros) {}
+
     public record UsdaSearchResult(int fdcId, String description) {}
 
     public record UsdaSearchResponse(List<UsdaSearchResult> results, boolean failedTransiently) {
@@ -152,6 +293,27 @@ public class UsdaFoodDataClient {
         }
     }
 
+    /** Per-id outcome of {@link #getFoodDetails(List)}; ids in neither map nor {@code failedIds} were not found. */
+    public record UsdaBatchDetailResponse(Map<Integer, NutritionProfile> profiles, Set<Integer> failedIds,
+                                          boolean available) {
+        public static UsdaBatchDetailResponse unavailable() {
+            return new UsdaBatchDetailResponse(Map.of(), Set.of(), false);
+        }
+
+        public UsdaDetailResponse detail(int fdcId, double confidence) {
+            if (!available) {
+                return UsdaDetailResponse.unavailable();
+            }
+            if (failedIds.contains(fdcId)) {
+                return UsdaDetailResponse.transientError();
+            }
+            NutritionProfile profile = profiles.get(fdcId);
+            return profile != null
+                    ? UsdaDetailResponse.success(profile.withConfidence(confidence))
+                    : UsdaDetailResponse.notFound();
+        }
+    }
+
     public record UsdaDetailResponse(NutritionProfile profile, boolean failedTransiently, boolean found) {
         public static UsdaDetailResponse success(NutritionProfile profile) {
             return new UsdaDetailResponse(profile, false, true);
@@ -0,0 +1,144 @@
+package com.healthapp.service.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps {@link JdbcRateLimitStore} off the request path: admissions are decided against the last synced
+ * cluster-wide count plus this instance's not-yet-flushed requests, and a background thread pushes local deltas
+ * and pulls fresh totals every {@code syncIntervalMillis}. Each sync is one multi-row upsert of the windows that
+ * admitted requests since the last sync plus one query for the totals of every live window, however many keys
+ * are tracked.
+ * <p>
+ * Between syncs the cluster can overshoot a limit by at most what other instances admit in one interval.
+ */
+public class BatchingRateLimitStore implements RateLimitStore, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingRateLimitStore.class);
+
+    private final JdbcRateLimitStore sharedStore;
+    private final Map<String, LocalCounter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService syncExecutor;
+
+    public BatchingRateLimitStore(JdbcRateLimitStore sharedStore, long syncIntervalMillis) {
+        this.sharedStore = sharedStore;
+        this.syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rate-limit-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = Math.max(10, syncIntervalMillis);
+        syncExecutor.scheduleWithFixedDelay(this::syncSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /** For tests: no background thread; call {@link #sync()} explicitly. */
+    BatchingRateLimitStore(JdbcRateLimitStore sharedStore) {
+        this.sharedStore = sharedStore;
+        this.syncExecutor = null;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int maxRequests, Duration window) {
+        if (maxRequests <= 0) {
+            return false;
+        }
+        JdbcRateLimitStore.Window w = sharedStore.currentWindow(key, window);
+        LocalCounter counter = counters.computeIfAbsent(w.bucketKey() + "@" + w.startMillis(), k -> new LocalCounter(w));
+        while (true) {
+            int pending = counter.pending.get();
+            if (counter.syncedTotal.get() + pending >= maxRequests) {
+                return false;
+            }
+            if (counter.pending.compareAndSet(pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Flushes pending deltas for every live window and refreshes its cluster-wide total; drops expired windows.
+     */
+    void sync() {
+        long now = sharedStore.currentTimeMillis();
+        Map<JdbcRateLimitStore.Window, LocalCounter> live = new HashMap<>();
+        for (Map.Entry<String, LocalCounter> entry : counters.entrySet()) {
+            LocalCounter counter = entry.getValue();
+            if (counter.window.expiresAtMillis() <= now) {
+                counters.remove(entry.getKey(), counter);
+            } else {
+                live.put(counter.window, counter);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+        Map<JdbcRateLimitStore.Window, Integer> deltas = new HashMap<>();
+        for (LocalCounter counter : live.values()) {
+            int delta = counter.pending.getAndSet(0);
+            if (delta > 0) {
+                // Keep admissions accounting for the flushed delta while the DB round-trip is in flight.
+                counter.syncedTotal.addAndGet(delta);
+                deltas.put(counter.window, delta);
+            }
+        }
+        try {
+            sharedStore.addAll(deltas);
+        } catch (DataAccessException e) {
+            deltas.forEach((window, delta) -> {
+                LocalCounter counter = live.get(window);
+                counter.syncedTotal.addAndGet(-delta);
+                counter.pending.addAndGet(delta);
+            });
+            logger.warn("Rate limit sync failed for {} window(s): {}", deltas.size(), e.getMessage());
+            return;
+        }
+        try {
+            sharedStore.countsOf(live.keySet()).forEach((window, total) -> live.get(window).syncedTotal.set(total));
+        } catch (DataAccessException e) {
+            // The deltas are flushed and already counted locally; totals refresh on the next sync.
+            logger.warn("Rate limit totals refresh failed for {} window(s): {}", live.size(), e.getMessage());
+        }
+    }
+
+    int trackedWindowCount() {
+        return counters.size();
+    }
+
+    private void syncSafely() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            logger.warn("Rate limit sync failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdown();
+            syncSafely();
+        }
+    }
+
+    private static final class LocalCounter {
+        private final JdbcRateLimitStore.Window window;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong syncedTotal = new AtomicLong();
+
+        private LocalCounter(JdbcRateLimitStore.Window window) {
+            this.window = window;
+        }
+    }
+}
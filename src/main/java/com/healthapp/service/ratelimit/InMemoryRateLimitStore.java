@@ -0,0 +1,81 @@
+package com.healthapp.service.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket store with constant memory per key; limits are enforced per instance only.
+ * <p>
+ * Each key and limit holds one {@link AtomicLong} "theoretical arrival time" (GCRA): a request is admitted when
+ * advancing it by {@code window / maxRequests} stays within one window of now, and the advance is a single CAS.
+ * This permits a burst of {@code maxRequests} and then refills evenly across the window. Keys whose bucket has
+ * fully refilled are evicted by an opportunistic sweep, so the map does not grow with every client ever seen.
+ * <p>
+ * Buckets are keyed by the limit as well as the client key: endpoints with different limits resolve to the same
+ * {@code ip:} key, and one shared arrival time would charge a 30-per-minute endpoint at the rate of a 5-per-minute
+ * one.
+ */
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepNanos;
+    private final LongSupplier nanoClock;
+
+    public InMemoryRateLimitStore() {
+        this(System::nanoTime);
+    }
+
+    InMemoryRateLimitStore(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.lastSweepNanos = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int maxRequests, Duration window) {
+        if (maxRequests <= 0) {
+            return false;
+        }
+        long windowNanos = window.toNanos();
+        long intervalNanos = Math.max(1, windowNanos / maxRequests);
+        long now = nanoClock.getAsLong();
+        sweepIdle(now);
+
+        AtomicLong tat = buckets.computeIfAbsent(bucketKey(key, maxRequests, windowNanos), k -> new AtomicLong(now));
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + intervalNanos;
+            if (next - now > windowNanos) {
+                return false;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static String bucketKey(String key, int maxRequests, long windowNanos) {
+        return key + "/" + maxRequests + "/" + windowNanos;
+    }
+
+    int trackedKeyCount() {
+        return buckets.size();
+    }
+
+    /**
+     * At most once per {@link #SWEEP_INTERVAL_NANOS}, drops buckets that are completely refilled; recreating them
+     * on the next request yields exactly the same admission decision.
+     */
+    private void sweepIdle(long now) {
+        long last = lastSweepNanos.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(last, now)) {
+            return;
+        }
+        buckets.values().removeIf(tat -> tat.get() - now <= 0);
+    }
+}
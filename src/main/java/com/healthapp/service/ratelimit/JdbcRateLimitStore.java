@@ -0,0 +1,166 @@
+package com.healthapp.service.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide fixed-window counters in {@code rate_limit_counters}, shared by every instance behind the load balancer.
+ * <p>
+ * Each request is one atomic {@code INSERT ... ON DUPLICATE KEY UPDATE} on (bucket key, window start) followed by a
+ * read of the row's count. Expired windows are deleted opportunistically. DB errors fail open (request allowed)
+ * so a database hiccup never turns into 429s or 500s on every endpoint.
+ */
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO rate_limit_counters (bucket_key, window_start, expires_at, request_count) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE request_count = request_count + ?";
+    private static final String SELECT_SQL =
+            "SELECT request_count FROM rate_limit_counters WHERE bucket_key = ? AND window_start = ?";
+    private static final String BATCH_UPSERT_PREFIX =
+            "INSERT INTO rate_limit_counters (bucket_key, window_start, expires_at, request_count) VALUES ";
+    private static final String BATCH_UPSERT_SUFFIX =
+            " ON DUPLICATE KEY UPDATE request_count = request_count + VALUES(request_count)";
+    private static final String BATCH_SELECT_PREFIX = "SELECT bucket_key, window_start, request_count "
+            + "FROM rate_limit_counters WHERE (bucket_key, window_start) IN (";
+    /** Rows per batched statement, keeping the bind-parameter count well inside driver limits. */
+    private static final int BATCH_SIZE = 500;
+    private static final String PURGE_SQL = "DELETE FROM rate_limit_counters WHERE expires_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+    private final AtomicLong lastPurgeMillis;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemUTC());
+    }
+
+    JdbcRateLimitStore(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+        this.lastPurgeMillis = new AtomicLong(clock.millis());
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int maxRequests, Duration window) {
+        if (maxRequests <= 0) {
+            return false;
+        }
+        Window w = currentWindow(key, window);
+        try {
+            return incrementAndGet(w, 1) <= maxRequests;
+        } catch (DataAccessException e) {
+            logger.warn("Rate limit store unavailable, allowing request for {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Adds {@code delta} (may be 0 for a plain read) to the window's counter and returns the resulting total.
+     */
+    long incrementAndGet(Window window, int delta) {
+        jdbcTemplate.update(UPSERT_SQL, window.bucketKey(), window.startMillis(), window.expiresAtMillis(), delta, delta);
+        purgeExpired();
+        Long count = jdbcTemplate.queryForObject(SELECT_SQL, Long.class, window.bucketKey(), window.startMillis());
+        return count != null ? count : delta;
+    }
+
+    /**
+     * Adds every positive delta with one multi-row upsert per {@value #BATCH_SIZE} windows.
+     */
+    void addAll(Map<Window, Integer> deltas) {
+        List<Map.Entry<Window, Integer>> rows = new ArrayList<>();
+        for (Map.Entry<Window, Integer> entry : deltas.entrySet()) {
+            if (entry.getValue() > 0) {
+                rows.add(entry);
+            }
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Map.Entry<Window, Integer>> chunk = rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE));
+            StringBuilder sql = new StringBuilder(BATCH_UPSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 4);
+            for (Map.Entry<Window, Integer> row : chunk) {
+                sql.append(args.isEmpty() ? "(?, ?, ?, ?)" : ", (?, ?, ?, ?)");
+                Window window = row.getKey();
+                args.add(window.bucketKey());
+                args.add(window.startMillis());
+                args.add(window.expiresAtMillis());
+                args.add(row.getValue());
+            }
+            jdbcTemplate.update(sql.append(BATCH_UPSERT_SUFFIX).toString(), args.toArray());
+        }
+        purgeExpired();
+    }
+
+    /**
+     * Reads the current totals of {@code windows} with one query per {@value #BATCH_SIZE} windows. Windows without a
+     * row yet are missing from the result.
+     */
+    Map<Window, Long> countsOf(Collection<Window> windows) {
+        List<Window> all = new ArrayList<>(windows);
+        Map<Window, Long> counts = new HashMap<>();
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            List<Window> chunk = all.subList(from, Math.min(all.size(), from + BATCH_SIZE));
+            Map<String, Window> byRow = new HashMap<>();
+            StringBuilder sql = new StringBuilder(BATCH_SELECT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 2);
+            for (Window window : chunk) {
+                sql.append(args.isEmpty() ? "(?, ?)" : ", (?, ?)");
+                args.add(window.bucketKey());
+                args.add(window.startMillis());
+                byRow.put(window.bucketKey() + "@" + window.startMillis(), window);
+            }
+            jdbcTemplate.query(sql.append(')').toString(), rs -> {
+                Window window = byRow.get(rs.getString(1) + "@" + rs.getLong(2));
+                if (window != null) {
+                    counts.put(window, rs.getLong(3));
+                }
+            }, args.toArray());
+        }
+        return counts;
+    }
+
+    /**
+     * Fixed window containing now. The window length is part of the bucket key so endpoints with different
+     * {@code @RateLimit} units never share (or collide on) a row.
+     */
+    Window currentWindow(String key, Duration window) {
+        long windowMillis = Math.max(1, window.toMillis());
+        long now = clock.millis();
+        long start = now - Math.floorMod(now, windowMillis);
+        return new Window(key + "/" + windowMillis, start, start + windowMillis);
+    }
+
+    long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    private void purgeExpired() {
+        long now = clock.millis();
+        long last = lastPurgeMillis.get();
+        if (now - last < PURGE_INTERVAL_MILLIS || !lastPurgeMillis.compareAndSet(last, now)) {
+            return;
+        }
+        int removed = jdbcTemplate.update(PURGE_SQL, now);
+        if (removed > 0) {
+            logger.debug("Purged {} expired rate limit windows", removed);
+        }
+    }
+
+    record Window(String bucketKey, long startMillis, long expiresAtMillis) {}
+}
@@ -0,0 +1,16 @@
+package com.healthapp.service.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Backend for {@link com.healthapp.service.RateLimitService}. Selected with {@code app.rate-limit.store}:
+ * {@code memory} (default, per instance), {@code jdbc} (shared DB counters) or {@code jdbc-batched}
+ * (shared DB counters synced from local counts in the background).
+ */
+public interface RateLimitStore {
+
+    /**
+     * Records one request for {@code key} and returns whether it fits within {@code maxRequests} per {@code window}.
+     */
+    boolean tryAcquire(String key, int maxRequests, Duration window);
+}
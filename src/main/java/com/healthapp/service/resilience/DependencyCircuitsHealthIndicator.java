@@ -0,0 +1,36 @@
+package com.healthapp.service.resilience;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reports each dependency's breaker under {@code /actuator/health} as {@code dependencyCircuits}. Always UP: an open
+ * breaker means the app is already degrading gracefully, and a DOWN here would take every instance out of the load
+ * balancer at once.
+ */
+@Component
+public class DependencyCircuitsHealthIndicator extends AbstractHealthIndicator {
+
+    private final DependencyGuards guards;
+
+    public DependencyCircuitsHealthIndicator(DependencyGuards guards) {
+        this.guards = guards;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        builder.up();
+        for (DependencyGuard guard : guards.all()) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("state", guard.getState().name());
+            details.put("failureRate", guard.getFailureRate());
+            details.put("activeCalls", guard.getActiveCalls());
+            details.put("maxConcurrent", guard.getMaxConcurrent());
+            builder.withDetail(guard.getName(), details);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.healthapp.service.resilience;
+
+import com.healthapp.config.ResilienceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker plus concurrency bulkhead for one outbound dependency.
+ * <p>
+ * The breaker keeps the outcomes of the last {@code windowSize} calls; once it holds {@code minimumCalls} and the
+ * share of failures (errors the caller counts as failures, or calls slower than the route's {@code slowCallMs})
+ * reaches {@code failureRateThreshold}, it opens and rejects every call for {@code openDurationMs}. It then lets
+ * {@code halfOpenProbes} calls through: if all succeed it closes with an empty window, the first failure reopens it.
+ * The bulkhead caps calls in flight at {@code maxConcurrent}, so a slow dependency cannot tie up every request
+ * thread. Rejections throw {@link DependencyUnavailableException} without calling the dependency.
+ */
+public class DependencyGuard {
+
+    private static final Logger logger = LoggerFactory.getLogger(DependencyGuard.class);
+    private static final long NOT_A_PROBE = -1;
+
+    /** Ordered by severity; the ordinal is the value of the {@code dependency.circuit.state} gauge. */
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final String name;
+    private final ResilienceProperties.Dependency settings;
+    private final LongSupplier nanoClock;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+
+    // Breaker state, guarded by this.
+    private final boolean[] window;
+    private final int minimumCalls;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    /** Incremented on every transition to half-open, so probe results from an earlier phase are ignored. */
+    private long halfOpenPhase;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong rejectedOpen = new AtomicLong();
+    private final AtomicLong rejectedBulkhead = new AtomicLong();
+    private final AtomicLong openings = new AtomicLong();
+
+    public DependencyGuard(String name, ResilienceProperties.Dependency settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    DependencyGuard(String name, ResilienceProperties.Dependency settings, LongSupplier nanoClock) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.maxConcurrent = Math.max(1, settings.getMaxConcurrent());
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.window = new boolean[Math.max(1, settings.getWindowSize())];
+        this.minimumCalls = Math.max(1, Math.min(window.length, settings.getMinimumCalls()));
+    }
+
+    /**
+     * Runs {@code call} unless the breaker is open or the bulkhead is full.
+     *
+     * @param countsAsFailure whether an error says the dependency is unhealthy; errors it rejects (e.g. a 4xx caused
+     *                        by the request itself) are recorded as successes
+     * @throws DependencyUnavailableException when the call was rejected without being made
+     */
+    public <T> T call(Supplier<T> call, Predicate<RuntimeException> countsAsFailure) {
+        return call(null, call, countsAsFailure);
+    }
+
+    /**
+     * Like {@link #call(Supplier, Predicate)}, but judges slowness by the threshold configured for {@code route}
+     * (e.g. the model), so a route with a longer timeout is not counted slow against the shared breaker.
+     */
+    public <T> T call(String route, Supplier<T> call, Predicate<RuntimeException> countsAsFailure) {
+        if (!settings.isEnabled()) {
+            return call.get();
+        }
+        long probePhase = acquirePermission();
+        if (!acquireBulkhead()) {
+            releaseProbe(probePhase);
+            rejectedBulkhead.incrementAndGet();
+            throw new DependencyUnavailableException(name, DependencyUnavailableException.Reason.BULKHEAD_FULL);
+        }
+        long start = nanoClock.getAsLong();
+        try {
+            T result = call.get();
+            long slowCallNanos = TimeUnit.MILLISECONDS.toNanos(settings.slowCallMs(route));
+            record(probePhase, slowCallNanos <= 0 || nanoClock.getAsLong() - start < slowCallNanos);
+            return result;
+        } catch (RuntimeException e) {
+            record(probePhase, !countsAsFailure.test(e));
+            throw e;
+        } catch (Error e) {
+            record(probePhase, false);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /** @return the half-open phase when this call is a probe, otherwise {@link #NOT_A_PROBE} */
+    private synchronized long acquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(settings.getOpenDurationMs())) {
+                rejectedOpen.incrementAndGet();
+                throw new DependencyUnavailableException(name, DependencyUnavailableException.Reason.CIRCUIT_OPEN);
+            }
+            state = State.HALF_OPEN;
+            halfOpenPhase++;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+            logger.info("Circuit for {} half-open; probing with up to {} call(s)", name, probesNeeded());
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight + probeSuccesses >= probesNeeded()) {
+                rejectedOpen.incrementAndGet();
+                throw new DependencyUnavailableException(name, DependencyUnavailableException.Reason.CIRCUIT_OPEN);
+            }
+            probesInFlight++;
+            return halfOpenPhase;
+        }
+        return NOT_A_PROBE;
+    }
+
+    private boolean acquireBulkhead() {
+        long waitMs = settings.getBulkheadWaitMs();
+        if (waitMs <= 0) {
+            return bulkhead.tryAcquire();
+        }
+        try {
+            return bulkhead.tryAcquire(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized void releaseProbe(long probePhase) {
+        if (probePhase != NOT_A_PROBE && state == State.HALF_OPEN && probePhase == halfOpenPhase) {
+            probesInFlight--;
+        }
+    }
+
+    private synchronized void record(long probePhase, boolean success) {
+        (success ? successes : failures).incrementAndGet();
+        if (probePhase != NOT_A_PROBE) {
+            if (state != State.HALF_OPEN || probePhase != halfOpenPhase) {
+                return;
+            }
+            probesInFlight--;
+            if (!success) {
+                open("half-open probe failed");
+            } else if (++probeSuccesses >= probesNeeded()) {
+                resetWindow();
+                state = State.CLOSED;
+                logger.info("Circuit for {} closed after {} successful probe(s)", name, probeSuccesses);
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            // Started before the breaker opened; the window was already judged without it.
+            return;
+        }
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = !success;
+        if (!success) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+        if (windowCount >= minimumCalls && windowFailures * 100L >= (long) settings.getFailureRateThreshold() * windowCount) {
+            open(windowFailures + "/" + windowCount + " recent calls failed");
+        }
+    }
+
+    private void open(String why) {
+        state = State.OPEN;
+        openedAtNanos = nanoClock.getAsLong();
+        openings.incrementAndGet();
+        logger.warn("Circuit for {} opened ({}); rejecting calls for {} ms", name, why, settings.getOpenDurationMs());
+    }
+
+    private void resetWindow() {
+        windowCount = 0;
+        windowNext = 0;
+        windowFailures = 0;
+    }
+
+    private int probesNeeded() {
+        return Math.max(1, settings.getHalfOpenProbes());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Current state; an open breaker whose open duration has passed reports OPEN until the next call probes it. */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Failure share of the closed-state window, 0 while it holds fewer than {@code minimumCalls} outcomes. */
+    public synchronized double getFailureRate() {
+        return windowCount < minimumCalls ? 0 : (double) windowFailures / windowCount;
+    }
+
+    public int getActiveCalls() {
+        return maxConcurrent - bulkhead.availablePermits();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public long successCount() {
+        return successes.get();
+    }
+
+    public long failureCount() {
+        return failures.get();
+    }
+
+    public long rejectedOpenCount() {
+        return rejectedOpen.get();
+    }
+
+    public long rejectedBulkheadCount() {
+        return rejectedBulkhead.get();
+    }
+
+    public long openedCount() {
+        return openings.get();
+    }
+}
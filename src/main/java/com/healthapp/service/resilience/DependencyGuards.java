@@ -0,0 +1,70 @@
+package com.healthapp.service.resilience;
+
+import com.healthapp.config.ResilienceProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * One {@link DependencyGuard} per outbound dependency. Publishes {@code dependency.calls{dependency,outcome}},
+ * {@code dependency.circuit.opened}, {@code dependency.circuit.state} (0 closed, 1 half-open, 2 open) and
+ * {@code dependency.bulkhead.active}.
+ */
+@Component
+public class DependencyGuards implements MeterBinder {
+
+    public static final String OPENAI = "openai";
+    public static final String USDA = "usda";
+
+    private final DependencyGuard openAi;
+    private final DependencyGuard usda;
+
+    public DependencyGuards(ResilienceProperties properties) {
+        this.openAi = new DependencyGuard(OPENAI, properties.getOpenai());
+        this.usda = new DependencyGuard(USDA, properties.getUsda());
+    }
+
+    public DependencyGuard openAi() {
+        return openAi;
+    }
+
+    public DependencyGuard usda() {
+        return usda;
+    }
+
+    public List<DependencyGuard> all() {
+        return List.of(openAi, usda);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (DependencyGuard guard : all()) {
+            registerCalls(registry, guard, "success", DependencyGuard::successCount);
+            registerCalls(registry, guard, "failure", DependencyGuard::failureCount);
+            registerCalls(registry, guard, "rejected_open", DependencyGuard::rejectedOpenCount);
+            registerCalls(registry, guard, "rejected_bulkhead", DependencyGuard::rejectedBulkheadCount);
+            FunctionCounter.builder("dependency.circuit.opened", guard, DependencyGuard::openedCount)
+                    .tag("dependency", guard.getName()).description("Times the dependency's circuit breaker opened")
+                    .register(registry);
+            Gauge.builder("dependency.circuit.state", guard, g -> g.getState().ordinal())
+                    .tag("dependency", guard.getName()).description("Circuit state: 0 closed, 1 half-open, 2 open")
+                    .register(registry);
+            Gauge.builder("dependency.bulkhead.active", guard, DependencyGuard::getActiveCalls)
+                    .tag("dependency", guard.getName()).description("Dependency calls currently in flight")
+                    .register(registry);
+        }
+    }
+
+    private static void registerCalls(MeterRegistry registry, DependencyGuard guard, String outcome,
+                                      ToDoubleFunction<DependencyGuard> count) {
+        FunctionCounter.builder("dependency.calls", guard, count)
+                .tag("dependency", guard.getName()).tag("outcome", outcome)
+                .description("Outbound dependency calls by outcome; rejected calls were never sent")
+                .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.healthapp.service.resilience;
+
+import java.util.Optional;
+
+/**
+ * Thrown by {@link DependencyGuard} instead of making a call, because the dependency's breaker is open or its
+ * bulkhead is full. Nothing was sent, so callers should fail fast or fall back rather than retry.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    public enum Reason { CIRCUIT_OPEN, BULKHEAD_FULL }
+
+    private final String dependency;
+    private final Reason reason;
+
+    public DependencyUnavailableException(String dependency, Reason reason) {
+        super(dependency + " call rejected: " + (reason == Reason.CIRCUIT_OPEN ? "circuit open" : "bulkhead full"));
+        this.dependency = dependency;
+        this.reason = reason;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /** Finds a rejection anywhere in the cause chain; parsing services wrap client errors before rethrowing. */
+    public static Optional<DependencyUnavailableException> findIn(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof DependencyUnavailableException rejection) {
+                return Optional.of(rejection);
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE rate_limit_counters (
+    bucket_key VARCHAR(191) NOT NULL,
+    window_start BIGINT NOT NULL,
+    expires_at BIGINT NOT NULL,
+    request_count INT NOT NULL,
+    PRIMARY KEY (bucket_key, window_start),
+    INDEX idx_rate_limit_counters_expires_at (expires_at)
+);
@@ -0,0 +1,6 @@
+-- Popularity signal for the refresh-ahead job; written in batches by NutritionCacheRefreshJob.
+ALTER TABLE food_nutrition_cache
+    ADD COLUMN hit_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_accessed_at TIMESTAMP NULL;
+
+CREATE INDEX idx_food_nutrition_cache_source_updated ON food_nutrition_cache (source, updated_at);
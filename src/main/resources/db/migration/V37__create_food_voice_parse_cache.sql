@@ -0,0 +1,15 @@
+-- Persistent tier of the food voice parse cache (FoodVoiceParseCache). cache_key is the SHA-256 of
+-- model, schema version, day part and normalized utterance; logged-at times in response_json are relative.
+CREATE TABLE food_voice_parse_cache (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cache_key CHAR(64) NOT NULL,
+    model VARCHAR(60) NOT NULL,
+    schema_version VARCHAR(20) NOT NULL,
+    normalized_text VARCHAR(500) NOT NULL,
+    response_json TEXT NOT NULL,
+    hit_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_food_voice_parse_cache_key (cache_key),
+    INDEX idx_food_voice_parse_cache_updated (updated_at)
+);
@@ -0,0 +1,19 @@
+-- Asynchronous voice food logging (VoiceFoodLogJobService): one row per accepted utterance, polled by the client
+-- until it reaches SUCCEEDED or FAILED. result_json holds the VoiceFoodLogResponse of a finished job.
+CREATE TABLE voice_food_log_jobs (
+    id CHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    voice_text VARCHAR(1000) NOT NULL,
+    http_status INT,
+    error_code VARCHAR(40),
+    result_json TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+
+    INDEX idx_voice_food_log_jobs_user_created (user_id, created_at),
+    INDEX idx_voice_food_log_jobs_status_updated (status, updated_at),
+
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
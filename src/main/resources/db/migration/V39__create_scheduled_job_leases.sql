@@ -0,0 +1,7 @@
+-- Cluster-wide leases for background jobs that must run on one instance at a time (e.g. NutritionCacheRefreshJob).
+-- A row is claimed by a conditional UPDATE once lease_until has passed; rows are inserted on first claim.
+CREATE TABLE scheduled_job_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    lease_until TIMESTAMP NOT NULL
+);
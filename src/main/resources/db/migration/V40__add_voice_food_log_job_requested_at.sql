@@ -0,0 +1,5 @@
+-- When the user made an asynchronous voice food log request. The worker logs and infers meal types for that time
+-- rather than for when it got to the job; rows queued before this column existed fall back to created_at.
+ALTER TABLE voice_food_log_jobs ADD COLUMN requested_at TIMESTAMP NULL AFTER result_json;
+UPDATE voice_food_log_jobs SET requested_at = created_at;
+ALTER TABLE voice_food_log_jobs MODIFY COLUMN requested_at TIMESTAMP NOT NULL;
@@ -0,0 +1,92 @@
+package com.healthapp.aspect;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClientAddressResolverTest {
+
+    private final ClientAddressResolver resolver =
+            new ClientAddressResolver(new String[] {"10.0.0.0/8", "127.0.0.1/32"});
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.9", "1.1.1.1");
+
+        assertEquals("203.0.113.9", resolver.resolve(request));
+    }
+
+    @Test
+    void takesRightmostUntrustedHopBehindTrustedProxy() {
+        MockHttpServletRequest request = request("10.0.1.5", "6.6.6.6, 198.51.100.7, 10.0.2.3");
+
+        assertEquals("198.51.100.7", resolver.resolve(request));
+    }
+
+    @Test
+    void fallsBackToLeftmostWhenEveryHopIsTrusted() {
+        MockHttpServletRequest request = request("10.0.1.5", "10.9.9.9,10.0.2.3");
+
+        assertEquals("10.9.9.9", resolver.resolve(request));
+    }
+
+    @Test
+    void garbageHopIsNeverTheClientKey() {
+        MockHttpServletRequest request = request("127.0.0.1", "not-an-ip");
+
+        assertEquals("127.0.0.1", resolver.resolve(request));
+    }
+
+    @Test
+    void hostnameHopStopsTheWalkAtTheNearestTrustedHop() {
+        MockHttpServletRequest request = request("10.0.1.5", "6.6.6.6, proxy.example.com, 10.0.2.3");
+
+        assertEquals("10.0.2.3", resolver.resolve(request));
+    }
+
+    @Test
+    void acceptsIpv6ClientHop() {
+        MockHttpServletRequest request = request("10.0.1.5", "2001:db8::7, 10.0.2.3");
+
+        assertEquals("2001:db8::7", resolver.resolve(request));
+    }
+
+    @Test
+    void ipLiteralCheckRejectsNamesAndMalformedAddresses() {
+        assertTrue(ClientAddressResolver.isIpLiteral("198.51.100.7"));
+        assertTrue(ClientAddressResolver.isIpLiteral("::1"));
+        assertFalse(ClientAddressResolver.isIpLiteral("256.1.1.1"));
+        assertFalse(ClientAddressResolver.isIpLiteral("localhost"));
+        assertFalse(ClientAddressResolver.isIpLiteral("cafe.example"));
+        assertFalse(ClientAddressResolver.isIpLiteral("fe80::1::2"));
+        assertFalse(resolver.isTrustedProxy("localhost"));
+    }
+
+    @Test
+    void ignoresRealIpHeaderThatIsNotAnAddress() {
+        MockHttpServletRequest request = request("127.0.0.1", null);
+        request.addHeader("X-Real-IP", "attacker.example");
+
+        assertEquals("127.0.0.1", resolver.resolve(request));
+    }
+
+    @Test
+    void usesRealIpHeaderWhenNoForwardedFor() {
+        MockHttpServletRequest request = request("127.0.0.1", null);
+        request.addHeader("X-Real-IP", "198.51.100.20");
+
+        assertEquals("198.51.100.20", resolver.resolve(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,50 @@
+package com.healthapp.aspect;
+
+import com.healthapp.annotation.RateLimit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateLimitAspectTest {
+
+    @Test
+    void buildsPolicyFromAnnotation() throws Exception {
+        RateLimitAspect.Policy policy = RateLimitAspect.buildPolicy(Endpoints.class.getDeclaredMethod("voice"));
+
+        assertEquals(5, policy.maxRequests());
+        assertEquals(Duration.ofHours(1), policy.window());
+        assertEquals("user:42:Endpoints.voice", policy.clientKey(42L, null));
+        assertEquals("ip:1.2.3.4:Endpoints.voice", policy.clientKey(null, "1.2.3.4"));
+    }
+
+    @Test
+    void ipStrategySharesOneBucketPerAddress() throws Exception {
+        RateLimitAspect.Policy policy = RateLimitAspect.buildPolicy(Endpoints.class.getDeclaredMethod("crud"));
+
+        assertEquals(Duration.ofMinutes(1), policy.window());
+        assertEquals("ip:1.2.3.4", policy.clientKey(null, "1.2.3.4"));
+    }
+
+    @Test
+    void rejectsUnknownTimeUnitAtStartup() {
+        assertThrows(IllegalStateException.class,
+                () -> RateLimitAspect.buildPolicy(Endpoints.class.getDeclaredMethod("broken")));
+    }
+
+    static class Endpoints {
+        @RateLimit(value = 5, timeUnit = "HOURS", key = RateLimit.KeyStrategy.USER_ENDPOINT)
+        void voice() {
+        }
+
+        @RateLimit(value = 30)
+        void crud() {
+        }
+
+        @RateLimit(value = 1, timeUnit = "FORTNIGHTS")
+        void broken() {
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.healthapp.controller;
 
+import com.healthapp.entity.FoodLog;
 import com.healthapp.entity.MenstrualCycle;
 import com.healthapp.entity.User;
+import com.healthapp.repository.FoodLogRepository;
 import com.healthapp.repository.MenstrualCycleRepository;
 import com.healthapp.repository.UserRepository;
 import com.healthapp.service.OpenAiChatClient;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -28,12 +31,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,6 +62,9 @@ class AiVoiceAndCycleSyncEndpointsIntegrationTest {
     @Autowired
     private MenstrualCycleRepository menstrualCycleRepository;
 
+    @Autowired
+    private FoodLogRepository foodLogRepository;
+
     @MockBean
     private OpenAiService openAiService;
 
@@ -82,49 +91,55 @@ class AiVoiceAndCycleSyncEndpointsIntegrationTest {
         menstrualCycleRepository.save(cycle);
 
         when(openAiChatClient.isAvailable()).thenReturn(true);
-        when(openAiChatClient.createStructuredCompletion(any(), any(), any(), any(), any(), anyInt()))
-                .thenAnswer(invocation -> {
-                    String system = invocation.getArgument(1);
-                    String userMsg = invocation.getArgument(2);
-                    if (system.contains("menstrual cycle events")) {
-                        return """
-                                {"periodStartDate":"%s","cycleLength":28,"periodDuration":5,"isCycleRegular":true}
-                                """.formatted(LocalDate.now().minusDays(1));
-                    }
-                    if (system.contains("physical activities")) {
-                        String lower = userMsg.toLowerCase();
-                        if (lower.contains("running") && lower.contains("push")) {
-                            return """
-                                    {"activities":[
-                                      {"activityName":"running","durationMinutes":5,"loggedAt":"2026-05-04T11:00:00","note":"Voice: running segment"},
-                                      {"activityName":"push ups","durationMinutes":5,"loggedAt":"2026-05-04T11:05:00","note":"Voice: push ups segment"},
-                                      {"activityName":"cross trainer","durationMinutes":5,"loggedAt":"2026-05-04T11:10:00","note":"Voice: cross trainer segment"},
-                                      {"activityName":"walk","durationMinutes":5,"loggedAt":"2026-05-04T11:15:00","note":"Voice: walk segment"},
-                                      {"activityName":"swim","durationMinutes":5,"loggedAt":"2026-05-04T11:20:00","note":"Voice: swim segment"}
-                                    ]}
-                                    """;
-                        }
-                        if (lower.contains("swim") || lower.contains("swam")) {
-                            return """
-                                    {"activities":[{"activityName":"swimming","durationMinutes":20,"loggedAt":"2026-05-04T07:30:00","note":"Voice: pool session Assumed: duration 20 min."}]}
-                                    """;
-                        }
-                        return """
-                                {"activities":[{"activityName":"Walking","durationMinutes":30,"loggedAt":"2026-05-04T10:00:00","note":"Voice: morning walk Stated: 30 minutes."}]}
-                                """;
-                    }
-                    if (userMsg.contains("__EMPTY_FOOD__")) {
-                        return "{\"compositeMeals\":[],\"foodItems\":[]}";
-                    }
-                    if (userMsg.toLowerCase().contains("avocado")) {
-                        return """
-                                {"compositeMeals":[],"foodItems":[{"foodName":"avocado","quantity":1,"unit":"medium","estimatedGrams":150,"mealType":"snack","loggedAt":"2026-05-04T12:00:00","note":"Stated: 1 medium avocado.","nutrition":{"caloriesPer100g":160,"proteinPer100g":2,"carbsPer100g":8.5,"fatPer100g":14.7,"fiberPer100g":6.7}}]}
-                                """;
-                    }
+        // Food parsing passes the request time as a trailing context message (7-arg overload)
+        Answer<String> structuredCompletion = invocation -> {
+            String system = invocation.getArgument(1);
+            String userMsg = invocation.getArgument(2);
+            if (system.contains("menstrual cycle events")) {
+                return """
+                        {"periodStartDate":"%s","cycleLength":28,"periodDuration":5,"isCycleRegular":true}
+                        """.formatted(LocalDate.now().minusDays(1));
+            }
+            if (system.contains("physical activities")) {
+                String lower = userMsg.toLowerCase();
+                if (lower.contains("running") && lower.contains("push")) {
+                    return """
+                            {"activities":[
+                              {"activityName":"running","durationMinutes":5,"loggedAt":"2026-05-04T11:00:00","note":"Voice: running segment"},
+                              {"activityName":"push ups","durationMinutes":5,"loggedAt":"2026-05-04T11:05:00","note":"Voice: push ups segment"},
+                              {"activityName":"cross trainer","durationMinutes":5,"loggedAt":"2026-05-04T11:10:00","note":"Voice: cross trainer segment"},
+                              {"activityName":"walk","durationMinutes":5,"loggedAt":"2026-05-04T11:15:00","note":"Voice: walk segment"},
+                              {"activityName":"swim","durationMinutes":5,"loggedAt":"2026-05-04T11:20:00","note":"Voice: swim segment"}
+                            ]}
+                            """;
+                }
+                if (lower.contains("swim") || lower.contains("swam")) {
                     return """
-                            {"compositeMeals":[],"foodItems":[{"foodName":"Integration Test Apple","quantity":1,"unit":"piece","estimatedGrams":150,"mealType":"snack","loggedAt":"2026-05-04T12:00:00","note":"Assumed: 1 apple ~150 g.","nutrition":{"caloriesPer100g":52,"proteinPer100g":0.3,"carbsPer100g":14,"fatPer100g":0.2,"fiberPer100g":2.4}}]}
+                            {"activities":[{"activityName":"swimming","durationMinutes":20,"loggedAt":"2026-05-04T07:30:00","note":"Voice: pool session Assumed: duration 20 min."}]}
                             """;
-                });
+                }
+                return """
+                        {"activities":[{"activityName":"Walking","durationMinutes":30,"loggedAt":"2026-05-04T10:00:00","note":"Voice: morning walk Stated: 30 minutes."}]}
+                        """;
+            }
+            if (userMsg.contains("__EMPTY_FOOD__")) {
+                return "{\"compositeMeals\":[],\"foodItems\":[]}";
+            }
+            if (userMsg.toLowerCase().contains("avocado")) {
+                return """
+                        {"compositeMeals":[],"foodItems":[{"foodName":"avocado","quantity":1,"unit":"medium","estimatedGrams":150,"mealType":"snack","loggedAt":"2026-05-04T12:00:00","note":"Stated: 1 medium avocado.","nutrition":{"caloriesPer100g":160,"proteinPer100g":2,"carbsPer100g":8.5,"fatPer100g":14.7,"fiberPer100g":6.7}}]}
+                        """;
+            }
+            return """
+                    {"compositeMeals":[],"foodItems":[{"foodName":"Integration Test Apple","quantity":1,"unit":"piece","estimatedGrams":150,"mealType":"snack","loggedAt":"2026-05-04T12:00:00","note":"Assumed: 1 apple ~150 g.","nutrition":{"caloriesPer100g":52,"proteinPer100g":0.3,"carbsPer100g":14,"fatPer100g":0.2,"fiberPer100g":2.4}}]}
+                    """;
+        };
+        when(openAiChatClient.createStructuredCompletion(any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(structuredCompletion);
+        when(openAiChatClient.createStructuredCompletion(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(structuredCompletion);
+        when(openAiChatClient.createStructuredCompletion(any(), any(), any(), any(), any(), any(), anyInt(), any()))
+                .thenAnswer(structuredCompletion);
 
         when(openAiService.createChatCompletion(any(ChatCompletionRequest.class)))
                 .thenAnswer(invocation -> chatCompletionResult("{}"));
@@ -233,6 +248,11 @@ class AiVoiceAndCycleSyncEndpointsIntegrationTest {
                 .andExpect(jsonPath("$.logs").isArray())
                 .andExpect(jsonPath("$.logs[0].food").value("Integration Test Apple"))
                 .andExpect(jsonPath("$.errorCode").doesNotExist());
+
+        List<FoodLog> saved = foodLogRepository.findByUserIdAndStatus(user.getId(), FoodLog.FoodLogStatus.ACTIVE);
+        assertEquals(1, saved.size());
+        assertEquals(FoodLog.MealType.SNACK, saved.get(0).getMealType());
+        assertNotNull(saved.get(0).getCreatedAt());
     }
 
     @Test
@@ -252,6 +272,30 @@ class AiVoiceAndCycleSyncEndpointsIntegrationTest {
                 .andExpect(jsonPath("$.logs").isEmpty());
     }
 
+    @Test
+    void postFoodLogFromVoiceAsync_acceptedWithPollableLocation() throws Exception {
+        String body = """
+                {"userId":%d,"voiceText":"ate an apple for a snack"}
+                """.formatted(user.getId());
+
+        mockMvc.perform(post("/ai/food-log/from-voice/async")
+                        .with(authentication(auth(user.getId())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.containsString("/ai/food-log/jobs/")))
+                .andExpect(jsonPath("$.jobId").isNotEmpty())
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void getFoodLogJob_unknownJob_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/ai/food-log/jobs/does-not-exist")
+                        .with(authentication(auth(user.getId()))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value("JOB_NOT_FOUND"));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {
             "{\"userId\":%d}",
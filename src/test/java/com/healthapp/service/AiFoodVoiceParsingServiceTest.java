@@ -1,8 +1,11 @@
 package com.healthapp.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.service.nutrition.RecommendedPortionCatalog;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AiFoodVoiceParsingServiceTest {
@@ -33,4 +36,18 @@ class AiFoodVoiceParsingServiceTest {
         var node = objectMapper.readTree(json).get("foodItems").get(0);
         assertEquals(150.0, node.get("estimatedGrams").asDouble());
     }
+
+    @Test
+    void systemPrompt_isStaticAndCarriesNoTimestamp() {
+        assertFalse(AiFoodVoiceParsingService.SYSTEM_PROMPT.matches("(?s).*\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}.*"));
+        assertTrue(AiFoodVoiceParsingService.SYSTEM_PROMPT.contains(
+                RecommendedPortionCatalog.promptReferenceLines().strip().lines().findFirst().orElseThrow()));
+        assertTrue(AiFoodVoiceParsingService.SYSTEM_PROMPT.contains("last message"));
+    }
+
+    @Test
+    void currentTimeMessage_isIsoToTheSecond() {
+        assertEquals("CURRENT DATE AND TIME: 2026-05-04T08:15:30",
+                AiFoodVoiceParsingService.currentTimeMessage(LocalDateTime.of(2026, 5, 4, 8, 15, 30, 999)));
+    }
 }
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -45,6 +47,17 @@ class ExplicitQuantityApplierTest {
         assertTrue(dataList.getFoodItems().stream().allMatch(AiFoodVoiceParsingService.ParsedFoodData::isUserSpecifiedGrams));
     }
 
+    @Test
+    void rebuiltItemsWithoutATimeAreLoggedAtTheRequestTime() {
+        AiFoodVoiceParsingService.ParsedFoodDataList dataList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        LocalDateTime requestTime = LocalDateTime.of(2026, 5, 4, 7, 40);
+
+        applier.apply(dataList, "10g cashews, 50g oats", requestTime);
+
+        assertEquals(2, dataList.getFoodItems().size());
+        assertTrue(dataList.getFoodItems().stream().allMatch(item -> requestTime.equals(item.getLoggedAt())));
+    }
+
     @Test
     void splitsMultiIngredientCompositeWhenVoiceListsMultipleItems() {
         AiFoodVoiceParsingService.ParsedFoodDataList dataList = new AiFoodVoiceParsingService.ParsedFoodDataList();
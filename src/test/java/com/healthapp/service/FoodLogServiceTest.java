@@ -0,0 +1,107 @@
+package com.healthapp.service;
+
+import com.healthapp.dto.FoodLogCreateRequest;
+import com.healthapp.dto.FoodLogCreateResponse;
+import com.healthapp.entity.FoodItem;
+import com.healthapp.entity.FoodLog;
+import com.healthapp.repository.FoodItemRepository;
+import com.healthapp.repository.FoodLogRepository;
+import com.healthapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FoodLogServiceTest {
+
+    @Mock
+    private FoodLogRepository foodLogRepository;
+    @Mock
+    private FoodItemRepository foodItemRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private FoodLogService foodLogService;
+
+    @Test
+    void createFoodLogs_checksUserOnceLoadsItemsInOneQueryAndInsertsOneBatch() {
+        when(userRepository.existsById(10L)).thenReturn(true);
+        when(foodItemRepository.findByIdInAndStatus(Set.of(5L, 6L), FoodItem.FoodStatus.ACTIVE))
+                .thenReturn(List.of(foodItem(5L, 155), foodItem(6L, 265)));
+        doAnswer(inv -> {
+            List<FoodLog> logs = inv.getArgument(0);
+            for (int i = 0; i < logs.size(); i++) {
+                logs.get(i).setId(100L + i);
+            }
+            return null;
+        }).when(foodLogRepository).insertAll(any());
+
+        List<FoodLogCreateResponse> responses = foodLogService.createFoodLogs(
+                List.of(request(5L, 200.0), request(6L, 50.0), request(5L, 100.0)), 10L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FoodLog>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(foodLogRepository).insertAll(inserted.capture());
+        verify(userRepository, never()).findById(anyLong());
+        verify(foodItemRepository, never()).findByIdAndStatus(any(), any());
+        assertEquals(List.of(5L, 6L, 5L), inserted.getValue().stream().map(FoodLog::getFoodItemId).toList());
+        assertEquals(FoodLog.MealType.LUNCH, inserted.getValue().get(0).getMealType());
+        assertEquals(3, responses.size());
+        assertEquals(101L, responses.get(1).getId());
+        assertEquals(310.0, responses.get(0).getCalories(), 0.001);
+        assertEquals(132.5, responses.get(1).getCalories(), 0.001);
+    }
+
+    @Test
+    void createFoodLogs_missingFoodItemSavesNothing() {
+        when(userRepository.existsById(10L)).thenReturn(true);
+        when(foodItemRepository.findByIdInAndStatus(Set.of(5L, 7L), FoodItem.FoodStatus.ACTIVE))
+                .thenReturn(List.of(foodItem(5L, 155)));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> foodLogService.createFoodLogs(List.of(request(5L, 100.0), request(7L, 100.0)), 10L));
+
+        assertEquals("Food item not found", ex.getMessage());
+        verify(foodLogRepository, never()).insertAll(any());
+    }
+
+    private static FoodLogCreateRequest request(Long foodItemId, Double grams) {
+        FoodLogCreateRequest request = new FoodLogCreateRequest();
+        request.setUserId(10L);
+        request.setFoodItemId(foodItemId);
+        request.setLoggedAt(LocalDateTime.now().minusMinutes(5));
+        request.setMealType("LUNCH");
+        request.setQuantity(1.0);
+        request.setUnit("grams");
+        request.setEstimatedGrams(grams);
+        return request;
+    }
+
+    private static FoodItem foodItem(Long id, int caloriesPer100g) {
+        FoodItem foodItem = new FoodItem();
+        foodItem.setId(id);
+        foodItem.setName("food " + id);
+        foodItem.setCreatedBy(10L);
+        foodItem.setVisibility(FoodItem.FoodVisibility.PUBLIC);
+        foodItem.setCaloriesPerUnit(caloriesPer100g);
+        foodItem.setStatus(FoodItem.FoodStatus.ACTIVE);
+        return foodItem;
+    }
+}
@@ -0,0 +1,177 @@
+package com.healthapp.service;
+
+import com.healthapp.config.OpenAiModelProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FoodModelRouterTest {
+
+    private static final String MINI = "gpt-4.1-mini";
+    private static final String FULL = "gpt-4.1";
+
+    private final OpenAiModelProperties properties = new OpenAiModelProperties();
+    private final Deque<Double> rolls = new ArrayDeque<>();
+    private OpenAiModelProperties.AdaptiveRouting adaptive;
+    private FoodModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        OpenAiModelProperties.FoodRouting routing = properties.getModel().getVoice().getFoodRouting();
+        routing.setEnabled(true);
+        adaptive = routing.getAdaptive();
+        adaptive.setEnabled(true);
+        adaptive.setWindowSize(10);
+        adaptive.setMinSamples(5);
+        adaptive.setExplorationRate(0.1);
+        adaptive.getModels().put(MINI, new OpenAiModelProperties.ModelPrice(0.40, 1.60));
+        adaptive.getModels().put(FULL, new OpenAiModelProperties.ModelPrice(2.00, 8.00));
+        router = new FoodModelRouter(properties, () -> rolls.isEmpty() ? 0.99 : rolls.pop());
+    }
+
+    @Test
+    void staticChoiceUntilACandidateHasEnoughSamples() {
+        record(MINI, MealComplexity.COMPLEX, 4, 2000, 1, 0);
+
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX));
+        assertEquals(MINI, router.preferredModel(MealComplexity.SIMPLE));
+    }
+
+    @Test
+    void prefersTheCheaperModelOnceItMeetsTheSlo() {
+        record(FULL, MealComplexity.COMPLEX, 5, 3000, 1, 0);
+        record(MINI, MealComplexity.COMPLEX, 5, 4000, 1, 0);
+
+        assertEquals(MINI, router.preferredModel(MealComplexity.COMPLEX));
+        assertEquals(MINI, router.preferredModel(MealComplexity.SIMPLE), "complexities are judged separately");
+    }
+
+    @Test
+    void fallsBackWhenTheCheapModelsAnswersNeedCorrecting() {
+        record(FULL, MealComplexity.COMPLEX, 5, 3000, 1, 0);
+        record(MINI, MealComplexity.COMPLEX, 3, 4000, 1, 0);
+        record(MINI, MealComplexity.COMPLEX, 2, 4000, 1, 1);
+
+        assertEquals(0.4, router.stats(MINI, MealComplexity.COMPLEX).validationFailureRate(), 1e-9);
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX));
+    }
+
+    @Test
+    void fallsBackWhenTheCheapModelRetriesOrRunsSlow() {
+        record(FULL, MealComplexity.COMPLEX, 5, 3000, 1, 0);
+        record(MINI, MealComplexity.COMPLEX, 4, 4000, 1, 0);
+        record(MINI, MealComplexity.COMPLEX, 1, 4000, 2, 0);
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX), "20% retries");
+
+        record(MINI, MealComplexity.COMPLEX, 10, 13000, 1, 0);
+        assertEquals(13000, router.stats(MINI, MealComplexity.COMPLEX).p90LatencyMs());
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX), "over the 12s SLO");
+    }
+
+    @Test
+    void failedParsesCountAgainstTheRetryRate() {
+        record(MINI, MealComplexity.SIMPLE, 4, 1000, 1, 0);
+        router.recordFailure(new FoodModelRouter.Route(MINI, MealComplexity.SIMPLE, false),
+                TimeUnit.MILLISECONDS.toNanos(1000), stats(3, 900, 0));
+
+        FoodModelRouter.Stats stats = router.stats(MINI, MealComplexity.SIMPLE);
+        assertEquals(0.2, stats.retryRate(), 1e-9);
+        assertEquals(0.0, stats.validationFailureRate());
+    }
+
+    @Test
+    void windowKeepsOnlyTheMostRecentParses() {
+        record(MINI, MealComplexity.SIMPLE, 10, 1000, 1, 1);
+        record(MINI, MealComplexity.SIMPLE, 10, 1000, 1, 0);
+
+        FoodModelRouter.Stats stats = router.stats(MINI, MealComplexity.SIMPLE);
+        assertEquals(10, stats.samples());
+        assertEquals(0.0, stats.validationFailureRate());
+    }
+
+    @Test
+    void exploresCheaperModelsWhileThePreferredOneMeetsTheSlo() {
+        record(FULL, MealComplexity.COMPLEX, 5, 3000, 1, 0);
+
+        rolls.push(0.0);
+        FoodModelRouter.Route route = router.route(MealComplexity.COMPLEX, FULL);
+        assertEquals(new FoodModelRouter.Route(MINI, MealComplexity.COMPLEX, true), route);
+        assertEquals(1, router.explorationCount(MealComplexity.COMPLEX));
+
+        record(MINI, MealComplexity.SIMPLE, 5, 1000, 1, 0);
+        rolls.push(0.0);
+        assertFalse(router.route(MealComplexity.SIMPLE, MINI).exploring(), "nothing cheaper than the mini model");
+        assertFalse(router.route(MealComplexity.COMPLEX, FULL).exploring(), "roll above the exploration rate");
+    }
+
+    @Test
+    void exploresPricierModelsWhileThePreferredOneMissesTheSlo() {
+        record(MINI, MealComplexity.SIMPLE, 5, 9000, 1, 0);
+
+        rolls.push(0.0);
+        assertEquals(FULL, router.route(MealComplexity.SIMPLE, MINI).model());
+    }
+
+    @Test
+    void staysStaticWhenComplexityRoutingIsOff() {
+        properties.getModel().getVoice().getFoodRouting().setEnabled(false);
+        record(MINI, MealComplexity.COMPLEX, 5, 1000, 1, 0);
+        rolls.push(0.0);
+
+        assertEquals(MINI, router.preferredModel(MealComplexity.COMPLEX));
+        assertFalse(router.route(MealComplexity.COMPLEX, MINI).exploring());
+
+        properties.getModel().getVoice().getFoodRouting().setEnabled(true);
+        adaptive.setEnabled(false);
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX));
+    }
+
+    @Test
+    void publishesRoutingStats() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        router.bindTo(registry);
+        record(MINI, MealComplexity.COMPLEX, 5, 4000, 1, 0);
+
+        assertEquals(5, registry.get("voice.food.routing.parses")
+                .tags("model", MINI, "complexity", "complex").functionCounter().count());
+        assertEquals(4000, registry.get("voice.food.routing.latency.p90")
+                .tags("model", MINI, "complexity", "complex").gauge().value());
+        assertEquals(1, registry.get("voice.food.routing.preferred")
+                .tags("model", MINI, "complexity", "complex").gauge().value());
+        assertEquals((800 * 0.40 + 100 * 1.60) / 1_000_000, registry.get("voice.food.routing.cost.per.parse")
+                .tags("model", MINI, "complexity", "complex").gauge().value(), 1e-12);
+    }
+
+    @Test
+    void scrapingThePreferredGaugeDoesNotRecordAPreferenceChange() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        router.bindTo(registry);
+        assertEquals(FULL, router.preferredModel(MealComplexity.COMPLEX));
+        record(MINI, MealComplexity.COMPLEX, 5, 4000, 1, 0);
+
+        assertEquals(1, registry.get("voice.food.routing.preferred")
+                .tags("model", MINI, "complexity", "complex").gauge().value());
+        assertEquals(FULL, router.lastPreferredModel(MealComplexity.COMPLEX));
+
+        assertEquals(MINI, router.preferredModel(MealComplexity.COMPLEX));
+        assertEquals(MINI, router.lastPreferredModel(MealComplexity.COMPLEX));
+    }
+
+    private void record(String model, MealComplexity complexity, int parses, long latencyMs, int attempts,
+                        int validationIssues) {
+        for (int i = 0; i < parses; i++) {
+            router.recordSuccess(new FoodModelRouter.Route(model, complexity, false),
+                    TimeUnit.MILLISECONDS.toNanos(latencyMs), stats(attempts, 800, 100), validationIssues);
+        }
+    }
+
+    private static OpenAiChatClient.CompletionStats stats(int attempts, long promptTokens, long completionTokens) {
+        return OpenAiChatClient.CompletionStats.of(attempts, promptTokens, completionTokens);
+    }
+}
@@ -0,0 +1,192 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.entity.FoodVoiceParseCacheEntry;
+import com.healthapp.repository.FoodVoiceParseCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FoodVoiceParseCacheTest {
+
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 5, 4, 8, 15, 0);
+
+    @Mock
+    private FoodVoiceParseCacheRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenAiModelProperties.ParseCache settings = new OpenAiModelProperties.ParseCache();
+    private final AtomicLong nanos = new AtomicLong();
+    private FoodVoiceParseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FoodVoiceParseCache(settings, repository, objectMapper, nanos::get);
+    }
+
+    @Test
+    void key_ignoresCaseWhitespaceAndTrailingPunctuation() {
+        FoodVoiceParseCache.Key a = cache.key("Two boiled  eggs and toast.", "gpt-4.1-mini", "abc", MORNING);
+        FoodVoiceParseCache.Key b = cache.key("two boiled eggs and toast", "gpt-4.1-mini", "abc", MORNING);
+
+        assertEquals(a.hash(), b.hash());
+        assertEquals("two boiled eggs and toast", a.text());
+    }
+
+    @Test
+    void key_separatesModelSchemaVersionAndDayPart() {
+        String hash = cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING).hash();
+
+        assertNotEquals(hash, cache.key("black coffee", "gpt-4.1", "abc", MORNING).hash());
+        assertNotEquals(hash, cache.key("black coffee", "gpt-4.1-mini", "def", MORNING).hash());
+        assertNotEquals(hash, cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING.withHour(19)).hash());
+        assertEquals(hash, cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING.withHour(10)).hash());
+    }
+
+    @Test
+    void key_isNullWhenDisabledOrBlank() {
+        assertNull(cache.key("  ", "gpt-4.1-mini", "abc", MORNING));
+        settings.setEnabled(false);
+        assertNull(cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING));
+    }
+
+    @Test
+    void memoryHit_reanchorsLoggedAtOnTheNewRequest() throws Exception {
+        FoodVoiceParseCache.Key key = cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING);
+        cache.put(key, response(MORNING.plusSeconds(20).toString()), MORNING);
+
+        LocalDateTime nextDay = MORNING.plusDays(1).plusMinutes(30);
+        JsonNode hit = cache.get(key, nextDay).orElseThrow();
+
+        assertEquals(nextDay.toString(), hit.get("foodItems").get(0).get("loggedAt").asText());
+        assertFalse(hit.get("foodItems").get(0).has(FoodVoiceParseCache.RELATIVE_FIELD));
+        assertEquals(1, cache.memoryHitCount());
+        verify(repository, never()).recordHit(anyString());
+    }
+
+    @Test
+    void relativeTimes_keepCalendarPositionsAndAgoOffsets() {
+        assertEquals("now", FoodVoiceParseCache.encodeRelative(MORNING.plusMinutes(1), MORNING, false));
+
+        String yesterdayDinner = FoodVoiceParseCache.encodeRelative(
+                LocalDateTime.of(2026, 5, 3, 19, 0), MORNING, false);
+        assertEquals("day:-1@19:00", yesterdayDinner);
+        assertEquals(LocalDateTime.of(2026, 6, 9, 19, 0),
+                FoodVoiceParseCache.decodeRelative(yesterdayDinner, LocalDateTime.of(2026, 6, 10, 7, 45)));
+
+        String hourAgo = FoodVoiceParseCache.encodeRelative(MORNING.minusHours(1), MORNING, true);
+        assertEquals("offset:PT-1H", hourAgo);
+        assertEquals(LocalDateTime.of(2026, 6, 10, 6, 45),
+                FoodVoiceParseCache.decodeRelative(hourAgo, LocalDateTime.of(2026, 6, 10, 7, 45)));
+
+        assertEquals(MORNING, FoodVoiceParseCache.decodeRelative("garbage", MORNING));
+    }
+
+    @Test
+    void key_marksAgoUtterancesAsDurationRelative() {
+        assertTrue(cache.key("a banana an hour ago", "m", "v", MORNING).durationRelative());
+        assertFalse(cache.key("banana for breakfast", "m", "v", MORNING).durationRelative());
+    }
+
+    @Test
+    void put_persistsRelativeJsonAndSkipsEmptyAnswers() throws Exception {
+        FoodVoiceParseCache.Key key = cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING);
+        when(repository.findByCacheKey(key.hash())).thenReturn(Optional.empty());
+
+        cache.put(key, response(MORNING.toString()), MORNING);
+        cache.put(key, objectMapper.readTree("{\"compositeMeals\":[],\"foodItems\":[]}"), MORNING);
+
+        ArgumentCaptor<FoodVoiceParseCacheEntry> saved = ArgumentCaptor.forClass(FoodVoiceParseCacheEntry.class);
+        verify(repository).save(saved.capture());
+        assertEquals("black coffee", saved.getValue().getNormalizedText());
+        assertEquals("gpt-4.1-mini", saved.getValue().getModel());
+        JsonNode stored = objectMapper.readTree(saved.getValue().getResponseJson());
+        assertEquals("now", stored.get("foodItems").get(0).get(FoodVoiceParseCache.RELATIVE_FIELD).asText());
+        assertFalse(stored.get("foodItems").get(0).has("loggedAt"));
+    }
+
+    @Test
+    void databaseHit_afterMemoryExpiryIsPromotedBackToMemory() throws Exception {
+        FoodVoiceParseCache.Key key = cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING);
+        FoodVoiceParseCacheEntry entry = new FoodVoiceParseCacheEntry();
+        entry.setCacheKey(key.hash());
+        entry.setResponseJson("{\"foodItems\":[{\"foodName\":\"black coffee\",\"loggedAtRelative\":\"now\"}]}");
+        entry.setUpdatedAt(LocalDateTime.now().minusDays(3));
+        when(repository.findByCacheKey(key.hash())).thenReturn(Optional.of(entry));
+
+        assertTrue(cache.get(key, MORNING).isPresent());
+        assertTrue(cache.get(key, MORNING).isPresent());
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(settings.getMemoryTtlMinutes() + 1));
+        assertTrue(cache.get(key, MORNING).isPresent());
+
+        assertEquals(2, cache.dbHitCount());
+        assertEquals(1, cache.memoryHitCount());
+        verify(repository, times(2)).recordHit(key.hash());
+    }
+
+    @Test
+    void staleDatabaseEntry_isDeletedAndCountsAsMiss() {
+        FoodVoiceParseCache.Key key = cache.key("black coffee", "gpt-4.1-mini", "abc", MORNING);
+        FoodVoiceParseCacheEntry entry = new FoodVoiceParseCacheEntry();
+        entry.setResponseJson("{}");
+        entry.setUpdatedAt(LocalDateTime.now().minusDays(settings.getTtlDays() + 1L));
+        when(repository.findByCacheKey(anyString())).thenReturn(Optional.of(entry));
+
+        assertTrue(cache.get(key, MORNING).isEmpty());
+        verify(repository).delete(entry);
+        assertEquals(1, cache.missCount());
+        assertEquals(0.0, cache.hitRatio());
+    }
+
+    @Test
+    void memoryTierIsBoundedAndHitRatioCountsBothTiers() throws Exception {
+        settings.setMemoryMaxEntries(1);
+        settings.setTtlDays(0);
+        cache = new FoodVoiceParseCache(settings, repository, objectMapper, nanos::get);
+        FoodVoiceParseCache.Key coffee = cache.key("black coffee", "m", "v", MORNING);
+        FoodVoiceParseCache.Key tea = cache.key("green tea", "m", "v", MORNING);
+
+        cache.put(coffee, response(MORNING.toString()), MORNING);
+        cache.put(tea, response(MORNING.toString()), MORNING);
+
+        assertEquals(1, cache.memorySize());
+        assertTrue(cache.get(coffee, MORNING).isEmpty());
+        assertTrue(cache.get(tea, MORNING).isPresent());
+        assertEquals(0.5, cache.hitRatio());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void dayPart_buckets() {
+        assertEquals("morning", FoodVoiceParseCache.dayPart(LocalTime.of(7, 0)));
+        assertEquals("midday", FoodVoiceParseCache.dayPart(LocalTime.of(12, 30)));
+        assertEquals("evening", FoodVoiceParseCache.dayPart(LocalTime.of(19, 0)));
+        assertEquals("night", FoodVoiceParseCache.dayPart(LocalTime.of(2, 0)));
+    }
+
+    private JsonNode response(String loggedAt) throws Exception {
+        return objectMapper.readTree("""
+                {"compositeMeals":[],"foodItems":[{"foodName":"black coffee","quantity":1,"unit":"cup",\
+                "mealType":"breakfast","loggedAt":"%s"}]}""".formatted(loggedAt));
+    }
+}
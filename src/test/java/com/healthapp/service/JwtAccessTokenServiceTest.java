@@ -0,0 +1,100 @@
+package com.healthapp.service;
+
+import com.healthapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtAccessTokenServiceTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-only";
+
+    @Test
+    void parsesOwnTokenAndCachesVerifiedResult() {
+        JwtAccessTokenService service = new JwtAccessTokenService(SECRET, 3600, 100, Clock.systemUTC());
+        String token = service.createAccessToken(user(5L));
+
+        JwtAccessTokenService.AccessTokenClaims first = service.parseValidAccessToken(token).orElseThrow();
+        JwtAccessTokenService.AccessTokenClaims second = service.parseValidAccessToken(token).orElseThrow();
+
+        assertEquals(5L, first.userId());
+        assertEquals("USER", first.role());
+        assertEquals(first, second);
+        assertEquals(1, service.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        JwtAccessTokenService service = new JwtAccessTokenService(SECRET, 3600, 100, Clock.systemUTC());
+        String token = service.createAccessToken(user(5L));
+        // Change a full-bit character inside the signature; the trailing one carries ignored padding bits
+        int at = token.lastIndexOf('.') + 5;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertTrue(service.parseValidAccessToken(tampered).isEmpty());
+    }
+
+    @Test
+    void cachedTokenStopsValidatingAtExpiry() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        JwtAccessTokenService service = new JwtAccessTokenService(SECRET, 60, 100, clock);
+        String token = service.createAccessToken(user(9L));
+
+        assertTrue(service.parseValidAccessToken(token).isPresent());
+
+        clock.advance(Duration.ofSeconds(61));
+        assertTrue(service.parseValidAccessToken(token).isEmpty());
+        assertEquals(0, service.verifiedTokenCacheSize());
+    }
+
+    @Test
+    void verifiedTokenCacheIsBounded() {
+        JwtAccessTokenService service = new JwtAccessTokenService(SECRET, 3600, 2, Clock.systemUTC());
+        for (long id = 1; id <= 5; id++) {
+            assertTrue(service.parseValidAccessToken(service.createAccessToken(user(id))).isPresent());
+        }
+
+        assertEquals(2, service.verifiedTokenCacheSize());
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(User.UserRole.USER);
+        return user;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.healthapp.service;
+
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.service.nutrition.NutritionConfidence;
+import com.healthapp.service.nutrition.NutritionLookupService;
+import com.healthapp.service.nutrition.NutritionProfile;
+import com.healthapp.service.nutrition.NutritionSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocalFoodVoiceParserTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 5, 4, 8, 15, 0);
+    private static final NutritionProfile EGG = new NutritionProfile(155, 13, 1.1, 11, 0,
+            NutritionSource.USDA, 0.92, 173424);
+    private static final NutritionProfile CHICKEN = new NutritionProfile(165, 31, 0, 3.6, 0,
+            NutritionSource.USDA, 0.88, 171477);
+
+    @Mock
+    private NutritionLookupService nutritionLookupService;
+
+    private final OpenAiModelProperties properties = new OpenAiModelProperties();
+    private LocalFoodVoiceParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new LocalFoodVoiceParser(properties, nutritionLookupService, new PortionGramEstimator());
+    }
+
+    @Test
+    void parse_countOfAKnownFoodUsesCatalogWeightAndCachedNutrition() {
+        when(nutritionLookupService.lookupCached("boiled eggs")).thenReturn(Optional.of(EGG));
+
+        AiFoodVoiceParsingService.ParsedFoodDataList result =
+                parser.parse("2 boiled eggs", MealComplexity.SIMPLE, NOW).orElseThrow();
+
+        assertEquals(1, result.getFoodItems().size());
+        AiFoodVoiceParsingService.ParsedFoodData item = result.getFoodItems().get(0);
+        assertEquals("Boiled eggs", item.getFoodName());
+        assertEquals(2.0, item.getQuantity());
+        assertEquals("pieces", item.getUnit());
+        assertEquals(100.0, item.getEstimatedGrams());
+        assertEquals(155.0, item.getNutrition().getCaloriesPer100g());
+        assertEquals(NutritionConfidence.HIGH, item.getNutritionConfidence());
+        assertEquals(173424, item.getFdcId());
+        assertEquals("breakfast", item.getMealType(), "no meal word: inferred from the 08:15 request");
+        assertEquals(NOW, item.getLoggedAt());
+        assertTrue(result.getCompositeMeals().isEmpty());
+    }
+
+    @Test
+    void parse_withoutAMealWordInfersTheMealFromTheRequestTime() {
+        when(nutritionLookupService.lookupCached("boiled eggs")).thenReturn(Optional.of(EGG));
+
+        assertEquals("lunch", mealTypeAt(12, 30));
+        assertEquals("snack", mealTypeAt(16, 0));
+        assertEquals("dinner", mealTypeAt(19, 45));
+        assertEquals("snack", mealTypeAt(23, 10));
+    }
+
+    @Test
+    void parse_statedGramsWithLeadInAndMealType() {
+        when(nutritionLookupService.lookupCached("chicken breast")).thenReturn(Optional.of(CHICKEN));
+        when(nutritionLookupService.lookupCached("boiled eggs")).thenReturn(Optional.of(EGG));
+
+        AiFoodVoiceParsingService.ParsedFoodDataList result = parser.parse(
+                "I had 150g chicken breast and 2 boiled eggs for lunch.", MealComplexity.SIMPLE, NOW).orElseThrow();
+
+        assertEquals(2, result.getFoodItems().size());
+        AiFoodVoiceParsingService.ParsedFoodData chicken = result.getFoodItems().get(0);
+        assertEquals("Chicken breast", chicken.getFoodName());
+        assertEquals(150.0, chicken.getEstimatedGrams());
+        assertEquals("grams", chicken.getUnit());
+        assertTrue(chicken.isUserSpecifiedGrams());
+        assertEquals("lunch", chicken.getMealType());
+        assertEquals("lunch", result.getFoodItems().get(1).getMealType());
+        assertEquals(1, parser.servedCount());
+    }
+
+    @Test
+    void parse_defersTimesModifiersAndComplexUtterancesWithoutLookingUpNutrition() {
+        assertTrue(parser.parse("2 boiled eggs yesterday", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("2 boiled eggs with cheese", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("150g chicken breast 30g protein", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("3 dumplings", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("black coffee", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("2 boiled eggs", MealComplexity.COMPLEX, NOW).isEmpty());
+
+        verify(nutritionLookupService, never()).lookupCached(anyString());
+        assertEquals(6, parser.fallbackCount());
+    }
+
+    @Test
+    void parse_fallsBackUnlessEveryFoodHasConfidentUsdaNutrition() {
+        when(nutritionLookupService.lookupCached("boiled eggs")).thenReturn(Optional.of(EGG));
+        when(nutritionLookupService.lookupCached("chicken breast")).thenReturn(Optional.of(CHICKEN.withConfidence(0.6)));
+        when(nutritionLookupService.lookupCached("greek yogurt")).thenReturn(Optional.empty());
+        when(nutritionLookupService.lookupCached("oats")).thenReturn(Optional.of(
+                new NutritionProfile(389, 17, 66, 7, 10, NutritionSource.FALLBACK_HARDCODED, 1.0, null)));
+
+        assertTrue(parser.parse("2 boiled eggs and 150g chicken breast", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("200g greek yogurt", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("40g oats", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertTrue(parser.parse("2 boiled eggs", MealComplexity.SIMPLE, NOW).isPresent());
+
+        assertEquals(0.25, parser.servedShare());
+    }
+
+    @Test
+    void parse_doesNothingWhenDisabled() {
+        properties.getModel().getVoice().getLocalParse().setEnabled(false);
+
+        assertTrue(parser.parse("2 boiled eggs", MealComplexity.SIMPLE, NOW).isEmpty());
+        assertEquals(0, parser.fallbackCount());
+    }
+
+    private String mealTypeAt(int hour, int minute) {
+        return parser.parse("2 boiled eggs", MealComplexity.SIMPLE, NOW.withHour(hour).withMinute(minute))
+                .orElseThrow().getFoodItems().get(0).getMealType();
+    }
+}
@@ -0,0 +1,154 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loopback stand-in for the streaming Chat Completions endpoint. Each request is answered by the next queued
+ * {@link Reply}: either an error status or the given content split into {@code delta} chunks sent as server-sent
+ * events, optionally holding the stream at one point until the test releases it.
+ */
+final class MockOpenAiSseServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+
+    private MockOpenAiSseServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+    }
+
+    static MockOpenAiSseServer start() throws IOException {
+        return new MockOpenAiSseServer();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/v1";
+    }
+
+    MockOpenAiSseServer enqueue(Reply reply) {
+        replies.add(reply);
+        return this;
+    }
+
+    List<String> requestBodies() {
+        return requestBodies;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        Reply reply = replies.poll();
+        if (reply == null || reply.status != 200) {
+            byte[] body = (reply == null ? "{\"error\":\"no reply queued\"}" : reply.errorBody)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(reply == null ? 500 : reply.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            send(out, ": keep-alive");
+            int sent = 0;
+            for (int i = 0; i < reply.content.length(); i += reply.chunkSize) {
+                String delta = reply.content.substring(i, Math.min(reply.content.length(), i + reply.chunkSize));
+                ObjectNode chunk = MAPPER.createObjectNode();
+                chunk.putArray("choices").addObject().putObject("delta").put("content", delta);
+                send(out, "data: " + MAPPER.writeValueAsString(chunk));
+                int before = sent;
+                sent += delta.length();
+                if (reply.holdAfterChars > before && reply.holdAfterChars <= sent) {
+                    reply.heldUntilReleased = awaitQuietly(reply.release);
+                }
+            }
+            send(out, "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":40,\"completion_tokens\":12,"
+                    + "\"prompt_tokens_details\":{\"cached_tokens\":32}}}");
+            if (!reply.truncated) {
+                send(out, "data: [DONE]");
+            }
+        }
+    }
+
+    private static void send(OutputStream out, String line) throws IOException {
+        out.write((line + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    static final class Reply {
+        private final int status;
+        private final String errorBody;
+        private final String content;
+        private final int chunkSize;
+        private int holdAfterChars = -1;
+        private CountDownLatch release;
+        private boolean truncated;
+        private volatile boolean heldUntilReleased;
+
+        private Reply(int status, String errorBody, String content, int chunkSize) {
+            this.status = status;
+            this.errorBody = errorBody;
+            this.content = content;
+            this.chunkSize = chunkSize;
+        }
+
+        static Reply stream(String content, int chunkSize) {
+            return new Reply(200, null, content, chunkSize);
+        }
+
+        static Reply error(int status, String body) {
+            return new Reply(status, body, "", 1);
+        }
+
+        /** Stops sending once {@code chars} characters of content are out, until {@code latch} opens (max 5 s). */
+        Reply holdAfter(int chars, CountDownLatch latch) {
+            this.holdAfterChars = chars;
+            this.release = latch;
+            return this;
+        }
+
+        /** Closes the stream without the {@code [DONE]} sentinel. */
+        Reply withoutDone() {
+            this.truncated = true;
+            return this;
+        }
+
+        /** True when a hold was released by the test rather than by the 5 s timeout. */
+        boolean heldUntilReleased() {
+            return heldUntilReleased;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.config.ResilienceProperties;
+import com.healthapp.service.resilience.DependencyGuard;
+import com.healthapp.service.resilience.DependencyGuards;
+import com.healthapp.service.resilience.DependencyUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAiChatClientStreamingTest {
+
+    private static final String CONTENT = """
+            {"compositeMeals":[{"displayName":"Chicken rice bowl","ingredients":[{"name":"white rice",\
+            "estimatedGrams":150,"fdcSearchTerm":"rice white cooked"},{"name":"chicken breast","estimatedGrams":120,\
+            "fdcSearchTerm":"chicken breast roasted"}]}],"foodItems":[{"foodName":"banana","note":"Stated: \\"one\\" {ripe}"},\
+            {"foodName":"greek yogurt"}]}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenAiModelProperties properties = new OpenAiModelProperties();
+    private final List<String> elements = new CopyOnWriteArrayList<>();
+    private MockOpenAiSseServer server;
+    private OpenAiChatClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = MockOpenAiSseServer.start();
+        properties.getApi().setKey("sk-test");
+        properties.getHttp().setBaseUrl(server.baseUrl());
+        properties.getModel().getVoice().setMaxRetries(1);
+        client = new OpenAiChatClient(properties, objectMapper, new OpenAiHttpTransport(properties),
+                new DependencyGuards(new ResilienceProperties()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void streamStructuredCompletion_returnsFullContentAndReportsEachElement() throws Exception {
+        server.enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 7));
+
+        String content = stream((array, node) -> elements.add(array + ":" + name(node)));
+
+        assertEquals(CONTENT, content);
+        assertEquals(List.of("compositeMeals:Chicken rice bowl", "foodItems:banana", "foodItems:greek yogurt"),
+                elements);
+        JsonNode request = objectMapper.readTree(server.requestBodies().get(0));
+        assertTrue(request.path("stream").asBoolean());
+        assertTrue(request.path("stream_options").path("include_usage").asBoolean());
+        assertEquals("json_schema", request.path("response_format").path("type").asText());
+    }
+
+    @Test
+    void streamStructuredCompletion_keepsSystemPromptFirstAndContextLast() throws Exception {
+        server.enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 64));
+
+        stream((array, node) -> { });
+
+        JsonNode messages = objectMapper.readTree(server.requestBodies().get(0)).path("messages");
+        assertEquals(3, messages.size());
+        assertEquals("system", messages.get(0).path("content").asText());
+        assertEquals("user", messages.get(1).path("role").asText());
+        assertEquals("system", messages.get(2).path("role").asText());
+        assertTrue(messages.get(2).path("content").asText().startsWith("CURRENT DATE AND TIME"));
+        assertEquals(40, client.promptTokenCount());
+        assertEquals(32, client.cachedPromptTokenCount());
+    }
+
+    @Test
+    void streamStructuredCompletion_deliversElementsBeforeTheAnswerIsComplete() {
+        CountDownLatch firstItemSeen = new CountDownLatch(1);
+        int endOfFirstFoodItem = CONTENT.indexOf("{ripe}\"}") + "{ripe}\"}".length();
+        MockOpenAiSseServer.Reply reply = MockOpenAiSseServer.Reply.stream(CONTENT, 5)
+                .holdAfter(endOfFirstFoodItem, firstItemSeen);
+        server.enqueue(reply);
+
+        stream((array, node) -> {
+            elements.add(name(node));
+            if ("banana".equals(name(node))) {
+                firstItemSeen.countDown();
+            }
+        });
+
+        assertTrue(reply.heldUntilReleased(), "server should still be holding the stream when banana is reported");
+        assertEquals(3, elements.size());
+    }
+
+    @Test
+    void streamStructuredCompletion_retriesRateLimitWithAFreshParse() {
+        server.enqueue(MockOpenAiSseServer.Reply.error(429, "{\"error\":{\"message\":\"Rate limit reached\"}}"))
+                .enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 11));
+
+        String content = stream((array, node) -> elements.add(name(node)));
+
+        assertEquals(CONTENT, content);
+        assertEquals(2, server.requestBodies().size());
+        assertEquals(3, elements.size());
+    }
+
+    @Test
+    void streamStructuredCompletion_acceptsStreamClosedWithoutDoneSentinel() {
+        server.enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 64).withoutDone());
+
+        assertEquals(CONTENT, stream((array, node) -> elements.add(name(node))));
+        assertEquals(3, elements.size());
+    }
+
+    @Test
+    void streamStructuredCompletion_deadlineCoversPausesMidStream() {
+        properties.getModel().getVoice().setMaxRetries(0);
+        properties.getHttp().setDeadlineMs(300);
+        CountDownLatch never = new CountDownLatch(1);
+        server.enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 20).holdAfter(40, never));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> stream((array, node) -> { }));
+        assertTrue(e.getMessage().contains("deadline"), e.getMessage());
+        never.countDown();
+    }
+
+    @Test
+    void streamStructuredCompletion_failsOnEmptyContent() {
+        properties.getModel().getVoice().setMaxRetries(0);
+        server.enqueue(MockOpenAiSseServer.Reply.stream("", 1));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> stream((array, node) -> { }));
+        assertTrue(e.getMessage().contains("empty content"), e.getMessage());
+    }
+
+    @Test
+    void streamStructuredCompletion_failsFastWithoutCallingOpenAiWhileTheCircuitIsOpen() {
+        properties.getModel().getVoice().setMaxRetries(0);
+        ResilienceProperties.Dependency settings = new ResilienceProperties.Dependency();
+        settings.setWindowSize(2);
+        settings.setMinimumCalls(2);
+        settings.setFailureRateThreshold(100);
+        DependencyGuard guard = new DependencyGuard(DependencyGuards.OPENAI, settings);
+        client = new OpenAiChatClient(properties, objectMapper, new OpenAiHttpTransport(properties), guard);
+        server.enqueue(MockOpenAiSseServer.Reply.error(400, "{\"error\":{\"message\":\"bad schema\"}}"))
+                .enqueue(MockOpenAiSseServer.Reply.error(500, "{}"))
+                .enqueue(MockOpenAiSseServer.Reply.error(503, "{}"))
+                .enqueue(MockOpenAiSseServer.Reply.stream(CONTENT, 64));
+
+        assertThrows(RuntimeException.class, () -> stream((array, node) -> { }));
+        assertThrows(RuntimeException.class, () -> stream((array, node) -> { }));
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState(), "a 400 is the request's fault, not OpenAI's");
+        assertThrows(RuntimeException.class, () -> stream((array, node) -> { }));
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+
+        DependencyUnavailableException rejected = assertThrows(DependencyUnavailableException.class,
+                () -> stream((array, node) -> { }));
+        assertEquals(DependencyUnavailableException.Reason.CIRCUIT_OPEN, rejected.getReason());
+        assertEquals(3, server.requestBodies().size());
+        assertEquals(1, guard.rejectedOpenCount());
+    }
+
+    private String stream(BiConsumer<String, JsonNode> onElement) {
+        return client.streamStructuredCompletion("gpt-4.1-mini", "system", "chicken rice bowl, banana and yogurt",
+                "CURRENT DATE AND TIME: 2026-05-04T08:15", objectMapper.createObjectNode().put("type", "object"), "food_voice_parse", 500,
+                Set.of("compositeMeals", "foodItems"), onElement);
+    }
+
+    private static String name(JsonNode node) {
+        return node.has("displayName") ? node.get("displayName").asText() : node.path("foodName").asText();
+    }
+}
@@ -0,0 +1,131 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.OpenAiModelProperties;
+import com.healthapp.config.ResilienceProperties;
+import com.healthapp.service.resilience.DependencyGuards;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAiHttpTransportTest {
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final OpenAiModelProperties properties = new OpenAiModelProperties();
+    private OpenAiHttpTransport transport;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(exchange.getRequestHeaders().getFirst("Authorization") + " " + body);
+            if (body.contains("slow")) {
+                sleep(400);
+            }
+            if (body.contains("limited")) {
+                respond(exchange, 429, "{\"error\":{\"message\":\"Rate limit reached\"}}");
+                return;
+            }
+            respond(exchange, 200, """
+                    {"choices":[{"message":{"content":"{\\"ok\\":true}"}}],
+                     "usage":{"prompt_tokens":12,"completion_tokens":3}}
+                    """);
+        });
+        server.start();
+        properties.getApi().setKey("sk-test");
+        properties.getHttp().setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/v1");
+        transport = new OpenAiHttpTransport(properties);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void postJson_sendsBearerKeyAndReturnsBody() {
+        String body = transport.postJson("/chat/completions", "gpt-4.1-mini", "{\"model\":\"gpt-4.1-mini\"}", "sk-test");
+
+        assertTrue(body.contains("choices"));
+        assertEquals("Bearer sk-test {\"model\":\"gpt-4.1-mini\"}", requests.get(0));
+        assertEquals(1, transport.succeededCount());
+        assertEquals(0, transport.inFlightCount());
+        assertEquals(1, transport.peakInFlightCount());
+    }
+
+    @Test
+    void postJson_reportsStatusSoCallersCanBackOff() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> transport.postJson("/chat/completions", "gpt-4.1-mini", "{\"limited\":true}", "sk-test"));
+
+        assertTrue(e.getMessage().contains("429"), e.getMessage());
+        assertEquals(1, transport.failedCount());
+    }
+
+    @Test
+    void postJson_appliesPerModelTimeouts() {
+        properties.getHttp().setReadTimeoutMs(5000);
+        OpenAiModelProperties.Route fast = new OpenAiModelProperties.Route();
+        fast.setReadTimeoutMs(100L);
+        properties.getHttp().getRoutes().put("gpt-4.1-nano", fast);
+
+        assertThrows(RuntimeException.class,
+                () -> transport.postJson("/chat/completions", "gpt-4.1-nano", "{\"slow\":true}", "sk-test"));
+        assertEquals(1, transport.timedOutCount());
+
+        assertTrue(transport.postJson("/chat/completions", "gpt-4.1-mini", "{\"slow\":true}", "sk-test")
+                .contains("choices"));
+    }
+
+    @Test
+    void postJson_enforcesDeadline() {
+        properties.getHttp().setDeadlineMs(100);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> transport.postJson("/chat/completions", "gpt-4.1-mini", "{\"slow\":true}", "sk-test"));
+
+        assertTrue(e.getMessage().contains("deadline"), e.getMessage());
+        assertEquals(1, transport.timedOutCount());
+        assertEquals(0, transport.inFlightCount());
+    }
+
+    @Test
+    void chatClient_readsContentThroughTransport() {
+        OpenAiChatClient client = new OpenAiChatClient(properties, new ObjectMapper(), transport,
+                new DependencyGuards(new ResilienceProperties()));
+
+        assertEquals("{\"ok\":true}", client.createJsonCompletion("gpt-4.1-mini", "system", "two eggs", 100));
+        assertTrue(requests.get(0).contains("\"json_object\""));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -28,7 +28,7 @@ class PortionSanityCorrectorTest {
         composite.getIngredients().add(peanut);
         dataList.addCompositeMeal(composite);
 
-        corrector.apply(dataList);
+        assertEquals(2, corrector.apply(dataList));
 
         assertEquals(32.0, peanut.getEstimatedGrams(), 0.1);
         assertEquals(10.0, butter.getEstimatedGrams(), 0.1);
@@ -44,7 +44,7 @@ class PortionSanityCorrectorTest {
         item.setUserSpecifiedGrams(true);
         dataList.addFoodItem(item);
 
-        corrector.apply(dataList);
+        assertEquals(0, corrector.apply(dataList));
 
         assertEquals(5.0, item.getEstimatedGrams(), 0.1);
     }
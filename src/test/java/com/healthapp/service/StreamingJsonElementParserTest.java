@@ -0,0 +1,103 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingJsonElementParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> seen = new ArrayList<>();
+
+    private StreamingJsonElementParser parser() {
+        return new StreamingJsonElementParser(objectMapper, Set.of("compositeMeals", "foodItems"),
+                (array, node) -> seen.add(array + ":" + node.toString()));
+    }
+
+    @Test
+    void emitsEachElementAsSoonAsItCloses_evenWhenFedOneCharAtATime() {
+        String json = """
+                {"compositeMeals":[],"foodItems":[{"foodName":"egg","unit":"large"},{"foodName":"toast"}]}""";
+        StreamingJsonElementParser parser = parser();
+        int firstClose = json.indexOf('}') + 1;
+
+        for (int i = 0; i < json.length(); i++) {
+            parser.feed(String.valueOf(json.charAt(i)));
+            if (i + 1 == firstClose) {
+                assertEquals(List.of("foodItems:{\"foodName\":\"egg\",\"unit\":\"large\"}"), seen);
+            }
+        }
+
+        assertEquals(2, seen.size());
+        assertEquals("foodItems:{\"foodName\":\"toast\"}", seen.get(1));
+        assertEquals(2, parser.emittedCount());
+    }
+
+    @Test
+    void keepsBracesAndEscapesInsideStrings() {
+        StreamingJsonElementParser parser = parser();
+        parser.feed("{\"foodItems\":[{\"foodName\":\"pie {apple}\",\"note\":\"said \\\"");
+        assertTrue(seen.isEmpty());
+        parser.feed("big\\\" slice ]\"},");
+        assertEquals(1, seen.size());
+        JsonNode node = readSeen(0);
+        assertEquals("pie {apple}", node.get("foodName").asText());
+        assertEquals("said \"big\" slice ]", node.get("note").asText());
+    }
+
+    @Test
+    void ignoresNestedArraysWithTheSameNameAndOtherTopLevelFields() {
+        parser().feed("""
+                {"meta":{"foodItems":[{"foodName":"decoy"}]},"compositeMeals":[{"displayName":"bowl",\
+                "ingredients":[{"name":"rice"},{"name":"beans"}]}],"foodItems":[]}""");
+
+        assertEquals(1, seen.size());
+        assertEquals(2, readSeen(0).get("ingredients").size());
+    }
+
+    @Test
+    void skipsMarkdownFenceBeforeTheObject() {
+        StreamingJsonElementParser parser = parser();
+        parser.feed("```json\n{\"foodItems\":[{\"foodName\":\"kiwi\"}]}\n```");
+
+        assertEquals(1, parser.emittedCount());
+    }
+
+    @Test
+    void stopsQuietlyOnMalformedInput() {
+        StreamingJsonElementParser parser = parser();
+        parser.feed("{\"foodItems\":[{\"foodName\":\"kiwi\"},{\"foodName\": oops}]}");
+
+        assertEquals(1, parser.emittedCount());
+        parser.feed("{\"foodItems\":[{\"foodName\":\"later\"}]}");
+        assertEquals(1, parser.emittedCount());
+    }
+
+    @Test
+    void listenerFailureDoesNotStopExtraction() {
+        List<String> names = new ArrayList<>();
+        StreamingJsonElementParser parser = new StreamingJsonElementParser(objectMapper, Set.of("foodItems"),
+                (array, node) -> {
+                    names.add(node.get("foodName").asText());
+                    throw new IllegalStateException("boom");
+                });
+
+        parser.feed("{\"foodItems\":[{\"foodName\":\"a\"},{\"foodName\":\"b\"}]}");
+
+        assertEquals(List.of("a", "b"), names);
+    }
+
+    private JsonNode readSeen(int index) {
+        try {
+            return objectMapper.readTree(seen.get(index).substring(seen.get(index).indexOf(':') + 1));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
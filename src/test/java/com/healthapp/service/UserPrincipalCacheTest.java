@@ -0,0 +1,56 @@
+package com.healthapp.service;
+
+import com.healthapp.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserPrincipalCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void returnsCachedStatusUntilTtlElapses() {
+        UserPrincipalCache cache = new UserPrincipalCache(60, 100, now::get);
+        cache.put(1L, User.AccountStatus.ACTIVE);
+
+        now.addAndGet(59_000_000_000L);
+        assertEquals(Optional.of(User.AccountStatus.ACTIVE), cache.getStatus(1L));
+
+        now.addAndGet(1_000_000_000L);
+        assertTrue(cache.getStatus(1L).isEmpty());
+    }
+
+    @Test
+    void invalidateDropsEntry() {
+        UserPrincipalCache cache = new UserPrincipalCache(60, 100, now::get);
+        cache.put(1L, User.AccountStatus.ACTIVE);
+
+        cache.invalidate(1L);
+
+        assertTrue(cache.getStatus(1L).isEmpty());
+    }
+
+    @Test
+    void neverExceedsMaxEntries() {
+        UserPrincipalCache cache = new UserPrincipalCache(60, 3, now::get);
+        for (long id = 1; id <= 10; id++) {
+            cache.put(id, User.AccountStatus.ACTIVE);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(Optional.of(User.AccountStatus.ACTIVE), cache.getStatus(10L));
+    }
+
+    @Test
+    void zeroTtlDisablesCaching() {
+        UserPrincipalCache cache = new UserPrincipalCache(0, 100, now::get);
+        cache.put(1L, User.AccountStatus.ACTIVE);
+
+        assertTrue(cache.getStatus(1L).isEmpty());
+    }
+}
@@ -29,6 +29,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -82,6 +85,7 @@ class UserServiceTest {
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
         verify(userRepository).save(captor.capture());
         assertEquals(User.AccountStatus.DELETED, captor.getValue().getAccountStatus());
+        verify(userPrincipalCache).invalidate(22L);
     }
 
     @Test
@@ -0,0 +1,271 @@
+package com.healthapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.AiFoodProperties;
+import com.healthapp.dto.VoiceFoodLogJobResponse;
+import com.healthapp.dto.VoiceFoodLogRequest;
+import com.healthapp.dto.VoiceFoodLogResponse;
+import com.healthapp.entity.VoiceFoodLogJob;
+import com.healthapp.exception.VoiceFoodLogException;
+import com.healthapp.repository.VoiceFoodLogJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VoiceFoodLogJobServiceTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private VoiceFoodLogService voiceFoodLogService;
+    @Mock
+    private VoiceFoodLogJobRepository jobRepository;
+    @Mock
+    private ThreadPoolExecutor executor;
+
+    private final Map<String, VoiceFoodLogJob> jobs = new HashMap<>();
+    private final AiFoodProperties properties = new AiFoodProperties();
+    private VoiceFoodLogJobService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jobRepository.save(any(VoiceFoodLogJob.class))).thenAnswer(inv -> {
+            VoiceFoodLogJob job = inv.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.transition(anyString(), any(), any(), any())).thenAnswer(inv -> {
+            VoiceFoodLogJob job = jobs.get(inv.<String>getArgument(0));
+            if (job == null || job.getStatus() != inv.getArgument(1)) {
+                return 0;
+            }
+            job.setStatus(inv.getArgument(2));
+            return 1;
+        });
+        lenient().when(jobRepository.complete(anyString(), any(), any(), any(), any(), anyInt(), any(), any(), any()))
+                .thenAnswer(inv -> {
+                    VoiceFoodLogJob job = jobs.get(inv.<String>getArgument(0));
+                    boolean running = job != null && job.getStatus() == inv.getArgument(1);
+                    boolean lost = job != null && job.getStatus() == inv.getArgument(2)
+                            && inv.getArgument(3).equals(job.getErrorCode());
+                    if (!running && !lost) {
+                        return 0;
+                    }
+                    job.setStatus(inv.getArgument(4));
+                    job.setHttpStatus(inv.getArgument(5));
+                    job.setErrorCode(inv.getArgument(6));
+                    job.setResultJson(inv.getArgument(7));
+                    job.setCompletedAt(inv.getArgument(8));
+                    return 1;
+                });
+        lenient().when(jobRepository.findByIdAndUserId(anyString(), any())).thenAnswer(inv -> {
+            VoiceFoodLogJob job = jobs.get(inv.<String>getArgument(0));
+            return job != null && job.getUserId().equals(inv.getArgument(1)) ? Optional.of(job) : Optional.empty();
+        });
+        service = new VoiceFoodLogJobService(properties, voiceFoodLogService, jobRepository, new ObjectMapper(),
+                executor);
+    }
+
+    @Test
+    void submit_queuesJobAndWorkerStoresTheSynchronousResponse() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "2 boiled eggs");
+        VoiceFoodLogResponse logged = new VoiceFoodLogResponse("Logged 1 item", List.of(
+                new VoiceFoodLogResponse.LoggedFoodItem("Boiled eggs", 2.0, "snack", false,
+                        155.0, 13.0, 1.1, 11.0, 0.0, "2026-05-04T08:15:00")));
+        when(voiceFoodLogService.processVoiceFoodLog(eq(request), eq(USER_ID), any())).thenReturn(logged);
+
+        VoiceFoodLogJobResponse queued = service.submit(request, USER_ID);
+
+        assertEquals("QUEUED", queued.getStatus());
+        assertNull(queued.getResult());
+        runSubmittedWorker();
+
+        VoiceFoodLogJobResponse done = service.find(queued.getJobId(), USER_ID).orElseThrow();
+        assertEquals("SUCCEEDED", done.getStatus());
+        assertEquals(201, done.getHttpStatus());
+        assertEquals("Logged 1 item", done.getResult().getMessage());
+        assertEquals("Boiled eggs", done.getResult().getLogs().get(0).getFood());
+        assertNotNull(done.getCompletedAt());
+        assertEquals(1, service.submittedCount());
+    }
+
+    @Test
+    void worker_processesTheRequestAsOfSubmission() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "2 boiled eggs for breakfast");
+        String jobId = service.submit(request, USER_ID).getJobId();
+        LocalDateTime requestedAt = jobs.get(jobId).getRequestedAt();
+        assertNotNull(requestedAt);
+        when(voiceFoodLogService.processVoiceFoodLog(request, USER_ID, requestedAt))
+                .thenReturn(new VoiceFoodLogResponse("Logged 1 item", List.of()));
+
+        runSubmittedWorker();
+
+        assertEquals("SUCCEEDED", service.find(jobId, USER_ID).orElseThrow().getStatus());
+    }
+
+    @Test
+    void worker_mapsFailuresLikeTheSynchronousEndpoint() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "something");
+        when(voiceFoodLogService.processVoiceFoodLog(eq(request), eq(USER_ID), any()))
+                .thenThrow(new VoiceFoodLogException("NO_FOOD_PARSED", "We could not find any food.",
+                        HttpStatus.UNPROCESSABLE_ENTITY))
+                .thenThrow(new IllegalStateException("boom"));
+
+        String first = service.submit(request, USER_ID).getJobId();
+        runSubmittedWorker();
+        String second = service.submit(request, USER_ID).getJobId();
+        runSubmittedWorker();
+
+        VoiceFoodLogJobResponse parseFailure = service.find(first, USER_ID).orElseThrow();
+        assertEquals("FAILED", parseFailure.getStatus());
+        assertEquals(422, parseFailure.getHttpStatus());
+        assertEquals("NO_FOOD_PARSED", parseFailure.getResult().getErrorCode());
+        assertEquals("We could not find any food.", parseFailure.getResult().getMessage());
+
+        VoiceFoodLogJobResponse unexpected = service.find(second, USER_ID).orElseThrow();
+        assertEquals(500, unexpected.getHttpStatus());
+        assertEquals("INTERNAL_ERROR", unexpected.getResult().getErrorCode());
+    }
+
+    @Test
+    void submit_fullQueueRejectsWith503AndDropsTheJob() {
+        doThrow(new RejectedExecutionException("full")).when(executor).execute(any(Runnable.class));
+
+        VoiceFoodLogException e = assertThrows(VoiceFoodLogException.class,
+                () -> service.submit(new VoiceFoodLogRequest(USER_ID, "2 boiled eggs"), USER_ID));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getHttpStatus());
+        assertEquals(VoiceFoodLogJobService.QUEUE_FULL, e.getErrorCode());
+        verify(jobRepository).deleteById(anyString());
+        assertEquals(1, service.rejectedCount());
+        assertEquals(0, service.submittedCount());
+    }
+
+    @Test
+    void submitAndFind_areLimitedToTheAuthenticatedUser() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(new VoiceFoodLogRequest(99L, "2 boiled eggs"), USER_ID));
+        verify(jobRepository, never()).save(any());
+
+        String jobId = service.submit(new VoiceFoodLogRequest(USER_ID, "2 boiled eggs"), USER_ID).getJobId();
+
+        assertTrue(service.find(jobId, USER_ID).isPresent());
+        assertTrue(service.find(jobId, 99L).isEmpty());
+    }
+
+    @Test
+    void worker_finishingAfterTheSweepFailedItReplacesTheFailureWithItsResult() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "2 boiled eggs");
+        String jobId = service.submit(request, USER_ID).getJobId();
+        when(jobRepository.failStale(any(), any(), any(), anyString(), anyInt(), any())).thenAnswer(inv -> {
+            Collection<VoiceFoodLogJob.Status> unfinished = inv.getArgument(0);
+            int failedCount = 0;
+            for (VoiceFoodLogJob job : jobs.values()) {
+                if (unfinished.contains(job.getStatus())) {
+                    job.setStatus(inv.getArgument(2));
+                    job.setErrorCode(inv.getArgument(3));
+                    job.setHttpStatus(inv.getArgument(4));
+                    failedCount++;
+                }
+            }
+            return failedCount;
+        });
+        when(voiceFoodLogService.processVoiceFoodLog(eq(request), eq(USER_ID), any())).thenAnswer(inv -> {
+            // The pipeline outlives the stale bound: the sweep fails the job before the logs are committed
+            service.sweep(LocalDateTime.now().plusHours(1));
+            assertEquals("FAILED", service.find(jobId, USER_ID).orElseThrow().getStatus());
+            return new VoiceFoodLogResponse("Logged 1 item", List.of());
+        });
+
+        runSubmittedWorker();
+
+        VoiceFoodLogJobResponse job = service.find(jobId, USER_ID).orElseThrow();
+        assertEquals("SUCCEEDED", job.getStatus());
+        assertEquals(201, job.getHttpStatus());
+        assertEquals("Logged 1 item", job.getResult().getMessage());
+    }
+
+    @Test
+    void worker_doesNotOverwriteAJobThatFinishedAnotherWay() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "2 boiled eggs");
+        String jobId = service.submit(request, USER_ID).getJobId();
+        when(voiceFoodLogService.processVoiceFoodLog(eq(request), eq(USER_ID), any())).thenAnswer(inv -> {
+            VoiceFoodLogJob job = jobs.get(jobId);
+            job.setStatus(VoiceFoodLogJob.Status.FAILED);
+            job.setErrorCode("INTERNAL_ERROR");
+            return new VoiceFoodLogResponse("Logged 1 item", List.of());
+        });
+
+        runSubmittedWorker();
+
+        assertEquals("FAILED", service.find(jobId, USER_ID).orElseThrow().getStatus());
+    }
+
+    @Test
+    void worker_skipsJobsThatAreNoLongerQueued() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(USER_ID, "2 boiled eggs");
+        String jobId = service.submit(request, USER_ID).getJobId();
+        jobs.get(jobId).setStatus(VoiceFoodLogJob.Status.FAILED);
+
+        runSubmittedWorker();
+
+        verify(voiceFoodLogService, never()).processVoiceFoodLog(any(), any(), any());
+    }
+
+    @Test
+    void sweep_failsStaleJobsAndPurgesOldOnes() {
+        LocalDateTime now = LocalDateTime.of(2026, 5, 4, 12, 0);
+        when(jobRepository.failStale(any(), any(), any(), anyString(), eq(503), eq(now))).thenReturn(2);
+
+        service.sweep(now);
+
+        verify(jobRepository).failStale(eq(EnumSet.of(VoiceFoodLogJob.Status.RUNNING)), eq(now.minusMinutes(10)),
+                eq(VoiceFoodLogJob.Status.FAILED), eq(VoiceFoodLogJobService.JOB_LOST), eq(503), eq(now));
+        verify(jobRepository).deleteCompletedBefore(now.minusHours(properties.getAsync().getRetentionHours()));
+    }
+
+    @Test
+    void sweep_givesQueuedJobsTimeForAFullQueueToDrain() {
+        LocalDateTime now = LocalDateTime.of(2026, 5, 4, 12, 0);
+
+        service.sweep(now);
+
+        // 100 queued jobs over 8 workers: 13 rounds of up to 10 minutes each
+        assertEquals(130, service.queuedStaleAfterMinutes());
+        verify(jobRepository).failStale(eq(EnumSet.of(VoiceFoodLogJob.Status.QUEUED)), eq(now.minusMinutes(130)),
+                eq(VoiceFoodLogJob.Status.FAILED), eq(VoiceFoodLogJobService.JOB_LOST), eq(503), eq(now));
+    }
+
+    private void runSubmittedWorker() {
+        ArgumentCaptor<Runnable> worker = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, atLeastOnce()).execute(worker.capture());
+        worker.getValue().run();
+    }
+}
@@ -1,6 +1,7 @@
 package com.healthapp.service;
 
 import com.healthapp.config.AiFoodProperties;
+import com.healthapp.dto.FoodLogCreateRequest;
 import com.healthapp.dto.FoodLogCreateResponse;
 import com.healthapp.dto.VoiceFoodLogRequest;
 import com.healthapp.dto.VoiceFoodLogResponse;
@@ -9,20 +10,36 @@ import com.healthapp.entity.User;
 import com.healthapp.exception.VoiceFoodLogException;
 import com.healthapp.repository.FoodItemRepository;
 import com.healthapp.repository.UserRepository;
+import com.healthapp.service.resilience.DependencyUnavailableException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,6 +67,11 @@ class VoiceFoodLogServiceTest {
     @InjectMocks
     private VoiceFoodLogService voiceFoodLogService;
 
+    @AfterEach
+    void tearDown() {
+        voiceFoodLogService.shutdownNutritionExecutor();
+    }
+
     @Test
     void processVoiceFoodLog_throwsWhenUserMismatch() {
         VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "eggs and toast");
@@ -64,7 +86,7 @@ class VoiceFoodLogServiceTest {
     void processVoiceFoodLog_throwsWhenNothingParsed() {
         VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "something");
         when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
-        when(aiFoodVoiceParsingService.parseVoiceText("something"))
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("something"), any()))
                 .thenReturn(new AiFoodVoiceParsingService.ParsedFoodDataList());
 
         VoiceFoodLogException ex = assertThrows(VoiceFoodLogException.class,
@@ -73,6 +95,21 @@ class VoiceFoodLogServiceTest {
         assertEquals("NO_FOOD_PARSED", ex.getErrorCode());
     }
 
+    @Test
+    void processVoiceFoodLog_openAiCircuitOpenAnswers503InsteadOfParseFailure() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "2 eggs");
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("2 eggs"), any())).thenThrow(new RuntimeException(
+                "Failed to parse food voice input",
+                new DependencyUnavailableException("openai", DependencyUnavailableException.Reason.CIRCUIT_OPEN)));
+
+        VoiceFoodLogException ex = assertThrows(VoiceFoodLogException.class,
+                () -> voiceFoodLogService.processVoiceFoodLog(request, 10L));
+
+        assertEquals("AI_SERVICE_UNAVAILABLE", ex.getErrorCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getHttpStatus());
+    }
+
     @Test
     void processVoiceFoodLog_createsLogFromParsedItem() {
         VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "2 eggs");
@@ -105,10 +142,10 @@ class VoiceFoodLogServiceTest {
         when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
         when(aiFoodProperties.isShowConfidence()).thenReturn(false);
         when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
-        when(aiFoodVoiceParsingService.parseVoiceText("2 eggs")).thenReturn(parsedList);
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("2 eggs"), any())).thenReturn(parsedList);
         when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
                 .thenReturn(Optional.of(foodItem));
-        when(foodLogService.createFoodLog(any(), eq(10L))).thenReturn(response);
+        when(foodLogService.createFoodLogs(any(), eq(10L))).thenReturn(List.of(response));
 
         VoiceFoodLogResponse result = voiceFoodLogService.processVoiceFoodLog(request, 10L);
 
@@ -116,4 +153,243 @@ class VoiceFoodLogServiceTest {
         assertEquals("Food log created from voice input", result.getMessage());
         assertEquals("eggs", result.getLogs().get(0).getFood());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processVoiceFoodLog_logsItemsWithoutATimeAtTheRequestTime() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "2 eggs");
+        LocalDateTime requestTime = LocalDateTime.now().minusMinutes(25);
+
+        AiFoodVoiceParsingService.ParsedFoodData parsed = new AiFoodVoiceParsingService.ParsedFoodData();
+        parsed.setFoodName("Eggs");
+        parsed.setQuantity(2.0);
+        parsed.setUnit("pieces");
+        parsed.setMealType("breakfast");
+        parsed.setEstimatedGrams(100.0);
+        AiFoodVoiceParsingService.ParsedFoodDataList parsedList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        parsedList.addFoodItem(parsed);
+
+        FoodItem foodItem = new FoodItem();
+        foodItem.setId(5L);
+        foodItem.setName("eggs");
+        foodItem.setCreatedBy(10L);
+        foodItem.setCaloriesPerUnit(155);
+        foodItem.setStatus(FoodItem.FoodStatus.ACTIVE);
+
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(aiFoodProperties.isShowConfidence()).thenReturn(false);
+        when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
+        when(aiFoodVoiceParsingService.parseVoiceText("2 eggs", requestTime)).thenReturn(parsedList);
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(
+                eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem));
+        ArgumentCaptor<List<FoodLogCreateRequest>> batch = ArgumentCaptor.forClass(List.class);
+        when(foodLogService.createFoodLogs(batch.capture(), eq(10L))).thenReturn(List.of(new FoodLogCreateResponse()));
+
+        voiceFoodLogService.processVoiceFoodLog(request, 10L, requestTime);
+
+        assertEquals(requestTime, batch.getValue().get(0).getLoggedAt());
+    }
+
+    @Test
+    void processVoiceFoodLog_savesAllItemsInOneBatchInParsedOrder() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "2 eggs and toast");
+        AiFoodVoiceParsingService.ParsedFoodDataList parsedList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        parsedList.addFoodItem(parsedItem("Eggs", "breakfast"));
+        parsedList.addFoodItem(parsedItem("Toast", "breakfast"));
+
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(aiFoodProperties.isShowConfidence()).thenReturn(false);
+        when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("2 eggs and toast"), any())).thenReturn(parsedList);
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(5L, "eggs")));
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("toast"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(6L, "toast")));
+        when(foodLogService.createFoodLogs(any(), eq(10L))).thenReturn(List.of(
+                new FoodLogCreateResponse(1L, 155.0, 13.0, 1.0, 11.0, 0.0, null),
+                new FoodLogCreateResponse(2L, 265.0, 9.0, 49.0, 3.0, 2.7, null)));
+
+        VoiceFoodLogResponse result = voiceFoodLogService.processVoiceFoodLog(request, 10L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FoodLogCreateRequest>> batch = ArgumentCaptor.forClass(List.class);
+        verify(foodLogService).createFoodLogs(batch.capture(), eq(10L));
+        verify(foodLogService, never()).createFoodLog(any(), any());
+        assertEquals(List.of(5L, 6L), batch.getValue().stream().map(FoodLogCreateRequest::getFoodItemId).toList());
+        assertEquals("Created 2 food logs from voice input", result.getMessage());
+        assertEquals("toast", result.getLogs().get(1).getFood());
+        assertEquals(265.0, result.getLogs().get(1).getCalories());
+    }
+
+    @Test
+    void processVoiceFoodLog_invalidMealTypeNamesTheItemAndSavesNothing() {
+        VoiceFoodLogRequest request = new VoiceFoodLogRequest(10L, "eggs for brunch");
+        AiFoodVoiceParsingService.ParsedFoodDataList parsedList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        parsedList.addFoodItem(parsedItem("Eggs", "brunch"));
+
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("eggs for brunch"), any())).thenReturn(parsedList);
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(5L, "eggs")));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> voiceFoodLogService.processVoiceFoodLog(request, 10L));
+
+        assertEquals("Could not log \"Eggs\": Invalid meal type: BRUNCH", ex.getMessage());
+        verify(foodLogService, never()).createFoodLogs(any(), any());
+    }
+
+    @Test
+    void processVoiceFoodLog_createsFoodItemsAndLogsInOneTransaction() {
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        AtomicBoolean rolledBack = new AtomicBoolean();
+        ReflectionTestUtils.setField(voiceFoodLogService, "transactionOperations", new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                inTransaction.set(true);
+                try {
+                    return action.doInTransaction(new SimpleTransactionStatus());
+                } catch (RuntimeException e) {
+                    rolledBack.set(true);
+                    throw e;
+                } finally {
+                    inTransaction.set(false);
+                }
+            }
+        });
+        AiFoodVoiceParsingService.ParsedFoodData toast = parsedItem("Toast", "breakfast");
+        AiFoodVoiceParsingService.NutritionData nutrition = new AiFoodVoiceParsingService.NutritionData();
+        nutrition.setCaloriesPer100g(265.0);
+        nutrition.setProteinPer100g(9.0);
+        nutrition.setCarbsPer100g(49.0);
+        nutrition.setFatPer100g(3.2);
+        nutrition.setFiberPer100g(2.7);
+        toast.setNutrition(nutrition);
+        AiFoodVoiceParsingService.ParsedFoodDataList parsedList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        parsedList.addFoodItem(parsedItem("Eggs", "breakfast"));
+        parsedList.addFoodItem(toast);
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("2 eggs and toast"), any())).thenReturn(parsedList);
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(5L, "eggs")));
+        when(foodItemService.saveNewFoodItem(any(), eq(10L))).thenAnswer(inv -> {
+            assertTrue(inTransaction.get(), "new food item created outside the transaction");
+            return foodItem(6L, "toast");
+        });
+        when(foodLogService.createFoodLogs(any(), eq(10L))).thenAnswer(inv -> {
+            assertTrue(inTransaction.get(), "food logs saved outside the transaction");
+            throw new IllegalStateException("batch insert failed");
+        });
+
+        VoiceFoodLogException ex = assertThrows(VoiceFoodLogException.class,
+                () -> voiceFoodLogService.processVoiceFoodLog(new VoiceFoodLogRequest(10L, "2 eggs and toast"), 10L));
+
+        assertEquals("FOOD_ITEM_SAVE_FAILED", ex.getErrorCode());
+        assertTrue(rolledBack.get(), "the new toast item is rolled back with the failed logs");
+    }
+
+    @Test
+    void processVoiceFoodLog_resolvesItemNutritionConcurrently() {
+        startParallelResolution(5000);
+        VoiceFoodLogRequest request = twoItemRequest();
+        CountDownLatch bothResolving = new CountDownLatch(2);
+        AtomicBoolean overlapped = new AtomicBoolean(true);
+        doAnswer(inv -> {
+            bothResolving.countDown();
+            if (!bothResolving.await(2, TimeUnit.SECONDS)) {
+                overlapped.set(false);
+            }
+            return null;
+        }).when(simpleFoodNutritionResolver).resolve(any());
+        when(aiFoodProperties.isShowConfidence()).thenReturn(false);
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("eggs"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(5L, "eggs")));
+        when(foodItemRepository.findByNameIgnoreCaseAndStatusAndCreatedBy(eq("toast"), eq(FoodItem.FoodStatus.ACTIVE), eq(10L)))
+                .thenReturn(Optional.of(foodItem(6L, "toast")));
+        when(foodLogService.createFoodLogs(any(), eq(10L))).thenReturn(List.of(
+                new FoodLogCreateResponse(1L, 155.0, 13.0, 1.0, 11.0, 0.0, null),
+                new FoodLogCreateResponse(2L, 265.0, 9.0, 49.0, 3.0, 2.7, null)));
+
+        VoiceFoodLogResponse result = voiceFoodLogService.processVoiceFoodLog(request, 10L);
+
+        assertTrue(overlapped.get());
+        assertEquals(List.of("eggs", "toast"), result.getLogs().stream().map(VoiceFoodLogResponse.LoggedFoodItem::getFood).toList());
+    }
+
+    @Test
+    void processVoiceFoodLog_firstFailingItemInSpokenOrderDecidesTheError() {
+        startParallelResolution(5000);
+        VoiceFoodLogRequest request = twoItemRequest();
+        doAnswer(inv -> {
+            AiFoodVoiceParsingService.ParsedFoodData parsed = inv.getArgument(0);
+            if ("Eggs".equals(parsed.getFoodName())) {
+                Thread.sleep(200);
+                throw new IllegalArgumentException("no nutrition found");
+            }
+            throw new IllegalStateException("USDA unavailable");
+        }).when(simpleFoodNutritionResolver).resolve(any());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> voiceFoodLogService.processVoiceFoodLog(request, 10L));
+
+        assertEquals("Could not log \"Eggs\": no nutrition found", ex.getMessage());
+        verify(foodLogService, never()).createFoodLogs(any(), any());
+    }
+
+    @Test
+    void processVoiceFoodLog_itemsNotResolvedByTheDeadlineFailWithTimeout() {
+        startParallelResolution(100);
+        VoiceFoodLogRequest request = twoItemRequest();
+        doAnswer(inv -> {
+            Thread.sleep(5000);
+            return null;
+        }).when(simpleFoodNutritionResolver).resolve(any());
+
+        VoiceFoodLogException ex = assertThrows(VoiceFoodLogException.class,
+                () -> voiceFoodLogService.processVoiceFoodLog(request, 10L));
+
+        assertEquals("NUTRITION_TIMEOUT", ex.getErrorCode());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, ex.getHttpStatus());
+        assertTrue(ex.getUserMessage().contains("\"Eggs\""));
+    }
+
+    private void startParallelResolution(long timeoutMs) {
+        when(aiFoodProperties.getNutritionParallelism()).thenReturn(4);
+        lenient().when(aiFoodProperties.getNutritionTimeoutMs()).thenReturn(timeoutMs);
+        voiceFoodLogService.startNutritionExecutor();
+    }
+
+    private VoiceFoodLogRequest twoItemRequest() {
+        AiFoodVoiceParsingService.ParsedFoodDataList parsedList = new AiFoodVoiceParsingService.ParsedFoodDataList();
+        parsedList.addFoodItem(parsedItem("Eggs", "breakfast"));
+        parsedList.addFoodItem(parsedItem("Toast", "breakfast"));
+        when(userRepository.findById(10L)).thenReturn(Optional.of(new User()));
+        when(portionGramEstimator.resolveEffectiveGrams(any(), any(), any(), any())).thenReturn(100.0);
+        when(aiFoodVoiceParsingService.parseVoiceText(eq("2 eggs and toast"), any())).thenReturn(parsedList);
+        return new VoiceFoodLogRequest(10L, "2 eggs and toast");
+    }
+
+    private static AiFoodVoiceParsingService.ParsedFoodData parsedItem(String name, String mealType) {
+        AiFoodVoiceParsingService.ParsedFoodData parsed = new AiFoodVoiceParsingService.ParsedFoodData();
+        parsed.setFoodName(name);
+        parsed.setQuantity(1.0);
+        parsed.setUnit("pieces");
+        parsed.setMealType(mealType);
+        parsed.setLoggedAt(LocalDateTime.now().minusMinutes(1));
+        parsed.setEstimatedGrams(100.0);
+        return parsed;
+    }
+
+    private static FoodItem foodItem(Long id, String name) {
+        FoodItem foodItem = new FoodItem();
+        foodItem.setId(id);
+        foodItem.setName(name);
+        foodItem.setCreatedBy(10L);
+        foodItem.setCaloriesPerUnit(155);
+        foodItem.setStatus(FoodItem.FoodStatus.ACTIVE);
+        return foodItem;
+    }
 }
@@ -0,0 +1,71 @@
+package com.healthapp.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeywordRuleSetTest {
+
+    private final KeywordRuleSet<String> rules = KeywordRuleSet.<String>builder()
+            .rule("peanut butter", "pb")
+            .rule("butter -peanut", "butter")
+            .rule("chicken + breast", "breast")
+            .rule("rolled oats | oat -milk -meal", "oats")
+            .rule(n -> n.equals("dal"), "dal")
+            .build();
+
+    @Test
+    void firstMatchingRuleWinsInDeclarationOrder() {
+        assertEquals("pb", rules.match("toast with peanut butter"));
+        assertEquals("butter", rules.match("butter"));
+        assertEquals(5, rules.ruleCount());
+    }
+
+    @Test
+    void requiredAndForbiddenKeywords() {
+        assertEquals("breast", rules.match("grilled breast of chicken"));
+        assertNull(rules.match("chicken thigh"));
+        assertEquals("oats", rules.match("overnight oats"));
+        assertNull(rules.match("oat milk"));
+        assertEquals("oats", rules.match("rolled oats with milk"));
+    }
+
+    @Test
+    void findsOverlappingKeywordsInOnePass() {
+        KeywordRuleSet<String> overlapping = KeywordRuleSet.<String>builder()
+                .rule("she + hers + he", "all")
+                .build();
+
+        assertEquals("all", overlapping.match("ushers"));
+        assertNull(overlapping.match("usher"));
+    }
+
+    @Test
+    void predicateRulesSeeRawInputAndDefaultsApply() {
+        assertEquals("dal", rules.match("dal"));
+        assertEquals("unknown", rules.match("dal makhani", "unknown"));
+        assertNull(rules.match(null));
+    }
+
+    @Test
+    void hyphensAndPlusesInsideAKeywordAreNotOperators() {
+        KeywordRuleSet<String> hyphenated = KeywordRuleSet.<String>builder()
+                .rule("stir-fry -tofu", "stir fry")
+                .rule("half-and-half | tofu + stir-fry", "other")
+                .build();
+
+        assertEquals("stir fry", hyphenated.match("chicken stir-fry"));
+        assertNull(hyphenated.match("stir fry"));
+        assertEquals("other", hyphenated.match("tofu stir-fry"));
+        assertEquals("other", hyphenated.match("coffee with half-and-half"));
+    }
+
+    @Test
+    void rejectsMalformedSpecs() {
+        KeywordRuleSet.Builder<String> builder = KeywordRuleSet.builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("-milk", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("oat | ", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("oat | -milk", "x"));
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("oat", null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.healthapp.service.matching;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenSetMatcherTest {
+
+    @Test
+    void sameTokensScoreExactRegardlessOfCaseAndPunctuation() {
+        assertEquals(TokenSetMatcher.EXACT, TokenSetMatcher.of("avocado raw").score("Avocado, raw"));
+    }
+
+    @Test
+    void queryAsContiguousRunScoresPhrase() {
+        assertEquals(TokenSetMatcher.PHRASE, TokenSetMatcher.of("peanut butter").score("Peanut butter, smooth style"));
+    }
+
+    @Test
+    void otherwiseScoresShareOfQueryTokensFound() {
+        TokenSetMatcher matcher = TokenSetMatcher.of("chicken rice bowl");
+
+        assertEquals(1.0 / 3, matcher.score("Rice, white, cooked"), 1e-9);
+        assertEquals(1.0, TokenSetMatcher.of("chicken breast cooked").score("Chicken, breast, roasted, cooked"), 1e-9);
+    }
+
+    @Test
+    void shortQueryTokensCountButNeverMatch() {
+        assertEquals(0.5, TokenSetMatcher.of("cup of rice tea").score("Tea, rice"), 1e-9);
+    }
+
+    @Test
+    void comparesWholeTokensAllowingPlurals() {
+        assertEquals(0, TokenSetMatcher.of("rice").score("Licorice candy"));
+        assertEquals(1.0, TokenSetMatcher.of("egg boiled").score("Eggs, whole, boiled"), 1e-9);
+        assertEquals(1.0, TokenSetMatcher.of("tomatoes apples").score("Tomato and apple salad"), 1e-9);
+    }
+
+    @Test
+    void repeatedQueryTokensAreCountedEachTime() {
+        assertEquals(2.0 / 3, TokenSetMatcher.of("nuts cashew nuts").score("Nuts, mixed"), 1e-9);
+    }
+
+    @Test
+    void emptyQueryNeverMatches() {
+        TokenSetMatcher matcher = TokenSetMatcher.of("  ");
+        assertTrue(matcher.isEmpty());
+        assertEquals(0, matcher.score(""));
+    }
+
+    @Test
+    void tokenizeSplitsOnNonAlphanumerics() {
+        assertEquals(List.of("bread", "whole", "wheat", "2"), TokenSetMatcher.tokenize("Bread, whole-wheat (2)"));
+    }
+}
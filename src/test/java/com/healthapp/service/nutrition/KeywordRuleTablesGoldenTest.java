@@ -0,0 +1,129 @@
+package com.healthapp.service.nutrition;
+
+import com.healthapp.service.ActivityCalorieEstimator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Proves the keyword tables (now loaded from the bundled knowledge base) return exactly what the if-chains in
+ * {@link LegacyKeywordChains} did, over every keyword alone, every ordered keyword pair, and a handful of real
+ * voice-log phrases.
+ */
+class KeywordRuleTablesGoldenTest {
+
+    private static final String[] VOCABULARY = {
+            "almond", "apple", "avocado", "backpack", "badminton", "banana", "basketball", "beef", "beer",
+            "bike", "biryani", "black coffee", "blueberr", "bread", "breast", "brisk", "broccoli", "broth",
+            "brownie", "burger", "butter", "cake", "cappuccino", "carbonara", "cashew", "celery", "chapati",
+            "cheese", "chia", "chicken", "chicken breast", "chicken salad", "chip", "chocolate", "circuit",
+            "clean", "climb", "coconut chutney", "coffee", "coke", "cola", "cook", "cookie", "crisp",
+            "croissant", "crossfit", "cupcake", "curry", "cycle", "cycling", "egg", "espresso", "fish",
+            "fish and chips", "football", "french fry", "fries", "fry", "garden", "garlic knot", "greek yogurt",
+            "green bean", "grill", "grilled", "gym", "hiit", "hike", "hiking", "housework", "hummus",
+            "ice cream", "iced tea", "indoor cycling", "interval", "jog", "juice", "large", "lassi", "latte",
+            "lentil", "lift", "mango lassi", "masala dosa", "mashed potato", "meal", "milk", "milkshake",
+            "mocha", "muffin", "nut", "oat", "oat milk", "oatmeal", "olive oil", "orange", "orange juice",
+            "pad thai", "paneer", "pasta", "peanut", "peanut butter", "pilates", "pizza", "porridge",
+            "protein powder", "protein shake", "quinoa", "raita", "rice", "rolled oats", "roti", "row",
+            "rowing", "run", "salad", "salmon", "salmon avocado sushi", "sambar", "sandwich", "shake",
+            "side salad", "sirloin", "slice", "small", "smoothie", "snack", "soccer", "soda", "soup", "spin",
+            "spinach", "sprint", "steak", "stretch", "swim", "tabata", "tennis", "thai iced tea", "thali",
+            "toast", "tuna", "tuna roll", "uphill", "vegetable", "walk", "weight", "whey", "whole milk",
+            "whole wheat", "wine", "wrap", "yoga", "yogurt", "dal", "diet coke", "coke zero", "sparkling water",
+            "canola oil", "ghee", "chocolate milk", "almond milk", "oatmeal cookie", "cheesecake"
+    };
+
+    private static final String[] PHRASES = {
+            "Grilled Salmon with quinoa", "2 slices whole wheat toast with peanut butter", "mango lassi",
+            "iced oat milk latte large", "small cappuccino", "diet coke", "chocolate chip cookie",
+            "fish and chips", "chicken caesar salad", "chicken salad sandwich", "beef broth soup",
+            "cheese cake", "spin class", "brisk walk", "uphill hike with backpack", "indoor cycling",
+            "rowing machine", "house cleaning", "evening run", "  Avocado Toast  ", "thai iced tea",
+            "protein shake with whey", "french fry basket", "a handful of almonds", "olive oil drizzle", ""
+    };
+
+    /** Names resolved by the exact-match switch before the substring table is consulted. */
+    private static final Set<String> FALLBACK_EXACT_NAMES = Set.of(
+            "pasta", "spaghetti", "macaroni", "rice", "white rice", "bread", "white bread", "whole wheat bread",
+            "wholemeal bread", "chicken", "chicken breast", "salmon", "eggs", "egg", "broccoli", "spinach", "dal",
+            "lentils", "lentil dal", "roti", "chapati", "paneer", "peanut butter", "butter", "olive oil", "quinoa",
+            "cooked quinoa", "coffee", "black coffee", "mango lassi", "lassi", "red wine", "wine", "cola", "coke",
+            "soda", "cappuccino", "latte", "milk", "cookie", "cookies", "muffin", "burger", "fries", "french fries",
+            "snacks", "snack", "steak", "beef steak", "sirloin", "mashed potatoes", "mashed potato", "green beans",
+            "chocolate cake", "cake", "ice cream", "vanilla ice cream", "pizza", "pepperoni pizza", "cheese",
+            "whey protein", "protein powder", "mixed nuts", "almonds", "cashews", "cashew nuts", "oats",
+            "rolled oats", "oatmeal dry", "chia seeds", "chia", "blueberries", "whole milk", "crisps",
+            "potato chips", "oatmeal", "porridge", "greek yogurt", "plain greek yogurt", "pad thai",
+            "fish and chips", "croissant", "orange juice", "hummus", "celery", "espresso", "protein shake",
+            "thai iced tea", "side salad", "salad", "mixed greens salad", "garlic knots", "garlic knot",
+            "masala dosa", "coconut chutney", "sambar", "salmon avocado sushi", "salmon avocado sushi roll",
+            "tuna rolls", "tuna roll");
+
+    private static List<String> corpus;
+
+    @BeforeAll
+    static void buildCorpus() {
+        corpus = new ArrayList<>(List.of(PHRASES));
+        for (String a : VOCABULARY) {
+            corpus.add(a);
+            for (String b : VOCABULARY) {
+                if (!a.equals(b)) {
+                    corpus.add(a + " " + b);
+                }
+            }
+        }
+    }
+
+    @Test
+    void searchTermsMatchLegacyChain() {
+        for (String input : corpus) {
+            assertEquals(LegacyKeywordChains.searchTerm(input), NutritionLookupService.buildSearchTerm(input), input);
+        }
+    }
+
+    @Test
+    void fallbackMacrosMatchLegacyChain() {
+        FoodNutritionFallback fallback = new FoodNutritionFallback();
+        for (String input : corpus) {
+            String n = input.toLowerCase(Locale.ROOT).trim();
+            if (FALLBACK_EXACT_NAMES.contains(n)) {
+                continue;
+            }
+            LegacyKeywordChains.Macros expected = LegacyKeywordChains.macrosFromContains(n);
+            Optional<NutritionProfile> actual = fallback.resolveKnown(input);
+            if (expected == null) {
+                assertTrue(actual.isEmpty(), input);
+                continue;
+            }
+            NutritionProfile profile = actual.orElseThrow(() -> new AssertionError("no macros for " + input));
+            assertEquals(expected, new LegacyKeywordChains.Macros(profile.getCaloriesPer100g(), profile.getProteinPer100g(),
+                    profile.getCarbsPer100g(), profile.getFatPer100g(), profile.getFiberPer100g()), input);
+        }
+    }
+
+    @Test
+    void singlePortionsMatchLegacyChain() {
+        for (String input : corpus) {
+            assertEquals(LegacyKeywordChains.singlePortion(input), RecommendedPortionCatalog.singlePortion(input),
+                    input);
+        }
+    }
+
+    @Test
+    void activityRatesMatchLegacyChain() {
+        for (String category : new String[]{null, "cardio", "sports", "home"}) {
+            for (String input : corpus) {
+                assertEquals(LegacyKeywordChains.caloriesPerMinute(input, category),
+                        ActivityCalorieEstimator.estimateCaloriesPerMinute(input, category), input);
+            }
+        }
+    }
+}
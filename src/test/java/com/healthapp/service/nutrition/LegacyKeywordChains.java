@@ -0,0 +1,533 @@
+package com.healthapp.service.nutrition;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+import com.healthapp.service.nutrition.RecommendedPortionCatalog.PortionRecommendation;
+
+/**
+ * Verbatim copies of the if-chains that {@link com.healthapp.service.matching.KeywordRuleSet} tables replaced,
+ * kept only so {@link KeywordRuleTablesGoldenTest} can prove the tables return identical results.
+ */
+final class LegacyKeywordChains {
+
+    private LegacyKeywordChains() {}
+
+    static String searchTerm(String foodName) {
+        String n = foodName.toLowerCase(Locale.ROOT);
+        if (n.contains("avocado")) {
+            return "avocado raw";
+        }
+        if (n.contains("egg")) {
+            return "egg boiled";
+        }
+        if (n.contains("banana")) {
+            return "banana raw";
+        }
+        if (n.contains("cashew")) {
+            return "cashew nuts raw";
+        }
+        if (n.contains("almond")) {
+            return "almonds raw";
+        }
+        if (n.contains("chia")) {
+            return "chia seeds dried";
+        }
+        if (n.contains("blueberr")) {
+            return "blueberries raw";
+        }
+        if (n.contains("rolled oats") || (n.contains("oat") && !n.contains("milk") && !n.contains("meal"))) {
+            return "oats rolled dry";
+        }
+        if (n.contains("whole milk") || (n.contains("milk") && !n.contains("shake") && !n.contains("almond"))) {
+            return "milk whole";
+        }
+        if (n.contains("apple")) {
+            return "apple raw";
+        }
+        if (n.contains("carbonara")) {
+            return "pasta carbonara";
+        }
+        if (n.contains("chicken") && n.contains("breast")) {
+            return "chicken breast cooked";
+        }
+        if (n.contains("salmon") && (n.contains("grill") || n.contains("grilled"))) {
+            return "salmon cooked";
+        }
+        if (n.contains("quinoa") && n.contains("cook")) {
+            return "quinoa cooked";
+        }
+        if (n.contains("quinoa")) {
+            return "quinoa cooked";
+        }
+        if (n.contains("broccoli")) {
+            return "broccoli cooked";
+        }
+        if (n.contains("whole wheat") && n.contains("toast")) {
+            return "whole wheat bread";
+        }
+        if (n.contains("toast") || n.contains("bread")) {
+            return "bread wheat";
+        }
+        if (n.contains("peanut butter")) {
+            return "peanut butter";
+        }
+        if (n.contains("butter") && !n.contains("peanut")) {
+            return "butter salted";
+        }
+        if (n.contains("lassi") || n.contains("mango lassi")) {
+            return "mango lassi";
+        }
+        if (n.contains("olive oil")) {
+            return "olive oil";
+        }
+        if (n.contains("black coffee") || (n.contains("coffee") && !n.contains("latte"))) {
+            return "coffee brewed";
+        }
+        if (n.contains("coke") || n.contains("cola") || n.contains("soda")) {
+            return "cola soft drink";
+        }
+        if (n.contains("wine")) {
+            return "wine table red";
+        }
+        if (n.contains("cappuccino") || n.contains("latte")) {
+            return "coffee latte";
+        }
+        if (n.contains("cookie")) {
+            return "cookie";
+        }
+        if (n.contains("muffin")) {
+            return "muffin blueberry";
+        }
+        if (n.contains("burger")) {
+            return "hamburger";
+        }
+        if (n.contains("fries") || n.contains("french fry")) {
+            return "french fries";
+        }
+        if (n.contains("steak") || n.contains("sirloin")) {
+            return "beef steak grilled";
+        }
+        if (n.contains("mashed potato")) {
+            return "mashed potatoes";
+        }
+        if (n.contains("green bean")) {
+            return "green beans cooked";
+        }
+        if (n.contains("cake")) {
+            return "chocolate cake";
+        }
+        if (n.contains("ice cream")) {
+            return "ice cream vanilla";
+        }
+        if (n.contains("pizza")) {
+            return "pizza cheese";
+        }
+        if (n.contains("cheese") && !n.contains("cake")) {
+            return "cheese cheddar";
+        }
+        if (n.contains("whey") || n.contains("protein powder")) {
+            return "whey protein powder";
+        }
+        return foodName;
+    }
+
+    static Macros macrosFromContains(String n) {
+        if (n.contains("pad thai")) {
+            return new Macros(180, 9.0, 24.0, 6.0, 2.0);
+        }
+        if (n.contains("fish and chips") || (n.contains("fish") && n.contains("chip"))) {
+            return new Macros(220, 12.0, 22.0, 10.0, 2.0);
+        }
+        if (n.contains("croissant")) {
+            return new Macros(406, 8.2, 45.0, 21.0, 2.6);
+        }
+        if (n.contains("orange juice") || (n.contains("juice") && !n.contains("smoothie"))) {
+            return new Macros(45, 0.7, 10.4, 0.2, 0.2);
+        }
+        if (n.contains("hummus")) {
+            return new Macros(166, 8.0, 14.0, 9.6, 6.0);
+        }
+        if (n.contains("celery")) {
+            return new Macros(16, 0.7, 3.0, 0.2, 1.6);
+        }
+        if (n.contains("espresso")) {
+            return new Macros(9, 0.1, 1.7, 0.2, 0.0);
+        }
+        if (n.contains("protein shake") || (n.contains("whey") && n.contains("shake"))) {
+            return new Macros(120, 20.0, 8.0, 2.0, 1.0);
+        }
+        if (n.contains("thai iced tea") || n.contains("iced tea")) {
+            return new Macros(80, 1.0, 18.0, 2.0, 0.0);
+        }
+        if (n.contains("oatmeal") || n.contains("porridge")) {
+            return new Macros(71, 2.5, 12.0, 1.5, 1.7);
+        }
+        if (n.contains("greek yogurt")) {
+            return new Macros(59, 10.0, 3.6, 0.4, 0.0);
+        }
+        if (n.contains("side salad") || (n.contains("salad") && !n.contains("chicken salad"))) {
+            return new Macros(40, 1.8, 7.0, 0.6, 2.5);
+        }
+        if (n.contains("garlic knot")) {
+            return new Macros(330, 9.0, 52.0, 9.0, 2.5);
+        }
+        if (n.contains("masala dosa")) {
+            return new Macros(210, 4.5, 30.0, 8.0, 3.0);
+        }
+        if (n.contains("coconut chutney")) {
+            return new Macros(260, 3.0, 10.0, 24.0, 4.0);
+        }
+        if (n.contains("sambar")) {
+            return new Macros(55, 2.5, 8.0, 1.2, 2.0);
+        }
+        if (n.contains("salmon avocado sushi")) {
+            return new Macros(180, 9.0, 24.0, 5.0, 1.0);
+        }
+        if (n.contains("tuna roll")) {
+            return new Macros(155, 8.0, 22.0, 2.5, 0.8);
+        }
+        if (n.contains("tuna") && n.contains("wrap")) {
+            return new Macros(220, 14.0, 22.0, 9.0, 2.0);
+        }
+        if (n.contains("toast") || n.contains("bread")) {
+            return new Macros(247, 13.0, 41.0, 4.2, 6.0);
+        }
+        if (n.contains("steak") || n.contains("sirloin") || (n.contains("beef") && !n.contains("broth"))) {
+            return new Macros(271, 26.0, 0.0, 18.0, 0.0);
+        }
+        if (n.contains("salmon") || (n.contains("grill") && n.contains("fish"))) {
+            return new Macros(208, 25.0, 0.0, 12.0, 0.0);
+        }
+        if (n.contains("chicken") && n.contains("breast")) {
+            return new Macros(165, 31.0, 0.0, 3.6, 0.0);
+        }
+        if (n.contains("quinoa")) {
+            return new Macros(120, 4.4, 21.3, 1.9, 2.8);
+        }
+        if (n.contains("broccoli")) {
+            return new Macros(34, 2.8, 7.0, 0.4, 2.6);
+        }
+        if (n.contains("spinach")) {
+            return new Macros(23, 2.9, 3.6, 0.4, 2.2);
+        }
+        if (n.equals("dal") || n.contains("lentil")) {
+            return new Macros(116, 9.0, 20.0, 0.4, 2.0);
+        }
+        if (n.contains("roti") || n.contains("chapati")) {
+            return new Macros(297, 9.0, 46.0, 7.0, 4.0);
+        }
+        if (n.contains("paneer")) {
+            return new Macros(265, 18.0, 2.0, 20.0, 0.0);
+        }
+        if (n.contains("peanut butter")) {
+            return new Macros(588, 25.0, 20.0, 50.0, 8.0);
+        }
+        if (n.contains("butter") && !n.contains("peanut")) {
+            return new Macros(717, 0.9, 0.1, 81.0, 0.0);
+        }
+        if (n.contains("egg")) {
+            return new Macros(155, 13.0, 1.1, 11.0, 0.0);
+        }
+        if (CookingOilDetector.containsCookingOil(n)) {
+            return new Macros(884, 0.0, 0.0, 100.0, 0.0);
+        }
+        if (n.contains("lassi") || n.contains("smoothie")) {
+            return new Macros(83, 3.0, 14.0, 2.0, 0.5);
+        }
+        if (n.contains("raita") || n.contains("yogurt")) {
+            return new Macros(59, 10.0, 3.6, 0.4, 0.0);
+        }
+        if (n.contains("biryani") || n.contains("curry") || n.contains("rice")) {
+            return new Macros(180, 8.0, 22.0, 7.0, 1.5);
+        }
+        if (n.contains("thali")) {
+            return new Macros(170, 6.0, 25.0, 5.0, 3.0);
+        }
+        if (n.contains("avocado")) {
+            return new Macros(160, 2.0, 8.5, 14.7, 6.7);
+        }
+        if (n.contains("banana")) {
+            return new Macros(89, 1.1, 23.0, 0.3, 2.6);
+        }
+        if (n.contains("apple")) {
+            return new Macros(52, 0.3, 14.0, 0.2, 2.4);
+        }
+        if (n.contains("carbonara")) {
+            return new Macros(280, 12.0, 28.0, 14.0, 2.0);
+        }
+        if (n.contains("oat milk") && (n.contains("latte") || n.contains("coffee") || n.contains("cappuccino"))) {
+            return new Macros(65, 2.5, 8.0, 3.5, 0.5);
+        }
+        if (n.contains("wine")) {
+            return new Macros(85, 0.1, 2.6, 0.0, 0.0);
+        }
+        if (NutritionValidator.isDietOrZeroCalBeverage(n)) {
+            return new Macros(0, 0.0, 0.0, 0.0, 0.0);
+        }
+        if ((n.contains("coke") || n.contains("cola") || n.contains("soda")) && !n.contains("chocolate")) {
+            return new Macros(42, 0.0, 10.6, 0.0, 0.0);
+        }
+        if (n.contains("cappuccino") || n.contains("latte") || n.contains("mocha")) {
+            return new Macros(40, 2.0, 4.0, 2.0, 0.0);
+        }
+        if (n.contains("milk") && !n.contains("shake")) {
+            return new Macros(42, 3.4, 5.0, 1.0, 0.0);
+        }
+        if (n.contains("cookie")) {
+            return new Macros(420, 5.0, 55.0, 20.0, 2.0);
+        }
+        if (n.contains("muffin")) {
+            return new Macros(380, 5.0, 50.0, 18.0, 2.0);
+        }
+        if (n.contains("burger") || n.contains("fries") || n.contains("fry")) {
+            return n.contains("fries") || n.contains("fry")
+                    ? new Macros(312, 3.4, 41.0, 15.0, 3.8)
+                    : new Macros(250, 13.0, 25.0, 12.0, 1.0);
+        }
+        if (n.contains("snack")) {
+            return new Macros(450, 6.0, 50.0, 25.0, 3.0);
+        }
+        if (n.contains("sandwich")) {
+            return new Macros(250, 13.0, 25.0, 12.0, 2.0);
+        }
+        if (n.contains("mashed potato")) {
+            return new Macros(106, 2.0, 17.0, 3.5, 1.5);
+        }
+        if (n.contains("green bean")) {
+            return new Macros(35, 2.0, 8.0, 0.2, 3.0);
+        }
+        if (n.contains("cake") || n.contains("brownie") || n.contains("cupcake")) {
+            return new Macros(389, 5.0, 53.0, 18.0, 2.0);
+        }
+        if (n.contains("ice cream")) {
+            return new Macros(207, 3.5, 24.0, 11.0, 0.7);
+        }
+        if (n.contains("pizza")) {
+            return new Macros(266, 11.0, 33.0, 10.0, 2.0);
+        }
+        if (n.contains("cheese") && !n.contains("cake")) {
+            return new Macros(402, 25.0, 1.3, 33.0, 0.0);
+        }
+        if (n.contains("whey") || n.contains("protein powder")) {
+            return new Macros(400, 80.0, 8.0, 5.0, 0.0);
+        }
+        if (n.contains("nut") || n.contains("almond")) {
+            return new Macros(576, 21.0, 22.0, 49.0, 12.0);
+        }
+        if (n.contains("crisp") || n.contains("chip")) {
+            return new Macros(536, 7.0, 53.0, 34.0, 4.0);
+        }
+        if (n.contains("cashew")) {
+            return new Macros(553, 18.0, 30.0, 44.0, 3.3);
+        }
+        if (n.contains("chia")) {
+            return new Macros(486, 16.5, 42.1, 30.7, 34.4);
+        }
+        if (n.contains("blueberr")) {
+            return new Macros(57, 0.7, 14.5, 0.3, 2.4);
+        }
+        if (n.contains("rolled oats") || (n.contains("oat") && !n.contains("milk") && !n.contains("meal"))) {
+            return new Macros(389, 16.9, 66.3, 6.9, 10.6);
+        }
+        if (n.contains("whole milk")) {
+            return new Macros(61, 3.2, 4.8, 3.3, 0.0);
+        }
+        return null;
+    }
+
+    static PortionRecommendation singlePortion(String foodName) {
+        String n = normalize(foodName);
+        if (n.isEmpty()) {
+            return new PortionRecommendation(1, "serving", 200);
+        }
+        if (NutritionValidator.isVaguePortion(n)) {
+            return new PortionRecommendation(1, "serving", 80);
+        }
+        if (n.contains("banana")) {
+            return new PortionRecommendation(1, "medium", 120);
+        }
+        if (n.contains("apple") || n.contains("orange")) {
+            return new PortionRecommendation(1, "medium", 150);
+        }
+        if (n.contains("egg")) {
+            return new PortionRecommendation(1, "pieces", 50);
+        }
+        if (n.contains("avocado")) {
+            return new PortionRecommendation(1, "medium", 150);
+        }
+        if (n.contains("coffee") && !n.contains("latte") && !n.contains("cappuccino")) {
+            return new PortionRecommendation(1, "cup", 250);
+        }
+        if (n.contains("latte") || n.contains("cappuccino") || n.contains("mocha")) {
+            return new PortionRecommendation(1, "cup", RecommendedPortionCatalog.lattePortionGrams(n, extractLatteSize(n)));
+        }
+        if (n.contains("espresso")) {
+            return new PortionRecommendation(1, "shot", 30);
+        }
+        if (n.contains("lassi") || n.contains("smoothie") || n.contains("milkshake")) {
+            return new PortionRecommendation(1, "glass", 300);
+        }
+        if (n.contains("juice") || n.contains("coke") || n.contains("cola") || n.contains("soda")) {
+            return new PortionRecommendation(1, "glass", 330);
+        }
+        if (n.contains("wine")) {
+            return new PortionRecommendation(1, "glass", 150);
+        }
+        if (n.contains("beer")) {
+            return new PortionRecommendation(1, "glass", 355);
+        }
+        if (n.contains("milk") && !n.contains("shake")) {
+            return new PortionRecommendation(1, "glass", 240);
+        }
+        if (n.contains("muffin") || n.contains("croissant")) {
+            return new PortionRecommendation(1, "serving", 110);
+        }
+        if (n.contains("cookie")) {
+            return new PortionRecommendation(1, "pieces", 32);
+        }
+        if (n.contains("toast") || n.contains("bread") || n.contains("slice")) {
+            return new PortionRecommendation(1, "slices", 30);
+        }
+        if (n.contains("sandwich") || n.contains("wrap")) {
+            return new PortionRecommendation(1, "serving", 220);
+        }
+        if (n.contains("burger")) {
+            return new PortionRecommendation(1, "serving", 200);
+        }
+        if (n.contains("fries") || n.contains("french fry")) {
+            return new PortionRecommendation(1, "serving", 130);
+        }
+        if (n.contains("crisp") || n.contains("chip") && !n.contains("chocolate")) {
+            return new PortionRecommendation(1, "serving", 32);
+        }
+        if (n.contains("salad")) {
+            return new PortionRecommendation(1, "serving", 200);
+        }
+        if (n.contains("soup")) {
+            return new PortionRecommendation(1, "serving", 250);
+        }
+        if (n.contains("quinoa") || n.contains("rice") || n.contains("pasta")) {
+            return new PortionRecommendation(1, "cup", 185);
+        }
+        if (n.contains("broccoli") || n.contains("vegetable")) {
+            return new PortionRecommendation(1, "cup", 150);
+        }
+        if (n.contains("oatmeal") || n.contains("porridge")) {
+            return new PortionRecommendation(1, "cup", 100);
+        }
+        if (n.contains("yogurt")) {
+            return new PortionRecommendation(1, "serving", 170);
+        }
+        if (n.contains("biryani") || n.contains("curry") || n.contains("thali")) {
+            return new PortionRecommendation(1, "serving", 350);
+        }
+        if (n.contains("pizza")) {
+            return new PortionRecommendation(1, "slices", 120);
+        }
+        if (n.contains("salmon") || n.contains("chicken breast") || n.contains("steak")) {
+            return new PortionRecommendation(1, "serving", 150);
+        }
+        if (n.contains("protein shake") || (n.contains("whey") && n.contains("shake"))) {
+            return new PortionRecommendation(1, "glass", 350);
+        }
+        if (n.contains("almond") || n.contains("nut")) {
+            return new PortionRecommendation(1, "serving", 30);
+        }
+        if (n.contains("butter") && !n.contains("peanut")) {
+            return new PortionRecommendation(1, "tablespoon", 14);
+        }
+        if (n.contains("peanut butter")) {
+            return new PortionRecommendation(1, "tablespoon", 16);
+        }
+        if (n.contains("olive oil") || CookingOilDetector.containsCookingOil(n)) {
+            return new PortionRecommendation(1, "tablespoon", 14);
+        }
+        return new PortionRecommendation(1, "serving", 200);
+    }
+
+    private static String extractLatteSize(String n) {
+        if (n.contains("small")) {
+            return "small";
+        }
+        if (n.contains("large")) {
+            return "large";
+        }
+        return "medium";
+    }
+
+    private static String normalize(String foodName) {
+        return foodName != null ? foodName.toLowerCase(Locale.ROOT).trim() : "";
+    }
+
+    static BigDecimal caloriesPerMinute(String activityName, String category) {
+        String name = activityName != null ? activityName.toLowerCase(Locale.ROOT) : "";
+        String cat = category != null ? category.toLowerCase(Locale.ROOT) : "general";
+
+        if (name.contains("spin") || name.contains("indoor cycling")) {
+            return bd(12.0);
+        }
+        if (name.contains("hiit") || name.contains("interval") || name.contains("tabata")
+                || name.contains("crossfit") || name.contains("circuit")) {
+            return bd(10.0);
+        }
+        if (name.contains("run") || name.contains("jog") || name.contains("sprint")) {
+            return bd(10.0);
+        }
+        if (name.contains("uphill") || name.contains("backpack")
+                || name.contains("hike") || name.contains("hiking")) {
+            return bd(9.0);
+        }
+        if (name.contains("tennis") || name.contains("basketball") || name.contains("football")
+                || name.contains("soccer")) {
+            return bd(8.0);
+        }
+        if (name.contains("brisk") && name.contains("walk")) {
+            return bd(5.0);
+        }
+        if (name.contains("walk")) {
+            return bd(4.0);
+        }
+        if (name.contains("swim")) {
+            return bd(8.0);
+        }
+        if (name.contains("row") || name.contains("rowing")) {
+            return bd(8.0);
+        }
+        if (name.contains("badminton")) {
+            return bd(8.0);
+        }
+        if (name.contains("bike") || name.contains("cycle") || name.contains("cycling")) {
+            return bd(7.0);
+        }
+        if (name.contains("yoga") || name.contains("stretch") || name.contains("pilates")) {
+            return bd(3.5);
+        }
+        if (name.contains("weight") || name.contains("lift") || name.contains("gym")) {
+            return bd(6.0);
+        }
+        if (name.contains("climb")) {
+            return bd(8.0);
+        }
+        if (name.contains("clean") || name.contains("garden") || name.contains("housework")) {
+            return bd(3.0);
+        }
+
+        return switch (cat) {
+            case "cardio" -> bd(5.0);
+            case "sports" -> bd(8.0);
+            case "strength" -> bd(6.0);
+            case "flexibility" -> bd(3.5);
+            case "outdoor" -> bd(7.0);
+            case "home" -> bd(3.0);
+            default -> bd(4.0);
+        };
+    }
+
+    private static BigDecimal bd(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    record Macros(double calories, double protein, double carbs, double fat, double fiber) {}
+}
@@ -0,0 +1,81 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.NutritionLookupProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFdcNutritionProviderTest {
+
+    private NutritionLookupProperties properties;
+    private LocalFdcNutritionProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        properties = new NutritionLookupProperties();
+        properties.setProvider(LocalFdcNutritionProvider.PROVIDER);
+        properties.getLocalFdc().setPath("classpath:fdc/foundation-sample.json");
+        provider = new LocalFdcNutritionProvider(properties, new ObjectMapper(), new DefaultResourceLoader());
+        provider.loadIndex();
+    }
+
+    @Test
+    void loadIndex_readsAllFoodArraysAndSkipsFoodsWithoutEnergy() {
+        assertTrue(provider.isAvailable());
+        Optional<NutritionProfile> avocado = provider.lookup("avocado raw", "avocado", 0.75);
+        assertTrue(avocado.isPresent());
+        assertEquals(171705, avocado.get().getFdcId());
+        assertEquals(160.0, avocado.get().getCaloriesPer100g(), 0.001);
+        assertEquals(6.7, avocado.get().getFiberPer100g(), 0.001);
+        assertEquals(NutritionSource.USDA, avocado.get().getSource());
+        assertTrue(provider.lookup("placeholder", "placeholder", 0.0).isEmpty());
+    }
+
+    @Test
+    void lookup_prefixMatchesPluralDescriptionsAndUsesAtwaterEnergy() {
+        Optional<NutritionProfile> banana = provider.lookup("banana raw", "banana", 0.75);
+
+        assertTrue(banana.isPresent());
+        assertEquals(1105314, banana.get().getFdcId());
+        assertEquals(97.0, banana.get().getCaloriesPer100g(), 0.001);
+        assertEquals(23.0, banana.get().getCarbsPer100g(), 0.001);
+        assertEquals(0.85, banana.get().getConfidence(), 0.001);
+    }
+
+    @Test
+    void lookup_belowThresholdOrNoSharedTermsReturnsEmpty() {
+        assertTrue(provider.lookup("pasta carbonara", "pasta carbonara", 0.75).isEmpty());
+        assertTrue(provider.lookup("avocado toast sourdough", "avocado toast sourdough", 0.75).isEmpty());
+    }
+
+    @Test
+    void loadIndex_convertsKilojoulesWhenNoKcalPresent() throws Exception {
+        String json = """
+                [{"fdcId": 5, "description": "Test food", "foodNutrients": [
+                  {"nutrient": {"number": "268"}, "amount": 418.4}]}]
+                """;
+        LocalFdcIndex index = LocalFdcIndex.load(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), new ObjectMapper());
+
+        assertEquals(1, index.size());
+        assertEquals(100.0, index.profile(0, 1.0).getCaloriesPer100g(), 0.001);
+    }
+
+    @Test
+    void loadIndex_skippedWhenProviderIsUsda() {
+        properties.setProvider("usda");
+        LocalFdcNutritionProvider usdaProvider =
+                new LocalFdcNutritionProvider(properties, new ObjectMapper(), new DefaultResourceLoader());
+        usdaProvider.loadIndex();
+
+        assertFalse(usdaProvider.isAvailable());
+        assertTrue(usdaProvider.lookup("avocado raw", "avocado", 0.0).isEmpty());
+    }
+}
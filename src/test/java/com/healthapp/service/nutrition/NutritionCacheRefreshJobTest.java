@@ -0,0 +1,134 @@
+package com.healthapp.service.nutrition;
+
+import com.healthapp.config.NutritionLookupProperties;
+import com.healthapp.entity.FoodNutritionCache;
+import com.healthapp.repository.FoodNutritionCacheRepository;
+import com.healthapp.repository.ScheduledJobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionCacheRefreshJobTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T12:00:00Z");
+    private static final LocalDateTime NOW_LOCAL = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    @Mock
+    private FoodNutritionCacheRepository cacheRepository;
+
+    @Mock
+    private NutritionLookupService lookupService;
+
+    @Mock
+    private ScheduledJobLeaseRepository leaseRepository;
+
+    private final NutritionLookupProperties properties = new NutritionLookupProperties();
+    private final NutritionCacheHitTracker hitTracker = new NutritionCacheHitTracker();
+    private NutritionCacheRefreshJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new NutritionCacheRefreshJob(properties, cacheRepository, lookupService, hitTracker, leaseRepository,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void run_flushesBufferedHitsAsOneUpdatePerName() {
+        hitTracker.record("banana");
+        hitTracker.record("banana");
+        hitTracker.record("avocado");
+
+        job.run();
+
+        verify(cacheRepository).recordHits("banana", 2, NOW_LOCAL);
+        verify(cacheRepository).recordHits("avocado", 1, NOW_LOCAL);
+        assertTrue(hitTracker.drain().isEmpty());
+    }
+
+    @Test
+    void run_onlyFlushesHitsWhileAnotherInstanceHoldsTheLease() {
+        when(leaseRepository.existsById(NutritionCacheRefreshJob.LEASE_NAME)).thenReturn(true);
+        hitTracker.record("banana");
+
+        job.run();
+
+        verify(cacheRepository).recordHits("banana", 1, NOW_LOCAL);
+        verify(cacheRepository, never()).deleteBySourceUpdatedBefore(any(), any());
+        verify(cacheRepository, never()).findRefreshCandidates(any(), any(), any(), anyInt(), any(), any());
+        verifyNoInteractions(lookupService);
+        assertEquals(1, job.skippedRunCount());
+        assertEquals(0, job.runCount());
+    }
+
+    @Test
+    void run_claimsAnExpiredLeaseForJustUnderOneInterval() {
+        properties.getRefresh().setIntervalMinutes(60);
+        when(leaseRepository.claim(eq(NutritionCacheRefreshJob.LEASE_NAME), anyString(), eq(NOW_LOCAL),
+                eq(NOW_LOCAL.plusMinutes(60).minusSeconds(30)))).thenReturn(1);
+
+        job.run();
+
+        verify(leaseRepository, never()).insert(any(), any(), any());
+        assertEquals(1, job.runCount());
+    }
+
+    @Test
+    void run_bulkDeletesStaleNegativeRows() {
+        properties.getRefresh().setNegativeTtlDays(14);
+        when(cacheRepository.deleteBySourceUpdatedBefore(any(), any())).thenReturn(5);
+
+        job.run();
+
+        verify(cacheRepository).deleteBySourceUpdatedBefore(
+                NutritionLookupService.NEGATIVE_CACHE_SOURCE, NOW_LOCAL.minusDays(14));
+        assertEquals(5, job.negativePurgedCount());
+    }
+
+    @Test
+    void run_refreshesPopularEntriesInsideTheRefreshAheadWindow() {
+        properties.setCacheTtlDays(90);
+        properties.getRefresh().setAheadDays(7);
+        properties.getRefresh().setMinHits(3);
+        properties.getRefresh().setAccessedWithinDays(30);
+        properties.getRefresh().setMaxPerRun(10);
+        FoodNutritionCache entry = new FoodNutritionCache();
+        entry.setNormalizedName("banana");
+        when(cacheRepository.findRefreshCandidates(any(), any(), any(), anyInt(), any(), any()))
+                .thenReturn(List.of(entry));
+        when(lookupService.refreshFromUsda(List.of(entry))).thenReturn(1);
+
+        job.run();
+
+        verify(cacheRepository).findRefreshCandidates(eq(NutritionSource.USDA.name()),
+                eq(NOW_LOCAL.minusDays(83)), eq(NOW_LOCAL.minusDays(90)), eq(3), eq(NOW_LOCAL.minusDays(30)),
+                argThat((Pageable p) -> p.getPageSize() == 10));
+        assertEquals(1, job.refreshedCount());
+        assertEquals(1, job.runCount());
+    }
+
+    @Test
+    void hitTracker_stopsTrackingNewNamesWhenFull() {
+        for (int i = 0; i < NutritionCacheHitTracker.MAX_TRACKED_NAMES; i++) {
+            hitTracker.record("food " + i);
+        }
+        hitTracker.record("one more");
+        hitTracker.record("food 1");
+
+        assertEquals(1, hitTracker.droppedCount());
+        assertEquals(2, hitTracker.drain().get("food 1"));
+    }
+}
@@ -0,0 +1,129 @@
+package com.healthapp.service.nutrition;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.NutritionLookupProperties;
+import com.healthapp.service.FoodVoiceTypoNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class NutritionKnowledgeBaseLoaderTest {
+
+    private static final String EDITED = """
+            {
+              "version": "test-2",
+              "exactMacros": [
+                {"names": ["jackfruit"], "calories": 95, "protein": 1.7, "carbs": 23.0, "fat": 0.6, "fiber": 1.5}
+              ],
+              "containsMacros": [
+                {"match": "tempeh -chip", "calories": 192, "protein": 20.0, "carbs": 7.6, "fat": 11.0, "fiber": 0.0},
+                {"match": "@cookingOil", "calories": 884, "protein": 0.0, "carbs": 0.0, "fat": 100.0, "fiber": 0.0}
+              ],
+              "defaultPortion": {"quantity": 1, "unit": "serving", "grams": 180},
+              "singlePortions": [
+                {"match": "tempeh", "quantity": 1, "unit": "serving", "grams": 85}
+              ],
+              "typos": {"tempe ": "tempeh "}
+            }
+            """;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private NutritionLookupProperties properties;
+    private NutritionKnowledgeBaseLoader loader;
+    private final NutritionLookupService lookupService = mock(NutritionLookupService.class);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = dir.resolve("knowledge-base.json");
+        Files.writeString(file, EDITED);
+        properties = new NutritionLookupProperties();
+        properties.getKnowledge().setPath(file.toUri().toString());
+        properties.getKnowledge().setPollSeconds(0);
+        loader = new NutritionKnowledgeBaseLoader(properties, new ObjectMapper(), new DefaultResourceLoader(),
+                lookupService);
+    }
+
+    @AfterEach
+    void restoreBundled() {
+        loader.stop();
+        NutritionKnowledgeBase.swap(NutritionKnowledgeBase.bundled());
+    }
+
+    @Test
+    void bundledSnapshotMatchesCompiledTablesItReplaced() {
+        NutritionKnowledgeBase bundled = NutritionKnowledgeBase.current();
+        assertEquals(265, bundled.exactMacros("paneer").calories(), 0.01);
+        assertEquals(42, bundled.containsMacros("cherry cola").calories(), 0.01);
+        assertEquals(0, bundled.containsMacros("diet cola").calories(), 0.01);
+        assertEquals(425, RecommendedPortionCatalog.singlePortion("large latte").totalGrams(), 0.01);
+        assertEquals("banana and peanut butter", FoodVoiceTypoNormalizer.normalize("Bannana and peanu butter"));
+    }
+
+    @Test
+    void startupSwapsInExternalFile() {
+        loader.start();
+
+        assertEquals("test-2", NutritionKnowledgeBase.current().version());
+        assertEquals(95, new FoodNutritionFallback().resolveKnown("Jackfruit").orElseThrow().getCaloriesPer100g(),
+                0.01);
+        assertEquals(884, new FoodNutritionFallback().resolveKnown("sesame oil").orElseThrow().getCaloriesPer100g(),
+                0.01);
+        assertTrue(new FoodNutritionFallback().resolveKnown("avocado").isEmpty());
+        assertEquals(85, RecommendedPortionCatalog.singlePortion("grilled tempeh").totalGrams(), 0.01);
+        assertEquals(180, RecommendedPortionCatalog.singlePortion("burger").totalGrams(), 0.01);
+        assertEquals("tempeh stir fry", FoodVoiceTypoNormalizer.normalize("Tempe stir fry"));
+    }
+
+    @Test
+    void invalidDocumentKeepsRunningSnapshot() throws IOException {
+        loader.start();
+        Files.writeString(file, EDITED.replace("\"grams\": 85", "\"grams\": -1"));
+
+        IOException e = assertThrows(IOException.class, loader::reload);
+
+        assertTrue(e.getMessage().contains("Invalid portion"), e.getMessage());
+        assertEquals("test-2", NutritionKnowledgeBase.current().version());
+        assertEquals(1, loader.failedReloadCount());
+        verify(lookupService, times(1)).evictFallbackEntries();
+    }
+
+    @Test
+    void changedFileIsPickedUpByWatch() throws IOException {
+        loader.start();
+        loader.reloadIfChanged();
+        assertEquals("test-2", NutritionKnowledgeBase.current().version());
+
+        Files.writeString(file, EDITED.replace("test-2", "test-3").replace("\"calories\": 95", "\"calories\": 99"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+        loader.reloadIfChanged();
+
+        assertEquals("test-3", NutritionKnowledgeBase.current().version());
+        assertEquals(99, NutritionKnowledgeBase.current().exactMacros("jackfruit").calories(), 0.01);
+        verify(lookupService, times(2)).evictFallbackEntries();
+    }
+
+    @Test
+    void unknownNamedMatcherIsRejected() {
+        String doc = EDITED.replace("@cookingOil", "@fried");
+
+        IOException e = assertThrows(IOException.class, () -> NutritionKnowledgeBase.read(
+                new ByteArrayInputStream(doc.getBytes(StandardCharsets.UTF_8)), new ObjectMapper()));
+
+        assertTrue(e.getMessage().contains("@fried"), e.getMessage());
+    }
+}
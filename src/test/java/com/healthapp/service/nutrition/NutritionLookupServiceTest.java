@@ -11,9 +11,15 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,13 +40,16 @@ class NutritionLookupServiceTest {
 
     private final FoodNutritionFallback foodNutritionFallback = new FoodNutritionFallback();
 
+    private final NutritionMemoryCache memoryCache =
+            new NutritionMemoryCache(100, Duration.ofHours(6), Duration.ofMinutes(30), System::nanoTime);
+
     private NutritionLookupService nutritionLookupService;
 
     @org.junit.jupiter.api.BeforeEach
     void setUp() {
         when(properties.getProvider()).thenReturn("usda");
         nutritionLookupService = new NutritionLookupService(
-                properties, cacheRepository, usdaClient, foodNutritionFallback);
+                properties, cacheRepository, usdaClient, foodNutritionFallback, memoryCache);
     }
 
     @Test
@@ -66,6 +75,16 @@ class NutritionLookupServiceTest {
         verify(usdaClient, never()).searchFoods(anyString(), anyInt());
     }
 
+    @Test
+    void lookupCached_missNeverCallsUsda() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(cacheRepository.findByNormalizedName("greek yogurt")).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(true);
+
+        assertTrue(nutritionLookupService.lookupCached("Greek yogurt").isEmpty());
+        verify(usdaClient, never()).searchFoods(anyString(), anyInt());
+    }
+
     @Test
     void scoreMatch_exactName() {
         assertEquals(1.0, NutritionLookupService.scoreMatch("avocado", "Avocado"));
@@ -107,8 +126,8 @@ class NutritionLookupServiceTest {
                         List.of(new UsdaFoodDataClient.UsdaSearchResult(1, "berries raw")), false))
                 .thenReturn(new UsdaFoodDataClient.UsdaSearchResponse(
                         List.of(new UsdaFoodDataClient.UsdaSearchResult(2, "banana raw")), false));
-        when(usdaClient.getFoodDetails(eq(1), anyDouble())).thenReturn(UsdaFoodDataClient.UsdaDetailResponse.success(berries));
-        when(usdaClient.getFoodDetails(eq(2), anyDouble())).thenReturn(UsdaFoodDataClient.UsdaDetailResponse.success(banana));
+        when(usdaClient.getFoodDetails(List.of(1, 2))).thenReturn(new UsdaFoodDataClient.UsdaBatchDetailResponse(
+                java.util.Map.of(1, berries, 2, banana), java.util.Set.of(), true));
 
         var portions = List.of(
                 new NutritionLookupService.IngredientPortion("berries", 50, "berries raw"),
@@ -118,6 +137,27 @@ class NutritionLookupServiceTest {
         assertTrue(blended.isPresent());
         assertTrue(blended.get().getCaloriesPer100g() > 50);
         assertTrue(blended.get().getCaloriesPer100g() < 120);
+        assertEquals(NutritionSource.USDA, blended.get().getSource());
+        verify(usdaClient, never()).getFoodDetails(anyInt(), anyDouble());
+    }
+
+    @Test
+    void blendIngredients_transientBatchFailureFallsBackWithoutNegativeCache() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenReturn(new UsdaFoodDataClient.UsdaSearchResponse(
+                List.of(new UsdaFoodDataClient.UsdaSearchResult(2, "banana raw")), false));
+        when(usdaClient.getFoodDetails(List.of(2))).thenReturn(new UsdaFoodDataClient.UsdaBatchDetailResponse(
+                java.util.Map.of(), java.util.Set.of(2), true));
+
+        var portions = List.of(new NutritionLookupService.IngredientPortion("banana", 120, "banana raw"));
+        Optional<NutritionProfile> blended = nutritionLookupService.blendIngredients(portions);
+
+        assertTrue(blended.isPresent());
+        assertEquals(NutritionSource.FALLBACK_HARDCODED, blended.get().getSource());
+        verify(cacheRepository, never()).save(argThat(cache ->
+                NutritionLookupService.NEGATIVE_CACHE_SOURCE.equals(cache.getSource())));
     }
 
     @Test
@@ -205,4 +245,323 @@ class NutritionLookupServiceTest {
         NutritionProfile carbonara = foodNutritionFallback.resolveKnown("pasta carbonara").orElseThrow();
         assertEquals(280.0, carbonara.getCaloriesPer100g(), 0.1);
     }
+
+    @Test
+    void lookup_servesRepeatHitsFromMemoryWithoutDb() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getCacheTtlDays()).thenReturn(90);
+        FoodNutritionCache cache = new FoodNutritionCache();
+        cache.setNormalizedName("banana");
+        cache.setSource(NutritionSource.USDA.name());
+        cache.setCaloriesPer100g(89.0);
+        cache.setProteinPer100g(1.1);
+        cache.setCarbsPer100g(22.8);
+        cache.setFatPer100g(0.3);
+        cache.setFiberPer100g(2.6);
+        cache.setConfidence(0.9);
+        cache.setUpdatedAt(LocalDateTime.now());
+        when(cacheRepository.findByNormalizedName("banana")).thenReturn(Optional.of(cache));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(89.0, nutritionLookupService.lookup("Banana").orElseThrow().getCaloriesPer100g());
+        }
+        verify(cacheRepository, times(1)).findByNormalizedName("banana");
+        assertEquals(2, memoryCache.hitCount());
+    }
+
+    @Test
+    void lookup_negativeEntryIsServedFromMemory() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getConfidenceThreshold()).thenReturn(0.75);
+        when(cacheRepository.findByNormalizedName("unknown food")).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenReturn(UsdaFoodDataClient.UsdaSearchResponse.empty());
+        when(cacheRepository.save(any(FoodNutritionCache.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        nutritionLookupService.lookup("unknown food");
+        nutritionLookupService.lookup("unknown food");
+
+        verify(cacheRepository, times(1)).findByNormalizedName("unknown food");
+        assertEquals(1, memoryCache.negativeHitCount());
+    }
+
+    @Test
+    void lookup_coalescesConcurrentMissesIntoOneUsdaResolution() throws Exception {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getConfidenceThreshold()).thenReturn(0.75);
+        when(cacheRepository.findByNormalizedName("banana")).thenReturn(Optional.empty());
+        when(cacheRepository.save(any(FoodNutritionCache.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(usdaClient.isAvailable()).thenReturn(true);
+        CountDownLatch searchStarted = new CountDownLatch(1);
+        CountDownLatch releaseSearch = new CountDownLatch(1);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenAnswer(inv -> {
+            searchStarted.countDown();
+            releaseSearch.await(5, TimeUnit.SECONDS);
+            return new UsdaFoodDataClient.UsdaSearchResponse(
+                    List.of(new UsdaFoodDataClient.UsdaSearchResult(7, "Bananas, raw")), false);
+        });
+        NutritionProfile banana = new NutritionProfile(89, 1.1, 22.8, 0.3, 2.6, NutritionSource.USDA, 0.85, 7);
+        when(usdaClient.getFoodDetails(eq(7), anyDouble())).thenReturn(UsdaFoodDataClient.UsdaDetailResponse.success(banana));
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<Optional<NutritionProfile>> leader = pool.submit(() -> nutritionLookupService.lookup("banana"));
+            assertTrue(searchStarted.await(5, TimeUnit.SECONDS));
+            List<Future<Optional<NutritionProfile>>> followers = List.of(
+                    pool.submit(() -> nutritionLookupService.lookup("banana")),
+                    pool.submit(() -> nutritionLookupService.lookup("banana")));
+            Thread.sleep(100);
+            releaseSearch.countDown();
+
+            assertEquals(89.0, leader.get(5, TimeUnit.SECONDS).orElseThrow().getCaloriesPer100g());
+            for (Future<Optional<NutritionProfile>> follower : followers) {
+                assertEquals(89.0, follower.get(5, TimeUnit.SECONDS).orElseThrow().getCaloriesPer100g());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(usdaClient, times(1)).searchFoods(anyString(), eq(5));
+        verify(cacheRepository, times(1)).save(any(FoodNutritionCache.class));
+    }
+
+    @Test
+    void blendIngredients_parallelResolutionMatchesSequentialResult() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(false);
+        var portions = List.of(
+                new NutritionLookupService.IngredientPortion("whole wheat toast", 60, "toast"),
+                new NutritionLookupService.IngredientPortion("butter", 14, "butter"),
+                new NutritionLookupService.IngredientPortion("peanut butter", 16, "peanut butter"),
+                new NutritionLookupService.IngredientPortion("banana", 120, "banana")
+        );
+        NutritionProfile sequential = nutritionLookupService.blendIngredients(portions).orElseThrow();
+
+        when(properties.getBlendParallelism()).thenReturn(4);
+        when(properties.getBlendTimeoutMs()).thenReturn(5000L);
+        NutritionLookupService parallel = new NutritionLookupService(
+                properties, cacheRepository, usdaClient, foodNutritionFallback,
+                new NutritionMemoryCache(0, Duration.ZERO, Duration.ZERO, System::nanoTime));
+        try {
+            NutritionProfile blended = parallel.blendIngredients(portions).orElseThrow();
+            assertEquals(sequential.getCaloriesPer100g(), blended.getCaloriesPer100g());
+            assertEquals(sequential.getProteinPer100g(), blended.getProteinPer100g());
+            assertEquals(sequential.getSource(), blended.getSource());
+        } finally {
+            parallel.shutdownBlendExecutor();
+        }
+    }
+
+    @Test
+    void blendIngredients_abortsWhenDeadlinePasses() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getConfidenceThreshold()).thenReturn(0.75);
+        when(properties.getBlendParallelism()).thenReturn(4);
+        when(properties.getBlendTimeoutMs()).thenReturn(100L);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return UsdaFoodDataClient.UsdaSearchResponse.empty();
+        });
+        NutritionLookupService parallel = new NutritionLookupService(
+                properties, cacheRepository, usdaClient, foodNutritionFallback, memoryCache);
+        try {
+            var portions = List.of(
+                    new NutritionLookupService.IngredientPortion("banana", 120, "banana raw"),
+                    new NutritionLookupService.IngredientPortion("rice", 150, "rice cooked")
+            );
+            long start = System.nanoTime();
+            assertTrue(parallel.blendIngredients(portions).isEmpty());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            parallel.shutdownBlendExecutor();
+        }
+    }
+
+    @Test
+    void blendIngredients_joinsInFlightLookupOfTheSameIngredient() throws Exception {
+        when(properties.isEnabled()).thenReturn(true);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(cacheRepository.save(any(FoodNutritionCache.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(usdaClient.isAvailable()).thenReturn(true);
+        CountDownLatch searchStarted = new CountDownLatch(1);
+        CountDownLatch releaseSearch = new CountDownLatch(1);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenAnswer(inv -> {
+            searchStarted.countDown();
+            releaseSearch.await(5, TimeUnit.SECONDS);
+            return new UsdaFoodDataClient.UsdaSearchResponse(
+                    List.of(new UsdaFoodDataClient.UsdaSearchResult(7, "banana raw")), false);
+        });
+        NutritionProfile banana = new NutritionProfile(89, 1.1, 22.8, 0.3, 2.6, NutritionSource.USDA, 0.85, 7);
+        when(usdaClient.getFoodDetails(eq(7), anyDouble())).thenReturn(UsdaFoodDataClient.UsdaDetailResponse.success(banana));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Optional<NutritionProfile>> prefetch =
+                    pool.submit(() -> nutritionLookupService.lookupIngredient("banana", "banana raw"));
+            assertTrue(searchStarted.await(5, TimeUnit.SECONDS));
+            Future<Optional<NutritionProfile>> blend = pool.submit(() -> nutritionLookupService.blendIngredients(
+                    List.of(new NutritionLookupService.IngredientPortion("banana", 120, "banana raw"))));
+            Thread.sleep(100);
+            releaseSearch.countDown();
+
+            assertEquals(89.0, prefetch.get(5, TimeUnit.SECONDS).orElseThrow().getCaloriesPer100g());
+            assertEquals(89.0, blend.get(5, TimeUnit.SECONDS).orElseThrow().getCaloriesPer100g(), 1e-9);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(usdaClient, times(1)).searchFoods(anyString(), eq(5));
+        verify(usdaClient, never()).getFoodDetails(anyList());
+    }
+
+    @Test
+    void blendIngredients_repeatedIngredientSharesOneSearchAndDetail() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenReturn(new UsdaFoodDataClient.UsdaSearchResponse(
+                List.of(new UsdaFoodDataClient.UsdaSearchResult(2, "banana raw")), false));
+        NutritionProfile banana = new NutritionProfile(89, 1.1, 23, 0.3, 2.6, NutritionSource.USDA, 0.9, 2);
+        when(usdaClient.getFoodDetails(List.of(2))).thenReturn(new UsdaFoodDataClient.UsdaBatchDetailResponse(
+                java.util.Map.of(2, banana), java.util.Set.of(), true));
+
+        Optional<NutritionProfile> blended = nutritionLookupService.blendIngredients(List.of(
+                new NutritionLookupService.IngredientPortion("banana", 120, "banana raw"),
+                new NutritionLookupService.IngredientPortion("banana", 60, "banana raw")));
+
+        assertEquals(89.0, blended.orElseThrow().getCaloriesPer100g(), 1e-9);
+        verify(usdaClient, times(1)).searchFoods(anyString(), eq(5));
+    }
+
+    @Test
+    void blendIngredients_detailBatchIsBoundedByTheDeadlineAndReleasesItsFlights() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getBlendParallelism()).thenReturn(4);
+        when(properties.getBlendTimeoutMs()).thenReturn(200L);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(cacheRepository.save(any(FoodNutritionCache.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(anyString(), eq(5))).thenReturn(new UsdaFoodDataClient.UsdaSearchResponse(
+                List.of(new UsdaFoodDataClient.UsdaSearchResult(2, "banana raw")), false));
+        when(usdaClient.getFoodDetails(anyList())).thenAnswer(inv -> {
+            Thread.sleep(2000);
+            return new UsdaFoodDataClient.UsdaBatchDetailResponse(java.util.Map.of(), java.util.Set.of(), true);
+        });
+        NutritionProfile banana = new NutritionProfile(89, 1.1, 23, 0.3, 2.6, NutritionSource.USDA, 0.9, 2);
+        when(usdaClient.getFoodDetails(eq(2), anyDouble())).thenReturn(UsdaFoodDataClient.UsdaDetailResponse.success(banana));
+        NutritionLookupService parallel = new NutritionLookupService(
+                properties, cacheRepository, usdaClient, foodNutritionFallback, memoryCache);
+        try {
+            long start = System.nanoTime();
+            assertTrue(parallel.blendIngredients(List.of(
+                    new NutritionLookupService.IngredientPortion("banana", 120, "banana raw"),
+                    new NutritionLookupService.IngredientPortion("rice", 150, "rice cooked"))).isEmpty());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+            assertEquals(89.0, parallel.lookupIngredient("banana", "banana raw").orElseThrow().getCaloriesPer100g());
+        } finally {
+            parallel.shutdownBlendExecutor();
+        }
+    }
+
+    @Test
+    void evictFallbackEntries_forgetsFallbackResultsButKeepsUsdaOnes() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getCacheTtlDays()).thenReturn(90);
+        when(cacheRepository.findByNormalizedName(anyString())).thenReturn(Optional.empty());
+        when(usdaClient.isAvailable()).thenReturn(false);
+        when(cacheRepository.deleteBySource("FALLBACK_HARDCODED")).thenReturn(1);
+        assertEquals(NutritionSource.FALLBACK_HARDCODED,
+                nutritionLookupService.lookup("banana").orElseThrow().getSource());
+        memoryCache.put("avocado", new NutritionProfile(160, 2, 8.5, 14.7, 6.7, NutritionSource.USDA, 0.9, 1),
+                Duration.ofDays(1));
+
+        assertEquals(1, nutritionLookupService.evictFallbackEntries());
+
+        assertTrue(memoryCache.peekProfile("banana").isEmpty());
+        assertTrue(memoryCache.peekProfile("avocado").isPresent());
+    }
+
+    @Test
+    void lookup_localFdcProviderResolvesOfflineWithoutUsdaOrDbCache() {
+        NutritionLookupProperties localProps = new NutritionLookupProperties();
+        localProps.setProvider(LocalFdcNutritionProvider.PROVIDER);
+        localProps.setBlendParallelism(1);
+        localProps.getLocalFdc().setPath("classpath:fdc/foundation-sample.json");
+        LocalFdcNutritionProvider localProvider = new LocalFdcNutritionProvider(
+                localProps, new com.fasterxml.jackson.databind.ObjectMapper(),
+                new org.springframework.core.io.DefaultResourceLoader());
+        localProvider.loadIndex();
+        NutritionLookupService local = new NutritionLookupService(
+                localProps, cacheRepository, usdaClient, foodNutritionFallback, memoryCache, localProvider,
+                new NutritionCacheHitTracker());
+
+        Optional<NutritionProfile> result = local.lookup("ripe banana");
+
+        assertTrue(result.isPresent());
+        assertEquals(Integer.valueOf(1105314), result.get().getFdcId());
+        assertEquals(NutritionSource.USDA, result.get().getSource());
+        verifyNoInteractions(usdaClient, cacheRepository);
+    }
+
+    @Test
+    void refreshFromUsda_rewritesMatchedEntriesWithOneBatchedDetailFetch() {
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getConfidenceThreshold()).thenReturn(0.75);
+        when(properties.getCacheTtlDays()).thenReturn(90);
+        when(usdaClient.isAvailable()).thenReturn(true);
+        when(usdaClient.searchFoods(eq("banana raw"), eq(5))).thenReturn(new UsdaFoodDataClient.UsdaSearchResponse(
+                List.of(new UsdaFoodDataClient.UsdaSearchResult(7, "Bananas, raw")), false));
+        when(usdaClient.searchFoods(eq("kombucha"), eq(5))).thenReturn(UsdaFoodDataClient.UsdaSearchResponse.transientError());
+        NutritionProfile banana = new NutritionProfile(89, 1.1, 22.8, 0.3, 2.6, NutritionSource.USDA, 1.0, 7);
+        when(usdaClient.getFoodDetails(List.of(7))).thenReturn(new UsdaFoodDataClient.UsdaBatchDetailResponse(
+                java.util.Map.of(7, banana), java.util.Set.of(), true));
+        FoodNutritionCache bananaRow = cacheRow("banana", 0.85);
+        FoodNutritionCache kombuchaRow = cacheRow("kombucha", 0.9);
+        when(cacheRepository.findByNormalizedName("banana")).thenReturn(Optional.of(bananaRow));
+
+        int refreshed = nutritionLookupService.refreshFromUsda(List.of(bananaRow, kombuchaRow));
+
+        assertEquals(1, refreshed);
+        verify(cacheRepository).save(argThat(cache -> "banana".equals(cache.getNormalizedName())
+                && cache.getUpdatedAt().isAfter(LocalDateTime.now().minusMinutes(1))));
+        verify(cacheRepository, never()).save(argThat(cache -> "kombucha".equals(cache.getNormalizedName())));
+        verify(cacheRepository, never()).delete(any());
+    }
+
+    @Test
+    void lookup_recordsPositiveHitsForRefreshAhead() {
+        NutritionCacheHitTracker tracker = new NutritionCacheHitTracker();
+        NutritionLookupService tracked = new NutritionLookupService(
+                properties, cacheRepository, usdaClient, foodNutritionFallback, memoryCache, null, tracker);
+        when(properties.isEnabled()).thenReturn(true);
+        when(properties.getCacheTtlDays()).thenReturn(90);
+        FoodNutritionCache row = cacheRow("avocado", 0.9);
+        row.setCaloriesPer100g(160.0);
+        row.setProteinPer100g(2.0);
+        row.setCarbsPer100g(8.5);
+        row.setFatPer100g(14.7);
+        row.setFiberPer100g(6.7);
+        when(cacheRepository.findByNormalizedName("avocado")).thenReturn(Optional.of(row));
+
+        tracked.lookup("avocado");
+        tracked.lookup("avocado");
+
+        assertEquals(2, tracker.drain().get("avocado"));
+    }
+
+    private static FoodNutritionCache cacheRow(String name, double confidence) {
+        FoodNutritionCache cache = new FoodNutritionCache();
+        cache.setNormalizedName(name);
+        cache.setSource(NutritionSource.USDA.name());
+        cache.setCaloriesPer100g(89.0);
+        cache.setProteinPer100g(1.0);
+        cache.setCarbsPer100g(22.0);
+        cache.setFatPer100g(0.3);
+        cache.setFiberPer100g(2.6);
+        cache.setConfidence(confidence);
+        cache.setUpdatedAt(LocalDateTime.now().minusDays(85));
+        return cache;
+    }
 }
@@ -0,0 +1,63 @@
+package com.healthapp.service.nutrition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NutritionMemoryCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final NutritionProfile banana = new NutritionProfile(89, 1.1, 23, 0.3, 2.6, NutritionSource.USDA, 0.9, 1);
+
+    @Test
+    void evictsLeastRecentlyUsedWhenFull() {
+        NutritionMemoryCache cache = new NutritionMemoryCache(2, Duration.ofHours(1), Duration.ofMinutes(5), now::get);
+        cache.put("banana", banana, Duration.ofDays(90));
+        cache.put("rice", banana, Duration.ofDays(90));
+        cache.get("banana");
+        cache.put("eggs", banana, Duration.ofDays(90));
+
+        assertTrue(cache.get("banana").isPresent());
+        assertTrue(cache.get("rice").isEmpty());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void positiveEntryNeverOutlivesDbFreshness() {
+        NutritionMemoryCache cache = new NutritionMemoryCache(10, Duration.ofHours(6), Duration.ofMinutes(5), now::get);
+        cache.put("banana", banana, Duration.ofMinutes(10));
+
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        assertTrue(cache.get("banana").isEmpty());
+    }
+
+    @Test
+    void negativeEntriesExpireOnTheirOwnTtl() {
+        NutritionMemoryCache cache = new NutritionMemoryCache(10, Duration.ofHours(6), Duration.ofMinutes(5), now::get);
+        cache.putNegative("mystery");
+
+        assertTrue(cache.get("mystery").orElseThrow().negative());
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertTrue(cache.get("mystery").isEmpty());
+    }
+
+    @Test
+    void publishesMetrics() {
+        NutritionMemoryCache cache = new NutritionMemoryCache(10, Duration.ofHours(6), Duration.ofMinutes(5), now::get);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.put("banana", banana, Duration.ofDays(90));
+        cache.get("banana");
+        cache.get("rice");
+
+        assertEquals(1.0, registry.get("nutrition.cache.l1.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("nutrition.cache.l1.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("nutrition.cache.l1.size").gauge().value());
+    }
+}
@@ -0,0 +1,73 @@
+package com.healthapp.service.nutrition;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NutritionPrefetcherTest {
+
+    @Mock
+    private NutritionLookupService nutritionLookupService;
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void prefetch_runsFoodAndIngredientLookupsOffTheCallerThread() {
+        executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4));
+        NutritionPrefetcher prefetcher = new NutritionPrefetcher(nutritionLookupService, executor);
+
+        prefetcher.prefetchFood("banana");
+        prefetcher.prefetchIngredient("white rice", "rice white cooked");
+        prefetcher.prefetchFood(" ");
+
+        verify(nutritionLookupService, timeout(2000)).lookup("banana");
+        verify(nutritionLookupService, timeout(2000)).lookupIngredient("white rice", "rice white cooked");
+        verify(nutritionLookupService, never()).lookup(" ");
+        assertEquals(2, prefetcher.submittedCount());
+    }
+
+    @Test
+    void prefetch_dropsWorkWhenTheQueueIsFull() throws InterruptedException {
+        executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        NutritionPrefetcher prefetcher = new NutritionPrefetcher(nutritionLookupService, executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(nutritionLookupService.lookup(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(2, TimeUnit.SECONDS);
+            return java.util.Optional.empty();
+        });
+
+        prefetcher.prefetchFood("oats");
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        prefetcher.prefetchFood("milk");
+        prefetcher.prefetchFood("honey");
+        release.countDown();
+
+        assertEquals(2, prefetcher.submittedCount());
+        assertEquals(1, prefetcher.droppedCount());
+    }
+}
@@ -1,8 +1,29 @@
 package com.healthapp.service.nutrition;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthapp.config.NutritionLookupProperties;
+import com.healthapp.config.ResilienceProperties;
+import com.healthapp.service.resilience.DependencyGuard;
+import com.healthapp.service.resilience.DependencyGuards;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UsdaFoodDataClientTest {
@@ -10,23 +31,23 @@ class UsdaFoodDataClientTest {
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Test
-    void extractMacros_prefersKcalEnergy() throws Exception {
+    void extractMacros_prefersKcalEnergyByNutrientNumber() throws Exception {
         String json = """
                 {
                   "foodNutrients": [
-                    {"nutrient": {"name": "Energy"}, "amount": 418},
-                    {"nutrient": {"name": "Energy (kcal)"}, "amount": 100},
-                    {"nutrient": {"name": "Protein"}, "amount": 5},
-                    {"nutrient": {"name": "Carbohydrate, by difference"}, "amount": 10},
-                    {"nutrient": {"name": "Total lipid (fat)"}, "amount": 3},
-                    {"nutrient": {"name": "Fiber, total dietary"}, "amount": 1}
+                    {"nutrient": {"id": 1062, "number": "268", "name": "Energy"}, "amount": 418},
+                    {"nutrient": {"id": 1008, "number": "208", "name": "Energy"}, "amount": 100},
+                    {"nutrient": {"id": 1003, "number": "203", "name": "Protein"}, "amount": 5},
+                    {"nutrient": {"id": 1005, "number": "205", "name": "Carbohydrate, by difference"}, "amount": 10},
+                    {"nutrient": {"id": 1004, "number": "204", "name": "Total lipid (fat)"}, "amount": 3},
+                    {"nutrient": {"id": 1079, "number": "291", "name": "Fiber, total dietary"}, "amount": 1}
                   ]
                 }
                 """;
-        NutritionProfile profile = UsdaFoodDataClient.extractMacros(
-                objectMapper.readTree(json), 42, 0.9);
+        NutritionProfile profile = extract(json, 42, 0.9);
         assertNotNull(profile);
         assertEquals(100.0, profile.getCaloriesPer100g(), 0.1);
+        assertEquals(3.0, profile.getFatPer100g(), 0.001);
         assertEquals(42, profile.getFdcId());
         assertEquals(NutritionSource.USDA, profile.getSource());
     }
@@ -36,13 +57,12 @@ class UsdaFoodDataClientTest {
         String json = """
                 {
                   "foodNutrients": [
-                    {"nutrient": {"name": "Energy (kJ)"}, "amount": 418.4},
-                    {"nutrient": {"name": "Protein"}, "amount": 5}
+                    {"nutrient": {"number": "268", "name": "Energy"}, "amount": 418.4},
+                    {"nutrient": {"number": "203", "name": "Protein"}, "amount": 5}
                   ]
                 }
                 """;
-        NutritionProfile profile = UsdaFoodDataClient.extractMacros(
-                objectMapper.readTree(json), 7, 0.8);
+        NutritionProfile profile = extract(json, 7, 0.8);
         assertNotNull(profile);
         assertEquals(100.0, profile.getCaloriesPer100g(), 1.0);
     }
@@ -52,10 +72,318 @@ class UsdaFoodDataClientTest {
         String json = """
                 {
                   "foodNutrients": [
-                    {"nutrient": {"name": "Protein"}, "amount": 5}
+                    {"nutrient": {"number": "203", "name": "Protein"}, "amount": 5}
                   ]
                 }
                 """;
-        assertNull(UsdaFoodDataClient.extractMacros(objectMapper.readTree(json), 1, 0.5));
+        assertNull(extract(json, 1, 0.5));
+    }
+
+    @Test
+    void extractMacros_ignoresNamesWithoutMatchingNumbers() throws Exception {
+        String json = """
+                {
+                  "foodNutrients": [
+                    {"nutrient": {"number": "208", "name": "Energy"}, "amount": 52},
+                    {"nutrient": {"number": "645", "name": "Fatty acids, total monounsaturated"}, "amount": 9},
+                    {"nutrient": {"number": "209", "name": "Starch (carbohydrate)"}, "amount": 40},
+                    {"nutrient": {"number": "204", "name": "Total lipid (fat)"}, "amount": 0.2}
+                  ]
+                }
+                """;
+        NutritionProfile profile = extract(json, 3, 0.9);
+        assertEquals(0.2, profile.getFatPer100g(), 0.001);
+        assertEquals(0.0, profile.getCarbsPer100g(), 0.001);
+    }
+
+    @Test
+    void extractMacros_stopsReadingOnceAllMacrosAreKnown() throws Exception {
+        // Everything after the fifth macro is malformed; a full-tree parse would fail on it.
+        String json = """
+                {"fdcId": 9, "foodNutrients": [
+                  {"nutrient": {"number": "208"}, "amount": 89},
+                  {"nutrient": {"number": "203"}, "amount": 1.1},
+                  {"nutrient": {"number": "205"}, "amount": 22.8},
+                  {"nutrient": {"number": "204"}, "amount": 0.3},
+                  {"nutrient": {"number": "291"}, "amount": 2.6},
+                  {"nutrient": {"number": "301"}, "amount": 5 ]] not json
+                """;
+        NutritionProfile profile = extract(json, 9, 0.9);
+        assertEquals(89.0, profile.getCaloriesPer100g(), 0.001);
+        assertEquals(2.6, profile.getFiberPer100g(), 0.001);
+    }
+
+    @Test
+    void extractMacros_fallsBackToCarbsBySummation() throws Exception {
+        String summationOnly = """
+                {"foodNutrients": [
+                  {"nutrient": {"number": "208"}, "amount": 52},
+                  {"nutrient": {"id": 1050, "number": "205.2", "name": "Carbohydrate, by summation"}, "amount": 13.8}
+                ]}
+                """;
+        String both = """
+                {"foodNutrients": [
+                  {"nutrient": {"number": "208"}, "amount": 52},
+                  {"nutrient": {"number": "205.2"}, "amount": 13.8},
+                  {"nutrient": {"number": "205"}, "amount": 14.1}
+                ]}
+                """;
+
+        assertEquals(13.8, extract(summationOnly, 1, 0.9).getCarbsPer100g(), 0.001);
+        assertEquals(14.1, extract(both, 1, 0.9).getCarbsPer100g(), 0.001);
+    }
+
+    @Test
+    void extractMacros_readsRecordedSrLegacyPayload() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/usda/sr-legacy-detail-171705.json");
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            NutritionProfile profile = UsdaFoodDataClient.extractMacros(parser, 171705, 0.85);
+
+            assertEquals(160.0, profile.getCaloriesPer100g(), 0.001);
+            assertEquals(2.0, profile.getProteinPer100g(), 0.001);
+            assertEquals(8.53, profile.getCarbsPer100g(), 0.001);
+            assertEquals(14.66, profile.getFatPer100g(), 0.001);
+            assertEquals(6.7, profile.getFiberPer100g(), 0.001);
+        }
+    }
+
+    @Test
+    void extractMacros_readsSearchAndAbridgedShapes() throws Exception {
+        String json = """
+                {"foodNutrients": [
+                  {"nutrientId": 1008, "nutrientNumber": "208", "value": 120},
+                  {"number": "203", "name": "Protein", "amount": 4.4}
+                ]}
+                """;
+        NutritionProfile profile = extract(json, 11, 0.9);
+        assertEquals(120.0, profile.getCaloriesPer100g(), 0.001);
+        assertEquals(4.4, profile.getProteinPer100g(), 0.001);
+    }
+
+    private NutritionProfile extract(String json, int fdcId, double confidence) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            return UsdaFoodDataClient.extractMacros(parser, fdcId, confidence);
+        }
+    }
+
+    @Nested
+    class AgainstStubServer {
+
+        private HttpServer server;
+        private final List<String> requests = new CopyOnWriteArrayList<>();
+        private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+        private final NutritionLookupProperties properties = new NutritionLookupProperties();
+        private UsdaFoodDataClient client;
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/fdc/v1/foods", exchange -> {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath() + " " + body);
+                if (body.contains("500")) {
+                    respond(exchange, 500, "{}");
+                    return;
+                }
+                StringBuilder foods = new StringBuilder("[");
+                for (JsonNode id : objectMapper.readTree(body).path("fdcIds")) {
+                    if (id.asInt() == 404) {
+                        continue;
+                    }
+                    if (foods.length() > 1) {
+                        foods.append(',');
+                    }
+                    // 777 stands in for a Foundation food that only reports carbs by summation (205.2)
+                    String carbs = id.asInt() == 777 ? "" : """
+                            ,{"nutrient": {"number": "205", "name": "Carbohydrate"}, "amount": 5}""";
+                    foods.append("""
+                            {"fdcId": %d, "description": "Food %d", "foodNutrients": [
+                              {"nutrient": {"number": "208", "name": "Energy"}, "amount": %d},
+                              {"nutrient": {"number": "203", "name": "Protein"}, "amount": 2}%s]}
+                            """.formatted(id.asInt(), id.asInt(), id.asInt() % 1000, carbs));
+                }
+                respond(exchange, 200, foods.append(']').toString());
+            });
+            server.createContext("/fdc/v1/food/", exchange -> {
+                requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath());
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                // The client stops parsing after the macros; the padding is what it must still drain.
+                respond(exchange, 200, """
+                        {"fdcId": 777, "foodNutrients": [
+                          {"nutrient": {"number": "208"}, "amount": 52},
+                          {"nutrient": {"number": "203"}, "amount": 0.3},
+                          {"nutrient": {"number": "205.2"}, "amount": 13.8},
+                          {"nutrient": {"number": "204"}, "amount": 0.2},
+                          {"nutrient": {"number": "291"}, "amount": 2.4},
+                          {"nutrient": {"number": "301"}, "amount": 6}],
+                         "padding": "%s"}
+                        """.formatted("x".repeat(100_000)));
+            });
+            server.start();
+            properties.getUsda().setApiKey("test-key");
+            properties.getUsda().setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/fdc/v1");
+            client = new UsdaFoodDataClient(properties, objectMapper, new DependencyGuards(new ResilienceProperties()));
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+        }
+
+        @Test
+        void getFoodDetails_fetchesManyIdsInOneRequest() {
+            UsdaFoodDataClient.UsdaBatchDetailResponse response = client.getFoodDetails(List.of(1101, 1102, 1101, 404));
+
+            assertEquals(1, requests.size());
+            assertTrue(requests.get(0).startsWith("POST /fdc/v1/foods "), requests.get(0));
+            assertTrue(requests.get(0).contains("\"fdcIds\":[1101,1102,404]"), requests.get(0));
+            UsdaFoodDataClient.UsdaDetailResponse detail = response.detail(1102, 0.8);
+            assertTrue(detail.found());
+            assertEquals(102.0, detail.profile().getCaloriesPer100g(), 0.001);
+            assertEquals(0.8, detail.profile().getConfidence(), 0.001);
+            UsdaFoodDataClient.UsdaDetailResponse missing = response.detail(404, 0.8);
+            assertFalse(missing.found());
+            assertFalse(missing.failedTransiently());
+        }
+
+        @Test
+        void getFoodDetails_splitsIntoBatchesAndIsolatesFailedChunks() {
+            properties.getUsda().setBatchSize(2);
+
+            UsdaFoodDataClient.UsdaBatchDetailResponse response = client.getFoodDetails(List.of(1, 2, 500, 3));
+
+            assertEquals(2, requests.size());
+            assertTrue(response.detail(1, 0.9).found());
+            assertTrue(response.detail(2, 0.9).found());
+            assertTrue(response.detail(500, 0.9).failedTransiently());
+            assertTrue(response.detail(3, 0.9).failedTransiently());
+        }
+
+        @Test
+        void getFoodDetails_refetchesFoodsWithoutCarbsFromTheUnfilteredDetail() {
+            UsdaFoodDataClient.UsdaBatchDetailResponse response = client.getFoodDetails(List.of(1101, 777));
+
+            assertEquals(List.of("POST", "GET /fdc/v1/food/777"),
+                    requests.stream().map(r -> r.startsWith("POST") ? "POST" : r).toList());
+            assertEquals(5.0, response.detail(1101, 0.9).profile().getCarbsPer100g(), 0.001);
+            assertEquals(13.8, response.detail(777, 0.9).profile().getCarbsPer100g(), 0.001);
+        }
+
+        @Test
+        void getFoodDetails_reusesTheConnectionAfterAbandoningTheBody() {
+            assertTrue(client.getFoodDetails(777, 0.9).found());
+            assertTrue(client.getFoodDetails(777, 0.9).found());
+
+            assertEquals(2, clientPorts.size());
+            assertEquals(clientPorts.get(0), clientPorts.get(1), "second request reuses the kept-alive connection");
+        }
+
+        @Test
+        void getFoodDetails_unavailableWithoutApiKey() {
+            properties.getUsda().setApiKey("");
+
+            UsdaFoodDataClient.UsdaBatchDetailResponse response = client.getFoodDetails(List.of(1));
+
+            assertTrue(requests.isEmpty());
+            assertFalse(response.detail(1, 0.9).found());
+            assertFalse(response.detail(1, 0.9).failedTransiently());
+        }
+
+        private void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    @Nested
+    class WithFaultInjection {
+
+        private HttpServer server;
+        private final AtomicInteger status = new AtomicInteger(500);
+        private final AtomicInteger hits = new AtomicInteger();
+        private final NutritionLookupProperties properties = new NutritionLookupProperties();
+        private final ResilienceProperties.Dependency settings = new ResilienceProperties.Dependency();
+        private DependencyGuard guard;
+        private UsdaFoodDataClient client;
+
+        @BeforeEach
+        void startServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/fdc/v1/food/", exchange -> {
+                hits.incrementAndGet();
+                String body = status.get() == 200
+                        ? "{\"fdcId\": 7, \"foodNutrients\": [{\"nutrient\": {\"number\": \"208\"}, \"amount\": 52}]}"
+                        : "{}";
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status.get(), bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+            properties.getUsda().setApiKey("test-key");
+            properties.getUsda().setBaseUrl("http://localhost:" + server.getAddress().getPort() + "/fdc/v1");
+            settings.setWindowSize(4);
+            settings.setMinimumCalls(4);
+            settings.setOpenDurationMs(200);
+            settings.setHalfOpenProbes(1);
+            guard = new DependencyGuard(DependencyGuards.USDA, settings);
+            client = new UsdaFoodDataClient(properties, objectMapper,
+                    UsdaFoodDataClient.createRestTemplate(properties.getUsda()), guard);
+        }
+
+        @AfterEach
+        void stopServer() {
+            server.stop(0);
+        }
+
+        @Test
+        void serverErrorsOpenTheCircuitAndLaterCallsFallBackWithoutReachingUsda() {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(client.getFoodDetails(7, 0.9).failedTransiently());
+            }
+            assertEquals(DependencyGuard.State.OPEN, guard.getState());
+
+            assertTrue(client.getFoodDetails(7, 0.9).failedTransiently());
+            assertTrue(client.searchFoods("apple", 5).failedTransiently());
+            assertTrue(client.getFoodDetails(List.of(7, 8)).detail(8, 0.9).failedTransiently());
+
+            assertEquals(4, hits.get());
+            assertEquals(3, guard.rejectedOpenCount());
+        }
+
+        @Test
+        void probeAfterTheOpenDurationClosesTheCircuitOnceUsdaRecovers() throws InterruptedException {
+            for (int i = 0; i < 4; i++) {
+                client.getFoodDetails(7, 0.9);
+            }
+            status.set(200);
+            assertTrue(client.getFoodDetails(7, 0.9).failedTransiently(), "still open");
+
+            Thread.sleep(settings.getOpenDurationMs() + 50);
+            UsdaFoodDataClient.UsdaDetailResponse probe = client.getFoodDetails(7, 0.9);
+
+            assertTrue(probe.found());
+            assertEquals(52.0, probe.profile().getCaloriesPer100g(), 0.001);
+            assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+            assertEquals(5, hits.get());
+        }
+
+        @Test
+        void clientErrorsDoNotOpenTheCircuit() {
+            status.set(404);
+
+            for (int i = 0; i < 6; i++) {
+                client.getFoodDetails(7, 0.9);
+            }
+
+            assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+            assertEquals(6, hits.get());
+            assertEquals(0, guard.failureCount());
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.healthapp.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryRateLimitStoreTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final InMemoryRateLimitStore store = new InMemoryRateLimitStore(now::get);
+
+    @Test
+    void allowsBurstUpToLimitThenRejects() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.tryAcquire("1.2.3.4", 5, MINUTE));
+        }
+        assertFalse(store.tryAcquire("1.2.3.4", 5, MINUTE));
+        assertTrue(store.tryAcquire("5.6.7.8", 5, MINUTE));
+    }
+
+    @Test
+    void limitsOnTheSameKeyAreIndependent() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(store.tryAcquire("ip:1.2.3.4", 5, MINUTE));
+        }
+        assertFalse(store.tryAcquire("ip:1.2.3.4", 5, MINUTE));
+
+        for (int i = 0; i < 30; i++) {
+            assertTrue(store.tryAcquire("ip:1.2.3.4", 30, MINUTE));
+        }
+        assertFalse(store.tryAcquire("ip:1.2.3.4", 30, MINUTE));
+        assertTrue(store.tryAcquire("ip:1.2.3.4", 1, Duration.ofHours(1)));
+    }
+
+    @Test
+    void refillsEvenlyAcrossWindow() {
+        for (int i = 0; i < 6; i++) {
+            store.tryAcquire("k", 6, MINUTE);
+        }
+        assertFalse(store.tryAcquire("k", 6, MINUTE));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertTrue(store.tryAcquire("k", 6, MINUTE));
+        assertFalse(store.tryAcquire("k", 6, MINUTE));
+    }
+
+    @Test
+    void honoursWindowUnit() {
+        assertTrue(store.tryAcquire("k", 1, Duration.ofHours(1)));
+        now.addAndGet(TimeUnit.MINUTES.toNanos(59));
+        assertFalse(store.tryAcquire("k", 1, Duration.ofHours(1)));
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertTrue(store.tryAcquire("k", 1, Duration.ofHours(1)));
+    }
+
+    @Test
+    void evictsIdleKeys() {
+        for (int i = 0; i < 100; i++) {
+            store.tryAcquire("ip-" + i, 10, MINUTE);
+        }
+        assertEquals(100, store.trackedKeyCount());
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        store.tryAcquire("fresh", 10, MINUTE);
+
+        assertEquals(1, store.trackedKeyCount());
+    }
+}
@@ -0,0 +1,138 @@
+package com.healthapp.service.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the shared store against H2 in MySQL mode, which accepts the same {@code ON DUPLICATE KEY UPDATE} upsert.
+ */
+class JdbcRateLimitStoreTest {
+
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-03-01T10:00:30Z"), ZoneOffset.UTC);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ratelimit;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS rate_limit_counters");
+        jdbcTemplate.execute("CREATE TABLE rate_limit_counters ("
+                + "bucket_key VARCHAR(191) NOT NULL, window_start BIGINT NOT NULL, expires_at BIGINT NOT NULL, "
+                + "request_count INT NOT NULL, PRIMARY KEY (bucket_key, window_start))");
+    }
+
+    @Test
+    void countsAcrossInstancesSharingTheDatabase() {
+        JdbcRateLimitStore instanceA = new JdbcRateLimitStore(jdbcTemplate, CLOCK);
+        JdbcRateLimitStore instanceB = new JdbcRateLimitStore(jdbcTemplate, CLOCK);
+
+        assertTrue(instanceA.tryAcquire("10.0.0.1", 3, MINUTE));
+        assertTrue(instanceB.tryAcquire("10.0.0.1", 3, MINUTE));
+        assertTrue(instanceA.tryAcquire("10.0.0.1", 3, MINUTE));
+        assertFalse(instanceB.tryAcquire("10.0.0.1", 3, MINUTE));
+        assertTrue(instanceB.tryAcquire("10.0.0.2", 3, MINUTE));
+    }
+
+    @Test
+    void windowLengthIsPartOfTheBucket() {
+        JdbcRateLimitStore store = new JdbcRateLimitStore(jdbcTemplate, CLOCK);
+
+        assertTrue(store.tryAcquire("k", 1, MINUTE));
+        assertTrue(store.tryAcquire("k", 1, Duration.ofHours(1)));
+        assertFalse(store.tryAcquire("k", 1, MINUTE));
+    }
+
+    @Test
+    void batchingStoreSyncsLocalCountsToSharedCounter() {
+        JdbcRateLimitStore shared = new JdbcRateLimitStore(jdbcTemplate, CLOCK);
+        BatchingRateLimitStore instanceA = new BatchingRateLimitStore(shared);
+        BatchingRateLimitStore instanceB = new BatchingRateLimitStore(shared);
+
+        assertTrue(instanceA.tryAcquire("user", 4, MINUTE));
+        assertTrue(instanceA.tryAcquire("user", 4, MINUTE));
+        assertTrue(instanceA.tryAcquire("user", 4, MINUTE));
+        assertEquals(0, count());
+
+        instanceA.sync();
+        assertEquals(3, count());
+
+        // instanceB has not synced yet: it only knows its own (empty) local count.
+        assertTrue(instanceB.tryAcquire("user", 4, MINUTE));
+        instanceB.sync();
+        assertFalse(instanceB.tryAcquire("user", 4, MINUTE));
+
+        instanceA.sync();
+        assertFalse(instanceA.tryAcquire("user", 4, MINUTE));
+        assertEquals(4, count());
+    }
+
+    @Test
+    void batchingStoreSyncsEveryWindowInOneUpsertAndOneQuery() {
+        CountingJdbcTemplate counting = new CountingJdbcTemplate(jdbcTemplate);
+        JdbcRateLimitStore shared = new JdbcRateLimitStore(counting, CLOCK);
+        BatchingRateLimitStore instanceA = new BatchingRateLimitStore(shared);
+        BatchingRateLimitStore instanceB = new BatchingRateLimitStore(shared);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(instanceA.tryAcquire("user-" + i, 2, MINUTE));
+        }
+        assertTrue(instanceB.tryAcquire("user-0", 2, MINUTE));
+        instanceB.sync();
+
+        counting.updates = 0;
+        counting.queries = 0;
+        instanceA.sync();
+
+        assertEquals(1, counting.updates);
+        assertEquals(1, counting.queries);
+        assertEquals(6, count());
+        assertFalse(instanceA.tryAcquire("user-0", 2, MINUTE), "picked up instanceB's request");
+        assertTrue(instanceA.tryAcquire("user-1", 2, MINUTE));
+
+        counting.updates = 0;
+        instanceB.sync();
+        assertEquals(0, counting.updates, "nothing admitted since the last sync");
+        assertFalse(instanceB.tryAcquire("user-0", 2, MINUTE));
+    }
+
+    private long count() {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(request_count), 0) FROM rate_limit_counters", Long.class);
+        return total != null ? total : 0;
+    }
+
+    private static final class CountingJdbcTemplate extends JdbcTemplate {
+        private int updates;
+        private int queries;
+
+        private CountingJdbcTemplate(JdbcTemplate delegate) {
+            super(delegate.getDataSource());
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            updates++;
+            return super.update(sql, args);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch, Object... args) {
+            queries++;
+            super.query(sql, rch, args);
+        }
+    }
+}
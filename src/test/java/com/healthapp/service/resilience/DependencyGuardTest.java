@@ -0,0 +1,214 @@
+package com.healthapp.service.resilience;
+
+import com.healthapp.config.ResilienceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGuardTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final ResilienceProperties.Dependency settings = new ResilienceProperties.Dependency();
+    private final AtomicInteger calls = new AtomicInteger();
+    private DependencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(50);
+        settings.setOpenDurationMs(30000);
+        settings.setHalfOpenProbes(2);
+        guard = new DependencyGuard("usda", settings, now::get);
+    }
+
+    @Test
+    void opensOnceTheWindowFailureRateReachesTheThreshold() {
+        succeed();
+        failCall();
+        failCall();
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState(), "below minimum calls");
+
+        succeed();
+
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertEquals(1, guard.openedCount());
+        assertEquals(2, guard.successCount());
+        assertEquals(2, guard.failureCount());
+    }
+
+    @Test
+    void rejectsWithoutCallingWhileOpen() {
+        openCircuit();
+        int before = calls.get();
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, this::succeed);
+
+        assertEquals(DependencyUnavailableException.Reason.CIRCUIT_OPEN, e.getReason());
+        assertEquals("usda", e.getDependency());
+        assertEquals(before, calls.get());
+        assertEquals(1, guard.rejectedOpenCount());
+    }
+
+    @Test
+    void halfOpenProbesCloseTheCircuitWithAFreshWindow() {
+        openCircuit();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        succeed();
+        assertEquals(DependencyGuard.State.HALF_OPEN, guard.getState());
+        succeed();
+
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        assertEquals(0.0, guard.getFailureRate());
+        failCall();
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState(), "old failures were forgotten");
+    }
+
+    @Test
+    void failedProbeReopensForAnotherOpenDuration() {
+        openCircuit();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        failCall();
+
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertEquals(2, guard.openedCount());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertThrows(DependencyUnavailableException.class, this::succeed);
+    }
+
+    @Test
+    void halfOpenLetsOnlyTheConfiguredProbesThrough() throws InterruptedException {
+        settings.setHalfOpenProbes(1);
+        openCircuit();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        CountDownLatch probing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread probe = new Thread(() -> guard.call(() -> {
+            probing.countDown();
+            await(release);
+            return "ok";
+        }, e -> true));
+        probe.start();
+        assertTrue(probing.await(5, TimeUnit.SECONDS));
+
+        assertThrows(DependencyUnavailableException.class, this::succeed);
+
+        release.countDown();
+        probe.join(5000);
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void slowCallsAndIgnoredErrorsAreJudgedByTheirOwnRules() {
+        settings.setSlowCallMs(1000);
+        for (int i = 0; i < 2; i++) {
+            guard.call(() -> now.addAndGet(TimeUnit.SECONDS.toNanos(2)), e -> true);
+        }
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalArgumentException.class, () -> guard.call(() -> {
+                throw new IllegalArgumentException("bad request");
+            }, e -> !(e instanceof IllegalArgumentException)));
+        }
+
+        assertEquals(2, guard.failureCount());
+        assertEquals(2, guard.successCount());
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    void routesWithTheirOwnSlowThresholdAreNotCountedSlowByTheDefault() {
+        settings.setSlowCallMs(1000);
+        settings.getRouteSlowCallMs().put("gpt-4.1", 5000L);
+        for (int i = 0; i < 4; i++) {
+            guard.call("gpt-4.1", () -> now.addAndGet(TimeUnit.SECONDS.toNanos(3)), e -> true);
+        }
+        assertEquals(4, guard.successCount());
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+
+        for (int i = 0; i < 4; i++) {
+            guard.call("gpt-4.1-mini", () -> now.addAndGet(TimeUnit.SECONDS.toNanos(3)), e -> true);
+        }
+        assertEquals(4, guard.failureCount());
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondMaxConcurrent() throws InterruptedException {
+        settings.setMaxConcurrent(1);
+        guard = new DependencyGuard("openai", settings, now::get);
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> guard.call(() -> {
+            inFlight.countDown();
+            await(release);
+            return "ok";
+        }, e -> true));
+        holder.start();
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+        assertEquals(1, guard.getActiveCalls());
+
+        DependencyUnavailableException e = assertThrows(DependencyUnavailableException.class, this::succeed);
+
+        assertEquals(DependencyUnavailableException.Reason.BULKHEAD_FULL, e.getReason());
+        assertEquals(1, guard.rejectedBulkheadCount());
+        release.countDown();
+        holder.join(5000);
+        assertEquals(0, guard.getActiveCalls());
+        assertEquals("ok", succeed());
+    }
+
+    @Test
+    void disabledGuardPassesEveryCallThrough() {
+        settings.setEnabled(false);
+        openCircuit();
+
+        assertEquals("ok", succeed());
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void findInWalksTheCauseChain() {
+        DependencyUnavailableException rejection =
+                new DependencyUnavailableException("openai", DependencyUnavailableException.Reason.CIRCUIT_OPEN);
+
+        assertSame(rejection, DependencyUnavailableException.findIn(
+                new RuntimeException("AI parse failed", new RuntimeException(rejection))).orElseThrow());
+        assertTrue(DependencyUnavailableException.findIn(new RuntimeException("boom")).isEmpty());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 4; i++) {
+            failCall();
+        }
+    }
+
+    private String succeed() {
+        return guard.call(() -> {
+            calls.incrementAndGet();
+            return "ok";
+        }, e -> true);
+    }
+
+    private void failCall() {
+        assertThrows(IllegalStateException.class, () -> guard.call(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("503 from dependency");
+        }, e -> true));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}